@@ -0,0 +1,150 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMSequenceDictionary;
+import org.broadinstitute.barclay.argparser.CommandLineException;
+import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.IntervalUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.iterators.IntervalLocusIterator;
+import org.broadinstitute.hellbender.utils.locusiterator.ColumnarLocusIterator;
+import org.broadinstitute.hellbender.utils.locusiterator.ColumnarPileup;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A {@link LocusWalker} for counting-style tools, which only need the base, base quality, mapping quality, strand and
+ * sample of each element of the pileup rather than the reads themselves.
+ *
+ * Loci are produced by a {@link ColumnarLocusIterator} instead of {@link org.broadinstitute.hellbender.utils.locusiterator.LocusIteratorByState},
+ * which walks each read only once and does not allocate per read or per locus, and are passed to
+ * {@link #apply(ColumnarPileup, ReferenceContext, FeatureContext)} as a {@link ColumnarPileup}. The loci visited, and the
+ * bases in the pileup at each locus, are the same as for a {@link LocusWalker} with the same intervals,
+ * {@link #includeDeletions()} and {@link #emitEmptyLoci()}, with these restrictions:
+ *
+ * -- downsampling is not supported, so {@link #MAX_DEPTH_PER_SAMPLE_NAME} must be 0
+ * -- {@link #includeNs()} is always {@code false}
+ * -- a pileup is only valid for the duration of the call to {@link #apply(ColumnarPileup, ReferenceContext, FeatureContext)}
+ */
+public abstract class ColumnarLocusWalker extends LocusWalker {
+
+    /**
+     * Columnar pileups never include skipped (N) regions.
+     */
+    @Override
+    public final boolean includeNs() {
+        return false;
+    }
+
+    /**
+     * Implementation of columnar locus-based traversal.
+     *
+     * Iterates over all positions covered by (filtered and transformed) reads, restricted to the intervals if any, or
+     * over every position of the intervals (or of the reference, if there are none) if {@link #emitEmptyLoci()} is
+     * {@code true}.
+     */
+    @Override
+    public void traverse() {
+        if (maxDepthPerSample != 0) {
+            throw new CommandLineException.BadArgumentValue(MAX_DEPTH_PER_SAMPLE_NAME, String.valueOf(maxDepthPerSample),
+                    "downsampling is not supported by this tool; set it to 0");
+        }
+        final CountingReadFilter countedFilter = makeReadFilter();
+        final SAMFileHeader header = getHeaderForReads();
+        // reads without a read group sample are assigned to the null sample
+        final Set<String> samples = new LinkedHashSet<>();
+        header.getReadGroups().forEach(readGroup -> samples.add(readGroup.getSample()));
+        samples.add(null);
+        final Iterator<ColumnarPileup> pileups = new ColumnarLocusIterator(
+                getTransformedReadStream(countedFilter).iterator(), new ArrayList<>(samples), header, includeDeletions());
+
+        final SAMSequenceDictionary dictionary = getBestAvailableSequenceDictionary();
+        if (emitEmptyLoci()) {
+            if (dictionary == null) {
+                throw new UserException.MissingReference("No sequence dictionary nor reference specified.  Therefore, emitting empty loci is impossible and this tool cannot be run.  The easiest fix here is to specify a reference dictionary.");
+            }
+            final List<SimpleInterval> intervals = hasUserSuppliedIntervals() ? userIntervals : IntervalUtils.getAllIntervalsForReference(dictionary);
+            traverseAllLoci(pileups, intervals, dictionary);
+        } else if (hasUserSuppliedIntervals()) {
+            traverseCoveredLoci(pileups, userIntervals, dictionary);
+        } else {
+            pileups.forEachRemaining(this::applyToPileup);
+        }
+        logger.info(countedFilter.getSummaryLine());
+    }
+
+    /**
+     * Apply the tool to every locus of the intervals, with an empty pileup at loci not covered by any read.
+     *
+     * Note that calling {@code hasNext()} on the pileup iterator invalidates the last pileup, so each pileup is only
+     * advanced past once it has been applied or skipped.
+     */
+    private void traverseAllLoci(final Iterator<ColumnarPileup> pileups, final List<SimpleInterval> intervals, final SAMSequenceDictionary dictionary) {
+        ColumnarPileup pileup = pileups.hasNext() ? pileups.next() : null;
+        final IntervalLocusIterator loci = new IntervalLocusIterator(intervals.iterator());
+        while (loci.hasNext()) {
+            final SimpleInterval locus = loci.next();
+            while (pileup != null && IntervalUtils.compareLocatables(pileup, locus, dictionary) < 0) {
+                pileup = pileups.hasNext() ? pileups.next() : null;
+            }
+            if (pileup != null && locus.overlaps(pileup)) {
+                applyToPileup(pileup);
+            } else {
+                applyToPileup(new ColumnarPileup(locus.getContig(), locus.getStart()));
+            }
+        }
+    }
+
+    /**
+     * Apply the tool to every covered locus inside the intervals.
+     */
+    private void traverseCoveredLoci(final Iterator<ColumnarPileup> pileups, final List<SimpleInterval> intervals, final SAMSequenceDictionary dictionary) {
+        final Iterator<SimpleInterval> intervalIterator = intervals.iterator();
+        SimpleInterval interval = intervalIterator.hasNext() ? intervalIterator.next() : null;
+        ColumnarPileup pileup = pileups.hasNext() ? pileups.next() : null;
+        while (pileup != null && interval != null) {
+            if (interval.overlaps(pileup)) {
+                applyToPileup(pileup);
+                pileup = pileups.hasNext() ? pileups.next() : null;
+            } else if (IntervalUtils.compareLocatables(interval, pileup, dictionary) < 0) {
+                interval = intervalIterator.hasNext() ? intervalIterator.next() : null;
+            } else {
+                pileup = pileups.hasNext() ? pileups.next() : null;
+            }
+        }
+    }
+
+    private void applyToPileup(final ColumnarPileup pileup) {
+        final SimpleInterval locus = pileup.getLocation();
+        apply(pileup, new ReferenceContext(reference, locus), new FeatureContext(features, locus));
+        progressMeter.update(locus);
+    }
+
+    /**
+     * Not used by columnar traversal; tools implement {@link #apply(ColumnarPileup, ReferenceContext, FeatureContext)} instead.
+     */
+    @Override
+    public final void apply(final AlignmentContext alignmentContext, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+        throw new GATKException.ShouldNeverReachHereException("ColumnarLocusWalker does not produce AlignmentContexts");
+    }
+
+    /**
+     * Process the pileup at an individual locus (with optional contextual information). Must be implemented by tool authors.
+     *
+     * @param pileup the pileup at the current locus, which is empty at loci not covered by any read. Only valid for the
+     *               duration of this call; tools must copy out any data they need to keep.
+     * @param referenceContext Reference bases spanning the current locus. Will be an empty, but non-null, context object
+     *                         if there is no backing source of reference data (in which case all queries on it will return
+     *                         an empty array/iterator).
+     * @param featureContext Features spanning the current locus. Will be an empty, but non-null, context object
+     *                       if there is no backing source of Feature data (in which case all queries on it will return an
+     *                       empty List).
+     */
+    public abstract void apply(ColumnarPileup pileup, ReferenceContext referenceContext, FeatureContext featureContext);
+}
@@ -375,6 +375,24 @@ public final class FeatureManager implements AutoCloseable {
         return dataSource.iterator();
     }
 
+    /**
+     * Same as {@link #getFeatureIterator(FeatureInput)}, except that the iteration is restricted to the features
+     * overlapping the given intervals. The intervals remain in effect for subsequent calls to
+     * {@link #getFeatureIterator(FeatureInput)} on the same {@link FeatureInput}, but do not affect queries.
+     *
+     * @param featureDescriptor FeatureInput argument from our tool representing the Feature source to query
+     * @param intervals non-overlapping intervals sorted by increasing start position to restrict the iteration to;
+     *                  {@code null} or empty for an unrestricted iteration
+     * @param <T> type of Feature in the source represented by featureDescriptor
+     * @return never {@code null}, a iterator to all the features in the backing data source overlapping the intervals.
+     * @throws GATKException if the feature-descriptor is not found in the manager or is {@code null}.
+     */
+    public <T extends Feature> Iterator<T> getFeatureIterator(final FeatureInput<T> featureDescriptor, final List<SimpleInterval> intervals) {
+        final FeatureDataSource<T> dataSource = lookupDataSource(featureDescriptor);
+        dataSource.setIntervalsForTraversal(intervals);
+        return dataSource.iterator();
+    }
+
     /**
      * Get the header associated with a particular FeatureInput
      *
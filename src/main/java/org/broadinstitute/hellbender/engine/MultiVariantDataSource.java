@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.engine;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.util.CloseableIterator;
@@ -11,6 +12,7 @@ import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.SequenceDictionaryUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
@@ -20,6 +22,14 @@ import org.broadinstitute.hellbender.utils.variant.VcfUtils;
 
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -41,6 +51,11 @@ import java.util.stream.Collectors;
 public final class MultiVariantDataSource implements GATKDataSource<VariantContext>, AutoCloseable {
     private static final Logger logger = LogManager.getLogger(MultiVariantDataSource.class);
 
+    /**
+     * How long to wait for the tasks opening the inputs to stop after one of them fails.
+     */
+    private static final long READER_INITIALIZATION_SHUTDOWN_TIMEOUT_SECONDS = 60;
+
     /**
      * List of FeatureDataSource objects aggregated by this MultiVariantDataSource
      */
@@ -82,13 +97,37 @@ public final class MultiVariantDataSource implements GATKDataSource<VariantConte
      * @param reference reference to use when creating FeatureDataSources, may be null, only needed by GenomicsDB
      */
     public MultiVariantDataSource(final List<FeatureInput<VariantContext>> featureInputs, final int queryLookaheadBases, final int cloudPrefetchBuffer, final int cloudIndexPrefetchBuffer, final Path reference, final boolean skipDictionaryValidation) {
+        this(featureInputs, queryLookaheadBases, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, reference, skipDictionaryValidation, 1);
+    }
+
+    /**
+     * Creates a MultiVariantDataSource backed by the provided FeatureInputs. We will look ahead the specified number of bases
+     * during queries that produce cache misses.
+     *
+     * When readerInitializationThreads is greater than 1, the individual FeatureDataSources (including their headers and
+     * indices) are opened concurrently using a bounded pool of that many threads. The resulting data sources are always
+     * kept in the order of the provided FeatureInputs, so the merged header does not depend on the number of threads.
+     *
+     * @param featureInputs List of FeatureInput<VariantContext>> specifying sources of VariantContexts
+     * @param queryLookaheadBases look ahead this many bases during queries that produce cache misses
+     * @param cloudPrefetchBuffer  MB size of caching/prefetching wrapper for the data, if on Google Cloud (0 to disable).
+     * @param cloudIndexPrefetchBuffer MB size of caching/prefetching wrapper for the index, if on Google Cloud (0 to disable).
+     * @param reference reference to use when creating FeatureDataSources, may be null, only needed by GenomicsDB
+     * @param readerInitializationThreads number of threads to use when opening the individual data sources (must be >= 1)
+     */
+    public MultiVariantDataSource(final List<FeatureInput<VariantContext>> featureInputs, final int queryLookaheadBases, final int cloudPrefetchBuffer, final int cloudIndexPrefetchBuffer, final Path reference, final boolean skipDictionaryValidation, final int readerInitializationThreads) {
         Utils.validateArg(queryLookaheadBases >= 0, "Query lookahead bases must be >= 0");
         Utils.validateArg(featureInputs != null && featureInputs.size() > 0, "FeatureInputs list must be non-null and non-empty");
+        Utils.validateArg(readerInitializationThreads >= 1, "Reader initialization threads must be >= 1");
 
-        featureInputs.forEach(
-                featureInput -> featureDataSources.add(
-                        new FeatureDataSource<>(featureInput, queryLookaheadBases, VariantContext.class, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
-                                                reference, true)));
+        final Function<FeatureInput<VariantContext>, FeatureDataSource<VariantContext>> openDataSource =
+                featureInput -> new FeatureDataSource<>(featureInput, queryLookaheadBases, VariantContext.class, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
+                                                        reference, true);
+        if (readerInitializationThreads > 1 && featureInputs.size() > 1) {
+            openDataSourcesInParallel(featureInputs, openDataSource, readerInitializationThreads);
+        } else {
+            featureInputs.forEach(featureInput -> featureDataSources.add(openDataSource.apply(featureInput)));
+        }
 
         // Ensure that the merged header and sequence dictionary that we use are in sync with each
         // other, and reflect the actual dictionaries used to do validation:
@@ -111,6 +150,107 @@ public final class MultiVariantDataSource implements GATKDataSource<VariantConte
 
     }
 
+    /**
+     * Open a FeatureDataSource for each input using a bounded thread pool. Each task also reads the header and
+     * resolves the sequence dictionary (which may require loading the index), since on high-latency file systems
+     * that is where most of the startup time goes. Data sources are added in input order regardless of the order
+     * in which the tasks complete. If any input fails to open, or this thread is interrupted, the remaining tasks
+     * are cancelled, every data source that was opened (including those that finish opening afterwards) is closed,
+     * and the original exception is rethrown.
+     */
+    private void openDataSourcesInParallel(
+            final List<FeatureInput<VariantContext>> featureInputs,
+            final Function<FeatureInput<VariantContext>, FeatureDataSource<VariantContext>> openDataSource,
+            final int readerInitializationThreads) {
+        final int numThreads = Math.min(readerInitializationThreads, featureInputs.size());
+        logger.info(String.format("Initializing %d variant inputs using %d threads", featureInputs.size(), numThreads));
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("variantReaderInitializer-thread-%d")
+                .setDaemon(true)
+                .build();
+        final ExecutorService executorService = Executors.newFixedThreadPool(numThreads, threadFactory);
+
+        // Every data source opened by a task, guarded by its own lock. Once initialization has been abandoned,
+        // tasks close the data sources they open rather than adding them here.
+        final List<FeatureDataSource<VariantContext>> openedDataSources = new ArrayList<>(featureInputs.size());
+        final AtomicBoolean abandoned = new AtomicBoolean(false);
+
+        final List<Future<FeatureDataSource<VariantContext>>> futures = new ArrayList<>(featureInputs.size());
+        try {
+            for (final FeatureInput<VariantContext> featureInput : featureInputs) {
+                futures.add(executorService.submit(() -> {
+                    final FeatureDataSource<VariantContext> dataSource = openDataSource.apply(featureInput);
+                    synchronized (openedDataSources) {
+                        if (abandoned.get()) {
+                            dataSource.close();
+                            throw new CancellationException("Initialization of variant inputs was abandoned");
+                        }
+                        openedDataSources.add(dataSource);
+                    }
+                    getHeaderWithUpdatedSequenceDictionary(dataSource);
+                    return dataSource;
+                }));
+            }
+
+            RuntimeException failure = null;
+            for (final Future<FeatureDataSource<VariantContext>> future : futures) {
+                try {
+                    featureDataSources.add(future.get());
+                } catch (final ExecutionException e) {
+                    failure = e.getCause() instanceof RuntimeException ?
+                            (RuntimeException) e.getCause() :
+                            new GATKException("Failure while initializing variant input", e.getCause());
+                    break;
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = new GATKException("Interrupted while initializing variant inputs", e);
+                    break;
+                }
+            }
+            if (failure != null) {
+                featureDataSources.clear();
+                abandonOpeningDataSources(executorService, futures, openedDataSources, abandoned);
+                throw failure;
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Cancel the tasks opening data sources, wait (for a bounded time) for the running ones to stop, and close every
+     * data source that was opened. Tasks that are still running after the wait close their own data source.
+     */
+    private static void abandonOpeningDataSources(
+            final ExecutorService executorService,
+            final List<Future<FeatureDataSource<VariantContext>>> futures,
+            final List<FeatureDataSource<VariantContext>> openedDataSources,
+            final AtomicBoolean abandoned) {
+        futures.forEach(future -> future.cancel(true));
+        executorService.shutdownNow();
+
+        // Clear the interrupt flag while waiting, so that an interrupt of this thread does not cut the wait short,
+        // and restore it afterwards
+        final boolean wasInterrupted = Thread.interrupted();
+        try {
+            if (!executorService.awaitTermination(READER_INITIALIZATION_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Timed out waiting for variant input initialization tasks to stop");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (wasInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized (openedDataSources) {
+            abandoned.set(true);
+            openedDataSources.forEach(FeatureDataSource::close);
+            openedDataSources.clear();
+        }
+    }
+
     /**
      * Returns the aggregate sequence dictionary for this source of Variants. Uses the dictionary resulting
      * from merging available individual VCF headers (if present) for variant inputs.
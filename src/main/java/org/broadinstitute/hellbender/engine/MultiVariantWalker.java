@@ -3,6 +3,8 @@ package org.broadinstitute.hellbender.engine;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.barclay.argparser.Advanced;
+import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.argumentcollections.MultiVariantInputArgumentCollection;
@@ -25,9 +27,19 @@ import java.util.Spliterator;
  */
 public abstract class MultiVariantWalker extends VariantWalkerBase {
 
+    public static final String VARIANT_READER_INITIALIZER_THREADS_LONG_NAME = "variant-reader-initializer-threads";
+
     @ArgumentCollection
     protected MultiVariantInputArgumentCollection multiVariantInputArgumentCollection = getMultiVariantInputArgumentCollection();
 
+    @Advanced
+    @Argument(fullName = VARIANT_READER_INITIALIZER_THREADS_LONG_NAME,
+            doc = "How many simultaneous threads to use when opening the driving variant inputs and reading their headers " +
+                    "and indices; higher values may improve startup time for many inputs when file system latency is an issue.",
+            optional = true,
+            minValue = 1)
+    protected int variantReaderInitializerThreads = 1;
+
     // NOTE: keeping the driving source of variants separate from other, supplementary FeatureInputs in our FeatureManager
     // in GATKTool we do add the driving source to the Feature manager but we do need to treat it differently and thus this
     // field.
@@ -96,7 +108,7 @@ public abstract class MultiVariantWalker extends VariantWalkerBase {
         // Create a (MultiVariantDataSource) FeatureDataSource for the driving variants inputs using the
         // cache lookahead value from getDrivingVariantCacheLookAheadBases()
         drivingVariants = new MultiVariantDataSource(drivingVariantsFeatureInputs, getDrivingVariantCacheLookAheadBases(), cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
-                                                     referenceArguments.getReferencePath(), skipDictionaryValidation);
+                                                     referenceArguments.getReferencePath(), skipDictionaryValidation, variantReaderInitializerThreads);
 
         // Note: the intervals for the driving variants are set in onStartup()
     }
@@ -8,8 +8,11 @@ import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 
+import java.util.List;
 import java.util.Spliterator;
+import java.util.stream.Stream;
 
 /**
  * A VariantWalker is a tool that processes a variant at a time from a source of variants, with
@@ -17,7 +20,7 @@ import java.util.Spliterator;
  * of Features.
  *
  * VariantWalker authors must implement the {@link #apply} method to process each variant, and may optionally implement
- * {@link #onTraversalStart}, {@link #onTraversalSuccess} and/or {@link #closeTool}.
+ * {@link #onTraversalStart}, {@link #onDrivingVariantsTraversed}, {@link #onTraversalSuccess} and/or {@link #closeTool}.
  */
 public abstract class VariantWalker extends VariantWalkerBase {
 
@@ -65,6 +68,17 @@ public abstract class VariantWalker extends VariantWalkerBase {
         // Note: the intervals for the driving variants are set in onStartup()
     }
 
+    /**
+     * Restricts the traversal of the driving variants to the records overlapping the given intervals. Tools may call this
+     * from {@link #onTraversalStart} when they can determine up front that only records in these intervals can affect
+     * their output. The intervals replace any intervals supplied by the user, so they must lie within them.
+     *
+     * @param intervals sorted, non-overlapping intervals to traverse
+     */
+    protected final void setDrivingVariantsTraversalIntervals(final List<SimpleInterval> intervals) {
+        drivingVariants.setIntervalsForTraversal(intervals);
+    }
+
     /**
      * Returns the feature input for the driving variants file.
      */
@@ -96,18 +110,45 @@ public abstract class VariantWalker extends VariantWalkerBase {
      */
     @Override
     public void traverse() {
-        final CountingReadFilter readFilter = makeReadFilter();
         // Process each variant in the input stream.
-        getTransformedVariantStream( makeVariantFilter() )
-                .forEach(variant -> {
-                    final SimpleInterval variantInterval = new SimpleInterval(variant);
-                    apply(variant,
-                            new ReadsContext(reads, variantInterval, readFilter),
-                            new ReferenceContext(reference, variantInterval),
-                            new FeatureContext(features, variantInterval));
-
-                    progressMeter.update(variantInterval);
-                });
+        traverseVariants(getTransformedVariantStream( makeVariantFilter() ), makeReadFilter());
+        onDrivingVariantsTraversed();
+    }
+
+    private void traverseVariants(final Stream<VariantContext> variants, final CountingReadFilter readFilter) {
+        variants.forEach(variant -> {
+            final SimpleInterval variantInterval = new SimpleInterval(variant);
+            apply(variant,
+                    new ReadsContext(reads, variantInterval, readFilter),
+                    new ReferenceContext(reference, variantInterval),
+                    new FeatureContext(features, variantInterval));
+
+            progressMeter.update(variantInterval);
+        });
+    }
+
+    /**
+     * Called by {@link #traverse()} once all of the driving variants have been processed, while the traversal is still
+     * in progress. Tools which process further sources of variants with the same reference, reads and features may
+     * override this to traverse them with {@link #traverseAdditionalVariants}. The default implementation does nothing.
+     */
+    protected void onDrivingVariantsTraversed() { }
+
+    /**
+     * Traverse a source of variants other than the driving variants in the same way as the driving variants: restricted
+     * to the intervals supplied by the user, transformed and filtered with the tool's variant transformers and filters,
+     * and passed to {@link #apply} with reads, reference and feature contexts from the tool's data sources. May only be
+     * called during the traversal, i.e. from {@link #onDrivingVariantsTraversed()}.
+     *
+     * @param variants the variants to traverse, which the caller remains responsible for closing
+     */
+    protected final void traverseAdditionalVariants(final FeatureDataSource<VariantContext> variants) {
+        Utils.nonNull(variants);
+        if ( hasUserSuppliedIntervals() ) {
+            variants.setIntervalsForTraversal(userIntervals);
+        }
+        traverseVariants(getTransformedVariantStream(variants.spliterator(), makePreVariantFilterTransformer(),
+                makeVariantFilter(), makePostVariantFilterTransformer()), makeReadFilter());
     }
 
     /**
@@ -1,9 +1,13 @@
 package org.broadinstitute.hellbender.engine.spark;
 
+import htsjdk.samtools.SAMFileHeader;
 import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.Hidden;
+import org.broadinstitute.hellbender.utils.downsampling.BoundedPositionalDownsampler;
+import org.broadinstitute.hellbender.utils.downsampling.PositionalDownsampler;
+import org.broadinstitute.hellbender.utils.downsampling.ReadsDownsampler;
 
 import java.io.Serializable;
 
@@ -16,6 +20,8 @@ public class AssemblyRegionArgumentCollection implements Serializable {
     public static final String MAX_ASSEMBLY_LONG_NAME = "max-assembly-region-size";
     public static final String ASSEMBLY_PADDING_LONG_NAME = "assembly-region-padding";
     public static final String MAX_STARTS_LONG_NAME = "max-reads-per-alignment-start";
+    public static final String MAX_READS_PER_WINDOW_LONG_NAME = "max-reads-per-downsampling-window";
+    public static final String DOWNSAMPLING_WINDOW_SIZE_LONG_NAME = "downsampling-window-size";
     public static final String THRESHOLD_LONG_NAME = "active-probability-threshold";
     public static final String PROPAGATION_LONG_NAME = "max-prob-propagation-distance";
 
@@ -123,6 +129,19 @@ public class AssemblyRegionArgumentCollection implements Serializable {
     @Argument(fullName = MAX_STARTS_LONG_NAME, doc = "Maximum number of reads to retain per alignment start position. Reads above this threshold will be downsampled. Set to 0 to disable.", optional = true)
     public int maxReadsPerAlignmentStart = defaultMaxReadsPerAlignmentStart();
 
+    /**
+     * Puts a hard bound on the number of reads held in memory while downsampling extreme-depth regions (amplicons,
+     * mitochondria, satellites), in addition to the limit on reads per alignment start. Reads are selected by a
+     * deterministic hash of their names, so results are reproducible.
+     */
+    @Advanced
+    @Argument(fullName = MAX_READS_PER_WINDOW_LONG_NAME, doc = "Maximum number of reads to retain per window of --" + DOWNSAMPLING_WINDOW_SIZE_LONG_NAME + " bases, selected by read name hash. Set to 0 to disable.", optional = true, minValue = 0)
+    public int maxReadsPerDownsamplingWindow = 0;
+
+    @Advanced
+    @Argument(fullName = DOWNSAMPLING_WINDOW_SIZE_LONG_NAME, doc = "Size in bases of the windows over which --" + MAX_READS_PER_WINDOW_LONG_NAME + " applies", optional = true, minValue = 1)
+    public int downsamplingWindowSize = BoundedPositionalDownsampler.DEFAULT_WINDOW_SIZE;
+
     @Hidden
     @Argument(fullName = "enable-legacy-assembly-region-trimming", doc = "Revert changes to the assembly region windows, this will result in less consistent results for assembly window boundaries", optional = true)
     public boolean enableLegacyAssemblyRegionTrimming = false;
@@ -157,6 +176,18 @@ public class AssemblyRegionArgumentCollection implements Serializable {
      */
     protected int defaultMaxProbPropagationDistance() { return DEFAULT_MAX_PROB_PROPAGATION_DISTANCE; }
 
+    /**
+     * @return a new downsampler honoring {@link #maxReadsPerAlignmentStart} and {@link #maxReadsPerDownsamplingWindow},
+     *         or null if reads are not downsampled
+     */
+    public ReadsDownsampler createDownsampler(final SAMFileHeader header) {
+        if ( maxReadsPerDownsamplingWindow > 0 ) {
+            return new BoundedPositionalDownsampler(maxReadsPerAlignmentStart, maxReadsPerDownsamplingWindow,
+                    downsamplingWindowSize, BoundedPositionalDownsampler.DEFAULT_SEED, header);
+        }
+        return maxReadsPerAlignmentStart > 0 ? new PositionalDownsampler(maxReadsPerAlignmentStart, header) : null;
+    }
+
     public void validate() {
         if ( minAssemblyRegionSize <= 0 || maxAssemblyRegionSize <= 0 ) {
             throw new CommandLineException.BadArgumentValue("min/max assembly region size must be > 0");
@@ -2,6 +2,9 @@ package org.broadinstitute.hellbender.engine.spark;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.serializers.FieldSerializer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
@@ -15,6 +18,7 @@ import org.apache.spark.serializer.KryoRegistrator;
 import org.bdgenomics.adam.serialization.ADAMKryoRegistrator;
 import org.broadinstitute.hellbender.tools.funcotator.FuncotationMap;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotation;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotationSchema;
 import org.broadinstitute.hellbender.tools.funcotator.metadata.VcfFuncotationMetadata;
 import org.broadinstitute.hellbender.tools.spark.transforms.markduplicates.MarkDuplicatesSparkUtils;
 import org.broadinstitute.hellbender.utils.Utils;
@@ -30,6 +34,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 
 /**
  * GATKRegistrator registers Serializers for our project. We need a JsonSerializer for the Google Genomics classes
@@ -56,6 +61,24 @@ public class GATKRegistrator implements KryoRegistrator {
                 return TableFuncotation.create(new LinkedHashMap<>(), Allele.UNSPECIFIED_ALTERNATE_ALLELE, "TEMP", null);
             }
         });
+        // Schemas are immutable and shared, so copies share them too, and deserialized schemas are interned again:
+        kryo.register(TableFuncotationSchema.class, new Serializer<TableFuncotationSchema>(false, true) {
+            @Override
+            public void write(final Kryo kryo, final Output output, final TableFuncotationSchema schema) {
+                output.writeInt(schema.size(), true);
+                schema.getFieldNames().forEach(output::writeString);
+            }
+
+            @Override
+            public TableFuncotationSchema read(final Kryo kryo, final Input input, final Class<TableFuncotationSchema> type) {
+                final int size = input.readInt(true);
+                final List<String> fieldNames = new ArrayList<>(size);
+                for ( int i = 0; i < size; ++i ) {
+                    fieldNames.add(input.readString());
+                }
+                return TableFuncotationSchema.of(fieldNames);
+            }
+        });
         registration = kryo.register(VcfFuncotationMetadata.class);
         registration.setInstantiator(new ObjectInstantiator<VcfFuncotationMetadata>() {
             public VcfFuncotationMetadata newInstance() {
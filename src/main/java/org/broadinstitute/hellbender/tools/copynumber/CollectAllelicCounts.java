@@ -7,9 +7,8 @@ import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.programgroups.CoverageAnalysisProgramGroup;
-import org.broadinstitute.hellbender.engine.AlignmentContext;
+import org.broadinstitute.hellbender.engine.ColumnarLocusWalker;
 import org.broadinstitute.hellbender.engine.FeatureContext;
-import org.broadinstitute.hellbender.engine.LocusWalker;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.engine.filters.MappingQualityReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
@@ -21,6 +20,7 @@ import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.Metadata;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.MetadataUtils;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SampleLocatableMetadata;
 import org.broadinstitute.hellbender.utils.Nucleotide;
+import org.broadinstitute.hellbender.utils.locusiterator.ColumnarPileup;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -77,7 +77,7 @@ import java.util.List;
         programGroup = CoverageAnalysisProgramGroup.class
 )
 @DocumentedFeature
-public final class CollectAllelicCounts extends LocusWalker {
+public final class CollectAllelicCounts extends ColumnarLocusWalker {
     private static final int DEFAULT_MINIMUM_MAPPING_QUALITY = 30;
     static final int DEFAULT_MINIMUM_BASE_QUALITY = 20;
 
@@ -158,8 +158,8 @@ public final class CollectAllelicCounts extends LocusWalker {
     }
 
     @Override
-    public void apply(AlignmentContext alignmentContext, ReferenceContext referenceContext, FeatureContext featureContext) {
+    public void apply(ColumnarPileup pileup, ReferenceContext referenceContext, FeatureContext featureContext) {
         final byte refAsByte = referenceContext.getBase();
-        allelicCountCollector.collectAtLocus(Nucleotide.decode(refAsByte), alignmentContext.getBasePileup(), alignmentContext.getLocation(), minimumBaseQuality);
+        allelicCountCollector.collectAtLocus(Nucleotide.decode(refAsByte), pileup, pileup, minimumBaseQuality);
     }
 }
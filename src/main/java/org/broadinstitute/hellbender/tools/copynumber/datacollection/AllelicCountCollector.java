@@ -9,6 +9,7 @@ import org.broadinstitute.hellbender.tools.copynumber.formats.records.AllelicCou
 import org.broadinstitute.hellbender.utils.Nucleotide;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.locusiterator.ColumnarPileup;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 
@@ -64,6 +65,41 @@ public final class AllelicCountCollector {
                 .filter(r -> r.getQual() >= minBaseQuality)
                 .forEach(r -> nucleotideCounter.add(r.getBase()));
 
+        addAllelicCount(refBase, nucleotideCounter, locus);
+    }
+
+    /**
+     * Add counts to this class for a specific locus, from a {@link ColumnarPileup}.  Equivalent to
+     * {@link #collectAtLocus(Nucleotide, ReadPileup, Locatable, int)}.
+     *
+     * @param refBase single nucleotide of the reference.  Not {@code null}
+     * @param pileup associated pileup at the locus.  Not {@code null}
+     * @param locus position in genome to collect alellic counts.  Not {@code null}
+     * @param minBaseQuality minimum base quality in the read for that read to count at that position.  Must be greater than or equal to 0.
+     */
+    public void collectAtLocus(final Nucleotide refBase, final ColumnarPileup pileup, final Locatable locus, final int minBaseQuality) {
+        Utils.nonNull(refBase);
+        Utils.nonNull(pileup);
+        Utils.nonNull(locus);
+        ParamUtils.isPositiveOrZero(minBaseQuality, "Minimum base quality must be zero or higher.");
+
+        if (!BASES.contains(refBase)) {
+            logger.warn(String.format("The reference position at %s has an unknown base call (value: %s). Skipping...",
+                    locus, refBase.toString()));
+            return;
+        }
+
+        final Nucleotide.Counter nucleotideCounter = new Nucleotide.Counter();
+        for (int i = 0; i < pileup.size(); i++) {
+            if (!pileup.isDeletion(i) && pileup.getQual(i) >= minBaseQuality) {
+                nucleotideCounter.add(pileup.getBase(i));
+            }
+        }
+
+        addAllelicCount(refBase, nucleotideCounter, locus);
+    }
+
+    private void addAllelicCount(final Nucleotide refBase, final Nucleotide.Counter nucleotideCounter, final Locatable locus) {
         final int totalBaseCount = BASES.stream().mapToInt(b -> (int) nucleotideCounter.get(b)).sum();  //only include total ACGT counts (exclude N, etc.)
         final int refReadCount = (int) nucleotideCounter.get(refBase);
         final int altReadCount = totalBaseCount - refReadCount;                                         //we take alt = total - ref instead of the actual alt count
@@ -0,0 +1,82 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeTranscriptFastaCache;
+import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Creates a cache of the GENCODE transcript FASTA file of a Funcotator data source, which lets {@link Funcotator} and
+ * {@link FuncotateSegments} initialize the GENCODE data source much faster.
+ *
+ * <p>
+ *     The transcript FASTA is the file given by the <i>gencode_fasta_path</i> property of the GENCODE data source
+ *     config file.  By default the cache is written next to it, with the extension <i>.txcache</i> appended, which is
+ *     where Funcotator looks for it.  The cache must be recreated if the transcript FASTA changes; Funcotator ignores
+ *     a cache that was created from a different FASTA file.
+ * </p>
+ *
+ * <h3>Usage example</h3>
+ * <pre>
+ *   ./gatk CreateGencodeTranscriptFastaCache \
+ *   -I dataSourcesFolder/gencode/hg19/gencode.v19.pc_transcripts.fa
+ * </pre>
+ */
+@CommandLineProgramProperties(
+        summary = "Creates a cache of the GENCODE transcript FASTA file of a Funcotator data source, which speeds up the initialization of the data source.",
+        oneLineSummary = "Creates a cache of a GENCODE transcript FASTA file for Funcotator.",
+        programGroup = VariantEvaluationProgramGroup.class
+)
+@DocumentedFeature
+public class CreateGencodeTranscriptFastaCache extends CommandLineProgram {
+
+    private static final Logger logger = LogManager.getLogger(CreateGencodeTranscriptFastaCache.class);
+
+    @Argument(
+            shortName = StandardArgumentDefinitions.INPUT_SHORT_NAME,
+            fullName  = StandardArgumentDefinitions.INPUT_LONG_NAME,
+            doc = "GENCODE transcript FASTA file to cache.  Must have an index and a sequence dictionary.")
+    private GATKPath transcriptFasta;
+
+    @Argument(
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            fullName  = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            doc = "Output location for the cache.  Defaults to the transcript FASTA path with " + GencodeTranscriptFastaCache.FILE_EXTENSION + " appended.",
+            optional = true)
+    private GATKPath outputPath;
+
+    @Override
+    protected Object doWork() {
+        final Path fastaPath = transcriptFasta.toPath();
+        final Path cachePath = outputPath == null ? GencodeTranscriptFastaCache.getDefaultPath(fastaPath) : outputPath.toPath();
+
+        final long fastaSize;
+        final long fastaLastModified;
+        try {
+            fastaSize = Files.size(fastaPath);
+            fastaLastModified = Files.getLastModifiedTime(fastaPath).toMillis();
+        }
+        catch ( final IOException ex ) {
+            throw new UserException.CouldNotReadInputFile(fastaPath, "could not get the size and modification time of the transcript FASTA file", ex);
+        }
+
+        logger.info("Writing Gencode transcript FASTA cache to " + cachePath.toUri());
+        try ( final ReferenceDataSource transcriptFastaReferenceDataSource = ReferenceDataSource.of(fastaPath) ) {
+            GencodeTranscriptFastaCache.create(transcriptFastaReferenceDataSource, fastaSize, fastaLastModified, cachePath);
+            logger.info("Cached " + transcriptFastaReferenceDataSource.getSequenceDictionary().size() + " transcript sequences.");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.DataSourceUtils;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvIndex;
+import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
+
+import java.nio.file.Path;
+
+/**
+ * Creates an index of a simple XSV (gene name or transcript ID keyed) Funcotator data source, which lets
+ * {@link Funcotator} look up annotations in the data source without reading the whole file into memory.
+ *
+ * <p>
+ *     The input is the config file of a data source of type <i>simpleXSV</i>.  By default the index is written next to
+ *     the data source file given by the <i>src_file</i> property of the config, with the extension <i>.xsvidx</i>
+ *     appended, which is where Funcotator looks for it.  The index must be on the local file system to be used.  It
+ *     must be recreated if the data source file or its config changes; Funcotator ignores an index that does not match
+ *     the data source.
+ * </p>
+ *
+ * <h3>Usage example</h3>
+ * <pre>
+ *   ./gatk CreateSimpleKeyXsvIndex \
+ *   -I dataSourcesFolder/achilles/hg19/achilles.config
+ * </pre>
+ */
+@CommandLineProgramProperties(
+        summary = "Creates an index of a simple XSV Funcotator data source, which lets Funcotator look up annotations without reading the whole data source into memory.",
+        oneLineSummary = "Creates an index of a simple XSV data source for Funcotator.",
+        programGroup = VariantEvaluationProgramGroup.class
+)
+@DocumentedFeature
+public class CreateSimpleKeyXsvIndex extends CommandLineProgram {
+
+    private static final Logger logger = LogManager.getLogger(CreateSimpleKeyXsvIndex.class);
+
+    @Argument(
+            shortName = StandardArgumentDefinitions.INPUT_SHORT_NAME,
+            fullName  = StandardArgumentDefinitions.INPUT_LONG_NAME,
+            doc = "Config file of the simple XSV data source to index.")
+    private GATKPath configFile;
+
+    @Argument(
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            fullName  = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            doc = "Output location for the index.  Defaults to the data source file path with " + SimpleKeyXsvIndex.FILE_EXTENSION + " appended.",
+            optional = true)
+    private GATKPath outputPath;
+
+    @Override
+    protected Object doWork() {
+        final Path indexPath = DataSourceUtils.createSimpleXsvDataSourceIndex(configFile.toPath(), outputPath == null ? null : outputPath.toPath());
+        logger.info("Wrote simple XSV data source index to " + indexPath.toUri());
+        return true;
+    }
+}
@@ -199,12 +199,32 @@ public abstract class DataSourceFuncotationFactory implements Closeable {
         Utils.nonNull(referenceContext);
         Utils.nonNull(featureContext);
 
-        final List<Funcotation> outputFuncotations;
-
         // Query this funcotation factory to get the list of overlapping features.
         // NOTE: This will only get features that are LOCATABLE!
         //       This corresponds to requiresFeatures() returning `True`.
-        final List<Feature> featureList = getFeaturesFromFeatureContext(featureContext);
+        return createFuncotationsFromFeatures(variant, referenceContext, getFeaturesFromFeatureContext(featureContext), gencodeFuncotations);
+    }
+
+    /**
+     * Creates a {@link List} of {@link Funcotation} for the given {@code variant}, {@code referenceContext}, and the
+     * {@code featureList} already queried for the variant by {@link #getFeaturesFromFeatureContext(FeatureContext)}.
+     * This does not access the {@link FeatureContext}, so it may be called on a different thread from the one on which
+     * the features were queried.
+     * Accounts for override values passed into the constructor as well.
+     * @param variant {@link VariantContext} to annotate.  Never {@code null}.
+     * @param referenceContext {@link ReferenceContext} corresponding to the given {@code variant}.  Never {@code null}.
+     * @param featureList {@link List} of {@link Feature} returned by {@link #getFeaturesFromFeatureContext(FeatureContext)} for the variant.  Never {@code null}.
+     * @param gencodeFuncotations {@link List} of {@link GencodeFuncotation} that have already been created for the given {@code variant}/{@code referenceContext}/{@code featureList}.
+     *   {@code null} is acceptable if there are no corresponding gencode funcotations.
+     * @return {@link List} of {@link Funcotation} given the {@code variant}, {@code referenceContext}, and {@code featureList}.  This should never be empty.
+     */
+    public List<Funcotation> createFuncotationsFromFeatures(final VariantContext variant, final ReferenceContext referenceContext, final List<Feature> featureList, final List<GencodeFuncotation> gencodeFuncotations) {
+
+        Utils.nonNull(variant);
+        Utils.nonNull(referenceContext);
+        Utils.nonNull(featureList);
+
+        final List<Funcotation> outputFuncotations;
 
         // If our featureList is compatible with this DataSourceFuncotationFactory, then we make our funcotations:
         if ( isFeatureListCompatible(featureList) ) {
@@ -224,7 +244,13 @@ public abstract class DataSourceFuncotationFactory implements Closeable {
         }
     }
 
-    private List<Feature> getFeaturesFromFeatureContext(final FeatureContext featureContext) {
+    /**
+     * Queries the given {@link FeatureContext} for the features this {@link DataSourceFuncotationFactory} annotates with.
+     * @param featureContext {@link FeatureContext} corresponding to the variant to annotate.  Never {@code null}.
+     * @return The {@link List} of {@link Feature} overlapping the {@code featureContext}, or an empty {@link List} if
+     *         this {@link DataSourceFuncotationFactory} does not require features.
+     */
+    public List<Feature> getFeaturesFromFeatureContext(final FeatureContext featureContext) {
         return requiresFeatures() ?
                     queryFeaturesFromFeatureContext(featureContext) :
                     Collections.emptyList();
@@ -290,7 +316,31 @@ public abstract class DataSourceFuncotationFactory implements Closeable {
     private List<Feature> queryFeaturesFromFeatureContext(final FeatureContext featureContext) {
         final List<Feature> features;
 
-        SimpleInterval queryInterval = featureContext.getInterval();
+        final SimpleInterval queryInterval = createFeatureQueryInterval(featureContext.getInterval());
+
+        // If the interval has not changed, we should use the original one:
+        if ( queryInterval.equals(featureContext.getInterval() ) ) {    // Get the features:
+            features = (List<Feature>) featureContext.getValues(mainSourceFileAsFeatureInput);
+        }
+        else {
+            // Query as normal:
+            features = (List<Feature>) featureContext.getValues(mainSourceFileAsFeatureInput, queryInterval);
+        }
+
+        return features;
+    }
+
+    /**
+     * Creates the interval with which to query our FeatureInput {@link #mainSourceFileAsFeatureInput} for the features
+     * overlapping the given interval of a variant.  This converts hg19 contig names to b37 contig names if our data
+     * source is b37, and then applies {@link #transformFeatureQueryInterval(SimpleInterval)}.
+     * @param variantInterval The {@link SimpleInterval} of the variant to annotate.  Must not be {@code null}.
+     * @return The {@link SimpleInterval} with which to query our FeatureInput.
+     */
+    protected SimpleInterval createFeatureQueryInterval(final SimpleInterval variantInterval) {
+        Utils.nonNull(variantInterval);
+
+        SimpleInterval queryInterval = variantInterval;
 
         // Do we need to do a fuzzy hg19 / b37 conversion for querying our features:
         if ( dataSourceIsB37 ) {
@@ -303,18 +353,7 @@ public abstract class DataSourceFuncotationFactory implements Closeable {
         }
 
         // Perform extra transformations on the query interval:
-        queryInterval = transformFeatureQueryInterval(queryInterval);
-
-        // If the interval has not changed, we should use the original one:
-        if ( queryInterval.equals(featureContext.getInterval() ) ) {    // Get the features:
-            features = (List<Feature>) featureContext.getValues(mainSourceFileAsFeatureInput);
-        }
-        else {
-            // Query as normal:
-            features = (List<Feature>) featureContext.getValues(mainSourceFileAsFeatureInput, queryInterval);
-        }
-
-        return features;
+        return transformFeatureQueryInterval(queryInterval);
     }
 
     /**
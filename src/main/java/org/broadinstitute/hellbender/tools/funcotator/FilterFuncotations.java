@@ -1,6 +1,5 @@
 package org.broadinstitute.hellbender.tools.funcotator;
 
-import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
@@ -25,16 +24,16 @@ import org.broadinstitute.hellbender.tools.funcotator.filtrationRules.ClinVarFil
 import org.broadinstitute.hellbender.tools.funcotator.filtrationRules.FuncotationFilter;
 import org.broadinstitute.hellbender.tools.funcotator.filtrationRules.LmmFilter;
 import org.broadinstitute.hellbender.tools.funcotator.filtrationRules.LofFilter;
+import org.broadinstitute.hellbender.tools.funcotator.filtrationRules.TranscriptFuncotations;
 import org.broadinstitute.hellbender.tools.funcotator.filtrationRules.TwoPassFuncotationFilter;
 import org.broadinstitute.hellbender.tools.funcotator.vcfOutput.VcfOutputRenderer;
 import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Filter variants based on clinically-significant Funcotations.
@@ -116,6 +115,7 @@ public class FilterFuncotations extends TwoPassVariantWalker {
 
     private VariantContextWriter outputVcfWriter;
     private String[] funcotationKeys;
+    private FuncotationFieldExtractor funcotationFieldExtractor;
     private final List<TwoPassFuncotationFilter> firstPassFilters = new ArrayList<>();
     private final List<FuncotationFilter> secondPassFilters = new ArrayList<>();
 
@@ -138,6 +138,7 @@ public class FilterFuncotations extends TwoPassVariantWalker {
         }
 
         registerFilters();
+        funcotationFieldExtractor = createFuncotationFieldExtractor();
     }
 
     private void registerFilters() {
@@ -145,7 +146,7 @@ public class FilterFuncotations extends TwoPassVariantWalker {
         FuncotationFilter lofFilter = new LofFilter(reference, afDataSource);
         FuncotationFilter lmmFilter = new LmmFilter();
         FuncotationFilter homvarFilter = new ArHomvarFilter(reference);
-        TwoPassFuncotationFilter hetvarFilter = new ArHetvarFilter(reference, funcotationKeys);
+        TwoPassFuncotationFilter hetvarFilter = new ArHetvarFilter(reference);
         firstPassFilters.add(hetvarFilter);
         secondPassFilters.add(clinVarFilter);
         secondPassFilters.add(lofFilter);
@@ -155,10 +156,25 @@ public class FilterFuncotations extends TwoPassVariantWalker {
 
     }
 
+    /**
+     * Create the extractor for the Funcotation fields read by any of the registered filters, so that the field
+     * positions are only looked up once and no other fields are parsed.
+     */
+    private FuncotationFieldExtractor createFuncotationFieldExtractor() {
+        final Set<String> fieldNames = new LinkedHashSet<>();
+        firstPassFilters.forEach(filter -> fieldNames.addAll(filter.getFuncotationFieldNames()));
+        secondPassFilters.forEach(filter -> fieldNames.addAll(filter.getFuncotationFieldNames()));
+        return new FuncotationFieldExtractor(funcotationKeys, fieldNames, "Gencode_" + reference.gencodeVersion + "_annotationTranscript");
+    }
+
     @Override
     public void firstPassApply(final VariantContext variant, final ReadsContext readsContext, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+        if (firstPassFilters.isEmpty()) {
+            return;
+        }
+        final List<TranscriptFuncotations> transcriptFuncotations = funcotationFieldExtractor.extract(variant);
         for (TwoPassFuncotationFilter filter: firstPassFilters) {
-            filter.firstPassApply(variant);
+            filter.firstPassApply(variant, transcriptFuncotations);
         }
     }
 
@@ -184,19 +200,13 @@ public class FilterFuncotations extends TwoPassVariantWalker {
     private Set<String> getMatchingFilters(final VariantContext variant, final List<FuncotationFilter> funcotationFilters) {
         final Set<String> matchingFilters = new HashSet<>();
 
-
-        final Map<Allele, FuncotationMap> funcs = FuncotatorUtils.createAlleleToFuncotationMapFromFuncotationVcfAttribute(
-                funcotationKeys, variant, "Gencode_" + reference.gencodeVersion + "_annotationTranscript", "FAKE_SOURCE");
-
-        funcs.values().forEach(funcotationMap -> {
-            FilterFuncotationsUtils.getTranscriptFuncotations(funcotationMap).forEach(funcotations -> {
-                final Set<String> matches = funcotationFilters.stream()
-                        .filter(f -> f.checkFilter(funcotations, variant))
-                        .map(FuncotationFilter::getFilterName)
-                        .collect(Collectors.toSet());
-                matchingFilters.addAll(matches);
-            });
-        });
+        for (final TranscriptFuncotations funcotations : funcotationFieldExtractor.extract(variant)) {
+            for (final FuncotationFilter filter : funcotationFilters) {
+                if (!matchingFilters.contains(filter.getFilterName()) && filter.checkFilter(funcotations, variant)) {
+                    matchingFilters.add(filter.getFilterName());
+                }
+            }
+        }
 
         return matchingFilters;
     }
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.funcotator;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.tribble.Feature;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
@@ -22,6 +23,7 @@ import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.tools.copynumber.arguments.CopyNumberStandardArgument;
 import org.broadinstitute.hellbender.tools.copynumber.utils.annotatedinterval.AnnotatedInterval;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.DataSourceUtils;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.metadata.FuncotationMetadata;
 import org.broadinstitute.hellbender.tools.funcotator.metadata.VcfFuncotationMetadata;
 import org.broadinstitute.hellbender.transformers.VariantTransformer;
@@ -32,6 +34,8 @@ import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 /**
@@ -55,6 +59,7 @@ import java.util.stream.Collectors;
  *   -O input.seg.funcotated.tsv \
  *   --transcript-list tx_list.txt
  * </pre>
+ * <p>To process the genes overlapping large segments (e.g. whole-arm events) on several threads, add <i>--funcotator-threads</i>.</p>
  */
 @CommandLineProgramProperties(
         summary = "Perform functional annotation on a segment file (tsv).  Outputs two files.  The first is a tsv where each row" +
@@ -103,6 +108,11 @@ public class FuncotateSegments extends FeatureWalker<AnnotatedInterval> {
 
     private FuncotatorEngine funcotatorEngine;
 
+    /**
+     * Executor on which the genes overlapping large segments are processed.  Only used with more than one thread.
+     */
+    private ExecutorService segmentAnnotationExecutor;
+
     @Override
     protected boolean isAcceptableFeatureType(final Class<? extends Feature> featureType) {
         return featureType.equals(AnnotatedInterval.class);
@@ -155,6 +165,15 @@ public class FuncotateSegments extends FeatureWalker<AnnotatedInterval> {
         logger.info("The following datasources support funcotation on segments: ");
         dataSourceFuncotationFactories.forEach(ff -> logger.info(" " + ff.getInfoString()));
 
+        if ( funcotatorArgs.funcotatorThreads > 1 ) {
+            logger.info("Processing the genes overlapping large segments on " + funcotatorArgs.funcotatorThreads + " threads...");
+            segmentAnnotationExecutor = Executors.newFixedThreadPool(funcotatorArgs.funcotatorThreads,
+                    new ThreadFactoryBuilder().setNameFormat("funcotate-segments-thread-%d").setDaemon(true).build());
+            dataSourceFuncotationFactories.stream()
+                    .filter(ff -> ff instanceof GencodeFuncotationFactory)
+                    .forEach(ff -> ((GencodeFuncotationFactory) ff).setSegmentAnnotationExecutor(segmentAnnotationExecutor));
+        }
+
         // Initialize a funcotator engine to handle segments.
         funcotatorEngine = new FuncotatorEngine(funcotatorArgs,
                 getBestAvailableSequenceDictionary(),
@@ -216,6 +235,10 @@ public class FuncotateSegments extends FeatureWalker<AnnotatedInterval> {
 
     @Override
     public void closeTool() {
+        if ( segmentAnnotationExecutor != null ) {
+            segmentAnnotationExecutor.shutdownNow();
+        }
+
         if ( funcotatorEngine != null) {
             funcotatorEngine.close();
         }
@@ -3,8 +3,8 @@ package org.broadinstitute.hellbender.tools.funcotator;
 import htsjdk.variant.variantcontext.Allele;
 import org.broadinstitute.hellbender.tools.funcotator.metadata.FuncotationMetadata;
 
-import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Abstract class representing a {@link Funcotator} annotation.
@@ -37,9 +37,9 @@ public interface Funcotation {
 
     /**
      * Get the names of the fields in this {@link Funcotation}.
-     * @return The ordered set of fields in this {@link Funcotation} as a {@link LinkedHashSet} of {@link String}s.
+     * @return The ordered set of fields in this {@link Funcotation}.  May be an unmodifiable view of the fields.
      */
-    LinkedHashSet<String> getFieldNames();
+    Set<String> getFieldNames();
 
     /**
      * Get the value of a field in this {@link Funcotation}.
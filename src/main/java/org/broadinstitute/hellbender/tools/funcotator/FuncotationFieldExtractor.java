@@ -0,0 +1,181 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.tools.funcotator.filtrationRules.TranscriptFuncotations;
+import org.broadinstitute.hellbender.tools.funcotator.vcfOutput.VcfOutputRenderer;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the values of a fixed set of Funcotation fields from the {@value VcfOutputRenderer#FUNCOTATOR_VCF_FIELD_NAME}
+ * INFO attribute of variants written by {@link Funcotator}, for {@link FilterFuncotations}.
+ *
+ * The position of each wanted field in the attribute is resolved once from the Funcotation keys in the VCF header, so
+ * each variant only needs a single scan of its attribute, and only the wanted values are copied out of it.  This gives
+ * the same values as parsing the attribute with
+ * {@link FuncotatorUtils#createAlleleToFuncotationMapFromFuncotationVcfAttribute(String[], VariantContext, String, String)},
+ * without creating a {@link Funcotation} with every field for every transcript.
+ *
+ * Instances are immutable and may be used by several threads at once.
+ */
+public final class FuncotationFieldExtractor {
+
+    private static final Logger logger = LogManager.getLogger(FuncotationFieldExtractor.class);
+
+    private static final String TRANSCRIPT_SEPARATOR = VcfOutputRenderer.END_TRANSCRIPT_DELIMITER +
+            VcfOutputRenderer.ALL_TRANSCRIPT_DELIMITER + VcfOutputRenderer.START_TRANSCRIPT_DELIMITER;
+
+    private static final char FIELD_DELIMITER_CHAR = VcfOutputRenderer.FIELD_DELIMITER.charAt(0);
+
+    /**
+     * The Funcotation keys from the VCF header, in the order of the values in the attribute.
+     */
+    private final String[] funcotationKeys;
+
+    /**
+     * Index of each extracted field in the rows of values given to {@link TranscriptFuncotations}.
+     */
+    private final Map<String, Integer> fieldIndices;
+
+    /**
+     * For each Funcotation key in the header, the index of its value in the extracted rows, or {@code -1} if it is not
+     * extracted.
+     */
+    private final int[] rowIndexByKeyIndex;
+
+    /**
+     * Index in the header of the field holding the transcript ID, or {@code -1} if the header has no such field.
+     */
+    private final int transcriptKeyIndex;
+
+    /**
+     * @param funcotationKeys The Funcotation keys from the VCF header, as given by
+     *                        {@link FuncotatorUtils#extractFuncotatorKeysFromHeaderDescription(String)}.  Never {@code null}.
+     * @param fieldNames Names of the fields to extract.  Fields that are not in {@code funcotationKeys} are always
+     *                   absent.  Never {@code null}.
+     * @param transcriptFieldName Name of the field holding the transcript ID, used to group the Funcotations of each
+     *                            allele by transcript.  Never {@code null}.
+     */
+    public FuncotationFieldExtractor(final String[] funcotationKeys, final Collection<String> fieldNames, final String transcriptFieldName) {
+        Utils.nonNull(funcotationKeys);
+        Utils.nonNull(fieldNames);
+        Utils.nonNull(transcriptFieldName);
+
+        this.funcotationKeys = funcotationKeys.clone();
+
+        final Map<String, Integer> indices = new HashMap<>();
+        for ( final String fieldName : fieldNames ) {
+            indices.putIfAbsent(fieldName, indices.size());
+        }
+        fieldIndices = Collections.unmodifiableMap(indices);
+
+        rowIndexByKeyIndex = new int[funcotationKeys.length];
+        Arrays.fill(rowIndexByKeyIndex, -1);
+        int transcriptIndex = -1;
+        for ( int i = 0; i < funcotationKeys.length; ++i ) {
+            final Integer rowIndex = fieldIndices.get(funcotationKeys[i]);
+            if ( rowIndex != null ) {
+                rowIndexByKeyIndex[i] = rowIndex;
+            }
+            if ( (transcriptIndex == -1) && funcotationKeys[i].equals(transcriptFieldName) ) {
+                transcriptIndex = i;
+            }
+        }
+        transcriptKeyIndex = transcriptIndex;
+    }
+
+    /**
+     * Extract the Funcotations of every transcript of every alternate allele of a variant.
+     *
+     * @param variant A variant annotated by {@link Funcotator}.  Never {@code null}.
+     * @return The Funcotations of each transcript of each alternate allele of {@code variant}, in the order of the
+     *         alleles and then of the transcripts in the attribute.  Never {@code null}.
+     */
+    public List<TranscriptFuncotations> extract(final VariantContext variant) {
+        Utils.nonNull(variant);
+
+        final List<Object> funcotationPerAllele = variant.getAttributeAsList(VcfOutputRenderer.FUNCOTATOR_VCF_FIELD_NAME);
+        if (variant.getAlternateAlleles().size() != funcotationPerAllele.size()) {
+            throw new GATKException.ShouldNeverReachHereException("Could not parse FUNCOTATION field properly.");
+        }
+
+        final List<TranscriptFuncotations> result = new ArrayList<>();
+        for ( final Object funcotationAttribute : funcotationPerAllele ) {
+            // Funcotations for the same transcript are merged, as they are in a FuncotationMap:
+            final Map<String, List<String[]>> rowsByTranscript = new LinkedHashMap<>();
+            for ( final String transcriptAttribute : StringUtils.splitByWholeSeparator(funcotationAttribute.toString(), TRANSCRIPT_SEPARATOR) ) {
+                extractTranscript(transcriptAttribute, rowsByTranscript);
+            }
+            for ( final List<String[]> rows : rowsByTranscript.values() ) {
+                result.add(new TranscriptFuncotations(fieldIndices, rows));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Extract the values of a single Funcotation and add them to the rows of its transcript.
+     */
+    private void extractTranscript(final String transcriptAttribute, final Map<String, List<String[]>> rowsByTranscript) {
+        final String[] row = new String[fieldIndices.size()];
+        String transcriptId = FuncotationMap.NO_TRANSCRIPT_AVAILABLE_KEY;
+
+        int numValues = 0;
+        int valueStart = 0;
+        while ( valueStart <= transcriptAttribute.length() ) {
+            int valueEnd = transcriptAttribute.indexOf(FIELD_DELIMITER_CHAR, valueStart);
+            if ( valueEnd == -1 ) {
+                valueEnd = transcriptAttribute.length();
+            }
+
+            if ( (numValues < funcotationKeys.length) &&
+                    ((rowIndexByKeyIndex[numValues] != -1) || (numValues == transcriptKeyIndex)) ) {
+                final String value = getValue(transcriptAttribute, valueStart, valueEnd);
+                if ( rowIndexByKeyIndex[numValues] != -1 ) {
+                    row[rowIndexByKeyIndex[numValues]] = value.isEmpty() ? null : value;
+                }
+                if ( numValues == transcriptKeyIndex ) {
+                    transcriptId = value;
+                }
+            }
+
+            ++numValues;
+            valueStart = valueEnd + 1;
+        }
+
+        if ( numValues != funcotationKeys.length ) {
+            logger.error("Keys:  " + StringUtils.join(funcotationKeys, ", "));
+            logger.error("Values:  " + transcriptAttribute);
+            throw new GATKException.ShouldNeverReachHereException("Cannot parse the funcotation attribute.  Num values: " + numValues + "   Num keys: " + funcotationKeys.length);
+        }
+
+        rowsByTranscript.computeIfAbsent(transcriptId, k -> new ArrayList<>(1)).add(row);
+    }
+
+    /**
+     * @return The value between {@code start} and {@code end}, without the transcript delimiters at the start of the
+     *         first value or the end of the last value.
+     */
+    private static String getValue(final String transcriptAttribute, final int start, final int end) {
+        String value = transcriptAttribute.substring(start, end);
+        if ( (start == 0) && value.startsWith(VcfOutputRenderer.START_TRANSCRIPT_DELIMITER) ) {
+            value = value.replace(VcfOutputRenderer.START_TRANSCRIPT_DELIMITER, "");
+        }
+        if ( (end == transcriptAttribute.length()) && value.endsWith(VcfOutputRenderer.END_TRANSCRIPT_DELIMITER) ) {
+            value = value.replace(VcfOutputRenderer.END_TRANSCRIPT_DELIMITER, "");
+        }
+        return value;
+    }
+}
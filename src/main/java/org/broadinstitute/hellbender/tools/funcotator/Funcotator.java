@@ -1,6 +1,8 @@
 package org.broadinstitute.hellbender.tools.funcotator;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.tribble.Feature;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
 import org.apache.logging.log4j.LogManager;
@@ -11,8 +13,10 @@ import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.engine.filters.CountingVariantFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.DataSourceUtils;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.vcf.VcfFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.metadata.VcfFuncotationMetadata;
 import org.broadinstitute.hellbender.transformers.VariantTransformer;
 import org.broadinstitute.hellbender.utils.SequenceDictionaryUtils;
@@ -21,6 +25,12 @@ import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
 
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Funcotator (FUNCtional annOTATOR) analyzes given variants for their function (as retrieved from a set of data sources) and produces the analysis in a specified output file.
@@ -696,6 +706,45 @@ import java.util.*;
  *   --data-sources-path dataSourcesFolder/ \
  *   --ref-version hg19
  * </pre>
+ * <p>
+ *     To annotate variants on several threads, add <i>--funcotator-threads</i>.  Variants are still written to the
+ *     output in the order in which they appear in the input:
+ * </p>
+ * <pre>
+ *   ./gatk Funcotator \
+ *   -R reference.fasta \
+ *   -V input.vcf \
+ *   -O outputFile \
+ *   --output-file-format MAF \
+ *   --data-sources-path dataSourcesFolder/ \
+ *   --ref-version hg19 \
+ *   --funcotator-threads 4
+ * </pre>
+ * <p>
+ *     To annotate many small VCFs without paying for JVM startup and data source initialization each time, list the
+ *     further inputs and their outputs in a tab-separated manifest and pass it with <i>--manifest</i>.  The variants
+ *     given by <i>-V</i> are written to <i>-O</i> first, then each input in the manifest is annotated into its own
+ *     output with the same data sources and settings.  Every output must be different from the other outputs and from
+ *     all of the inputs.  The number of variants annotated and the annotation rate are logged for each input and for
+ *     the whole batch:
+ * </p>
+ * <pre>
+ *   ./gatk Funcotator \
+ *   -R reference.fasta \
+ *   -V sample1.vcf \
+ *   -O sample1.maf \
+ *   --output-file-format MAF \
+ *   --data-sources-path dataSourcesFolder/ \
+ *   --ref-version hg19 \
+ *   --manifest manifest.tsv
+ * </pre>
+ * <p>
+ *     where <i>manifest.tsv</i> contains lines such as:
+ * </p>
+ * <pre>
+ *   sample2.vcf	sample2.maf
+ *   sample3.vcf	sample3.maf
+ * </pre>
  *
  * <h3>Notes</h3>
  * <ul>
@@ -716,6 +765,8 @@ import java.util.*;
 public class Funcotator extends VariantWalker {
     private static final Logger logger = LogManager.getLogger(Funcotator.class);
 
+    private static final long ANNOTATION_SHUTDOWN_TIMEOUT_SECONDS = 60;
+
     //==================================================================================================================
     // Arguments:
 
@@ -728,6 +779,35 @@ public class Funcotator extends VariantWalker {
 
     private FuncotatorEngine funcotatorEngine;
 
+    /**
+     * Variants (with their reference context and data source features) waiting to be annotated on
+     * {@link #annotationExecutor}, in input order.  Only used when annotating with more than one thread.
+     */
+    private final List<PendingVariant> pendingVariants = new ArrayList<>();
+
+    private ExecutorService annotationExecutor;
+
+    /**
+     * The engine's {@link ReferenceDataSource} is not thread-safe, so each annotation thread reads the reference through its own.
+     */
+    private ThreadLocal<ReferenceDataSource> annotationThreadReferenceDataSources;
+    private final List<ReferenceDataSource> openedReferenceDataSources = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Everything needed to create a {@link FuncotatorEngine} and {@link OutputRenderer} for each input in the
+     * {@link FuncotatorVariantArgumentCollection#manifest}, so that the data sources are only initialized once.
+     */
+    private List<FuncotatorManifest.Entry> manifestEntries = Collections.emptyList();
+    private List<DataSourceFuncotationFactory> dataSourceFuncotationFactories;
+    private LinkedHashMap<String, String> annotationDefaultsMap;
+    private LinkedHashMap<String, String> annotationOverridesMap;
+
+    /**
+     * Number of variants written to the current output, and when we started annotating the current input.
+     */
+    private long numVariantsWritten = 0;
+    private long inputStartNanos;
+
     //==================================================================================================================
 
     /**
@@ -758,13 +838,20 @@ public class Funcotator extends VariantWalker {
         Utils.validateArg(funcotatorArgs.outputFormatType != FuncotatorArgumentDefinitions.OutputFormatType.SEG,
                 "This tool does not support segment output.  Please see FuncotateSegments.");
 
+        if ( funcotatorArgs.manifest != null ) {
+            // Read the manifest before the (slow) data source initialization, so that mistakes in it are found quickly:
+            manifestEntries = FuncotatorManifest.read(funcotatorArgs.manifest.toPath());
+            validateManifestOutputs();
+            logger.info("Read " + manifestEntries.size() + " inputs to annotate after " + getDrivingVariantsFeatureInput().getFeaturePath() + " from manifest " + funcotatorArgs.manifest);
+        }
+
 
         // Next set up our transcript list:
         final Set<String> finalUserTranscriptIdSet = FuncotatorEngine.processTranscriptList(funcotatorArgs.userTranscriptIdSet);
 
         // Get our overrides for annotations:
-        final LinkedHashMap<String, String> annotationDefaultsMap = FuncotatorEngine.splitAnnotationArgsIntoMap(funcotatorArgs.annotationDefaults);
-        final LinkedHashMap<String, String> annotationOverridesMap = FuncotatorEngine.splitAnnotationArgsIntoMap(funcotatorArgs.annotationOverrides);
+        annotationDefaultsMap = FuncotatorEngine.splitAnnotationArgsIntoMap(funcotatorArgs.annotationDefaults);
+        annotationOverridesMap = FuncotatorEngine.splitAnnotationArgsIntoMap(funcotatorArgs.annotationOverrides);
 
         // Get the header for our variants:
         final VCFHeader vcfHeader = getHeaderForVariants();
@@ -779,7 +866,7 @@ public class Funcotator extends VariantWalker {
         // Create the data sources from the input:
         // This will also create and register the FeatureInputs (created by the Data Sources)
         // with the GATK Engine, so we do not have to plumb them in after the fact.
-        final List<DataSourceFuncotationFactory> dataSourceFuncotationFactories = DataSourceUtils.createDataSourceFuncotationFactoriesForDataSources(
+        dataSourceFuncotationFactories = DataSourceUtils.createDataSourceFuncotationFactoriesForDataSources(
                 configData,
                 annotationOverridesMap,
                 funcotatorArgs.transcriptSelectionMode,
@@ -791,6 +878,14 @@ public class Funcotator extends VariantWalker {
                 funcotatorArgs.minNumBasesForValidSegment
         );
 
+        if ( funcotatorArgs.streamVcfDataSources ) {
+            for ( final DataSourceFuncotationFactory funcotationFactory : dataSourceFuncotationFactories ) {
+                if ( funcotationFactory instanceof VcfFuncotationFactory ) {
+                    ((VcfFuncotationFactory) funcotationFactory).enableStreaming(funcotatorArgs.excludedFields);
+                }
+            }
+        }
+
         logger.info("Initializing Funcotator Engine...");
         // Create our engine to do our work and drive this Funcotation train!
         funcotatorEngine = new FuncotatorEngine(
@@ -811,6 +906,55 @@ public class Funcotator extends VariantWalker {
                 getDefaultToolVCFHeaderLines(),
                 this
         );
+
+        if ( funcotatorArgs.funcotatorThreads > 1 ) {
+            logger.info("Annotating variants in batches of " + funcotatorArgs.funcotatorBatchSize + " on " + funcotatorArgs.funcotatorThreads + " threads...");
+            final Path referencePath = referenceArguments.getReferencePath();
+            annotationThreadReferenceDataSources = ThreadLocal.withInitial(() -> {
+                final ReferenceDataSource referenceDataSource = ReferenceDataSource.of(referencePath);
+                openedReferenceDataSources.add(referenceDataSource);
+                return referenceDataSource;
+            });
+            final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                    .setNameFormat("funcotator-thread-%d")
+                    .setDaemon(true)
+                    .build();
+            annotationExecutor = Executors.newFixedThreadPool(funcotatorArgs.funcotatorThreads, threadFactory);
+        }
+
+        inputStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Make sure that no two inputs would be written to the same output, and that no output would overwrite an input.
+     */
+    private void validateManifestOutputs() {
+        final Set<Path> inputPaths = new HashSet<>();
+        inputPaths.add(getNormalizedAbsolutePath(drivingVariantFile));
+        manifestEntries.forEach(entry -> inputPaths.add(getNormalizedAbsolutePath(entry.getInput())));
+
+        final Set<Path> outputPaths = new HashSet<>();
+        final Path outputPath = funcotatorArgs.outputFile.toPath().toAbsolutePath().normalize();
+        if ( inputPaths.contains(outputPath) ) {
+            throw new UserException.BadInput("The output given by -" + StandardArgumentDefinitions.OUTPUT_SHORT_NAME + " (" + funcotatorArgs.outputFile +
+                    ") is also an input, either the one given by -" + StandardArgumentDefinitions.VARIANT_SHORT_NAME + " or one in manifest " + funcotatorArgs.manifest + ".");
+        }
+        outputPaths.add(outputPath);
+        for ( final FuncotatorManifest.Entry entry : manifestEntries ) {
+            final Path entryOutputPath = entry.getOutputFile().toPath().toAbsolutePath().normalize();
+            if ( inputPaths.contains(entryOutputPath) ) {
+                throw new UserException.BadInput("Output file " + entry.getOutputFile() + " in manifest " + funcotatorArgs.manifest +
+                        " is also an input, either the one given by -" + StandardArgumentDefinitions.VARIANT_SHORT_NAME + " or one in the manifest.");
+            }
+            if ( !outputPaths.add(entryOutputPath) ) {
+                throw new UserException.BadInput("Output file " + entry.getOutputFile() + " in manifest " + funcotatorArgs.manifest +
+                        " is used more than once (including as the output given by -" + StandardArgumentDefinitions.OUTPUT_SHORT_NAME + ").");
+            }
+        }
+    }
+
+    private static Path getNormalizedAbsolutePath(final GATKPath path) {
+        return path.toPath().toAbsolutePath().normalize();
     }
 
     /**
@@ -820,9 +964,16 @@ public class Funcotator extends VariantWalker {
      * This is a more strict check than the one found in {@link GATKTool#validateSequenceDictionaries()}.
      */
     private void checkReferenceDictionaryIsSupersetOfVariantDictionary() {
+        checkReferenceDictionaryIsSupersetOfVariantDictionary(getSequenceDictionaryForDrivingVariants());
+    }
+
+    /**
+     * Checks to see that the given reference's sequence dictionary is a
+     * superset of the given variant sequence dictionary.
+     */
+    private void checkReferenceDictionaryIsSupersetOfVariantDictionary(final SAMSequenceDictionary variantDictionary) {
 
         final SAMSequenceDictionary referenceDictionary = getReferenceDictionary();
-        final SAMSequenceDictionary variantDictionary = getSequenceDictionaryForDrivingVariants();
 
         if ( referenceDictionary == null ) {
             throw new UserException.BadInput("Reference fasta sequence dictionary is null!");
@@ -834,7 +985,7 @@ public class Funcotator extends VariantWalker {
 
         SequenceDictionaryUtils.validateDictionaries(
                 "Reference", getReferenceDictionary(),
-                "Driving Variants", getSequenceDictionaryForDrivingVariants(),
+                "Driving Variants", variantDictionary,
                 true,
                 false
                 );
@@ -861,11 +1012,50 @@ public class Funcotator extends VariantWalker {
         enqueueAndHandleVariant(variant, correctReferenceContext, featureContext);
     }
 
+    @Override
+    protected void onDrivingVariantsTraversed() {
+        if ( !manifestEntries.isEmpty() ) {
+            annotateManifestEntries();
+        }
+    }
+
     @Override
     public Object onTraversalSuccess() {
 
-        // If we only saw IGRs, we most likely have a configuration issue.
-        // Make sure the user knows this by making a HUGE stink about it.
+        // Annotate and write the last partial batch:
+        annotateAndWritePendingVariants();
+
+        if ( manifestEntries.isEmpty() ) {
+            warnIfOnlyIGRsWereProduced();
+        }
+        return true;
+    }
+
+    /**
+     * Finish the output for the variants given by -V, then annotate each input in the manifest, reporting the
+     * throughput for each input and for the whole batch.
+     */
+    private void annotateManifestEntries() {
+        final long batchStartNanos = inputStartNanos;
+        long totalVariantsWritten = finishInput(getDrivingVariantsFeatureInput().getFeaturePath());
+
+        for ( final FuncotatorManifest.Entry entry : manifestEntries ) {
+            annotateManifestEntry(entry);
+            totalVariantsWritten += finishInput(entry.getInput().getRawInputString());
+        }
+
+        final int numInputs = manifestEntries.size() + 1;
+        final double totalSeconds = (System.nanoTime() - batchStartNanos) / 1e9;
+        logger.info(String.format("Annotated %d variants from %d inputs in %.2f seconds (%.1f variants/second, %.2f seconds/input).",
+                totalVariantsWritten, numInputs, totalSeconds,
+                totalVariantsWritten / Math.max(totalSeconds, Double.MIN_VALUE), totalSeconds / numInputs));
+    }
+
+    /**
+     * If we only saw IGRs, we most likely have a configuration issue.
+     * Make sure the user knows this by making a HUGE stink about it.
+     */
+    private void warnIfOnlyIGRsWereProduced() {
         if ( funcotatorEngine.onlyProducedIGRs() ) {
             logger.warn("================================================================================");
             logger.warn("\u001B[43m     _  _  _   __        __               _                   _  _  _           ");
@@ -880,11 +1070,79 @@ public class Funcotator extends VariantWalker {
             logger.warn(" You MUST check your data sources to make sure they are correct for these data.");
             logger.warn("================================================================================");
         }
-        return true;
+    }
+
+    /**
+     * Annotate the variants of an input in the manifest with the same data sources as the variants given by -V.
+     *
+     * Each input gets its own {@link FuncotatorEngine} and {@link OutputRenderer}, since the engine depends on the
+     * header and sequence dictionary of the input.  The data source factories, reference, reads and features are shared.
+     */
+    private void annotateManifestEntry(final FuncotatorManifest.Entry entry) {
+        logger.info("Annotating " + entry.getInput() + " into " + entry.getOutputFile().toURI() + "...");
+        inputStartNanos = System.nanoTime();
+        numVariantsWritten = 0;
+
+        try ( final FeatureDataSource<VariantContext> variantSource = new FeatureDataSource<>(new FeatureInput<>(entry.getInput()),
+                FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES, VariantContext.class) ) {
+
+            final Object header = variantSource.getHeader();
+            if ( !(header instanceof VCFHeader) ) {
+                throw new UserException.BadInput("Input " + entry.getInput() + " in manifest " + funcotatorArgs.manifest + " is not a VCF file.");
+            }
+            final VCFHeader vcfHeader = (VCFHeader) header;
+
+            if ( seqValidationArguments.performSequenceDictionaryValidation() ) {
+                checkReferenceDictionaryIsSupersetOfVariantDictionary(vcfHeader.getSequenceDictionary());
+            }
+
+            // Note: the engine for the previous input is not closed, because that would close the shared data sources.
+            //       The last engine is closed in closeTool.
+            funcotatorEngine = new FuncotatorEngine(
+                    funcotatorArgs,
+                    vcfHeader.getSequenceDictionary(),
+                    VcfFuncotationMetadata.create(new ArrayList<>(vcfHeader.getInfoHeaderLines())),
+                    dataSourceFuncotationFactories
+            );
+            outputRenderer = funcotatorEngine.createOutputRenderer(
+                    annotationDefaultsMap,
+                    annotationOverridesMap,
+                    vcfHeader,
+                    getDefaultToolVCFHeaderLines(),
+                    this,
+                    entry.getOutputFile()
+            );
+
+            traverseAdditionalVariants(variantSource);
+        }
+    }
+
+    /**
+     * Write the remaining variants of the current input, close its output, and log the rate at which its variants
+     * were annotated.
+     * @param inputName Name of the current input.
+     * @return The number of variants written for the current input.
+     */
+    private long finishInput(final String inputName) {
+        annotateAndWritePendingVariants();
+        warnIfOnlyIGRsWereProduced();
+
+        // Data sources are shared with the next input, but this output must be complete before we move on:
+        outputRenderer.close();
+        outputRenderer = null;
+
+        final double seconds = (System.nanoTime() - inputStartNanos) / 1e9;
+        logger.info(String.format("Annotated %d variants from %s in %.2f seconds (%.1f variants/second).",
+                numVariantsWritten, inputName, seconds, numVariantsWritten / Math.max(seconds, Double.MIN_VALUE)));
+        return numVariantsWritten;
     }
 
     @Override
     public void closeTool() {
+        if ( annotationExecutor == null || shutDownAnnotationExecutor() ) {
+            openedReferenceDataSources.forEach(ReferenceDataSource::close);
+        }
+
         if ( funcotatorEngine != null) {
             funcotatorEngine.close();
         }
@@ -894,6 +1152,32 @@ public class Funcotator extends VariantWalker {
         }
     }
 
+    /**
+     * Stop the annotation threads, waiting up to {@link #ANNOTATION_SHUTDOWN_TIMEOUT_SECONDS} for any running annotation
+     * to finish.
+     * @return {@code true} if every annotation thread has stopped, so that their reference data sources may be closed.
+     */
+    private boolean shutDownAnnotationExecutor() {
+        annotationExecutor.shutdownNow();
+
+        // Clear the interrupt flag while waiting, so that an interrupt of this thread does not cut the wait short,
+        // and restore it afterwards
+        final boolean wasInterrupted = Thread.interrupted();
+        try {
+            if ( annotationExecutor.awaitTermination(ANNOTATION_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS) ) {
+                return true;
+            }
+            logger.warn("Timed out waiting for the annotation threads to stop, so their reference data sources are left open");
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if ( wasInterrupted ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return false;
+    }
+
     //==================================================================================================================
 
     /**
@@ -904,9 +1188,75 @@ public class Funcotator extends VariantWalker {
      */
     private void enqueueAndHandleVariant(final VariantContext variant, final ReferenceContext referenceContext, final FeatureContext featureContext) {
 
+        if ( annotationExecutor != null ) {
+            // Features must be queried here, on the traversal thread, because the FeatureContext is not thread-safe:
+            pendingVariants.add(new PendingVariant(variant, referenceContext, funcotatorEngine.getFeaturesForVariant(featureContext)));
+            if ( pendingVariants.size() >= funcotatorArgs.funcotatorBatchSize ) {
+                annotateAndWritePendingVariants();
+            }
+            return;
+        }
+
         final FuncotationMap funcotationMap = funcotatorEngine.createFuncotationMapForVariant(variant, referenceContext, featureContext);
 
         // At this point there is only one transcript ID in the funcotation map if canonical or best effect are selected
         outputRenderer.write(variant, funcotationMap);
+        ++numVariantsWritten;
+    }
+
+    /**
+     * Annotates the variants in {@link #pendingVariants} on {@link #annotationExecutor} and writes them to the output in
+     * the order in which they were enqueued.
+     */
+    private void annotateAndWritePendingVariants() {
+        if ( pendingVariants.isEmpty() ) {
+            return;
+        }
+
+        final List<Future<FuncotationMap>> funcotationMaps = new ArrayList<>(pendingVariants.size());
+        for ( final PendingVariant pendingVariant : pendingVariants ) {
+            funcotationMaps.add(annotationExecutor.submit(() -> annotatePendingVariant(pendingVariant)));
+        }
+
+        try {
+            for ( int i = 0; i < pendingVariants.size(); i++ ) {
+                outputRenderer.write(pendingVariants.get(i).variant, funcotationMaps.get(i).get());
+                ++numVariantsWritten;
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while annotating variants", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Exception while annotating variants", e.getCause());
+        } finally {
+            funcotationMaps.forEach(f -> f.cancel(true));
+        }
+        pendingVariants.clear();
+    }
+
+    private FuncotationMap annotatePendingVariant(final PendingVariant pendingVariant) {
+        // Read the reference through this thread's own data source, over the same interval and window:
+        final ReferenceContext threadReferenceContext = new ReferenceContext(annotationThreadReferenceDataSources.get(),
+                pendingVariant.referenceContext.getInterval(), pendingVariant.referenceContext.getWindow());
+        return funcotatorEngine.createFuncotationMapForVariant(pendingVariant.variant, threadReferenceContext, pendingVariant.featuresByDataSource);
+    }
+
+    /**
+     * A variant waiting to be annotated, with everything queried for it on the traversal thread.
+     */
+    private static final class PendingVariant {
+        private final VariantContext variant;
+        private final ReferenceContext referenceContext;
+        private final Map<DataSourceFuncotationFactory, List<Feature>> featuresByDataSource;
+
+        private PendingVariant(final VariantContext variant, final ReferenceContext referenceContext,
+                               final Map<DataSourceFuncotationFactory, List<Feature>> featuresByDataSource) {
+            this.variant = variant;
+            this.referenceContext = referenceContext;
+            this.featuresByDataSource = featuresByDataSource;
+        }
     }
 }
@@ -66,6 +66,13 @@ public class FuncotatorArgumentDefinitions {
     public static final String FORCE_B37_TO_HG19_REFERENCE_CONTIG_CONVERSION = "force-b37-to-hg19-reference-contig-conversion";
     public static final String MIN_NUM_BASES_FOR_SEGMENT_FUNCOTATION = "min-num-bases-for-segment-funcotation";
 
+    public static final String FUNCOTATOR_THREADS_NAME = "funcotator-threads";
+    public static final int FUNCOTATOR_THREADS_DEFAULT_VALUE = 1;
+    public static final String FUNCOTATOR_BATCH_SIZE_NAME = "funcotator-batch-size";
+    public static final int FUNCOTATOR_BATCH_SIZE_DEFAULT_VALUE = 1000;
+    public static final String STREAM_VCF_DATA_SOURCES_NAME = "stream-vcf-data-sources";
+    public static final String MANIFEST_NAME = "manifest";
+
     // ------------------------------------------------------------
     // Helper Types:
 
@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.funcotator;
 
 import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.tribble.Feature;
 import htsjdk.tribble.util.ParsingUtils;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
@@ -83,7 +84,7 @@ public final class FuncotatorEngine implements AutoCloseable {
      * Whether this {@link FuncotatorEngine} has only produced annotations on variants that have been labeled by the
      * {@link org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotationFactory} as {@link org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation.VariantClassification#IGR}.
      */
-    private boolean onlyProducedIGRs = true;
+    private volatile boolean onlyProducedIGRs = true;
 
     /**
      * Create a {@link FuncotatorEngine} using the given {@code metadata} and {@code funcotationFactories} representing
@@ -136,6 +137,46 @@ public final class FuncotatorEngine implements AutoCloseable {
         Utils.nonNull(referenceContext);
         Utils.nonNull(featureContext);
 
+        return createFuncotationMapForVariant(variantContext, referenceContext, getFeaturesForVariant(featureContext));
+    }
+
+    /**
+     * Queries the given {@code featureContext} for the features of every data source used by this engine.
+     * {@link FeatureContext}s are not thread-safe, so this must be called on the thread traversing the variants.
+     *
+     * @param featureContext {@link FeatureContext} corresponding to the variant to annotate.  Never {@code null}.
+     * @return A {@link Map} from each {@link DataSourceFuncotationFactory} of this engine to the features it will annotate with.
+     */
+    public Map<DataSourceFuncotationFactory, List<Feature>> getFeaturesForVariant(final FeatureContext featureContext) {
+        Utils.nonNull(featureContext);
+
+        final Map<DataSourceFuncotationFactory, List<Feature>> featuresByDataSource = new IdentityHashMap<>(dataSourceFactories.size());
+        for (final DataSourceFuncotationFactory funcotationFactory : dataSourceFactories) {
+            featuresByDataSource.put(funcotationFactory, funcotationFactory.getFeaturesFromFeatureContext(featureContext));
+        }
+        return featuresByDataSource;
+    }
+
+    /**
+     * Creates a {@link FuncotationMap} for the given {@code variantContext} from features that have already been queried
+     * by {@link #getFeaturesForVariant(FeatureContext)}.
+     * This does not touch any {@link FeatureContext}, so it may be called concurrently for different variants as long as
+     * each {@code referenceContext} is backed by a {@link org.broadinstitute.hellbender.engine.ReferenceDataSource}
+     * that is only used by the calling thread.
+     *
+     * @param variantContext   {@link VariantContext} to annotate.  Never {@code null}.
+     * @param referenceContext {@link ReferenceContext} corresponding to the given {@code variantContext}.  Never {@code null}.
+     * @param featuresByDataSource The features for the given {@code variantContext} from {@link #getFeaturesForVariant(FeatureContext)}.  Never {@code null}.
+     * @return an instance of FuncotationMap that maps transcript IDs to lists of funcotations for the given variantContext context.
+     */
+    public FuncotationMap createFuncotationMapForVariant(final VariantContext variantContext,
+                                                         final ReferenceContext referenceContext,
+                                                         final Map<DataSourceFuncotationFactory, List<Feature>> featuresByDataSource) {
+
+        Utils.nonNull(variantContext);
+        Utils.nonNull(referenceContext);
+        Utils.nonNull(featuresByDataSource);
+
         //==============================================================================================================
         // First create only the transcript (Gencode) funcotations:
 
@@ -144,7 +185,7 @@ public final class FuncotatorEngine implements AutoCloseable {
         }
 
         final List<GencodeFuncotation> transcriptFuncotations = retrieveGencodeFuncotationFactoryStream()
-                .map(gf -> gf.createFuncotations(variantContext, referenceContext, featureContext))
+                .map(gf -> gf.createFuncotationsFromFeatures(variantContext, referenceContext, featuresByDataSource.get(gf), null))
                 .flatMap(List::stream)
                 .map(f -> {
                         final GencodeFuncotation gf = (GencodeFuncotation) f;
@@ -170,19 +211,22 @@ public final class FuncotatorEngine implements AutoCloseable {
                 final List<String> txIds = funcotationMap.getTranscriptList();
 
                 for (final String txId: txIds) {
-                    funcotationMap.add(txId, funcotationFactory.createFuncotations(variantContext, referenceContext,
-                            featureContext, funcotationMap.getGencodeFuncotations(txId)));
+                    funcotationMap.add(txId, funcotationFactory.createFuncotationsFromFeatures(variantContext, referenceContext,
+                            featuresByDataSource.get(funcotationFactory), funcotationMap.getGencodeFuncotations(txId)));
                 }
             }
         }
 
         //==============================================================================================================
         // Create the funcotations for the input and add to all txID mappings.
+        // These do not depend on the transcript, so every transcript shares the same funcotations rather than each
+        // holding its own copy of the INFO fields of the input variant.
 
         final List<String> txIds = funcotationMap.getTranscriptList();
+        final List<Funcotation> inputFuncotations = FuncotatorUtils.createFuncotations(variantContext, inputMetadata, FuncotatorConstants.DATASOURCE_NAME_FOR_INPUT_VCFS);
 
         for (final String txId: txIds) {
-            funcotationMap.add(txId, FuncotatorUtils.createFuncotations(variantContext, inputMetadata, FuncotatorConstants.DATASOURCE_NAME_FOR_INPUT_VCFS));
+            funcotationMap.add(txId, inputFuncotations);
         }
 
         return funcotationMap;
@@ -238,6 +282,27 @@ public final class FuncotatorEngine implements AutoCloseable {
                                         final VCFHeader headerForVariants,
                                         final Set<VCFHeaderLine> defaultToolVcfHeaderLines,
                                         final GATKTool gatkToolInstance) {
+        return createOutputRenderer(annotationDefaultsMap, annotationOverridesMap, headerForVariants,
+                defaultToolVcfHeaderLines, gatkToolInstance, funcotatorArgs.outputFile);
+    }
+
+    /**
+     * Create an output renderer for the data created by this instance of {@link FuncotatorEngine} that writes to the
+     * given file rather than to the output file in the {@code funcotatorArgs}.
+     * @param annotationDefaultsMap {@link LinkedHashMap<String,String>} of annotation names and their default values.
+     * @param annotationOverridesMap {@link LinkedHashMap<String,String>} of annotation names and the values for these fields overridden by the user.
+     * @param headerForVariants {@link VCFHeader} for the input VCF file containing the variants to annotate.
+     * @param defaultToolVcfHeaderLines {@link Set<VCFHeaderLine>} containing the default {@link VCFHeaderLine}s for the given {@code gatkToolInstance}.
+     * @param gatkToolInstance {@link GATKTool} instance from which we will be using this {@link FuncotatorEngine}.
+     * @param outputFile {@link File} to which to write the output.
+     * @return The requested {@link OutputRenderer} based on the given {@code funcotatorArgs}.
+     */
+    OutputRenderer createOutputRenderer(final LinkedHashMap<String, String> annotationDefaultsMap,
+                                        final LinkedHashMap<String, String> annotationOverridesMap,
+                                        final VCFHeader headerForVariants,
+                                        final Set<VCFHeaderLine> defaultToolVcfHeaderLines,
+                                        final GATKTool gatkToolInstance,
+                                        final File outputFile) {
 
         final OutputRenderer outputRenderer;
 
@@ -249,7 +314,7 @@ public final class FuncotatorEngine implements AutoCloseable {
         switch (funcotatorArgs.outputFormatType) {
             case MAF:
                 outputRenderer = new MafOutputRenderer(
-                        funcotatorArgs.outputFile.toPath(),
+                        outputFile.toPath(),
                         getFuncotationFactories(),
                         headerForVariants,
                         unaccountedForDefaultAnnotations,
@@ -263,7 +328,7 @@ public final class FuncotatorEngine implements AutoCloseable {
 
             case VCF:
                 outputRenderer = new VcfOutputRenderer(
-                        gatkToolInstance.createVCFWriter(funcotatorArgs.outputFile),
+                        gatkToolInstance.createVCFWriter(outputFile),
                         getFuncotationFactories(),
                         headerForVariants,
                         unaccountedForDefaultAnnotations,
@@ -278,13 +343,13 @@ public final class FuncotatorEngine implements AutoCloseable {
                 // Create an output renderer that will actually write multiple files.
                 outputRenderer =  new CompositeOutputRenderer(
                             Arrays.asList(
-                                    SimpleTsvOutputRenderer.createFromResource(funcotatorArgs.outputFile.toPath(),
+                                    SimpleTsvOutputRenderer.createFromResource(outputFile.toPath(),
                                         unaccountedForDefaultAnnotations,
                                         unaccountedForOverrideAnnotations, funcotatorArgs.excludedFields,
                                         Paths.get(SIMPLE_TSV_SEG_FILE_CONFIG),
                                         gatkToolInstance.getVersion(), true),
 
-                                    new GeneListOutputRenderer(new File(funcotatorArgs.outputFile.getAbsolutePath() + GENE_LIST_FILE_SUFFIX).toPath(),
+                                    new GeneListOutputRenderer(new File(outputFile.getAbsolutePath() + GENE_LIST_FILE_SUFFIX).toPath(),
                                         unaccountedForDefaultAnnotations, unaccountedForOverrideAnnotations,
                                         funcotatorArgs.excludedFields, gatkToolInstance.getVersion(), funcotatorArgs.minNumBasesForValidSegment)
                         ), gatkToolInstance.getVersion());
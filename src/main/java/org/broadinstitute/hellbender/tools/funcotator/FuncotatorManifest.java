@@ -0,0 +1,83 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The input VCFs and output files of a batch of {@link Funcotator} runs to perform in a single JVM, given by
+ * {@code --} {@value FuncotatorArgumentDefinitions#MANIFEST_NAME}.
+ *
+ * A manifest is a tab-separated text file with one line per input VCF, containing the path of the input VCF followed by
+ * the path of the output file to create for it.  Blank lines and lines starting with {@value #COMMENT_PREFIX} are
+ * ignored.
+ */
+final class FuncotatorManifest {
+
+    static final String COMMENT_PREFIX = "#";
+    static final String COLUMN_DELIMITER = "\t";
+
+    private FuncotatorManifest() {}
+
+    /**
+     * Read the entries of a manifest.
+     * @param manifestPath {@link Path} of the manifest to read.  Must not be {@code null}.
+     * @return The entries of the manifest, in order.  Never {@code null}.
+     */
+    static List<Entry> read(final Path manifestPath) {
+        Utils.nonNull(manifestPath);
+
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(manifestPath);
+        }
+        catch (final IOException ex) {
+            throw new UserException.CouldNotReadInputFile(manifestPath, "could not read the Funcotator manifest", ex);
+        }
+
+        final List<Entry> entries = new ArrayList<>();
+        for ( int i = 0; i < lines.size(); ++i ) {
+            final String line = lines.get(i).trim();
+            if ( line.isEmpty() || line.startsWith(COMMENT_PREFIX) ) {
+                continue;
+            }
+
+            final String[] columns = line.split(COLUMN_DELIMITER, -1);
+            if ( (columns.length != 2) || columns[0].trim().isEmpty() || columns[1].trim().isEmpty() ) {
+                throw new UserException.MalformedFile(manifestPath, "Line " + (i + 1) +
+                        " must contain an input VCF and an output file separated by a tab, but was: " + line);
+            }
+            entries.add(new Entry(new GATKPath(columns[0].trim()), new File(columns[1].trim())));
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * An input VCF to annotate and the file to which to write its annotated variants.
+     */
+    static final class Entry {
+        private final GATKPath input;
+        private final File outputFile;
+
+        Entry(final GATKPath input, final File outputFile) {
+            this.input = Utils.nonNull(input);
+            this.outputFile = Utils.nonNull(outputFile);
+        }
+
+        GATKPath getInput() {
+            return input;
+        }
+
+        File getOutputFile() {
+            return outputFile;
+        }
+    }
+}
@@ -1,5 +1,15 @@
 package org.broadinstitute.hellbender.tools.funcotator;
 
+import org.broadinstitute.barclay.argparser.Argument;
+
 public class FuncotatorSegmentArgumentCollection extends BaseFuncotatorArgumentCollection {
     private static final long serialVersionUID = 11L;
+
+    @Argument(
+            fullName = FuncotatorArgumentDefinitions.FUNCOTATOR_THREADS_NAME,
+            optional = true,
+            minValue = 1,
+            doc = "Number of threads with which to annotate segments.  When greater than 1, the genes overlapping large segments are processed in parallel on a pool of this many threads."
+    )
+    public int funcotatorThreads = FuncotatorArgumentDefinitions.FUNCOTATOR_THREADS_DEFAULT_VALUE;
 }
@@ -36,7 +36,6 @@ import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -67,6 +66,14 @@ public final class FuncotatorUtils {
     private static final Map<String, String> B37_To_HG19_CONTIG_NAME_MAP;
     private static final Map<String, String> HG19_TO_B37_CONTIG_NAME_MAP;
 
+    /** Characters that are encoded when funcotation fields are rendered in a VCF. */
+    private static final String VCF_SPECIAL_CHARACTERS = ",;=\t" + VcfOutputRenderer.HEADER_LISTED_FIELD_DELIMITER + " \n" + VcfOutputRenderer.ALL_TRANSCRIPT_DELIMITER;
+
+    /** Characters that are encoded when funcotation fields are rendered in a MAF. */
+    private static final String MAF_SPECIAL_CHARACTERS = "\t\n";
+
+    private static final char[] UPPER_CASE_HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     private static final String CODON_CHANGE_FORMAT_STRING   = "c.(%d-%d)%s";
     private static final String PROTEIN_CHANGE_FORMAT_STRING = "p.%s%s%s%s";
     private static final String CDNA_CHANGE_FORMAT_STRING    = "c.%s%s%s%s";
@@ -2148,17 +2155,18 @@ public final class FuncotatorUtils {
      */
     static String sanitizeFuncotationFieldForVcf(final String individualFuncotationField) {
         Utils.nonNull(individualFuncotationField);
+        return sanitizeFuncotationField(individualFuncotationField, VCF_SPECIAL_CHARACTERS);
+    }
 
-        // List of letters to encode:
-        final List<String> badLetters = Arrays.asList(",", ";", "=", "\t", VcfOutputRenderer.HEADER_LISTED_FIELD_DELIMITER, " ", "\n", VcfOutputRenderer.ALL_TRANSCRIPT_DELIMITER);
-
-        // Encoded version:
-        final List<String> cleanLetters = badLetters.stream().map(
-                s -> "_%" + String.format("%02X", s.getBytes(StandardCharsets.US_ASCII)[0]) + "_")
-                .collect(Collectors.toList());
-
-        // Now replace them:
-        return StringUtils.replaceEach(individualFuncotationField, badLetters.toArray(new String[]{}), cleanLetters.toArray(new String[]{}));
+    /**
+     * Append the given funcotation field to the given {@link StringBuilder}, sanitized for VCF consumption as by
+     * {@link #sanitizeFuncotationFieldForVcf(String)}, without creating an intermediate {@link String}.
+     * @param stringBuilder {@link StringBuilder} to which to append the sanitized field.  Never {@code null}
+     * @param individualFuncotationField  value from a funcotation. Never {@code null}
+     * @return {@code stringBuilder}
+     */
+    public static StringBuilder appendSanitizedFuncotationFieldForVcf(final StringBuilder stringBuilder, final String individualFuncotationField) {
+        return appendSanitizedFuncotationField(stringBuilder, individualFuncotationField, VCF_SPECIAL_CHARACTERS);
     }
 
     /**
@@ -2169,7 +2177,61 @@ public final class FuncotatorUtils {
      */
     public static String sanitizeFuncotationFieldForMaf(final String individualFuncotationField) {
         Utils.nonNull(individualFuncotationField);
-        return StringUtils.replaceEach(individualFuncotationField, new String[]{"\t", "\n"}, new String[]{"_%09_", "_%0A_"});
+        return sanitizeFuncotationField(individualFuncotationField, MAF_SPECIAL_CHARACTERS);
+    }
+
+    /**
+     * Append the given funcotation field to the given {@link StringBuilder}, sanitized for MAF consumption as by
+     * {@link #sanitizeFuncotationFieldForMaf(String)}, without creating an intermediate {@link String}.
+     * @param stringBuilder {@link StringBuilder} to which to append the sanitized field.  Never {@code null}
+     * @param individualFuncotationField  value from a funcotation. Never {@code null}
+     * @return {@code stringBuilder}
+     */
+    public static StringBuilder appendSanitizedFuncotationFieldForMaf(final StringBuilder stringBuilder, final String individualFuncotationField) {
+        return appendSanitizedFuncotationField(stringBuilder, individualFuncotationField, MAF_SPECIAL_CHARACTERS);
+    }
+
+    /**
+     * @return {@code field} with each character in {@code specialCharacters} replaced by _%HEX_.  If {@code field} has
+     * none of the characters, {@code field} itself is returned.
+     */
+    private static String sanitizeFuncotationField(final String field, final String specialCharacters) {
+        if ( indexOfSpecialCharacter(field, 0, specialCharacters) == -1 ) {
+            return field;
+        }
+        return appendSanitizedFuncotationField(new StringBuilder(field.length() + 16), field, specialCharacters).toString();
+    }
+
+    /**
+     * Append {@code field} to {@code stringBuilder} in a single pass, replacing each character in
+     * {@code specialCharacters} by _%HEX_ where HEX is its 2 digit ascii hex code.
+     */
+    private static StringBuilder appendSanitizedFuncotationField(final StringBuilder stringBuilder, final String field, final String specialCharacters) {
+        Utils.nonNull(stringBuilder);
+        Utils.nonNull(field);
+
+        int start = 0;
+        int specialCharacterIndex = indexOfSpecialCharacter(field, start, specialCharacters);
+        while ( specialCharacterIndex != -1 ) {
+            final char c = field.charAt(specialCharacterIndex);
+            stringBuilder.append(field, start, specialCharacterIndex)
+                    .append("_%")
+                    .append(UPPER_CASE_HEX_DIGITS[(c >> 4) & 0xF])
+                    .append(UPPER_CASE_HEX_DIGITS[c & 0xF])
+                    .append('_');
+            start = specialCharacterIndex + 1;
+            specialCharacterIndex = indexOfSpecialCharacter(field, start, specialCharacters);
+        }
+        return stringBuilder.append(field, start, field.length());
+    }
+
+    private static int indexOfSpecialCharacter(final String field, final int fromIndex, final String specialCharacters) {
+        for ( int i = fromIndex; i < field.length(); ++i ) {
+            if ( specialCharacters.indexOf(field.charAt(i)) != -1 ) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -2294,10 +2356,50 @@ public final class FuncotatorUtils {
         if (includedFields.size() == 0) {
             return "";
         }
-        return funcotation.getFieldNames().stream()
-                .filter(includedFields::contains)
-                .map(field -> FuncotatorUtils.sanitizeFuncotationFieldForVcf(funcotation.getField(field)))
-                .collect(Collectors.joining(VcfOutputRenderer.FIELD_DELIMITER));
+        return appendSanitizedFuncotationForVcf(new StringBuilder(), funcotation, new HashSet<>(includedFields)).toString();
+    }
+
+    /**
+     * Append the VCF representation of the given funcotation to the given {@link StringBuilder}, as rendered by
+     * {@link #renderSanitizedFuncotationForVcf(Funcotation, List)}, without creating intermediate {@link String}s.
+     * @param stringBuilder {@link StringBuilder} to which to append the funcotation.  Never {@code null}
+     * @param funcotation Funcotation to render for a VCF.  Never {@code null}
+     * @param includedFields Set of fields to include.  Any that match fields in the funcotation will be rendered.
+     *                       Never {@code null}
+     * @return {@code stringBuilder}
+     */
+    public static StringBuilder appendSanitizedFuncotationForVcf(final StringBuilder stringBuilder, final Funcotation funcotation, final Set<String> includedFields) {
+        Utils.nonNull(stringBuilder);
+        Utils.nonNull(funcotation);
+        Utils.nonNull(includedFields);
+
+        boolean isFirstField = true;
+        if ( funcotation instanceof TableFuncotation ) {
+            // Read the values straight from the table rather than looking each one up by name:
+            final TableFuncotation tableFuncotation = (TableFuncotation) funcotation;
+            final List<String> fieldNames = tableFuncotation.getSchema().getFieldNames();
+            for ( int i = 0; i < fieldNames.size(); ++i ) {
+                if ( includedFields.contains(fieldNames.get(i)) ) {
+                    if ( !isFirstField ) {
+                        stringBuilder.append(VcfOutputRenderer.FIELD_DELIMITER);
+                    }
+                    appendSanitizedFuncotationFieldForVcf(stringBuilder, tableFuncotation.getFieldValue(i));
+                    isFirstField = false;
+                }
+            }
+        }
+        else {
+            for ( final String field : funcotation.getFieldNames() ) {
+                if ( includedFields.contains(field) ) {
+                    if ( !isFirstField ) {
+                        stringBuilder.append(VcfOutputRenderer.FIELD_DELIMITER);
+                    }
+                    appendSanitizedFuncotationFieldForVcf(stringBuilder, funcotation.getField(field));
+                    isFirstField = false;
+                }
+            }
+        }
+        return stringBuilder;
     }
 
     /**
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.funcotator;
 
 import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.hellbender.engine.GATKPath;
 
 /**
  * Arguments to be be used by the {@link Funcotator} {@link org.broadinstitute.hellbender.engine.GATKTool},
@@ -40,4 +41,34 @@ public class FuncotatorVariantArgumentCollection extends BaseFuncotatorArgumentC
     )
     public int threePrimeFlankSize = FuncotatorArgumentDefinitions.THREE_PRIME_FLANK_SIZE_DEFAULT_VALUE;
 
+    @Argument(
+            fullName = FuncotatorArgumentDefinitions.FUNCOTATOR_THREADS_NAME,
+            optional = true,
+            minValue = 1,
+            doc = "Number of threads with which to annotate variants.  When greater than 1, variants are annotated in batches on a pool of this many threads, and are written to the output in their input order."
+    )
+    public int funcotatorThreads = FuncotatorArgumentDefinitions.FUNCOTATOR_THREADS_DEFAULT_VALUE;
+
+    @Argument(
+            fullName = FuncotatorArgumentDefinitions.FUNCOTATOR_BATCH_SIZE_NAME,
+            optional = true,
+            minValue = 1,
+            doc = "Number of variants to annotate together when annotating with more than one thread (see --" + FuncotatorArgumentDefinitions.FUNCOTATOR_THREADS_NAME + ").  Larger batches keep the threads busier at the cost of holding more variants and their data source features in memory."
+    )
+    public int funcotatorBatchSize = FuncotatorArgumentDefinitions.FUNCOTATOR_BATCH_SIZE_DEFAULT_VALUE;
+
+    @Argument(
+            fullName = FuncotatorArgumentDefinitions.STREAM_VCF_DATA_SOURCES_NAME,
+            optional = true,
+            doc = "Read the records of VCF data sources with a single forward cursor instead of querying them for each variant, and skip decoding the INFO fields excluded from the output (see --" + FuncotatorArgumentDefinitions.EXCLUSION_FIELDS_LONG_NAME + ").  Much faster for large VCF data sources (e.g. gnomAD) when the input variants are sorted.  VCF data sources must be indexed."
+    )
+    public boolean streamVcfDataSources = false;
+
+    @Argument(
+            fullName = FuncotatorArgumentDefinitions.MANIFEST_NAME,
+            optional = true,
+            doc = "Tab-separated file of further input VCFs and output files to annotate in the same run, one pair per line.  After the variants given by -V are written to -O, each input VCF in the manifest is annotated into its output file, reusing the data sources so that they are only initialized once."
+    )
+    public GATKPath manifest = null;
+
 }
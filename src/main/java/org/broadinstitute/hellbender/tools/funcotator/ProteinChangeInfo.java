@@ -47,13 +47,14 @@ public final class ProteinChangeInfo {
                                final int alignedCodingSequenceAlleleStart,
                                final String codingSequence,
                                final Strand strand,
-                               final boolean isMitochondria) {
+                               final boolean isMitochondria,
+                               final String precomputedReferenceProteinSequence) {
 
         // Cache whether it's a frameshift variant:
         final boolean isFrameshift =  GATKVariantContextUtils.isFrameshift( refAllele, altAllele );
 
         // Get our protein sequences:
-        final Pair<String, String> proteinSequences = createProteinSequences(refAllele, altAllele, codingSequenceAlleleStart, codingSequence, isFrameshift, isMitochondria);
+        final Pair<String, String> proteinSequences = createProteinSequences(refAllele, altAllele, codingSequenceAlleleStart, codingSequence, isFrameshift, isMitochondria, precomputedReferenceProteinSequence);
         final String referenceProteinSequence = proteinSequences.getLeft();
         final String alternateProteinSequence = proteinSequences.getRight();
 
@@ -114,7 +115,8 @@ public final class ProteinChangeInfo {
                                                         final int codingSequenceAlleleStart,
                                                         final String codingSequence,
                                                         final boolean isFrameshift,
-                                                        final boolean isMitochondria) {
+                                                        final boolean isMitochondria,
+                                                        final String precomputedReferenceProteinSequence) {
         final String referenceProteinSequence;
         final String alternateProteinSequence;
 
@@ -124,7 +126,14 @@ public final class ProteinChangeInfo {
                 altAllele.getBaseString() +
                 codingSequence.substring(codingSequenceAlleleStart + refAllele.length() -1);
 
-        if ( isMitochondria ) {
+        if ( precomputedReferenceProteinSequence != null ) {
+            // The reference protein of a transcript doesn't depend on the variant, so the caller may have translated it already:
+            referenceProteinSequence = precomputedReferenceProteinSequence;
+            alternateProteinSequence = isMitochondria ?
+                    FuncotatorUtils.createMitochondrialAminoAcidSequence( altCodingSequence, isFrameshift, "(size=" + codingSequence.length() + ", alt allele: " + altAllele.getBaseString() + ")") :
+                    FuncotatorUtils.createAminoAcidSequence(altCodingSequence, isFrameshift, "(size=" + codingSequence.length() + ", alt allele: " + altAllele.getBaseString() + ")");
+        }
+        else if ( isMitochondria ) {
             // Mitochondrial protein sequences differ from the Standard Code, so we must treat them separately:
             referenceProteinSequence = FuncotatorUtils.createMitochondrialAminoAcidSequence(codingSequence, false, "(size=" + codingSequence.length() + ", ref allele: " + refAllele.getBaseString() + ")");
             alternateProteinSequence = FuncotatorUtils.createMitochondrialAminoAcidSequence( altCodingSequence, isFrameshift, "(size=" + codingSequence.length() + ", alt allele: " + altAllele.getBaseString() + ")");
@@ -388,7 +397,45 @@ public final class ProteinChangeInfo {
         Utils.nonNull(codingSequence);
         Utils.nonNull(strand);
 
-        return new ProteinChangeInfo(refAllele, altAllele, codingSequenceAlleleStart, alignedCodingSequenceAlleleStart, codingSequence, strand, isMitochondria);
+        return new ProteinChangeInfo(refAllele, altAllele, codingSequenceAlleleStart, alignedCodingSequenceAlleleStart, codingSequence, strand, isMitochondria, null);
+    }
+
+    /**
+     * Create a {@link ProteinChangeInfo} object which will represent the change in the protein sequence
+     * which would be caused by a variant, re-using an already translated reference protein sequence.
+     * See {@link #create(Allele, Allele, int, int, String, Strand, boolean)} for the other parameters.
+     * @param referenceProteinSequence The translation of {@code codingSequence}, as created by {@link #createReferenceProteinSequence(String, boolean)}.  Must not be {@code null}.
+     * @return A new {@link ProteinChangeInfo} object representing the change in the protein sequence for the given input data.
+     */
+    public static ProteinChangeInfo create( final Allele refAllele,
+                                            final Allele altAllele,
+                                            final int codingSequenceAlleleStart,
+                                            final int alignedCodingSequenceAlleleStart,
+                                            final String codingSequence,
+                                            final Strand strand,
+                                            final boolean isMitochondria,
+                                            final String referenceProteinSequence) {
+        Utils.nonNull(refAllele);
+        Utils.nonNull(altAllele);
+        Utils.nonNull(codingSequence);
+        Utils.nonNull(strand);
+        Utils.nonNull(referenceProteinSequence);
+
+        return new ProteinChangeInfo(refAllele, altAllele, codingSequenceAlleleStart, alignedCodingSequenceAlleleStart, codingSequence, strand, isMitochondria, referenceProteinSequence);
+    }
+
+    /**
+     * Translate the given coding sequence into the reference protein sequence used by {@link ProteinChangeInfo}.
+     * @param codingSequence The strand-corrected sequence of bases containing the _coding sequence_ for a particular transcript of a gene.  Must not be {@code null}.
+     * @param isMitochondria If {@code true}, will use Mitochondrial protein decoding, rather than the standard eukaryotic amino acid decoding.
+     * @return The protein sequence for {@code codingSequence}.
+     */
+    public static String createReferenceProteinSequence(final String codingSequence, final boolean isMitochondria) {
+        Utils.nonNull(codingSequence);
+        final String description = "(size=" + codingSequence.length() + ")";
+        return isMitochondria ?
+                FuncotatorUtils.createMitochondrialAminoAcidSequence(codingSequence, false, description) :
+                FuncotatorUtils.createAminoAcidSequence(codingSequence, false, description);
     }
 
     /**
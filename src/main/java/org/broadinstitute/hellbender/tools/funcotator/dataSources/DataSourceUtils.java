@@ -14,6 +14,7 @@ import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.Gencod
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.vcf.VcfFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.LocatableXsvFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvFuncotationFactory;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvIndex;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.codecs.gtf.GencodeGtfFeature;
 import org.broadinstitute.hellbender.utils.codecs.xsvLocatableTable.XsvTableFeature;
@@ -516,6 +517,39 @@ final public class DataSourceUtils {
                 );
     }
 
+    /**
+     * Create a {@link SimpleKeyXsvIndex} for the data source with the given config file, which {@link SimpleKeyXsvFuncotationFactory}
+     * will use instead of reading the whole data source file into memory.
+     * @param configFilePath {@link Path} to the config file of a {@link FuncotatorArgumentDefinitions.DataSourceType#SIMPLE_XSV} data source.  Must not be {@code null}.
+     * @param outputPath {@link Path} to which to write the index.  If {@code null}, the index will be written next to the data source file, where {@link SimpleKeyXsvFuncotationFactory} looks for it.
+     * @return The {@link Path} to which the index was written.
+     */
+    public static Path createSimpleXsvDataSourceIndex(final Path configFilePath, final Path outputPath) {
+        Utils.nonNull(configFilePath);
+
+        final Properties dataSourceProperties = readConfigFileProperties(configFilePath);
+        assertConfigFilePropertiesAreValid(dataSourceProperties, configFilePath);
+        if ( FuncotatorArgumentDefinitions.DataSourceType.getEnum(dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_TYPE)) != FuncotatorArgumentDefinitions.DataSourceType.SIMPLE_XSV ) {
+            throw new UserException.BadInput("Only data sources of type " + FuncotatorArgumentDefinitions.DataSourceType.SIMPLE_XSV + " can be indexed (" + configFilePath.toUri().toString() + ")");
+        }
+
+        final Path xsvPath = resolveFilePathStringFromKnownPath(dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_SRC_FILE), configFilePath);
+        final Path indexPath = (outputPath == null) ? SimpleKeyXsvIndex.getDefaultPath(xsvPath) : outputPath;
+
+        // These must match the settings in createSimpleXsvDataSource, or the factory will not use the index:
+        SimpleKeyXsvFuncotationFactory.createIndex(
+                xsvPath,
+                dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_XSV_DELIMITER),
+                Integer.valueOf(dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_XSV_KEY_COLUMN)),
+                SimpleKeyXsvFuncotationFactory.XsvDataKeyType.valueOf(dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_XSV_KEY)),
+                0,
+                Boolean.valueOf(dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_XSV_PERMISSIVE_COLS)),
+                indexPath
+        );
+
+        return indexPath;
+    }
+
     /**
      * Create a {@link CosmicFuncotationFactory} from filesystem resources and field overrides.
      * @param dataSourceFile {@link Path} to the data source file.  Must not be {@code null}.
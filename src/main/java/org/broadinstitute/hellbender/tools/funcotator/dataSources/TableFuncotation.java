@@ -1,6 +1,5 @@
 package org.broadinstitute.hellbender.tools.funcotator.dataSources;
 
-import com.google.common.collect.Sets;
 import htsjdk.variant.variantcontext.Allele;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
@@ -8,12 +7,12 @@ import org.broadinstitute.hellbender.tools.funcotator.Funcotation;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.LocatableXsvFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.metadata.FuncotationMetadata;
-import org.broadinstitute.hellbender.tools.funcotator.metadata.FuncotationMetadataUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.codecs.xsvLocatableTable.XsvTableFeature;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * A {@link Funcotation} to hold data from simple tabular data.
@@ -21,6 +20,9 @@ import java.util.stream.Collectors;
  * that can be expressed as a row in a table / database (such as via {@link SimpleKeyXsvFuncotationFactory},
  * {@link LocatableXsvFuncotationFactory}, and
  * {@link org.broadinstitute.hellbender.tools.funcotator.dataSources.cosmic.CosmicFuncotationFactory}).
+ *
+ * The field names are held in a {@link TableFuncotationSchema} shared with every other {@link TableFuncotation} with
+ * the same fields, and the values in an array, so that each {@link TableFuncotation} is little more than its values.
  * Created by jonn on 11/28/17.
  */
 public class TableFuncotation implements Funcotation {
@@ -39,7 +41,12 @@ public class TableFuncotation implements Funcotation {
     /**
      * Names of the fields in this {@link TableFuncotation}.
      */
-    final private LinkedHashMap<String, String> fieldMap;
+    final private TableFuncotationSchema schema;
+
+    /**
+     * Values of the fields in this {@link TableFuncotation}, in the order of the fields in {@link #schema}.
+     */
+    final private String[] fieldValues;
 
     /** The alternate {@link Allele} associated with this {@link TableFuncotation} */
     final private Allele altAllele;
@@ -49,32 +56,19 @@ public class TableFuncotation implements Funcotation {
     //==================================================================================================================
     // Constructors:
 
-    private TableFuncotation(final List<String> fieldNames, final List<String> fieldValues, final Allele altAllele, final String dataSourceName, final FuncotationMetadata metadata ) {
-        if ( fieldNames.size() != fieldValues.size() ) {
-            throw new UserException.BadInput("Field names and Field values are of different lengths!  This must not be!");
-        }
-
-        fieldMap = new LinkedHashMap<>(fieldNames.size());
-        for ( int i = 0; i < fieldNames.size() ; ++i ) {
-            fieldMap.put(fieldNames.get(i), fieldValues.get(i));
-        }
-
+    private TableFuncotation(final TableFuncotationSchema schema, final String[] fieldValues, final Allele altAllele, final String dataSourceName, final FuncotationMetadata metadata ) {
+        this.schema = schema;
+        this.fieldValues = fieldValues;
         this.altAllele = altAllele;
         this.dataSourceName = dataSourceName;
 
         if (metadata == null) {
-            this.metadata = FuncotationMetadataUtils.createWithUnknownAttributes(fieldNames);
+            this.metadata = schema.getUnknownAttributesMetadata();
         } else {
+            // Validate that the metadata is okay.
+            schema.validateMetadata(metadata);
             this.metadata = metadata;
         }
-
-        // Validate that the metadata is okay.
-        final Set<String> metadataFieldNames = this.metadata.retrieveAllHeaderInfo().stream().map(f -> f.getID()).collect(Collectors.toSet());
-        final HashSet<String> funcotationFieldNames = new HashSet<>(fieldNames);
-        if (!metadataFieldNames.equals(funcotationFieldNames)) {
-            throw new UserException.BadInput("Metadata was not valid for the given field names.  Unmatched fields: " +
-                    Sets.symmetricDifference(metadataFieldNames, funcotationFieldNames).stream().collect(Collectors.joining(", ")));
-        }
     }
 
     //==================================================================================================================
@@ -92,22 +86,24 @@ public class TableFuncotation implements Funcotation {
 
     @Override
     public void setFieldSerializationOverrideValue(final String fieldName, final String overrideValue) {
-        if ( !fieldMap.containsKey(fieldName) ) {
+        final int index = schema.indexOf(fieldName);
+        if ( index == -1 ) {
             throw new GATKException("Attempted to override a field that is not contained in this TableFuncotation: "
-                    + fieldName + " is not one of [" + String.join(",", fieldMap.keySet()) + "]");
+                    + fieldName + " is not one of [" + String.join(",", schema.getFieldNames()) + "]");
         }
-        fieldMap.put(fieldName, overrideValue);
+        fieldValues[index] = overrideValue;
     }
 
     @Override
-    public LinkedHashSet<String> getFieldNames() {
-        return new LinkedHashSet<>(fieldMap.keySet());
+    public Set<String> getFieldNames() {
+        return schema.getFieldNameSet();
     }
 
     @Override
     public String getField(final String fieldName) {
-        if ( fieldMap.containsKey(fieldName) ) {
-            return fieldMap.get(fieldName);
+        final int index = schema.indexOf(fieldName);
+        if ( index != -1 ) {
+            return fieldValues[index];
         }
         else {
             throw new GATKException(this.getClass().getSimpleName() + ": Does not contain field: " + fieldName);
@@ -116,7 +112,7 @@ public class TableFuncotation implements Funcotation {
 
     @Override
     public boolean hasField(final String fieldName) {
-        return fieldMap.containsKey(fieldName);
+        return schema.indexOf(fieldName) != -1;
     }
 
     @Override
@@ -133,14 +129,14 @@ public class TableFuncotation implements Funcotation {
 
         if ( dataSourceName != null ? !dataSourceName.equals(that.dataSourceName) : that.dataSourceName != null )
             return false;
-        if ( fieldMap != null ? !fieldMap.equals(that.fieldMap) : that.fieldMap != null ) return false;
+        if ( !fieldsEqual(that) ) return false;
         return altAllele != null ? altAllele.equals(that.altAllele) : that.altAllele == null;
     }
 
     @Override
     public int hashCode() {
         int result = dataSourceName != null ? dataSourceName.hashCode() : 0;
-        result = 31 * result + (fieldMap != null ? fieldMap.hashCode() : 0);
+        result = 31 * result + fieldsHashCode();
         result = 31 * result + (altAllele != null ? altAllele.hashCode() : 0);
         return result;
     }
@@ -149,11 +145,42 @@ public class TableFuncotation implements Funcotation {
     public String toString() {
         return "TableFuncotation{" +
                 "dataSourceName='" + dataSourceName + '\'' +
-                ", fieldMap={" + fieldMap.keySet().stream().map(k -> k + ":" + fieldMap.get(k)).collect(Collectors.joining(" , ")) + '}' +
+                ", fieldMap={" + IntStream.range(0, fieldValues.length).mapToObj(i -> schema.getFieldNames().get(i) + ":" + fieldValues[i]).collect(Collectors.joining(" , ")) + '}' +
                 ", altAllele=" + altAllele +
                 '}';
     }
 
+    /**
+     * Fields are compared as a map from name to value (i.e. regardless of their order), as they were before
+     * {@link TableFuncotation}s shared their field names.
+     */
+    private boolean fieldsEqual(final TableFuncotation that) {
+        if ( schema == that.schema ) {
+            return Arrays.equals(fieldValues, that.fieldValues);
+        }
+        if ( fieldValues.length != that.fieldValues.length ) {
+            return false;
+        }
+        for ( int i = 0; i < fieldValues.length; ++i ) {
+            final int thatIndex = that.schema.indexOf(schema.getFieldNames().get(i));
+            if ( (thatIndex == -1) || !Objects.equals(fieldValues[i], that.fieldValues[thatIndex]) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The hash code of the fields of this {@link TableFuncotation} as a map from name to value.  See {@link #fieldsEqual(TableFuncotation)}.
+     */
+    private int fieldsHashCode() {
+        int result = 0;
+        for ( int i = 0; i < fieldValues.length; ++i ) {
+            result += schema.getFieldNames().get(i).hashCode() ^ Objects.hashCode(fieldValues[i]);
+        }
+        return result;
+    }
+
 
     //==================================================================================================================
     // Static Methods:
@@ -173,7 +200,45 @@ public class TableFuncotation implements Funcotation {
         Utils.nonNull(fieldValues);
         Utils.nonNull(altAllele);
         Utils.nonNull(dataSourceName);
-        return new TableFuncotation(fieldNames, fieldValues, altAllele, dataSourceName, metadata);
+        if ( fieldNames.size() != fieldValues.size() ) {
+            throw new UserException.BadInput("Field names and Field values are of different lengths!  This must not be!");
+        }
+
+        final TableFuncotationSchema schema = TableFuncotationSchema.of(fieldNames);
+        final String[] values;
+        if ( schema.size() == fieldNames.size() ) {
+            values = fieldValues.toArray(new String[0]);
+        }
+        else {
+            // Some field names are repeated, in which case the last value for the field wins:
+            values = new String[schema.size()];
+            for ( int i = 0; i < fieldNames.size(); ++i ) {
+                values[schema.indexOf(fieldNames.get(i))] = fieldValues.get(i);
+            }
+        }
+        return new TableFuncotation(schema, values, altAllele, dataSourceName, metadata);
+    }
+
+    /**
+     * Create a TableFuncotation with the fields of the given schema.  This is the cheapest way to create many
+     * {@link TableFuncotation}s with the same fields.
+     *
+     * @param schema The {@link TableFuncotationSchema} with the names of the fields.  Never {@code null}
+     * @param fieldValues Values corresponding to the fields of <code>schema</code>, in order.  Never {@code null}
+     * @param altAllele See {@link TableFuncotation#create(List, List, Allele, String, FuncotationMetadata)}
+     * @param dataSourceName See {@link TableFuncotation#create(List, List, Allele, String, FuncotationMetadata)}
+     * @param metadata See {@link TableFuncotation#create(List, List, Allele, String, FuncotationMetadata)}
+     * @return Never {@code null}
+     */
+    public static TableFuncotation create(final TableFuncotationSchema schema, final List<String> fieldValues, final Allele altAllele, final String dataSourceName, final FuncotationMetadata metadata ) {
+        Utils.nonNull(schema);
+        Utils.nonNull(fieldValues);
+        Utils.nonNull(altAllele);
+        Utils.nonNull(dataSourceName);
+        if ( schema.size() != fieldValues.size() ) {
+            throw new UserException.BadInput("Field names and Field values are of different lengths!  This must not be!");
+        }
+        return new TableFuncotation(schema, fieldValues.toArray(new String[0]), altAllele, dataSourceName, metadata);
     }
 
     /**
@@ -233,28 +298,44 @@ public class TableFuncotation implements Funcotation {
      * @return The value corresponding to the given key or {@code null}.
      */
     public String get(final String key) {
-        return fieldMap.get(key);
+        final int index = schema.indexOf(key);
+        return index == -1 ? null : fieldValues[index];
     }
 
     /**
-     * @return The {@link Set} of field names in this {@link TableFuncotation}.
+     * @return An unmodifiable view of the {@link Set} of field names in this {@link TableFuncotation}.
      */
     public Set<String> keySet() {
-        return fieldMap.keySet();
+        return schema.getFieldNameSet();
     }
 
     /**
      * @return The {@link Collection} of field values in this {@link TableFuncotation}.
      */
     public Collection<String> values() {
-        return fieldMap.values();
+        return Collections.unmodifiableList(Arrays.asList(fieldValues));
     }
 
     /**
      * @return The number of key-value pairs in this {@link TableFuncotation}.
      */
     public int size() {
-        return fieldMap.size();
+        return fieldValues.length;
+    }
+
+    /**
+     * @return The {@link TableFuncotationSchema} holding the names of the fields in this {@link TableFuncotation}.
+     */
+    public TableFuncotationSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @param index Index of a field in {@link #getSchema()}.
+     * @return The value of the field at {@code index}.
+     */
+    public String getFieldValue(final int index) {
+        return fieldValues[index];
     }
 
     //==================================================================================================================
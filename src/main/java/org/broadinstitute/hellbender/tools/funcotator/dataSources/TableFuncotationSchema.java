@@ -0,0 +1,188 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Sets;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.funcotator.metadata.FuncotationMetadata;
+import org.broadinstitute.hellbender.tools.funcotator.metadata.FuncotationMetadataUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * The ordered field names of a {@link TableFuncotation}, shared by every {@link TableFuncotation} with the same fields.
+ *
+ * A data source creates every one of its {@link TableFuncotation}s with the same fields, so rather than each
+ * {@link TableFuncotation} holding its own map from field name to value, it holds a reference to one of these and an
+ * array of values.  Schemas are interned by {@link #of(List)}, so there is normally a single schema per data source no
+ * matter how many variants, alleles and transcripts are annotated.
+ *
+ * Schemas are immutable and may be used by several threads at once.
+ */
+public final class TableFuncotationSchema {
+
+    //==================================================================================================================
+    // Private Static Members:
+
+    /**
+     * The maximum number of distinct schemas to intern.  Field names normally come from a handful of data sources, so
+     * this is only here to keep memory bounded if something creates funcotations with ever-changing fields.
+     */
+    @VisibleForTesting
+    static final int MAX_INTERNED_SCHEMAS = 10000;
+
+    private static final Map<List<String>, TableFuncotationSchema> internedSchemas = new ConcurrentHashMap<>();
+
+    //==================================================================================================================
+    // Private Members:
+
+    /**
+     * Names of the fields, in order, without duplicates.
+     */
+    private final List<String> fieldNames;
+
+    /**
+     * Index of each field in {@link #fieldNames}.
+     */
+    private final Map<String, Integer> fieldIndices;
+
+    /**
+     * Unmodifiable ordered {@link Set} view of {@link #fieldNames}.
+     */
+    private final Set<String> fieldNameSet;
+
+    /**
+     * The last {@link FuncotationMetadata} that was found to describe exactly these fields.  Almost all funcotations
+     * with this schema share the metadata of their data source, so remembering it avoids checking the metadata again
+     * for every funcotation.
+     */
+    private volatile FuncotationMetadata validatedMetadata = null;
+
+    /**
+     * Metadata with unknown descriptions for these fields.  Created when first needed.
+     */
+    private volatile FuncotationMetadata unknownAttributesMetadata = null;
+
+    //==================================================================================================================
+    // Constructors:
+
+    private TableFuncotationSchema(final List<String> fieldNames) {
+        this.fieldNames = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(fieldNames)));
+        fieldIndices = new HashMap<>((int)(this.fieldNames.size() / 0.75) + 1);
+        for ( int i = 0; i < this.fieldNames.size(); ++i ) {
+            fieldIndices.put(this.fieldNames.get(i), i);
+        }
+        fieldNameSet = new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return TableFuncotationSchema.this.fieldNames.iterator();
+            }
+
+            @Override
+            public int size() {
+                return TableFuncotationSchema.this.fieldNames.size();
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                return fieldIndices.containsKey(o);
+            }
+        };
+    }
+
+    //==================================================================================================================
+    // Static Methods:
+
+    /**
+     * Get the schema for the given field names.  If a field name occurs more than once, only its first occurrence
+     * counts towards the order of the fields.
+     * @param fieldNames Names of the fields, in order.  Never {@code null}.
+     * @return The (interned) schema for the given field names.  Never {@code null}.
+     */
+    public static TableFuncotationSchema of(final List<String> fieldNames) {
+        Utils.nonNull(fieldNames);
+        final TableFuncotationSchema schema = internedSchemas.get(fieldNames);
+        if ( schema != null ) {
+            return schema;
+        }
+
+        final TableFuncotationSchema newSchema = new TableFuncotationSchema(fieldNames);
+        if ( internedSchemas.size() >= MAX_INTERNED_SCHEMAS ) {
+            return newSchema;
+        }
+        final TableFuncotationSchema existingSchema = internedSchemas.putIfAbsent(new ArrayList<>(fieldNames), newSchema);
+        return existingSchema == null ? newSchema : existingSchema;
+    }
+
+    //==================================================================================================================
+    // Instance Methods:
+
+    /**
+     * @return The names of the fields in this schema, in order, without duplicates.  Never {@code null}.
+     */
+    public List<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    /**
+     * @return An unmodifiable {@link Set} view of the names of the fields in this schema, iterating in order.  Never {@code null}.
+     */
+    public Set<String> getFieldNameSet() {
+        return fieldNameSet;
+    }
+
+    /**
+     * @return The number of fields in this schema.
+     */
+    public int size() {
+        return fieldNames.size();
+    }
+
+    /**
+     * @param fieldName Name of the field to find.
+     * @return The index of {@code fieldName} in this schema, or {@code -1} if it is not a field of this schema.
+     */
+    public int indexOf(final String fieldName) {
+        final Integer index = fieldIndices.get(fieldName);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return {@link FuncotationMetadata} for the fields of this schema indicating that we do not really know the
+     *         metadata.  See {@link FuncotationMetadataUtils#createWithUnknownAttributes(List)}.  Never {@code null}.
+     */
+    FuncotationMetadata getUnknownAttributesMetadata() {
+        FuncotationMetadata metadata = unknownAttributesMetadata;
+        if ( metadata == null ) {
+            metadata = FuncotationMetadataUtils.createWithUnknownAttributes(fieldNames);
+            unknownAttributesMetadata = metadata;
+        }
+        return metadata;
+    }
+
+    /**
+     * Check that the given metadata describes exactly the fields of this schema.
+     * @param metadata {@link FuncotationMetadata} to check.  Never {@code null}.
+     * @throws UserException.BadInput if the metadata does not describe exactly the fields of this schema.
+     */
+    void validateMetadata(final FuncotationMetadata metadata) {
+        if ( (metadata == validatedMetadata) || (metadata == unknownAttributesMetadata) ) {
+            return;
+        }
+
+        final Set<String> metadataFieldNames = metadata.retrieveAllHeaderInfo().stream().map(f -> f.getID()).collect(Collectors.toSet());
+        final Set<String> funcotationFieldNames = fieldIndices.keySet();
+        if (!metadataFieldNames.equals(funcotationFieldNames)) {
+            throw new UserException.BadInput("Metadata was not valid for the given field names.  Unmatched fields: " +
+                    Sets.symmetricDifference(metadataFieldNames, funcotationFieldNames).stream().collect(Collectors.joining(", ")));
+        }
+        validatedMetadata = metadata;
+    }
+
+    @Override
+    public String toString() {
+        return "TableFuncotationSchema{" + String.join(", ", fieldNames) + '}';
+    }
+}
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.reference.ReferenceSequence;
@@ -14,6 +15,7 @@ import htsjdk.variant.vcf.VCFHeaderLineType;
 import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.engine.FeatureContext;
 import org.broadinstitute.hellbender.engine.FeatureInput;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.engine.ReferenceDataSource;
@@ -39,9 +41,14 @@ import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import org.sqlite.util.StringUtils;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -72,6 +79,12 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
     private static final String LOCAL_GENCODE_TRANSCRIPT_TMP_DIR_PREFIX = "localGencodeTranscriptFastaFolder";
     private static final String LOCAL_GENCODE_TRANSCRIPT_FILE_BASE_NAME = "gencodeTranscriptFastaFile";
 
+    /**
+     * Patterns for the UTR and CDS fields in the sequence names of the GENCODE transcript FASTA file.
+     */
+    private static final Pattern UTR_PATTERN = Pattern.compile("UTR[35]:(\\d+)-(\\d+)");
+    private static final Pattern CDS_PATTERN = Pattern.compile("CDS:(\\d+)-(\\d+)");
+
     /**
      * The window around splice sites to mark variants as {@link org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation.VariantClassification#SPLICE_SITE}.
      */
@@ -94,6 +107,11 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
      */
     private static final int defaultNumTrailingBasesForUtrAnnotationSequenceConstruction = AminoAcid.CODON_LENGTH;
 
+    /**
+     * Orders exons by their exon number, which is the order in which they appear in the expressed transcript.
+     */
+    private static final Comparator<GencodeGtfExonFeature> EXON_NUMBER_COMPARATOR = Comparator.comparingInt(GencodeGtfExonFeature::getExonNumber);
+
     /**
      * The window for an indel to be within the end of a transcript to trigger padding the end of the
      * transcript with additional bases from the reference.
@@ -177,6 +195,9 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
     /** For legacy reasons, the ref allele column is always blank in funcotations. */
     private static final String LEGACY_SEGMENT_REF_ALLELE_VALUE = "";
 
+    /** The number of genes overlapping a segment that are processed by each task when segments are processed in parallel. */
+    private static final int DEFAULT_SEGMENT_GENES_PER_TASK = 250;
+
 
     //==================================================================================================================
     // Private Members:
@@ -197,6 +218,11 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
      */
     private final Map<String, MappedTranscriptIdInfo> transcriptIdMap;
 
+    /**
+     * Cache of the coding regions, coding sequences and reference proteins of recently annotated transcripts.
+     */
+    private final TranscriptCodingInfoCache transcriptCodingInfoCache;
+
     /**
      * The mode to select the "best" transcript (i.e. the transcript with detailed information) from the list of
      * possible transcripts.
@@ -244,6 +270,17 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
      */
     private boolean isSegmentFuncotationEnabled;
 
+    /**
+     * If not {@code null}, the genes overlapping segments are processed in parallel on this executor.
+     * See {@link #setSegmentAnnotationExecutor(ExecutorService)}.
+     */
+    private ExecutorService segmentAnnotationExecutor = null;
+
+    /**
+     * The number of genes overlapping a segment that are processed by each task on {@link #segmentAnnotationExecutor}.
+     */
+    private int segmentGenesPerTask = DEFAULT_SEGMENT_GENES_PER_TASK;
+
     //==================================================================================================================
     // Constructors:
 
@@ -356,14 +393,23 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
         super(mainFeatureInput, minBasesForValidSegment);
 
-        // Set up our local transcript fasta file.
-        // We must localize it (if not on disk) to make read times fast enough to be manageable:
-        gencodeTranscriptFastaFile = localizeGencodeTranscriptFastaFile( gencodeTranscriptFastaFilePath );
         this.flankSettings = flankSettings;
 
-        // Initialize our transcript data source and ID map:
-        transcriptFastaReferenceDataSource = ReferenceDataSource.of(gencodeTranscriptFastaFile);
+        // Initialize our transcript data source and ID map.
+        // A transcript FASTA cache is much faster to open than the FASTA itself, so we use one if there is one:
+        final GencodeTranscriptFastaCache transcriptFastaCache = openTranscriptFastaCache( gencodeTranscriptFastaFilePath );
+        if ( transcriptFastaCache != null ) {
+            gencodeTranscriptFastaFile = gencodeTranscriptFastaFilePath;
+            transcriptFastaReferenceDataSource = transcriptFastaCache;
+        }
+        else {
+            // Set up our local transcript fasta file.
+            // We must localize it (if not on disk) to make read times fast enough to be manageable:
+            gencodeTranscriptFastaFile = localizeGencodeTranscriptFastaFile( gencodeTranscriptFastaFilePath );
+            transcriptFastaReferenceDataSource = ReferenceDataSource.of(gencodeTranscriptFastaFile);
+        }
         transcriptIdMap = createTranscriptIdMap(transcriptFastaReferenceDataSource);
+        transcriptCodingInfoCache = new TranscriptCodingInfoCache(TranscriptCodingInfoCache.DEFAULT_MAX_ENTRIES, transcriptIdMap, transcriptFastaReferenceDataSource);
 
         this.transcriptSelectionMode = transcriptSelectionMode;
 
@@ -396,6 +442,53 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         initializeAnnotationOverrides( annotationOverrides );
     }
 
+    /**
+     * Open the {@link GencodeTranscriptFastaCache} for the given transcript FASTA file, localizing it first if it is not on disk.
+     * @param gencodeTranscriptFastaFilePath {@link Path} to the FASTA file containing the sequences of all transcripts in the Gencode data source.
+     * @return The {@link GencodeTranscriptFastaCache} for the given FASTA, or {@code null} if there is no cache for it or the cache is out of date.
+     */
+    private GencodeTranscriptFastaCache openTranscriptFastaCache( final Path gencodeTranscriptFastaFilePath ) {
+
+        final Path cachePath = GencodeTranscriptFastaCache.getDefaultPath(gencodeTranscriptFastaFilePath);
+        final long transcriptFastaSize;
+        final long transcriptFastaLastModified;
+        try {
+            if ( !Files.exists(cachePath) ) {
+                return null;
+            }
+            transcriptFastaSize = Files.size(gencodeTranscriptFastaFilePath);
+            transcriptFastaLastModified = Files.getLastModifiedTime(gencodeTranscriptFastaFilePath).toMillis();
+        }
+        catch ( final IOException ex ) {
+            throw new UserException.CouldNotReadInputFile(gencodeTranscriptFastaFilePath, "could not get the size and modification time of the Gencode transcript FASTA file", ex);
+        }
+
+        final Path localCachePath;
+        if ( cachePath.getFileSystem().equals(FileSystems.getDefault()) ) {
+            localCachePath = cachePath;
+        }
+        else {
+            // The cache must be on disk to be memory-mapped:
+            final File tmpDir = IOUtils.createTempDir(LOCAL_GENCODE_TRANSCRIPT_TMP_DIR_PREFIX);
+            tmpDir.deleteOnExit();
+            localCachePath = tmpDir.toPath().resolve(LOCAL_GENCODE_TRANSCRIPT_FILE_BASE_NAME + GencodeTranscriptFastaCache.FILE_EXTENSION);
+
+            logger.info("Localizing Gencode transcript FASTA cache...");
+            NioFileCopierWithProgressMeter.create(cachePath, localCachePath, true).initiateCopy();
+        }
+
+        final GencodeTranscriptFastaCache cache = GencodeTranscriptFastaCache.open(localCachePath);
+        if ( cache.getSourceSize() != transcriptFastaSize || cache.getSourceLastModified() != transcriptFastaLastModified ) {
+            logger.warn("Ignoring the Gencode transcript FASTA cache " + cachePath.toUri() + " because it was created from a different transcript FASTA file.  " +
+                    "Recreate it with CreateGencodeTranscriptFastaCache to speed up initialization.");
+            cache.close();
+            return null;
+        }
+
+        logger.info("Using Gencode transcript FASTA cache: " + cachePath.toUri());
+        return cache;
+    }
+
     private Path localizeGencodeTranscriptFastaFile( final Path gencodeTranscriptFastaFilePath ) {
 
         // Is the path local or in the cloud:
@@ -444,6 +537,24 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         return GencodeGtfFeature.class;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The exons of the transcripts in the returned genes are sorted by exon number here, because the rest of this class
+     * expects them in that order.  Doing this when the features are queried rather than when they are annotated means
+     * that the features are never modified by the threads that annotate variants, which may share them.
+     */
+    @Override
+    public List<Feature> getFeaturesFromFeatureContext(final FeatureContext featureContext) {
+        final List<Feature> features = super.getFeaturesFromFeatureContext(featureContext);
+        for ( final Feature feature : features ) {
+            if ( feature instanceof GencodeGtfGeneFeature ) {
+                ((GencodeGtfGeneFeature) feature).getTranscripts().forEach(GencodeFuncotationFactory::sortExonsByExonNumber);
+            }
+        }
+        return features;
+    }
+
     @Override
     public String getInfoString() {
         return getName() + " " + getVersion() + " " + transcriptSelectionMode.toString();
@@ -451,6 +562,8 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
     @Override
     public void close() {
+        final long transcriptCacheHits = transcriptCodingInfoCache.getHits();
+        logger.info(getName() + " " + getVersion() + " transcript cache hits/total: " + transcriptCacheHits + "/" + (transcriptCacheHits + transcriptCodingInfoCache.getMisses()));
         transcriptFastaReferenceDataSource.close();
     }
 
@@ -673,28 +786,25 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
         final MappedTranscriptIdInfo transcriptIdInfo = new MappedTranscriptIdInfo();
 
-        final Pattern utrPattern = Pattern.compile("UTR[35]:(\\d+)-(\\d+)");
-        final Pattern cdsPattern = Pattern.compile("CDS:(\\d+)-(\\d+)");
-
         boolean has3pUtr = false;
         boolean has5pUtr = false;
 
         // Now let's go through the sequence name and pull out the salient features for each field:
         for (final String field : Utils.split(sequence.getSequenceName(), "|")) {
             if ((field.length() > 4) && (field.substring(0, 5).equals("UTR5:"))) {
-                final Matcher m = utrPattern.matcher(field);
+                final Matcher m = UTR_PATTERN.matcher(field);
                 m.find();
                 transcriptIdInfo.fivePrimeUtrStart = Integer.valueOf(m.group(1));
                 transcriptIdInfo.fivePrimeUtrEnd = Integer.valueOf(m.group(2));
                 has5pUtr = true;
             } else if ((field.length() > 4) && (field.substring(0, 5).equals("UTR3:"))) {
-                final Matcher m = utrPattern.matcher(field);
+                final Matcher m = UTR_PATTERN.matcher(field);
                 m.find();
                 transcriptIdInfo.threePrimeUtrStart = Integer.valueOf(m.group(1));
                 transcriptIdInfo.threePrimeUtrEnd = Integer.valueOf(m.group(2));
                 has3pUtr = true;
             } else if ((field.length() > 3) && (field.substring(0, 4).equals("CDS:"))) {
-                final Matcher m = cdsPattern.matcher(field);
+                final Matcher m = CDS_PATTERN.matcher(field);
                 m.find();
                 transcriptIdInfo.codingSequenceStart = Integer.valueOf(m.group(1));
                 transcriptIdInfo.codingSequenceEnd = Integer.valueOf(m.group(2));
@@ -726,10 +836,10 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
      * @param transcriptTailPaddingBaseString Bases to add to the end of the transcript base string to enable processing variants that overrrun the end of the transcript.
      * @return The coding sequence for the given {@code transcriptId} as represented in the GENCODE transcript FASTA file.
      */
-    private static String getCodingSequenceFromTranscriptFasta( final String transcriptId,
-                                                                final Map<String, MappedTranscriptIdInfo> transcriptIdMap,
-                                                                final ReferenceDataSource transcriptFastaReferenceDataSource,
-                                                                final String transcriptTailPaddingBaseString) {
+    static String getCodingSequenceFromTranscriptFasta( final String transcriptId,
+                                                        final Map<String, MappedTranscriptIdInfo> transcriptIdMap,
+                                                        final ReferenceDataSource transcriptFastaReferenceDataSource,
+                                                        final String transcriptTailPaddingBaseString) {
 
         final MappedTranscriptIdInfo transcriptMapIdAndMetadata = transcriptIdMap.get(transcriptId);
 
@@ -743,7 +853,10 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                 transcriptMapIdAndMetadata.codingSequenceEnd
         );
 
-        return transcriptFastaReferenceDataSource.queryAndPrefetch( transcriptInterval ).getBaseString() + transcriptTailPaddingBaseString;
+        // The transcript FASTA is shared by every thread annotating variants, and ReferenceDataSource is not thread-safe:
+        synchronized ( transcriptFastaReferenceDataSource ) {
+            return transcriptFastaReferenceDataSource.queryAndPrefetch( transcriptInterval ).getBaseString() + transcriptTailPaddingBaseString;
+        }
     }
 
     /**
@@ -775,7 +888,9 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                     transcriptMapIdAndMetadata.fivePrimeUtrEnd + extraBases
             );
 
-            return transcriptFastaReferenceDataSource.queryAndPrefetch(transcriptInterval).getBaseString();
+            synchronized ( transcriptFastaReferenceDataSource ) {
+                return transcriptFastaReferenceDataSource.queryAndPrefetch(transcriptInterval).getBaseString();
+            }
         }
         else {
             return "";
@@ -1004,8 +1119,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         }
 
         // Make sure the sub-regions in the transcript actually contain the variant:
-        // TODO: this is slow, and repeats work that is done later in the process (we call getSortedCdsAndStartStopPositions when creating the sequence comparison)
-        final int startPosInTranscript =  FuncotatorUtils.getStartPositionInTranscript(variant, getSortedCdsAndStartStopPositions(transcript), transcript.getGenomicStrand() );
+        final int startPosInTranscript =  FuncotatorUtils.getStartPositionInTranscript(variant, transcriptCodingInfoCache.get(transcript).getSortedCdsAndStartStopPositions(), transcript.getGenomicStrand() );
 
         if ( GencodeGtfExonFeature.class.isAssignableFrom(containingSubfeature.getClass()) ) {
 
@@ -1104,7 +1218,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
         // Get the list of exons by their locations so we can use them to determine our location in the transcript and get
         // the transcript code itself:
-        final List<? extends Locatable> exonPositionList = getSortedCdsAndStartStopPositions(transcript);
+        final List<? extends Locatable> exonPositionList = transcriptCodingInfoCache.get(transcript).getSortedCdsAndStartStopPositions();
 
         // Setup the "trivial" fields of the gencodeFuncotation:
         final GencodeFuncotationBuilder gencodeFuncotationBuilder = createGencodeFuncotationBuilderWithTrivialFieldsPopulated(variant, altAllele, transcript);
@@ -1214,7 +1328,8 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
         // Get the list of exons by their locations so we can use them to determine our location in the transcript and get
         // the transcript code itself:
-        final List<? extends Locatable> exonPositionList = getSortedCdsAndStartStopPositions(transcript);
+        final TranscriptCodingInfoCache.TranscriptCodingInfo transcriptCodingInfo = transcriptCodingInfoCache.get(transcript);
+        final List<? extends Locatable> exonPositionList = transcriptCodingInfo.getSortedCdsAndStartStopPositions();
 
         // NOTE: Regardless of strandedness, we always report the alleles as if they appeared in the forward direction.
         final GencodeFuncotation.VariantType variantType =
@@ -1232,7 +1347,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
         // Set up our SequenceComparison object so we can calculate some useful fields more easily
         // These fields can all be set without knowing the alternate allele:
-        final SequenceComparison sequenceComparison = createSequenceComparison(variant, altAllele, reference, transcript, exonPositionList, transcriptIdMap, transcriptFastaReferenceDataSource, true);
+        final SequenceComparison sequenceComparison = createSequenceComparison(variant, altAllele, reference, transcript, exonPositionList, transcriptIdMap, transcriptFastaReferenceDataSource, transcriptCodingInfo, true);
 
         // Set our transcript positions:
         setTranscriptPosition(variant, altAllele, sequenceComparison.getTranscriptAlleleStart(), gencodeFuncotationBuilder);
@@ -1293,6 +1408,30 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         return gencodeFuncotationBuilder.build();
     }
 
+    /**
+     * Sorts the exons of the given {@code transcript} in place by exon number, if they are not in that order already.
+     * A transcript whose exons are already in order is not modified.
+     * @param transcript A {@link GencodeGtfTranscriptFeature} whose exons to sort.
+     */
+    static void sortExonsByExonNumber(final GencodeGtfTranscriptFeature transcript) {
+        if ( !areExonsSortedByExonNumber(transcript.getExons()) ) {
+            transcript.getExons().sort(EXON_NUMBER_COMPARATOR);
+        }
+    }
+
+    /**
+     * @param exons The {@link GencodeGtfExonFeature}s to check.
+     * @return {@code true} if the given {@code exons} are in exon-number order; {@code false} otherwise.
+     */
+    private static boolean areExonsSortedByExonNumber(final List<GencodeGtfExonFeature> exons) {
+        for ( int i = 1; i < exons.size(); ++i ) {
+            if ( EXON_NUMBER_COMPARATOR.compare(exons.get(i - 1), exons.get(i)) > 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Gets a list of locatables representing the start codon, cds, and stop codon containing coding regions within the given {@code transcript}.
      * These locatables are sorted by exon-number order.
@@ -1302,11 +1441,19 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
     @VisibleForTesting
     static List<? extends Locatable> getSortedCdsAndStartStopPositions(final GencodeGtfTranscriptFeature transcript) {
 
-        // Sort by exon number first:
-        transcript.getExons().sort((lhs, rhs) -> lhs.getExonNumber() < rhs.getExonNumber() ? -1 : (lhs.getExonNumber() > rhs.getExonNumber() ) ? 1 : 0 );
+        // Sort by exon number first.
+        // The transcript may be shared with other threads, so we sort a copy of its exons rather than the exons themselves:
+        final List<GencodeGtfExonFeature> exons;
+        if ( areExonsSortedByExonNumber(transcript.getExons()) ) {
+            exons = transcript.getExons();
+        }
+        else {
+            exons = new ArrayList<>(transcript.getExons());
+            exons.sort(EXON_NUMBER_COMPARATOR);
+        }
 
-        final List<GencodeGtfFeature> regionList = new ArrayList<>(transcript.getExons().size());
-        for ( final GencodeGtfExonFeature exon : transcript.getExons() ) {
+        final List<GencodeGtfFeature> regionList = new ArrayList<>(exons.size());
+        for ( final GencodeGtfExonFeature exon : exons ) {
 
             // Add in a CDS region:
             if ( exon.getCds() != null ) {
@@ -1898,6 +2045,26 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                                                        final Map<String, MappedTranscriptIdInfo> transcriptIdMap,
                                                        final ReferenceDataSource transcriptFastaReferenceDataSource,
                                                        final boolean processSequenceInformation) {
+        return createSequenceComparison(variant, alternateAllele, reference, transcript, exonPositionList, transcriptIdMap, transcriptFastaReferenceDataSource, null, processSequenceInformation);
+    }
+
+    /**
+     * Creates a {@link org.broadinstitute.hellbender.tools.funcotator.SequenceComparison} object with the fields populated,
+     * re-using the coding sequence and reference protein of the transcript from the given {@code transcriptCodingInfo}.
+     * See {@link #createSequenceComparison(VariantContext, Allele, ReferenceContext, GencodeGtfTranscriptFeature, List, Map, ReferenceDataSource, boolean)}
+     * for the other parameters.
+     * @param transcriptCodingInfo The cached information for {@code transcript}.  If {@code null}, the coding sequence will be read from {@code transcriptFastaReferenceDataSource}.
+     * @return A populated {@link org.broadinstitute.hellbender.tools.funcotator.SequenceComparison} object.
+     */
+    private static SequenceComparison createSequenceComparison(final VariantContext variant,
+                                                               final Allele alternateAllele,
+                                                               final ReferenceContext reference,
+                                                               final GencodeGtfTranscriptFeature transcript,
+                                                               final List<? extends htsjdk.samtools.util.Locatable> exonPositionList,
+                                                               final Map<String, MappedTranscriptIdInfo> transcriptIdMap,
+                                                               final ReferenceDataSource transcriptFastaReferenceDataSource,
+                                                               final TranscriptCodingInfoCache.TranscriptCodingInfo transcriptCodingInfo,
+                                                               final boolean processSequenceInformation) {
 
         // TODO: Somewhere down the line we should adjust the positions at creation-time to account for the leading bases in VCF input files.  (issue 5349 - https://github.com/broadinstitute/gatk/issues/5349)
         // This will have ramifications down the line for all fields that get rendered.
@@ -2004,12 +2171,24 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                 final String transcriptTailPaddingBaseString = getTranscriptEndPaddingBases(variant, altAllele, exonPositionList, reference);
 
                 // NOTE: This can't be null because of the Funcotator input args.
-                final String rawCodingSequence = getCodingSequenceFromTranscriptFasta(
-                        transcript.getTranscriptId(),
-                        transcriptIdMap,
-                        transcriptFastaReferenceDataSource,
-                        transcriptTailPaddingBaseString
-                );
+                final String rawCodingSequence;
+                if ( transcriptCodingInfo == null ) {
+                    rawCodingSequence = getCodingSequenceFromTranscriptFasta(
+                            transcript.getTranscriptId(),
+                            transcriptIdMap,
+                            transcriptFastaReferenceDataSource,
+                            transcriptTailPaddingBaseString
+                    );
+                }
+                else {
+                    rawCodingSequence = transcriptTailPaddingBaseString.isEmpty() ?
+                            transcriptCodingInfo.getCodingSequence() :
+                            transcriptCodingInfo.getCodingSequence() + transcriptTailPaddingBaseString;
+                }
+
+                // Figure out if we are in a mitochondrial contig:
+                // TODO: Make this more robust by detecting the mito contig based on the reference used.  (issue https://github.com/broadinstitute/gatk/issues/5364).
+                final boolean isMitochondria = FuncotatorConstants.MITOCHONDRIAL_CONTIG_NAMES.contains(variant.getContig());
 
                 // Now that we have our transcript sequence, we must make sure that our reference allele is in it
                 // correctly.
@@ -2017,10 +2196,19 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                 // their specified allele takes precedence and overrides the allele from the reference genome.
                 final String correctedCodingSequence;
 
+                // The reference protein of the transcript can be re-used if the coding sequence is exactly the one it was
+                // translated from (i.e. it is not padded and the given ref allele matches the transcript FASTA):
+                String referenceProteinSequence = null;
+
                 // We can't yet handle sequences that overrun the end of the coding sequence (Issue 4307 - https://github.com/broadinstitute/gatk/issues/4307):
                 if ( (sequenceComparison.getCodingSequenceAlleleStart() - 1 + refAllele.getBaseString().length()) > rawCodingSequence.length() ) {
                     throw new FuncotatorUtils.TranscriptCodingSequenceException("Reference allele runs off end of coding sequence.  Cannot yet handle this case.");
                 }
+                else if ( (transcriptCodingInfo != null) && transcriptTailPaddingBaseString.isEmpty() &&
+                        rawCodingSequence.regionMatches(sequenceComparison.getCodingSequenceAlleleStart() - 1, refAllele.getBaseString(), 0, refAllele.length()) ) {
+                    correctedCodingSequence = rawCodingSequence;
+                    referenceProteinSequence = transcriptCodingInfo.getReferenceProteinSequence(isMitochondria);
+                }
                 else {
                     correctedCodingSequence = rawCodingSequence.substring(0, sequenceComparison.getCodingSequenceAlleleStart() - 1) +
                             refAllele.getBaseString() +
@@ -2051,17 +2239,26 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                                 sequenceComparison.getStrand())
                 );
 
-                final ProteinChangeInfo proteinChangeInfo = ProteinChangeInfo.create(
-                        refAllele,
-                        altAllele,
-                        sequenceComparison.getCodingSequenceAlleleStart(),
-                        sequenceComparison.getAlignedCodingSequenceAlleleStart(),
-                        correctedCodingSequence,
-                        sequenceComparison.getStrand(),
-                        // Figure out if we are in a mitochondrial contig:
-                        // TODO: Make this more robust by detecting the mito contig based on the reference used.  (issue https://github.com/broadinstitute/gatk/issues/5364).
-                        FuncotatorConstants.MITOCHONDRIAL_CONTIG_NAMES.contains(variant.getContig())
-                );
+                final ProteinChangeInfo proteinChangeInfo = (referenceProteinSequence == null) ?
+                        ProteinChangeInfo.create(
+                                refAllele,
+                                altAllele,
+                                sequenceComparison.getCodingSequenceAlleleStart(),
+                                sequenceComparison.getAlignedCodingSequenceAlleleStart(),
+                                correctedCodingSequence,
+                                sequenceComparison.getStrand(),
+                                isMitochondria
+                        ) :
+                        ProteinChangeInfo.create(
+                                refAllele,
+                                altAllele,
+                                sequenceComparison.getCodingSequenceAlleleStart(),
+                                sequenceComparison.getAlignedCodingSequenceAlleleStart(),
+                                correctedCodingSequence,
+                                sequenceComparison.getStrand(),
+                                isMitochondria,
+                                referenceProteinSequence
+                        );
 
                 // Set our protein change:
                 sequenceComparison.setProteinChangeInfo( proteinChangeInfo );
@@ -2847,6 +3044,27 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         return isSegmentFuncotationEnabled;
     }
 
+    /**
+     * Process the genes overlapping each segment in parallel on the given executor.  Segments overlapping many genes
+     * (e.g. whole-arm events) are split into runs of genes that are processed by separate tasks, and the results for
+     * the runs are then combined.  Segments overlapping few genes are still processed on the calling thread.
+     *
+     * The executor is not shut down by this {@link GencodeFuncotationFactory}.
+     *
+     * @param executor {@link ExecutorService} on which to process the genes overlapping segments.  If {@code null},
+     *                 segments are processed on the calling thread.
+     */
+    public void setSegmentAnnotationExecutor(final ExecutorService executor) {
+        setSegmentAnnotationExecutor(executor, DEFAULT_SEGMENT_GENES_PER_TASK);
+    }
+
+    @VisibleForTesting
+    void setSegmentAnnotationExecutor(final ExecutorService executor, final int genesPerTask) {
+        ParamUtils.isPositive(genesPerTask, "The number of genes per task must be positive.");
+        segmentAnnotationExecutor = executor;
+        segmentGenesPerTask = genesPerTask;
+    }
+
     /**
      * Create Funcotations for a given segment variant context.  Will not support the {@link TranscriptSelectionMode#ALL} mode,
      * since that is undefined for segment annotations.
@@ -2870,22 +3088,20 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
     //  Assumes the reference context here is the same as the segment even if the contigs are different (ala hg19 vs b37)
     //   and uses the one in the reference context for segment breakpoints.
     private List<Funcotation> createSegmentFuncotations(final VariantContext segmentVariantContext, final ReferenceContext referenceContext, final List<GencodeGtfGeneFeature> geneFeatures, final Comparator<GencodeFuncotation> comparator) {
-        // Create a funcotation for the start position of the segment.  Using the ref allele as the ref and the alt.
-        final List<GencodeGtfTranscriptFeature> allBasicOverlappingTranscripts = geneFeatures.stream().flatMap(gf -> gf.getTranscripts().stream())
-                .filter(GencodeFuncotationFactory::isBasic)
-                .filter(t -> t.overlaps(segmentVariantContext)).collect(Collectors.toList());
+        // Find the genes overlapping the segment and the transcripts that may overlap its breakpoints:
+        final SegmentGeneOverlaps segmentGeneOverlaps = findSegmentGeneOverlaps(segmentVariantContext, geneFeatures);
 
         // Get the genes funcotation field
-        final List<String> genes = retrieveGeneNamesFromTranscripts(allBasicOverlappingTranscripts).stream().sorted().collect(Collectors.toList());
+        final List<String> genes = segmentGeneOverlaps.geneNames.stream().sorted().collect(Collectors.toList());
 
         // Get the segment endpoints as variant contexts (assume the alternate allele is a dummy)
         final VariantContext segStartAsVariant = createSubSegmentAsVariantContext(segmentVariantContext, segmentVariantContext.getStart(), segmentVariantContext.getStart());
         final SimpleInterval segStartAsVariantInterval = new SimpleInterval(referenceContext.getInterval().getContig(), segStartAsVariant.getStart(), segStartAsVariant.getEnd());
-        final List<GencodeGtfTranscriptFeature> transcriptsOverlappingStart = subsetToOverlappingTranscripts(segStartAsVariant, allBasicOverlappingTranscripts);
+        final List<GencodeGtfTranscriptFeature> transcriptsOverlappingStart = subsetToOverlappingTranscripts(segStartAsVariant, segmentGeneOverlaps.breakpointCandidateTranscripts);
 
         final VariantContext segEndAsVariant = createSubSegmentAsVariantContext(segmentVariantContext, segmentVariantContext.getEnd(), segmentVariantContext.getEnd());
         final SimpleInterval segEndAsVariantInterval = new SimpleInterval(referenceContext.getInterval().getContig(), segEndAsVariant.getStart(), segEndAsVariant.getEnd());
-        final List<GencodeGtfTranscriptFeature> transcriptsOverlappingEnd = subsetToOverlappingTranscripts(segEndAsVariant, allBasicOverlappingTranscripts);
+        final List<GencodeGtfTranscriptFeature> transcriptsOverlappingEnd = subsetToOverlappingTranscripts(segEndAsVariant, segmentGeneOverlaps.breakpointCandidateTranscripts);
 
         // Create funcotations for start of segment
         //  Make sure to alter the reference context as well to speed up the funcotation rendering.
@@ -2914,6 +3130,40 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         return createSegmentFuncotations(segmentVariantContext, genes, startFuncotation, endFuncotation, chosenTranscriptStart, chosenTranscriptEnd);
     }
 
+    /**
+     * Find the genes overlapping the given segment, on {@link #segmentAnnotationExecutor} if it is set and the segment
+     * overlaps enough genes to be worth splitting.
+     */
+    private SegmentGeneOverlaps findSegmentGeneOverlaps(final VariantContext segmentVariantContext, final List<GencodeGtfGeneFeature> geneFeatures) {
+        if ( (segmentAnnotationExecutor == null) || (geneFeatures.size() <= segmentGenesPerTask) ) {
+            return SegmentGeneOverlaps.create(segmentVariantContext, geneFeatures);
+        }
+
+        final List<Future<SegmentGeneOverlaps>> partialOverlaps = new ArrayList<>();
+        for ( final List<GencodeGtfGeneFeature> genes : Lists.partition(geneFeatures, segmentGenesPerTask) ) {
+            partialOverlaps.add(segmentAnnotationExecutor.submit(() -> SegmentGeneOverlaps.create(segmentVariantContext, genes)));
+        }
+
+        // Combine the partial results in the order of the genes, so that the result is the same as on a single thread:
+        try {
+            final SegmentGeneOverlaps segmentGeneOverlaps = new SegmentGeneOverlaps();
+            for ( final Future<SegmentGeneOverlaps> partialOverlap : partialOverlaps ) {
+                segmentGeneOverlaps.combine(partialOverlap.get());
+            }
+            return segmentGeneOverlaps;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while finding the genes overlapping segment " + new SimpleInterval(segmentVariantContext), e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Exception while finding the genes overlapping segment " + new SimpleInterval(segmentVariantContext), e.getCause());
+        } finally {
+            partialOverlaps.forEach(f -> f.cancel(true));
+        }
+    }
+
     private static List<GencodeGtfTranscriptFeature> subsetToOverlappingTranscripts(final VariantContext variant, final List<GencodeGtfTranscriptFeature> allBasicOverlappingTranscripts) {
         return allBasicOverlappingTranscripts.stream()
                 .filter(tx -> tx.overlaps(variant)).collect(Collectors.toList());
@@ -2948,11 +3198,55 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                 ), a, getName(), segmentMetadata)).collect(Collectors.toList());
     }
 
-    private static Set<String> retrieveGeneNamesFromTranscripts(final List<GencodeGtfTranscriptFeature> txs) {
-        return txs.stream().map(GencodeGtfTranscriptFeature::getGeneName).collect(Collectors.toSet());
-    }
-
     private static GencodeGtfTranscriptFeature findFirstTranscriptMatch(final List<GencodeGtfTranscriptFeature> transcripts, final String txId) {
         return transcripts.stream().filter(tx -> tx.getTranscriptId().equals(txId)).findFirst().orElse(null);
     }
+
+    /**
+     * The genes overlapping (part of) a segment, and the basic transcripts that may overlap the breakpoints of the
+     * segment.  Results for consecutive runs of the genes overlapping a segment can be combined with
+     * {@link #combine(SegmentGeneOverlaps)}.
+     */
+    private static final class SegmentGeneOverlaps {
+        /** Names of the genes with a basic transcript overlapping the segment. */
+        private final Set<String> geneNames = new HashSet<>();
+
+        /**
+         * Basic transcripts overlapping the segment that are not strictly inside it, in the order of the genes.  Only
+         * these transcripts can overlap a breakpoint of the segment.
+         */
+        private final List<GencodeGtfTranscriptFeature> breakpointCandidateTranscripts = new ArrayList<>();
+
+        private static SegmentGeneOverlaps create(final VariantContext segmentVariantContext, final List<GencodeGtfGeneFeature> geneFeatures) {
+            final SegmentGeneOverlaps segmentGeneOverlaps = new SegmentGeneOverlaps();
+            for ( final GencodeGtfGeneFeature geneFeature : geneFeatures ) {
+                if ( isStrictlyInside(geneFeature, segmentVariantContext) ) {
+                    // The transcripts of a gene lie within the gene, so every one of them overlaps the segment and none
+                    //  of them overlaps a breakpoint.  All we need to know is whether the gene has a basic transcript:
+                    if ( geneFeature.getTranscripts().stream().anyMatch(GencodeFuncotationFactory::isBasic) ) {
+                        segmentGeneOverlaps.geneNames.add(geneFeature.getGeneName());
+                    }
+                }
+                else {
+                    for ( final GencodeGtfTranscriptFeature transcript : geneFeature.getTranscripts() ) {
+                        if ( isBasic(transcript) && transcript.overlaps(segmentVariantContext) ) {
+                            segmentGeneOverlaps.geneNames.add(transcript.getGeneName());
+                            segmentGeneOverlaps.breakpointCandidateTranscripts.add(transcript);
+                        }
+                    }
+                }
+            }
+            return segmentGeneOverlaps;
+        }
+
+        private static boolean isStrictlyInside(final Locatable gene, final Locatable segment) {
+            return gene.getContig().equals(segment.getContig()) && (gene.getStart() > segment.getStart()) && (gene.getEnd() < segment.getEnd());
+        }
+
+        private SegmentGeneOverlaps combine(final SegmentGeneOverlaps other) {
+            geneNames.addAll(other.geneNames);
+            breakpointCandidateTranscripts.addAll(other.breakpointCandidateTranscripts);
+            return this;
+        }
+    }
 }
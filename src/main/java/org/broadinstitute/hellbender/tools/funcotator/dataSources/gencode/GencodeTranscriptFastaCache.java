@@ -0,0 +1,225 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.ReferenceSequence;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, memory-mapped copy of a GENCODE transcript FASTA file, which {@link GencodeFuncotationFactory} can read
+ * transcript sequences from instead of the FASTA itself.
+ *
+ * Opening the cache reads only the small table of transcript names at the end of the file, so it is much faster than
+ * opening the FASTA with its index and sequence dictionary, and the sequences stay off the Java heap until they are
+ * queried.  Since the mapped file is only ever read, a cache may be queried by several threads at once.
+ *
+ * The file holds a header with the size and last modification time of the FASTA from which it was created (so that an
+ * out-of-date cache can be detected), the bases of every transcript one after the other (capitalized and with ambiguity codes converted to N,
+ * exactly as {@link ReferenceDataSource#of(Path)} returns them), then a table of the name, length and offset of each
+ * transcript, and finally the offset of that table.
+ *
+ * Caches are created with {@link org.broadinstitute.hellbender.tools.funcotator.CreateGencodeTranscriptFastaCache}.
+ */
+public final class GencodeTranscriptFastaCache implements ReferenceDataSource {
+    public static final String FILE_EXTENSION = ".txcache";
+
+    private static final byte[] MAGIC = "GATKTXCACHE".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = MAGIC.length + Integer.BYTES + 2 * Long.BYTES;
+
+    private final Path path;
+    private final long sourceSize;
+    private final long sourceLastModified;
+    private final MappedByteBuffer buffer;
+    private final SAMSequenceDictionary sequenceDictionary;
+    private final Map<String, Integer> sequenceIndices;
+    // offset of the first base of each sequence, indexed like the sequence dictionary
+    private final int[] sequenceOffsets;
+
+    private GencodeTranscriptFastaCache(final Path path, final long sourceSize, final long sourceLastModified, final MappedByteBuffer buffer,
+                                        final List<SAMSequenceRecord> sequences, final int[] sequenceOffsets) {
+        this.path = path;
+        this.sourceSize = sourceSize;
+        this.sourceLastModified = sourceLastModified;
+        this.buffer = buffer;
+        this.sequenceDictionary = new SAMSequenceDictionary(sequences);
+        this.sequenceOffsets = sequenceOffsets;
+        this.sequenceIndices = new HashMap<>(sequences.size() * 2);
+        for ( int i = 0; i < sequences.size(); i++ ) {
+            sequenceIndices.put(sequences.get(i).getSequenceName(), i);
+        }
+    }
+
+    /**
+     * @return The path at which the cache for the given GENCODE transcript FASTA is expected.
+     */
+    public static Path getDefaultPath(final Path transcriptFastaPath) {
+        return transcriptFastaPath.resolveSibling(transcriptFastaPath.getFileName() + FILE_EXTENSION);
+    }
+
+    /**
+     * Open an existing cache.  The cache must be on the local file system, so that it can be memory-mapped.
+     *
+     * @throws UserException.MalformedFile if the file is not a transcript FASTA cache
+     */
+    public static GencodeTranscriptFastaCache open(final Path path) {
+        Utils.nonNull(path);
+        try ( final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ) {
+            final long size = channel.size();
+            if ( size > Integer.MAX_VALUE ) {
+                throw new UserException.MalformedFile(path, "Transcript FASTA cache is larger than the supported maximum of " + Integer.MAX_VALUE + " bytes");
+            }
+            if ( size < HEADER_SIZE + Long.BYTES ) {
+                throw new UserException.MalformedFile(path, "File is too small to be a transcript FASTA cache");
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            final byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if ( !Arrays.equals(magic, MAGIC) ) {
+                throw new UserException.MalformedFile(path, "File is not a transcript FASTA cache");
+            }
+            final int version = buffer.getInt();
+            if ( version != VERSION ) {
+                throw new UserException.MalformedFile(path, "Unsupported transcript FASTA cache version " + version + " (expected " + VERSION + ").  Please recreate the cache.");
+            }
+            final long sourceSize = buffer.getLong();
+            final long sourceLastModified = buffer.getLong();
+
+            final long tableOffset = buffer.getLong((int) size - Long.BYTES);
+            if ( tableOffset < HEADER_SIZE || tableOffset > size - Long.BYTES ) {
+                throw new UserException.MalformedFile(path, "Transcript FASTA cache has an invalid sequence table offset: " + tableOffset);
+            }
+            ((Buffer) buffer).position((int) tableOffset);
+            final int numSequences = buffer.getInt();
+            final List<SAMSequenceRecord> sequences = new ArrayList<>(numSequences);
+            final int[] sequenceOffsets = new int[numSequences];
+            for ( int i = 0; i < numSequences; i++ ) {
+                final byte[] name = new byte[buffer.getInt()];
+                buffer.get(name);
+                final int length = buffer.getInt();
+                sequenceOffsets[i] = buffer.getInt();
+                if ( length < 0 || sequenceOffsets[i] < HEADER_SIZE || (long) sequenceOffsets[i] + length > tableOffset ) {
+                    throw new UserException.MalformedFile(path, "Transcript FASTA cache has an invalid entry for sequence " + i);
+                }
+                sequences.add(new SAMSequenceRecord(new String(name, StandardCharsets.UTF_8), length));
+            }
+            return new GencodeTranscriptFastaCache(path, sourceSize, sourceLastModified, buffer, sequences, sequenceOffsets);
+        } catch ( final BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e ) {
+            throw new UserException.MalformedFile(path, "Transcript FASTA cache is truncated or corrupt", e);
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(path, "exception while opening the transcript FASTA cache", e);
+        }
+    }
+
+    /**
+     * Write a cache of every sequence in the given transcript FASTA.
+     *
+     * @param transcriptFasta The GENCODE transcript FASTA to cache.
+     * @param sourceSize The size in bytes of the transcript FASTA file, used to detect out-of-date caches.
+     * @param sourceLastModified The last modification time of the transcript FASTA file, in milliseconds since the epoch, used to detect out-of-date caches.
+     * @param outputPath The file to which to write the cache.
+     */
+    public static void create(final ReferenceDataSource transcriptFasta, final long sourceSize, final long sourceLastModified, final Path outputPath) {
+        Utils.nonNull(transcriptFasta);
+        Utils.nonNull(outputPath);
+
+        final List<SAMSequenceRecord> sequences = transcriptFasta.getSequenceDictionary().getSequences();
+        final int[] sequenceOffsets = new int[sequences.size()];
+        try ( final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(outputPath))) ) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceSize);
+            out.writeLong(sourceLastModified);
+
+            long offset = HEADER_SIZE;
+            for ( int i = 0; i < sequences.size(); i++ ) {
+                final SAMSequenceRecord sequence = sequences.get(i);
+                final byte[] bases = sequence.getSequenceLength() == 0 ? new byte[0] :
+                        transcriptFasta.queryAndPrefetch(sequence.getSequenceName(), 1, sequence.getSequenceLength()).getBases();
+                if ( offset + bases.length > Integer.MAX_VALUE ) {
+                    throw new UserException.CouldNotCreateOutputFile(outputPath.toUri().toString(),
+                            "the transcript sequences are larger than the supported maximum of " + Integer.MAX_VALUE + " bytes");
+                }
+                sequenceOffsets[i] = (int) offset;
+                out.write(bases);
+                offset += bases.length;
+            }
+
+            out.writeInt(sequences.size());
+            for ( int i = 0; i < sequences.size(); i++ ) {
+                final byte[] name = sequences.get(i).getSequenceName().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeInt(sequences.get(i).getSequenceLength());
+                out.writeInt(sequenceOffsets[i]);
+            }
+            out.writeLong(offset);
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotCreateOutputFile(outputPath.toUri().toString(), "exception while writing the transcript FASTA cache", e);
+        }
+    }
+
+    /**
+     * @return The size in bytes of the transcript FASTA from which this cache was created.
+     */
+    public long getSourceSize() {
+        return sourceSize;
+    }
+
+    /**
+     * @return The last modification time, in milliseconds since the epoch, of the transcript FASTA from which this cache was created.
+     */
+    public long getSourceLastModified() {
+        return sourceLastModified;
+    }
+
+    @Override
+    public ReferenceSequence queryAndPrefetch(final String contig, final long start, final long stop) {
+        final Integer index = sequenceIndices.get(contig);
+        if ( index == null ) {
+            throw new UserException.MalformedFile(path, "Transcript not found in the transcript FASTA cache: " + contig);
+        }
+        final int length = sequenceDictionary.getSequence(index).getSequenceLength();
+        Utils.validateArg(start >= 1 && stop <= length && stop >= start - 1,
+                () -> String.format("Invalid query %d-%d for transcript %s of length %d", start, stop, contig, length));
+
+        final byte[] bases = new byte[(int) (stop - start + 1)];
+        // A duplicate has its own position, so that concurrent queries don't interfere with each other:
+        final ByteBuffer view = buffer.duplicate();
+        ((Buffer) view).position(sequenceOffsets[index] + (int) start - 1);
+        view.get(bases);
+        return new ReferenceSequence(contig, index, bases);
+    }
+
+    @Override
+    public SAMSequenceDictionary getSequenceDictionary() {
+        return sequenceDictionary;
+    }
+
+    @Override
+    public Iterator<Byte> iterator() {
+        throw new UnsupportedOperationException("Iteration over an entire transcript FASTA cache is not supported");
+    }
+}
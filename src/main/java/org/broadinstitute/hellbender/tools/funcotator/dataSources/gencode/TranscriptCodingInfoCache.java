@@ -0,0 +1,143 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+import htsjdk.samtools.util.Locatable;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.tools.funcotator.ProteinChangeInfo;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.codecs.gtf.GencodeGtfTranscriptFeature;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded, least-recently-used cache of the information {@link GencodeFuncotationFactory} derives from a transcript
+ * that does not depend on the variant being annotated: the sorted coding regions of the transcript, its coding
+ * sequence from the transcript FASTA, and the translation of that coding sequence.
+ *
+ * Input variants are sorted, so consecutive variants usually fall in the same few transcripts, and without the cache
+ * all of this is recomputed for every variant (and alternate allele) in a transcript.
+ *
+ * Entries are keyed by transcript ID and position, because some transcript IDs (e.g. in the pseudoautosomal regions
+ * of GENCODE 19) occur more than once in the GTF.  The cache may be used by several threads at once.
+ */
+final class TranscriptCodingInfoCache {
+
+    /**
+     * Default number of transcripts for which to keep information.
+     */
+    static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private final Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> transcriptIdMap;
+    private final ReferenceDataSource transcriptFastaReferenceDataSource;
+    private final Map<String, TranscriptCodingInfo> cache;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param maxEntries The maximum number of transcripts for which to keep information.  Must be positive.
+     * @param transcriptIdMap Map from transcript ID to the location of the transcript in {@code transcriptFastaReferenceDataSource}.
+     * @param transcriptFastaReferenceDataSource The GENCODE transcript FASTA from which to read coding sequences.
+     */
+    TranscriptCodingInfoCache(final int maxEntries,
+                              final Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> transcriptIdMap,
+                              final ReferenceDataSource transcriptFastaReferenceDataSource) {
+        Utils.validateArg(maxEntries > 0, "maxEntries must be positive");
+        this.transcriptIdMap = Utils.nonNull(transcriptIdMap);
+        this.transcriptFastaReferenceDataSource = Utils.nonNull(transcriptFastaReferenceDataSource);
+        this.cache = new LinkedHashMap<String, TranscriptCodingInfo>(maxEntries * 4 / 3 + 1, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, TranscriptCodingInfo> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param transcript The transcript for which to get information.  Must not be {@code null}.
+     * @return The cached {@link TranscriptCodingInfo} for {@code transcript}, creating it if necessary.
+     */
+    TranscriptCodingInfo get(final GencodeGtfTranscriptFeature transcript) {
+        Utils.nonNull(transcript);
+        final String key = transcript.getTranscriptId() + ':' + transcript.getContig() + ':' + transcript.getStart();
+
+        synchronized ( cache ) {
+            TranscriptCodingInfo info = cache.get(key);
+            if ( info == null ) {
+                ++misses;
+                info = new TranscriptCodingInfo(transcript.getTranscriptId(), GencodeFuncotationFactory.getSortedCdsAndStartStopPositions(transcript));
+                cache.put(key, info);
+            }
+            else {
+                ++hits;
+            }
+            return info;
+        }
+    }
+
+    /**
+     * @return The number of requests that were answered from the cache.
+     */
+    long getHits() {
+        synchronized ( cache ) {
+            return hits;
+        }
+    }
+
+    /**
+     * @return The number of requests for a transcript that was not in the cache.
+     */
+    long getMisses() {
+        synchronized ( cache ) {
+            return misses;
+        }
+    }
+
+    /**
+     * Information about a single transcript.  The coding sequence and protein are only read / translated when first
+     * requested, since many variants in a transcript never need them.
+     */
+    final class TranscriptCodingInfo {
+        private final String transcriptId;
+        private final List<? extends Locatable> sortedCdsAndStartStopPositions;
+        private String codingSequence = null;
+        private String referenceProteinSequence = null;
+
+        private TranscriptCodingInfo(final String transcriptId, final List<? extends Locatable> sortedCdsAndStartStopPositions) {
+            this.transcriptId = transcriptId;
+            this.sortedCdsAndStartStopPositions = Collections.unmodifiableList(sortedCdsAndStartStopPositions);
+        }
+
+        /**
+         * @return The start codon, CDS and stop codon regions of the transcript, as returned by {@link GencodeFuncotationFactory#getSortedCdsAndStartStopPositions}.
+         */
+        List<? extends Locatable> getSortedCdsAndStartStopPositions() {
+            return sortedCdsAndStartStopPositions;
+        }
+
+        /**
+         * @return The coding sequence of the transcript from the transcript FASTA, without any padding.
+         */
+        synchronized String getCodingSequence() {
+            if ( codingSequence == null ) {
+                codingSequence = GencodeFuncotationFactory.getCodingSequenceFromTranscriptFasta(transcriptId, transcriptIdMap, transcriptFastaReferenceDataSource, "");
+            }
+            return codingSequence;
+        }
+
+        /**
+         * @param isMitochondria Whether the transcript is on the mitochondrial contig.  This is the same for every call for a given transcript.
+         * @return The translation of {@link #getCodingSequence()}.
+         */
+        synchronized String getReferenceProteinSequence(final boolean isMitochondria) {
+            if ( referenceProteinSequence == null ) {
+                referenceProteinSequence = ProteinChangeInfo.createReferenceProteinSequence(getCodingSequence(), isMitochondria);
+            }
+            return referenceProteinSequence;
+        }
+    }
+}
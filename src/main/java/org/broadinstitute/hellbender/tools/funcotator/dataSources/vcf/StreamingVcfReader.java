@@ -0,0 +1,279 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.vcf;
+
+import com.google.common.annotations.VisibleForTesting;
+import htsjdk.tribble.AbstractFeatureReader;
+import htsjdk.tribble.CloseableTribbleIterator;
+import htsjdk.tribble.TribbleException;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the records of an indexed VCF data source that overlap a series of query intervals with a single forward
+ * cursor, for use when the queries are sorted (as the variants given to Funcotator are).
+ *
+ * Rather than performing an indexed query for every interval, the reader iterates from the first query to the end of
+ * its contig and keeps the records that may still overlap later queries.  It only goes back to the index when a query
+ * is on a different contig, starts before the previous query, or starts so far past the records read so far that
+ * seeking is cheaper than reading the records in between.
+ *
+ * Records are decoded with an {@link InfoFieldFilteringVcfCodec}, so INFO fields that will never be output are not
+ * parsed at all.  This is where most of the time goes for data sources with many INFO fields, such as gnomAD.
+ *
+ * This class is not thread-safe.
+ */
+final class StreamingVcfReader implements Closeable {
+
+    /**
+     * Queries that start more than this many bases past the last record read cause a seek rather than reading the
+     * records in between.
+     */
+    @VisibleForTesting
+    static final int MAX_FORWARD_SCAN_BP = 100_000;
+
+    private final Path vcfPath;
+    private final AbstractFeatureReader<VariantContext, ?> reader;
+
+    /**
+     * The records read so far that may overlap the current or later queries, in the order of the VCF.
+     */
+    private final List<VariantContext> activeRecords = new ArrayList<>();
+
+    private CloseableTribbleIterator<VariantContext> iterator = null;
+    private VariantContext nextRecord = null;
+    private String currentContig = null;
+    private int previousQueryStart = 0;
+
+    private long numSeeks = 0;
+    private long numRecordsRead = 0;
+
+    /**
+     * @param vcfPath The indexed VCF file to read.  Must not be {@code null}.
+     * @param excludedInfoFields INFO fields to remove from the records before they are decoded.  Must not be {@code null}.
+     */
+    StreamingVcfReader(final Path vcfPath, final Set<String> excludedInfoFields) {
+        this.vcfPath = Utils.nonNull(vcfPath);
+        Utils.nonNull(excludedInfoFields);
+
+        try {
+            reader = AbstractFeatureReader.getFeatureReader(vcfPath.toUri().toString(), null, new InfoFieldFilteringVcfCodec(excludedInfoFields), false);
+        }
+        catch (final TribbleException ex) {
+            throw new UserException.CouldNotReadInputFile(vcfPath, "could not open the VCF data source for streaming", ex);
+        }
+        if ( !reader.hasIndex() ) {
+            closeReader();
+            throw new UserException.MissingIndex(vcfPath.toUri().toString(), "The VCF data source must be indexed to be streamed.");
+        }
+    }
+
+    /**
+     * @param interval The interval to query.  Must not be {@code null}.
+     * @return The records overlapping {@code interval}, in the order of the VCF.
+     */
+    List<VariantContext> query(final SimpleInterval interval) {
+        Utils.nonNull(interval);
+
+        if ( needsSeek(interval) ) {
+            seek(interval);
+        }
+        previousQueryStart = interval.getStart();
+
+        // Queries never start before the previous query without a seek, so records ending before this query will never
+        // overlap a query again:
+        activeRecords.removeIf(record -> record.getEnd() < interval.getStart());
+
+        while ( (nextRecord != null) && (nextRecord.getStart() <= interval.getEnd()) ) {
+            if ( nextRecord.getEnd() >= interval.getStart() ) {
+                activeRecords.add(nextRecord);
+            }
+            advance();
+        }
+
+        if ( activeRecords.isEmpty() ) {
+            return Collections.emptyList();
+        }
+
+        final List<VariantContext> overlappingRecords = new ArrayList<>();
+        for ( final VariantContext record : activeRecords ) {
+            if ( record.getStart() <= interval.getEnd() ) {
+                overlappingRecords.add(record);
+            }
+        }
+        return overlappingRecords;
+    }
+
+    /**
+     * @return The number of times this reader has had to go back to the index.
+     */
+    long getNumSeeks() {
+        return numSeeks;
+    }
+
+    /**
+     * @return The number of records this reader has decoded.
+     */
+    long getNumRecordsRead() {
+        return numRecordsRead;
+    }
+
+    @Override
+    public void close() {
+        closeIterator();
+        closeReader();
+    }
+
+    private boolean needsSeek(final SimpleInterval interval) {
+        if ( iterator == null ) {
+            return true;
+        }
+        if ( !interval.getContig().equals(currentContig) || (interval.getStart() < previousQueryStart) ) {
+            return true;
+        }
+        return (nextRecord != null) && ((long)interval.getStart() - nextRecord.getStart() > MAX_FORWARD_SCAN_BP);
+    }
+
+    private void seek(final SimpleInterval interval) {
+        closeIterator();
+        activeRecords.clear();
+        ++numSeeks;
+
+        currentContig = interval.getContig();
+        try {
+            // Iterate through to the end of the contig, so that later queries can continue from here:
+            iterator = reader.query(currentContig, interval.getStart(), Integer.MAX_VALUE);
+        }
+        catch (final IOException ex) {
+            throw new UserException.CouldNotReadInputFile(vcfPath, "could not query the VCF data source at " + interval, ex);
+        }
+        advance();
+    }
+
+    private void advance() {
+        if ( iterator.hasNext() ) {
+            nextRecord = iterator.next();
+            ++numRecordsRead;
+        }
+        else {
+            nextRecord = null;
+        }
+    }
+
+    private void closeIterator() {
+        if ( iterator != null ) {
+            iterator.close();
+            iterator = null;
+        }
+        nextRecord = null;
+    }
+
+    private void closeReader() {
+        try {
+            reader.close();
+        }
+        catch (final IOException ex) {
+            throw new GATKException("Could not close VCF data source " + vcfPath.toUri(), ex);
+        }
+    }
+
+    /**
+     * A {@link VCFCodec} that removes the given INFO fields from each record before decoding it.  Removing a field
+     * from the text of a record is much cheaper than parsing its value, so this is a cheap way to decode only the INFO
+     * fields we need without reimplementing the VCF parser.
+     */
+    static final class InfoFieldFilteringVcfCodec extends VCFCodec {
+
+        private static final char FIELD_SEPARATOR_CHAR = '\t';
+        private static final char INFO_KEY_VALUE_SEPARATOR_CHAR = '=';
+
+        private final Set<String> excludedInfoFields;
+
+        /**
+         * @param excludedInfoFields The IDs of the INFO fields to remove from each record.  Must not be {@code null}.
+         */
+        InfoFieldFilteringVcfCodec(final Set<String> excludedInfoFields) {
+            this.excludedInfoFields = new HashSet<>(Utils.nonNull(excludedInfoFields));
+        }
+
+        @Override
+        public VariantContext decode(final String line) {
+            return super.decode(removeInfoFields(line, excludedInfoFields));
+        }
+
+        /**
+         * @param line A line of a VCF file.  Must not be {@code null}.
+         * @param excludedInfoFields The IDs of the INFO fields to remove.  Must not be {@code null}.
+         * @return {@code line} without the INFO fields in {@code excludedInfoFields}.  Header lines, and lines that
+         *         do not contain any of the fields, are returned unchanged.
+         */
+        @VisibleForTesting
+        static String removeInfoFields(final String line, final Set<String> excludedInfoFields) {
+            if ( excludedInfoFields.isEmpty() || line.startsWith(VCFHeader.HEADER_INDICATOR) ) {
+                return line;
+            }
+
+            // Find the INFO column.  Malformed lines are left for the codec to report:
+            int infoStart = 0;
+            for ( int i = 0; i < VCFHeader.HEADER_FIELDS.INFO.ordinal(); ++i ) {
+                infoStart = line.indexOf(FIELD_SEPARATOR_CHAR, infoStart) + 1;
+                if ( infoStart == 0 ) {
+                    return line;
+                }
+            }
+            int infoEnd = line.indexOf(FIELD_SEPARATOR_CHAR, infoStart);
+            if ( infoEnd == -1 ) {
+                infoEnd = line.length();
+            }
+
+            final StringBuilder filteredLine = new StringBuilder(line.length()).append(line, 0, infoStart);
+            boolean removedField = false;
+            boolean keptField = false;
+
+            int fieldStart = infoStart;
+            while ( fieldStart < infoEnd ) {
+                int fieldEnd = line.indexOf(VCFConstants.INFO_FIELD_SEPARATOR_CHAR, fieldStart);
+                if ( (fieldEnd == -1) || (fieldEnd > infoEnd) ) {
+                    fieldEnd = infoEnd;
+                }
+                int keyEnd = line.indexOf(INFO_KEY_VALUE_SEPARATOR_CHAR, fieldStart);
+                if ( (keyEnd == -1) || (keyEnd > fieldEnd) ) {
+                    keyEnd = fieldEnd;
+                }
+
+                if ( excludedInfoFields.contains(line.substring(fieldStart, keyEnd)) ) {
+                    removedField = true;
+                }
+                else {
+                    if ( keptField ) {
+                        filteredLine.append(VCFConstants.INFO_FIELD_SEPARATOR_CHAR);
+                    }
+                    filteredLine.append(line, fieldStart, fieldEnd);
+                    keptField = true;
+                }
+                fieldStart = fieldEnd + 1;
+            }
+
+            if ( !removedField ) {
+                return line;
+            }
+            if ( !keptField ) {
+                filteredLine.append(VCFConstants.EMPTY_INFO_FIELD);
+            }
+            return filteredLine.append(line, infoEnd, line.length()).toString();
+        }
+    }
+}
@@ -8,6 +8,7 @@ import htsjdk.variant.vcf.*;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.engine.FeatureContext;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
 import org.broadinstitute.hellbender.engine.FeatureInput;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
@@ -16,6 +17,7 @@ import org.broadinstitute.hellbender.tools.funcotator.Funcotation;
 import org.broadinstitute.hellbender.tools.funcotator.FuncotatorArgumentDefinitions;
 import org.broadinstitute.hellbender.tools.funcotator.FuncotatorUtils;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotation;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotationSchema;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.metadata.FuncotationMetadata;
@@ -71,6 +73,13 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
      */
     private final FuncotationMetadata supportedFieldMetadata;
 
+    /**
+     * The {@link TableFuncotationSchema} of the fields in {@link #supportedFieldNamesAndDefaults}, and the default
+     * values of those fields, with which to create default funcotations.
+     */
+    private final TableFuncotationSchema supportedFieldSchema;
+    private final List<String> supportedFieldDefaultValues;
+
     /**
      * Cache for speed.  Please note that the cache is done on the reference.
      */
@@ -93,6 +102,12 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
      */
     private static final String FILTER_FIELD_NAME = "FILTER";
 
+    /**
+     * Reads the features for each variant from the VCF with a single forward cursor when streaming has been enabled
+     * with {@link #enableStreaming(Set)}.  {@code null} when features come from the {@link FeatureContext}.
+     */
+    private StreamingVcfReader streamingVcfReader = null;
+
     @VisibleForTesting
     int cacheHits = 0;
     @VisibleForTesting
@@ -165,6 +180,8 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
         supportedFieldNamesAndDefaults = new LinkedHashMap<>();
         supportedFieldNames = new LinkedHashSet<>();
         populateSupportedFieldNamesFromVcfFile();
+        supportedFieldSchema = TableFuncotationSchema.of(new ArrayList<>(supportedFieldNamesAndDefaults.keySet()));
+        supportedFieldDefaultValues = new ArrayList<>(supportedFieldNamesAndDefaults.values());
 
         // This step has to occur after supported field names and name have been populated.
         supportedFieldMetadata = createFuncotationMetadata(sourceFilePath);
@@ -258,6 +275,21 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
         return supportedFieldNames;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * When streaming has been enabled with {@link #enableStreaming(Set)}, the features are read from the backing VCF
+     * file directly rather than from the {@code featureContext}.
+     */
+    @Override
+    public List<Feature> getFeaturesFromFeatureContext(final FeatureContext featureContext) {
+        if ( streamingVcfReader == null ) {
+            return super.getFeaturesFromFeatureContext(featureContext);
+        }
+        Utils.nonNull(featureContext);
+        return new ArrayList<>(streamingVcfReader.query(createFeatureQueryInterval(featureContext.getInterval())));
+    }
+
     @Override
     protected List<Funcotation> createDefaultFuncotationsOnVariant( final VariantContext variant, final ReferenceContext referenceContext ) {
         if ( supportedFieldNames.size() != 0 ) {
@@ -282,10 +314,13 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
 
         // TODO: Caching logic can be refactored and shared in other funcotation factories:  https://github.com/broadinstitute/gatk/issues/4974
         final Triple<VariantContext, ReferenceContext, List<Feature>> cacheKey = createCacheKey(variant, referenceContext, featureList);
-        final List<Funcotation> cacheResult = cache.get(cacheKey);
-        if (cacheResult != null) {
-            cacheHits++;
-            return cacheResult;
+        // The cache is shared by every thread annotating variants:
+        synchronized (cache) {
+            final List<Funcotation> cacheResult = cache.get(cacheKey);
+            if (cacheResult != null) {
+                cacheHits++;
+                return cacheResult;
+            }
         }
 
         // Only create annotations if we have data to annotate:
@@ -333,8 +368,10 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
             }
             variant.getAlternateAlleles().forEach(a -> outputFuncotations.add(outputOrderedMap.computeIfAbsent(a, allele -> createDefaultFuncotation(allele))));
         }
-        cacheMisses++;
-        cache.put(cacheKey, outputFuncotations);
+        synchronized (cache) {
+            cacheMisses++;
+            cache.put(cacheKey, outputFuncotations);
+        }
 
         // The output number of funcotations should equal to the variant.getAlternateAlleles().size()
         return outputFuncotations;
@@ -350,7 +387,7 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
         Utils.validateArg(funcotation1.getAltAllele().equals(funcotation2.getAltAllele()), "Merge called on funcotations that have differing alt alleles.");
         Utils.validateArg(funcotation1.getDataSourceName().equals(funcotation2.getDataSourceName()), "Merge called on funcotations that have differing datasource names.");
 
-        final LinkedHashSet<String> allFieldNames = funcotation1.getFieldNames();
+        final LinkedHashSet<String> allFieldNames = new LinkedHashSet<>(funcotation1.getFieldNames());
         allFieldNames.addAll(funcotation2.getFieldNames());
 
         final LinkedHashMap<String, String> mergedFieldsMap = new LinkedHashMap<>();
@@ -485,7 +522,7 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
     }
 
     private TableFuncotation createDefaultFuncotation(final Allele altAllele) {
-        return TableFuncotation.create(supportedFieldNamesAndDefaults, altAllele, name, supportedFieldMetadata);
+        return TableFuncotation.create(supportedFieldSchema, supportedFieldDefaultValues, altAllele, name, supportedFieldMetadata);
     }
 
     /**
@@ -525,6 +562,36 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
         supportedFieldNames.add(createFinalFieldName(name, FILTER_FIELD_NAME));
     }
 
+    /**
+     * Read the features for each variant from the backing VCF file with a single forward-streaming cursor rather than
+     * querying the {@link FeatureContext}.  This is much faster for large data sources when the variants are sorted,
+     * and is still correct (if no faster) when they are not.
+     *
+     * INFO fields whose funcotation field names are in {@code excludedFuncotationFields} are removed from the data
+     * source records before they are decoded.  Those fields will have their default values in the {@link Funcotation}s
+     * created by this {@link VcfFuncotationFactory}.
+     *
+     * The backing VCF file must be indexed.  Features must only be requested on the thread traversing the variants.
+     *
+     * @param excludedFuncotationFields Names of the funcotation fields that will not be output.  Must not be {@code null}.
+     */
+    public void enableStreaming(final Set<String> excludedFuncotationFields) {
+        Utils.nonNull(excludedFuncotationFields);
+        Utils.validate(streamingVcfReader == null, "Streaming has already been enabled for " + name);
+
+        final Set<String> excludedInfoFields = new HashSet<>();
+        try ( final VCFFileReader reader = new VCFFileReader(sourceFilePath, false) ) {
+            for ( final VCFInfoHeaderLine infoLine : reader.getFileHeader().getInfoHeaderLines() ) {
+                if ( excludedFuncotationFields.contains(createFinalFieldName(name, infoLine.getID())) ) {
+                    excludedInfoFields.add(infoLine.getID());
+                }
+            }
+        }
+
+        logger.info("Streaming features for " + name + " from " + sourceFilePath.toUri() + " without decoding " + excludedInfoFields.size() + " excluded INFO fields.");
+        streamingVcfReader = new StreamingVcfReader(sourceFilePath, excludedInfoFields);
+    }
+
     @VisibleForTesting
     static String createFinalFieldName(final String funcotationFactoryName, final String fieldName) {
         return funcotationFactoryName + "_" + fieldName;
@@ -537,6 +604,11 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
     @Override
     public void close() {
         logger.info(getName() + " " + getVersion() + " cache hits/total: " + cacheHits + "/" + (cacheMisses + cacheHits));
+        if ( streamingVcfReader != null ) {
+            logger.info(getName() + " " + getVersion() + " streamed records/seeks: " + streamingVcfReader.getNumRecordsRead() + "/" + streamingVcfReader.getNumSeeks());
+            streamingVcfReader.close();
+            streamingVcfReader = null;
+        }
     }
 
     //==================================================================================================================
@@ -16,8 +16,12 @@ import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.Gencod
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.nio.PathLineIterator;
 
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -82,9 +86,15 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
 
     /**
      * Map containing the annotations that we have to
+     * Is {@code null} if the annotations are looked up in {@link #annotationIndex} instead.
      */
     private final Map<String, List<String>> annotationMap;
 
+    /**
+     * Prebuilt index of the annotations in the XSV file, used instead of {@link #annotationMap} if one exists.
+     */
+    private final SimpleKeyXsvIndex annotationIndex;
+
     //==================================================================================================================
     // Constructors:
 
@@ -154,9 +164,6 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
 
         this.dataSourceIsB37 = isDataSourceB37;
 
-        // Initialize our annotations map:
-        annotationMap = new HashMap<>();
-
         // Create our iterator:
         try ( final PathLineIterator pathLineIterator = new PathLineIterator(xsvInputPath) ) {
 
@@ -172,8 +179,16 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
                 emptyAnnotationList.add("");
             }
 
-            // Populate our annotation map:
-            populateAnnotationMap(it, permissiveColumns);
+            // Use the prebuilt index of the file if there is one, rather than reading all of its rows into memory:
+            annotationIndex = openAnnotationIndex(permissiveColumns);
+            if ( annotationIndex == null ) {
+                // Populate our annotation map:
+                annotationMap = new HashMap<>();
+                populateAnnotationMap(it, permissiveColumns);
+            }
+            else {
+                annotationMap = null;
+            }
         }
 
         // Initialize overrides / defaults:
@@ -258,7 +273,7 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
             }
 
             // Get our annotations:
-            final List<String> annotations = annotationMap.get( key );
+            final List<String> annotations = getAnnotations( key );
             if ( annotations != null ) {
                 // Create 1 annotation for each alt allele and add our annotations to the list:
                 for ( final Allele altAllele : variant.getAlternateAlleles() ) {
@@ -282,12 +297,115 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
         return FuncotatorArgumentDefinitions.DataSourceType.SIMPLE_XSV;
     }
 
+    @Override
+    public void close() {
+        if ( annotationIndex != null ) {
+            annotationIndex.close();
+        }
+    }
+
     //==================================================================================================================
     // Static Methods:
 
+    /**
+     * Create a {@link SimpleKeyXsvIndex} for the given XSV file, which {@link SimpleKeyXsvFuncotationFactory} will use
+     * instead of reading the whole file into memory if it is created with the same settings.
+     * @param xsvPath {@link Path} to the XSV file to index.
+     * @param delim Delimiter used in the XSV file.
+     * @param keyColumn The column (0-indexed) containing the key.
+     * @param keyType The type of key in the XSV file.
+     * @param numHeaderLinesToIgnore The number of lines at the top of the file to ignore before the header.
+     * @param permissiveColumns Whether to allow mismatches between the number of columns in the header row and data rows.
+     * @param outputPath {@link Path} to which to write the index.  The factory looks for it at {@link SimpleKeyXsvIndex#getDefaultPath(Path)}.
+     */
+    public static void createIndex(final Path xsvPath,
+                                   final String delim,
+                                   final int keyColumn,
+                                   final XsvDataKeyType keyType,
+                                   final int numHeaderLinesToIgnore,
+                                   final boolean permissiveColumns,
+                                   final Path outputPath) {
+        Utils.nonNull(xsvPath);
+        Utils.nonNull(outputPath);
+
+        final long sourceSize;
+        final long sourceLastModified;
+        try {
+            sourceSize = Files.size(xsvPath);
+            sourceLastModified = Files.getLastModifiedTime(xsvPath).toMillis();
+        }
+        catch ( final IOException ex ) {
+            throw new UserException.CouldNotReadInputFile(xsvPath, "could not get the size and modification time of the data source file", ex);
+        }
+
+        try ( final PathLineIterator pathLineIterator = new PathLineIterator(xsvPath) ) {
+            final Iterator<String> it = pathLineIterator.iterator();
+            for ( int i = 0; i < numHeaderLinesToIgnore ; ++i ) {
+                it.next();
+            }
+            final int numColumns = Utils.split(it.next(), delim).size();
+            if ( numColumns < 2 ) {
+                throw new UserException.MalformedFile("Data Source is badly formatted (" + xsvPath.toUri().toString() + ") - contains too few columns (" + numColumns + ")!  Is the delimiter specified incorrectly?");
+            }
+
+            try ( final SimpleKeyXsvIndex.Writer writer = new SimpleKeyXsvIndex.Writer(outputPath, sourceSize, sourceLastModified, delim, keyColumn, keyType, numHeaderLinesToIgnore, permissiveColumns, numColumns - 1) ) {
+                readAnnotationRows(it, xsvPath, delim, keyColumn, keyType, numColumns - 1, numHeaderLinesToIgnore, permissiveColumns, writer::add);
+                writer.finish();
+            }
+        }
+    }
+
     //==================================================================================================================
     // Instance Methods:
 
+    /**
+     * @param key The gene name or transcript ID for which to get the annotations.
+     * @return The annotations for the given {@code key}, or {@code null} if the data source has none.
+     */
+    private List<String> getAnnotations(final String key) {
+        if ( annotationIndex == null ) {
+            return annotationMap.get(key);
+        }
+        return (key == null) ? null : annotationIndex.get(key);
+    }
+
+    /**
+     * Open the {@link SimpleKeyXsvIndex} for our XSV file, if there is one that matches the file and our settings.
+     * Assumes that {@link SimpleKeyXsvFuncotationFactory#annotationColumnNames} is populated.
+     * @param permissiveColumns Whether to allow mismatches between the number of columns in the header row and data rows.
+     * @return The index, or {@code null} if the annotations must be read from the XSV file.
+     */
+    private SimpleKeyXsvIndex openAnnotationIndex(final boolean permissiveColumns) {
+        // The index is memory-mapped, so it can only be used on the local file system:
+        if ( !xsvInputPath.getFileSystem().equals(FileSystems.getDefault()) ) {
+            return null;
+        }
+        final Path indexPath = SimpleKeyXsvIndex.getDefaultPath(xsvInputPath);
+        if ( !Files.exists(indexPath) ) {
+            return null;
+        }
+
+        final long sourceSize;
+        final long sourceLastModified;
+        try {
+            sourceSize = Files.size(xsvInputPath);
+            sourceLastModified = Files.getLastModifiedTime(xsvInputPath).toMillis();
+        }
+        catch ( final IOException ex ) {
+            throw new UserException.CouldNotReadInputFile(xsvInputPath, "could not get the size and modification time of the data source file", ex);
+        }
+
+        final SimpleKeyXsvIndex index = SimpleKeyXsvIndex.open(indexPath);
+        if ( !index.isCompatible(sourceSize, sourceLastModified, delimiter, keyColumn, keyType, numHeaderLinesToIgnore, permissiveColumns, annotationColumnNames.size()) ) {
+            logger.warn("Ignoring index " + indexPath.toUri() + " for data source " + name + " because it was created from a different version of the data source or with different settings.  Please recreate the index.");
+            index.close();
+            return null;
+        }
+
+        logger.info("Using index for data source " + name + ": " + indexPath.toUri());
+        return index;
+    }
+
     private List<Funcotation> createDefaultFuncotationsOnVariantHelper( final VariantContext variant, final ReferenceContext referenceContext, final Set<Allele> annotatedAltAlleles  ) {
 
         final List<Funcotation> funcotationList = new ArrayList<>();
@@ -345,6 +463,32 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
      */
     private void populateAnnotationMap(final Iterator<String> it,
                                        final boolean permissiveColumnNumbers) {
+        readAnnotationRows(it, xsvInputPath, delimiter, keyColumn, keyType, annotationColumnNames.size(), numHeaderLinesToIgnore, permissiveColumnNumbers, annotationMap::put);
+    }
+
+    /**
+     * Parses the data rows of an XSV file and passes the key and annotations of each one to the given consumer.
+     * @param it An {@link Iterator} of {@link String} starting at the first data line in the file to parse.
+     * @param xsvInputPath {@link Path} to the XSV file.  For error messages only.
+     * @param delimiter Delimiter used in the XSV file.
+     * @param keyColumn The column (0-indexed) containing the key.
+     * @param keyType The type of key in the XSV file.
+     * @param numAnnotationColumns The number of columns in the header, not counting the key column.
+     * @param numHeaderLinesToIgnore The number of lines at the top of the file that were ignored before the header.
+     * @param permissiveColumnNumbers A flag which if true indicates to allow mismatches between the number of columns in the header row and data rows.
+     *                                In the event of a mismatch, the data row with either be padded to the number of columns in the header
+     *                                or it will be truncated to match the number of columns in the header.
+     * @param rowConsumer Called with the key and the annotations of each row, in file order.
+     */
+    private static void readAnnotationRows(final Iterator<String> it,
+                                           final Path xsvInputPath,
+                                           final String delimiter,
+                                           final int keyColumn,
+                                           final XsvDataKeyType keyType,
+                                           final int numAnnotationColumns,
+                                           final int numHeaderLinesToIgnore,
+                                           final boolean permissiveColumnNumbers,
+                                           final BiConsumer<String, List<String>> rowConsumer) {
 
         boolean emptyLineFlag = false;
 
@@ -380,22 +524,22 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
             }
 
             // Make sure we have the same number of columns:
-            if ( (dataRow.size() != annotationColumnNames.size()) ) {
+            if ( (dataRow.size() != numAnnotationColumns) ) {
                 if ( !permissiveColumnNumbers ) {
-                    throw new UserException.MalformedFile("Data Source is badly formatted (" + xsvInputPath.toUri().toString() + ") - row " + dataRowNum + " does not contain the same number of columns as header (" + dataRow.size() + " != " + annotationColumnNames.size() + ")!");
+                    throw new UserException.MalformedFile("Data Source is badly formatted (" + xsvInputPath.toUri().toString() + ") - row " + dataRowNum + " does not contain the same number of columns as header (" + dataRow.size() + " != " + numAnnotationColumns + ")!");
                 }
-                else if ( dataRow.size() > annotationColumnNames.size() ) {
+                else if ( dataRow.size() > numAnnotationColumns ) {
                     dataRow.remove(dataRow.size()-1);
                 }
                 else {
-                    while ( dataRow.size() < annotationColumnNames.size() ) {
+                    while ( dataRow.size() < numAnnotationColumns ) {
                         dataRow.add( "" );
                     }
                 }
             }
 
             // Store this in our map:
-            annotationMap.put(rowKey, dataRow);
+            rowConsumer.accept(rowKey, dataRow);
 
             // Increment our row counter:
             ++dataRowNum;
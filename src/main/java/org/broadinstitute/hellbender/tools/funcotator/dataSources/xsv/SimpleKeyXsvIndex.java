@@ -0,0 +1,349 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv;
+
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A prebuilt, memory-mapped hash index of the rows of a {@link SimpleKeyXsvFuncotationFactory} data source file, which
+ * lets the factory look up the annotations for a gene name or transcript ID without reading the whole file into memory.
+ *
+ * The file holds a header with the size and last modification time of the data source file from which the index was
+ * created and the settings
+ * with which it was parsed (so that an out-of-date or mismatched index can be detected), then one record for each key
+ * holding the key and the values of its annotation columns, then an open-addressing hash table of the offsets of the
+ * records, and finally the offset of that table.  As with the in-memory map, the last row for a key wins.
+ *
+ * Since the mapped file is only ever read, an index may be queried by several threads at once, until it is closed.
+ *
+ * Indices are created with {@link org.broadinstitute.hellbender.tools.funcotator.CreateSimpleKeyXsvIndex}.
+ */
+public final class SimpleKeyXsvIndex implements AutoCloseable {
+    public static final String FILE_EXTENSION = ".xsvidx";
+
+    private static final byte[] MAGIC = "GATKXSVINDEX".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 2;
+
+    // Records start after the (non-empty) header, so an offset of 0 marks an empty bucket:
+    private static final int EMPTY_BUCKET = 0;
+
+    // Set to null on close, so that the mapping can be released:
+    private MappedByteBuffer buffer;
+    private final long sourceSize;
+    private final long sourceLastModified;
+    private final String delimiter;
+    private final int keyColumn;
+    private final SimpleKeyXsvFuncotationFactory.XsvDataKeyType keyType;
+    private final int numHeaderLinesToIgnore;
+    private final boolean permissiveColumns;
+    private final int numAnnotationColumns;
+    private final int numKeys;
+    private final int numBuckets;
+    private final int bucketTableOffset;
+
+    private SimpleKeyXsvIndex(final Path path, final MappedByteBuffer buffer) {
+        this.buffer = buffer;
+
+        final byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if ( !Arrays.equals(magic, MAGIC) ) {
+            throw new UserException.MalformedFile(path, "File is not a simple XSV data source index");
+        }
+        final int version = buffer.getInt();
+        if ( version != VERSION ) {
+            throw new UserException.MalformedFile(path, "Unsupported simple XSV data source index version " + version + " (expected " + VERSION + ").  Please recreate the index.");
+        }
+        sourceSize = buffer.getLong();
+        sourceLastModified = buffer.getLong();
+        delimiter = readString(buffer);
+        keyColumn = buffer.getInt();
+        final int keyTypeOrdinal = buffer.getInt();
+        if ( keyTypeOrdinal < 0 || keyTypeOrdinal >= SimpleKeyXsvFuncotationFactory.XsvDataKeyType.values().length ) {
+            throw new UserException.MalformedFile(path, "Simple XSV data source index has an invalid key type: " + keyTypeOrdinal);
+        }
+        keyType = SimpleKeyXsvFuncotationFactory.XsvDataKeyType.values()[keyTypeOrdinal];
+        numHeaderLinesToIgnore = buffer.getInt();
+        permissiveColumns = buffer.get() != 0;
+        numAnnotationColumns = buffer.getInt();
+
+        final long tableOffset = buffer.getLong(buffer.capacity() - Long.BYTES);
+        if ( tableOffset < buffer.position() || tableOffset > buffer.capacity() - Long.BYTES - 2 * Integer.BYTES ) {
+            throw new UserException.MalformedFile(path, "Simple XSV data source index has an invalid hash table offset: " + tableOffset);
+        }
+        numKeys = buffer.getInt((int) tableOffset);
+        numBuckets = buffer.getInt((int) tableOffset + Integer.BYTES);
+        bucketTableOffset = (int) tableOffset + 2 * Integer.BYTES;
+        // There must always be an empty bucket, so that lookups of missing keys terminate:
+        if ( numKeys < 0 || Integer.bitCount(numBuckets) != 1 || numBuckets <= numKeys ||
+                bucketTableOffset + (long) numBuckets * Integer.BYTES != buffer.capacity() - Long.BYTES ) {
+            throw new UserException.MalformedFile(path, "Simple XSV data source index has an invalid hash table");
+        }
+    }
+
+    /**
+     * @return The path at which the index for the given data source file is expected.
+     */
+    public static Path getDefaultPath(final Path xsvPath) {
+        return xsvPath.resolveSibling(xsvPath.getFileName() + FILE_EXTENSION);
+    }
+
+    /**
+     * Open an existing index.  The index must be on the local file system, so that it can be memory-mapped.
+     *
+     * @throws UserException.MalformedFile if the file is not a simple XSV data source index
+     */
+    public static SimpleKeyXsvIndex open(final Path path) {
+        Utils.nonNull(path);
+        try ( final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ) {
+            final long size = channel.size();
+            if ( size > Integer.MAX_VALUE ) {
+                throw new UserException.MalformedFile(path, "Simple XSV data source index is larger than the supported maximum of " + Integer.MAX_VALUE + " bytes");
+            }
+            if ( size < MAGIC.length + Integer.BYTES ) {
+                throw new UserException.MalformedFile(path, "File is too small to be a simple XSV data source index");
+            }
+            return new SimpleKeyXsvIndex(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch ( final BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e ) {
+            throw new UserException.MalformedFile(path, "Simple XSV data source index is truncated or corrupt", e);
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(path, "exception while opening the simple XSV data source index", e);
+        }
+    }
+
+    /**
+     * @return {@code true} if this index was created from a data source file of the given size and last modification
+     *         time (in milliseconds since the epoch), parsed with the given settings.
+     */
+    public boolean isCompatible(final long sourceSize,
+                                final long sourceLastModified,
+                                final String delimiter,
+                                final int keyColumn,
+                                final SimpleKeyXsvFuncotationFactory.XsvDataKeyType keyType,
+                                final int numHeaderLinesToIgnore,
+                                final boolean permissiveColumns,
+                                final int numAnnotationColumns) {
+        return this.sourceSize == sourceSize &&
+                this.sourceLastModified == sourceLastModified &&
+                this.delimiter.equals(delimiter) &&
+                this.keyColumn == keyColumn &&
+                this.keyType == keyType &&
+                this.numHeaderLinesToIgnore == numHeaderLinesToIgnore &&
+                this.permissiveColumns == permissiveColumns &&
+                this.numAnnotationColumns == numAnnotationColumns;
+    }
+
+    /**
+     * @return The number of distinct keys in this index.
+     */
+    public int getNumKeys() {
+        return numKeys;
+    }
+
+    /**
+     * @param key The gene name or (version-less) transcript ID to look up.  Must not be {@code null}.
+     * @return The values of the annotation columns of the row with the given key, or {@code null} if there is no such row.
+     */
+    public List<String> get(final String key) {
+        Utils.nonNull(key);
+        final MappedByteBuffer buffer = this.buffer;
+        Utils.validate(buffer != null, "The simple XSV data source index is closed");
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+        // A duplicate has its own position, so that concurrent lookups don't interfere with each other:
+        final ByteBuffer view = buffer.duplicate();
+        for ( int bucket = bucketFor(key, numBuckets); ; bucket = (bucket + 1) & (numBuckets - 1) ) {
+            final int recordOffset = buffer.getInt(bucketTableOffset + bucket * Integer.BYTES);
+            if ( recordOffset == EMPTY_BUCKET ) {
+                return null;
+            }
+            ((Buffer) view).position(recordOffset);
+            if ( keyMatches(view, keyBytes) ) {
+                final int numValues = view.getInt();
+                final List<String> values = new ArrayList<>(numValues);
+                for ( int i = 0; i < numValues; ++i ) {
+                    values.add(readString(view));
+                }
+                return values;
+            }
+        }
+    }
+
+    /**
+     * Release the mapped index.  The index cannot be queried once it is closed.
+     */
+    @Override
+    public void close() {
+        buffer = null;
+    }
+
+    private static boolean keyMatches(final ByteBuffer view, final byte[] keyBytes) {
+        if ( view.getInt() != keyBytes.length ) {
+            return false;
+        }
+        for ( final byte b : keyBytes ) {
+            if ( view.get() != b ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String readString(final ByteBuffer view) {
+        final byte[] bytes = new byte[view.getInt()];
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // String.hashCode() is fully specified, so this is stable across JVMs:
+    private static int bucketFor(final String key, final int numBuckets) {
+        final int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (numBuckets - 1);
+    }
+
+    /**
+     * Writes an index.  Rows must be added in file order, and the index is only valid once {@link #finish()} has
+     * been called: closing an unfinished writer deletes the partial index, so that a failed run doesn't leave an
+     * index that is missing rows.
+     */
+    public static final class Writer implements AutoCloseable {
+        private final Path outputPath;
+        private final DataOutputStream out;
+        // offset of the record for each key; a later row for a key replaces the earlier one
+        private final Map<String, Integer> recordOffsets = new HashMap<>();
+        private long offset;
+        private boolean finished = false;
+
+        /**
+         * @param outputPath The file to which to write the index.
+         * @param sourceSize The size in bytes of the data source file, used to detect out-of-date indices.
+         * @param sourceLastModified The last modification time of the data source file, in milliseconds since the epoch, used to detect out-of-date indices.
+         * @param delimiter The delimiter of the data source file.
+         * @param keyColumn The column (0-indexed) containing the key.
+         * @param keyType The type of the key.
+         * @param numHeaderLinesToIgnore The number of lines before the header of the data source file.
+         * @param permissiveColumns Whether rows were allowed to have a different number of columns from the header.
+         * @param numAnnotationColumns The number of columns in the header, not counting the key column.
+         */
+        public Writer(final Path outputPath,
+                      final long sourceSize,
+                      final long sourceLastModified,
+                      final String delimiter,
+                      final int keyColumn,
+                      final SimpleKeyXsvFuncotationFactory.XsvDataKeyType keyType,
+                      final int numHeaderLinesToIgnore,
+                      final boolean permissiveColumns,
+                      final int numAnnotationColumns) {
+            this.outputPath = Utils.nonNull(outputPath);
+            Utils.nonNull(delimiter);
+            Utils.nonNull(keyType);
+            try {
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(outputPath)));
+                out.write(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(sourceSize);
+                out.writeLong(sourceLastModified);
+                offset = MAGIC.length + Integer.BYTES + 2 * Long.BYTES + writeString(delimiter);
+                out.writeInt(keyColumn);
+                out.writeInt(keyType.ordinal());
+                out.writeInt(numHeaderLinesToIgnore);
+                out.writeByte(permissiveColumns ? 1 : 0);
+                out.writeInt(numAnnotationColumns);
+                offset += 4 * Integer.BYTES + 1;
+            } catch ( final IOException e ) {
+                throw new UserException.CouldNotCreateOutputFile(outputPath.toUri().toString(), "exception while writing the simple XSV data source index", e);
+            }
+        }
+
+        /**
+         * Add a row to the index.
+         * @param key The key of the row, with any transcript version already removed.
+         * @param values The values of the annotation columns of the row.
+         */
+        public void add(final String key, final List<String> values) {
+            Utils.nonNull(key);
+            Utils.nonNull(values);
+            if ( offset > Integer.MAX_VALUE ) {
+                throw new UserException.CouldNotCreateOutputFile(outputPath.toUri().toString(),
+                        "the data source is larger than the supported maximum of " + Integer.MAX_VALUE + " bytes");
+            }
+            recordOffsets.put(key, (int) offset);
+            try {
+                offset += writeString(key);
+                out.writeInt(values.size());
+                offset += Integer.BYTES;
+                for ( final String value : values ) {
+                    offset += writeString(value);
+                }
+            } catch ( final IOException e ) {
+                throw new UserException.CouldNotCreateOutputFile(outputPath.toUri().toString(), "exception while writing the simple XSV data source index", e);
+            }
+        }
+
+        /**
+         * Write the hash table of the rows that have been added, which completes the index.
+         */
+        public void finish() {
+            final int numBuckets = Math.max(2, Integer.highestOneBit(Math.max(1, recordOffsets.size())) << 2);
+            final int[] buckets = new int[numBuckets];
+            for ( final Map.Entry<String, Integer> entry : recordOffsets.entrySet() ) {
+                int bucket = bucketFor(entry.getKey(), numBuckets);
+                while ( buckets[bucket] != EMPTY_BUCKET ) {
+                    bucket = (bucket + 1) & (numBuckets - 1);
+                }
+                buckets[bucket] = entry.getValue();
+            }
+            if ( offset + 2L * Integer.BYTES + (long) numBuckets * Integer.BYTES + Long.BYTES > Integer.MAX_VALUE ) {
+                throw new UserException.CouldNotCreateOutputFile(outputPath.toUri().toString(),
+                        "the data source is larger than the supported maximum of " + Integer.MAX_VALUE + " bytes");
+            }
+            try {
+                out.writeInt(recordOffsets.size());
+                out.writeInt(numBuckets);
+                for ( final int recordOffset : buckets ) {
+                    out.writeInt(recordOffset);
+                }
+                out.writeLong(offset);
+                out.flush();
+            } catch ( final IOException e ) {
+                throw new UserException.CouldNotCreateOutputFile(outputPath.toUri().toString(), "exception while writing the simple XSV data source index", e);
+            }
+            finished = true;
+        }
+
+        private int writeString(final String s) throws IOException {
+            final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            return Integer.BYTES + bytes.length;
+        }
+
+        @Override
+        public void close() {
+            try {
+                out.close();
+                if ( !finished ) {
+                    Files.deleteIfExists(outputPath);
+                }
+            } catch ( final IOException e ) {
+                throw new UserException.CouldNotCreateOutputFile(outputPath.toUri().toString(), "exception while closing the simple XSV data source index", e);
+            }
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package org.broadinstitute.hellbender.tools.funcotator.filtrationRules;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -31,43 +30,53 @@ public class AlleleFrequencyExacUtils extends AlleleFrequencyUtils {
 
     private static final Logger logger = LogManager.getLogger(AlleleFrequencyExacUtils.class);
 
+    /**
+     * Allele-count Funcotations for each ExAC sub-population.
+     */
+    private static final List<String> EXAC_ALLELE_COUNT_FUNCOTATIONS = Arrays.stream(ExacSubPopulation.values())
+            .map(subpop -> EXAC_ALLELE_COUNT_PREFIX + subpop.name())
+            .collect(Collectors.toList());
+
+    /**
+     * Allele-number Funcotations for each ExAC sub-population, in the same order as {@link #EXAC_ALLELE_COUNT_FUNCOTATIONS}.
+     */
+    private static final List<String> EXAC_ALLELE_NUMBER_FUNCOTATIONS = Arrays.stream(ExacSubPopulation.values())
+            .map(subpop -> EXAC_ALLELE_NUMBER_PREFIX + subpop.name())
+            .collect(Collectors.toList());
+
+    /**
+     * The names of the Funcotations read by {@link #getMaxMinorAlleleFreq(TranscriptFuncotations)}.
+     */
+    static List<String> getFuncotationFieldNames() {
+        final List<String> fieldNames = new ArrayList<>(EXAC_ALLELE_COUNT_FUNCOTATIONS);
+        fieldNames.addAll(EXAC_ALLELE_NUMBER_FUNCOTATIONS);
+        return fieldNames;
+    }
+
     /**
      * Calculate the max MAF across all ExAC sub-populations from the given Funcotations.
      *
      * If a sub-population has an allele number of zero, it will be assigned a MAF of zero.
      */
-    protected static double getMaxMinorAlleleFreq(final Set<Map.Entry<String, String>> funcotations) {
-        return Arrays.stream(ExacSubPopulation.values())
-                .filter(subpop -> funcotations.stream().anyMatch(entry -> entry.getKey().equals(EXAC_ALLELE_COUNT_PREFIX + subpop.name())))
-                .map(subpop -> {
-                    final String exacAlleleCount = EXAC_ALLELE_COUNT_PREFIX + subpop.name();
-                    final String exacAlleleNumber = EXAC_ALLELE_NUMBER_PREFIX + subpop.name();
-                    final List<String> keys = Arrays.asList(exacAlleleCount, exacAlleleNumber);
-                    final Set<Map.Entry<String, String>> matchingFuncotations = funcotations.stream().filter(entry -> keys.contains(entry.getKey())).collect(Collectors.toSet());
-                    try {
-                        final Double ac = matchingFuncotations.stream()
-                                .filter(entry1 -> entry1.getKey().equals(exacAlleleCount))
-                                .findFirst()
-                                .map(entry -> Double.valueOf(entry.getValue()))
-                                .orElse(0d);
-                        final Integer an = matchingFuncotations.stream()
-                                .filter(entry1 -> entry1.getKey().equals(exacAlleleNumber))
-                                .findFirst()
-                                .map(entry -> Integer.valueOf(entry.getValue()))
-                                .orElse(0);
-                        if (an == 0) {
-                            // If a variant has never been seen in ExAC, report it as 0% MAF.
-                            return 0d;
-                        } else {
-                            return ac / an;
-                        }
-                    } catch (java.lang.NumberFormatException e) {
-                        logger.warn("Found an inconsistency in the funcotation annotations: " + e.getMessage());
-                        return 0d;
-                    }
-
-                })
-                .max(Double::compareTo)
-                .orElse(0d);
+    protected static double getMaxMinorAlleleFreq(final TranscriptFuncotations funcotations) {
+        double maxMaf = 0;
+        for (int i = 0; i < EXAC_ALLELE_COUNT_FUNCOTATIONS.size(); ++i) {
+            final String alleleCount = funcotations.getValue(EXAC_ALLELE_COUNT_FUNCOTATIONS.get(i));
+            if (alleleCount == null) {
+                continue;
+            }
+            final String alleleNumber = funcotations.getValue(EXAC_ALLELE_NUMBER_FUNCOTATIONS.get(i));
+            try {
+                final double ac = Double.parseDouble(alleleCount);
+                final int an = alleleNumber == null ? 0 : Integer.parseInt(alleleNumber);
+                // If a variant has never been seen in ExAC, report it as 0% MAF.
+                if (an != 0) {
+                    maxMaf = Math.max(maxMaf, ac / an);
+                }
+            } catch (java.lang.NumberFormatException e) {
+                logger.warn("Found an inconsistency in the funcotation annotations: " + e.getMessage());
+            }
+        }
+        return maxMaf;
     }
 }
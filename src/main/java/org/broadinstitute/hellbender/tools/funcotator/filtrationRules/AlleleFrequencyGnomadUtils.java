@@ -1,9 +1,10 @@
 package org.broadinstitute.hellbender.tools.funcotator.filtrationRules;
 
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Map;
-import java.util.stream.Stream;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Allele frequency calculations for the Gnomad dataset
@@ -59,37 +60,64 @@ class AlleleFrequencyGnomadUtils {
         gnomAD_genome, gnomAD_exome;
 
         // Prefix for gnomAD allele-frequency Funcotations.
-        private String alleleFrequencyPrefix = name() + "_AF_";
+        private final String alleleFrequencyPrefix = name() + "_AF_";
 
         // Name of annotations for whether gnomAD records for a particular data type were filtered out.
-        private String filterAnnotation = name() + "_FILTER";
+        private final String filterAnnotation = name() + "_FILTER";
+
+        // Allele-frequency Funcotations for each sub-population.
+        private final List<String> alleleFrequencyAnnotations = Arrays.stream(GnomadSubpopSuffixes.values())
+                .map(suffix -> alleleFrequencyPrefix + suffix.name())
+                .collect(Collectors.toList());
+
+        /**
+         * @return Whether the gnomAD records of this data type were not filtered out.
+         */
+        private boolean isPresent(final TranscriptFuncotations funcotations) {
+            final String filter = funcotations.getValue(filterAnnotation);
+            return filter == null || filter.equals("PASS");
+        }
     }
 
     /**
-     * Calculate the max MAF across all gnomAD sub-populations from the given Funcotations.
-     * If a sub-population has an allele number of zero, it will be assigned a MAF of zero.
+     * The names of the Funcotations read by {@link #getMaxMinorAlleleFreq(TranscriptFuncotations)} and
+     * {@link #allFrequenciesFiltered(TranscriptFuncotations)}.
      */
-    static double getMaxMinorAlleleFreq(final Map<String, String> funcotations) {
-        return getSubpopAlleleFrequencies(funcotations)
-                .filter(funcotations::containsKey)
-                .map(subpop -> Double.valueOf(funcotations.get(subpop)))
-                .max(Double::compareTo)
-                .orElse(0d);
-    }
-
-    static boolean allFrequenciesFiltered(final Map<String, String> funcotations) {
-        return datasetsPresent(funcotations).count() == 0;
+    static List<String> getFuncotationFieldNames() {
+        final List<String> fieldNames = new ArrayList<>();
+        for (final GnomadDataset dataset : GnomadDataset.values()) {
+            fieldNames.add(dataset.filterAnnotation);
+            fieldNames.addAll(dataset.alleleFrequencyAnnotations);
+        }
+        return fieldNames;
     }
 
-    private static Stream<String> getSubpopAlleleFrequencies(final Map<String, String> funcotations) {
-        return datasetsPresent(funcotations)
-                .flatMap(dataset -> Arrays.stream(GnomadSubpopSuffixes.values()).map(suffix -> dataset.alleleFrequencyPrefix + suffix.name()));
+    /**
+     * Calculate the max MAF across all gnomAD sub-populations from the given Funcotations.
+     * If a sub-population has an allele number of zero, it will be assigned a MAF of zero.
+     */
+    static double getMaxMinorAlleleFreq(final TranscriptFuncotations funcotations) {
+        double maxMaf = 0;
+        for (final GnomadDataset dataset : GnomadDataset.values()) {
+            if (!dataset.isPresent(funcotations)) {
+                continue;
+            }
+            for (final String alleleFrequencyAnnotation : dataset.alleleFrequencyAnnotations) {
+                final String alleleFrequency = funcotations.getValue(alleleFrequencyAnnotation);
+                if (alleleFrequency != null) {
+                    maxMaf = Math.max(maxMaf, Double.parseDouble(alleleFrequency));
+                }
+            }
+        }
+        return maxMaf;
     }
 
-    private static Stream<GnomadDataset> datasetsPresent(final Map<String, String> funcotations) {
-        return Arrays.stream(GnomadDataset.values())
-                .filter(dataset ->
-                        !funcotations.containsKey(dataset.filterAnnotation) ||
-                                (funcotations.containsKey(dataset.filterAnnotation) && funcotations.get(dataset.filterAnnotation).equals("PASS")));
+    static boolean allFrequenciesFiltered(final TranscriptFuncotations funcotations) {
+        for (final GnomadDataset dataset : GnomadDataset.values()) {
+            if (dataset.isPresent(funcotations)) {
+                return false;
+            }
+        }
+        return true;
     }
 }
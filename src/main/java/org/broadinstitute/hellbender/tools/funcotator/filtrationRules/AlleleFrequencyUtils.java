@@ -3,8 +3,7 @@ package org.broadinstitute.hellbender.tools.funcotator.filtrationRules;
 import org.broadinstitute.hellbender.tools.funcotator.FilterFuncotations.AlleleFrequencyDataSource;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.List;
 
 /**
  * Allele frequency utilities that are dataset-agnostic
@@ -26,11 +25,18 @@ public abstract class AlleleFrequencyUtils {
             return (funcotations, variant) -> AlleleFrequencyExacUtils.getMaxMinorAlleleFreq(funcotations) <= maxMaf;
         }
         else {
-            return (funcotations, variant) -> {
-                final Map<String, String> condensedFuncotations = funcotations.stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-                return (!AlleleFrequencyGnomadUtils.allFrequenciesFiltered(condensedFuncotations)
-                        && AlleleFrequencyGnomadUtils.getMaxMinorAlleleFreq(condensedFuncotations) <= maxMaf);
-            };
+            return (funcotations, variant) -> (!AlleleFrequencyGnomadUtils.allFrequenciesFiltered(funcotations)
+                    && AlleleFrequencyGnomadUtils.getMaxMinorAlleleFreq(funcotations) <= maxMaf);
         }
     }
+
+    /**
+     * @param afDataSource the allele frequency data source (ExAC or gnomAD) with which the original VCF was Funcotated.
+     * @return the names of the Funcotations read by the rule built by {@link #buildMaxMafRule(double, AlleleFrequencyDataSource)}.
+     */
+    public static List<String> getMaxMafFuncotationFieldNames(final AlleleFrequencyDataSource afDataSource) {
+        return afDataSource.equals(AlleleFrequencyDataSource.exac) ?
+                AlleleFrequencyExacUtils.getFuncotationFieldNames() :
+                AlleleFrequencyGnomadUtils.getFuncotationFieldNames();
+    }
 }
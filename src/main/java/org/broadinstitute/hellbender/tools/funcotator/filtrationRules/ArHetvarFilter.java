@@ -1,20 +1,14 @@
 package org.broadinstitute.hellbender.tools.funcotator.filtrationRules;
 
-import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.tools.funcotator.FilterFuncotations;
-import org.broadinstitute.hellbender.tools.funcotator.FilterFuncotationsUtils;
-import org.broadinstitute.hellbender.tools.funcotator.FuncotationMap;
-import org.broadinstitute.hellbender.tools.funcotator.FuncotatorUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
 
 public class ArHetvarFilter extends TwoPassFuncotationFilter {
     /**
@@ -24,30 +18,31 @@ public class ArHetvarFilter extends TwoPassFuncotationFilter {
      */
     private final String gene;
 
-    private final String annotationTranscript;
     private final List<VariantContext> arCompoundHetVariants = new ArrayList<>();
     private final Map<String, List<VariantContext>> arHetVariantsByGene = new HashMap<>();
-    private final String[] funcotationKeys;
     private boolean firstPassApplied;
     private boolean afterFirstPassApplied;
 
 
+    @Override
+    public List<String> getFuncotationFieldNames() {
+        return Collections.singletonList(gene);
+    }
+
     @Override
     List<FuncotationFiltrationRule> getRules() {
         return Collections.singletonList(this::arHetvarRule);
     }
 
-    public ArHetvarFilter(FilterFuncotations.Reference reference, final String[] funcotationKeys) {
+    public ArHetvarFilter(FilterFuncotations.Reference reference) {
         super(AutosomalRecessiveConstants.AR_INFO_VALUE);
         this.gene = "Gencode_" + reference.getGencodeVersion() + "_hugoSymbol";
-        this.annotationTranscript = "Gencode_" + reference.getGencodeVersion() + "_annotationTranscript";
-        this.funcotationKeys = funcotationKeys;
     }
 
     @Override
-    public void firstPassApply(final VariantContext variant) {
+    public void firstPassApply(final VariantContext variant, final List<TranscriptFuncotations> transcriptFuncotations) {
         firstPassApplied = true;
-        buildArHetByGene(variant);
+        buildArHetByGene(variant, transcriptFuncotations);
     }
 
     @Override
@@ -63,7 +58,7 @@ public class ArHetvarFilter extends TwoPassFuncotationFilter {
         });
     }
 
-    private boolean arHetvarRule(Set<Map.Entry<String, String>> funcotations, VariantContext variant) {
+    private boolean arHetvarRule(TranscriptFuncotations funcotations, VariantContext variant) {
         if (!firstPassApplied) {
             throw new GATKException("firstPassApply should be called before this rule is applied");
         }
@@ -73,27 +68,21 @@ public class ArHetvarFilter extends TwoPassFuncotationFilter {
         return arCompoundHetVariants.stream().anyMatch(hetVariant -> variantContextsMatch(hetVariant, variant));
     }
 
-    private void buildArHetByGene(final VariantContext variant) {
-        final Map<Allele, FuncotationMap> funcs = FuncotatorUtils.createAlleleToFuncotationMapFromFuncotationVcfAttribute(
-                funcotationKeys, variant, annotationTranscript, "FAKE_SOURCE");
-
-        funcs.values().forEach(funcotationMap -> {
-            FilterFuncotationsUtils.getTranscriptFuncotations(funcotationMap).forEach(funcotations -> {
-                Optional<Map.Entry<String, String>> maybeGeneFuncotation = funcotations.stream().filter(funcotation -> funcotation.getKey().equals(gene)).findFirst();
-                if (maybeGeneFuncotation.isPresent()) {
-                    String gene = maybeGeneFuncotation.get().getValue();
-                    if (AutosomalRecessiveConstants.AUTOSOMAL_RECESSIVE_GENES.contains(gene) && variant.getHetCount() > 0) {
-                        if(arHetVariantsByGene.containsKey(gene)) {
-                            arHetVariantsByGene.get(gene).add(variant);
-                        }
-                        else {
-                            ArrayList<VariantContext> variants = new ArrayList<>();
-                            variants.add(variant);
-                            arHetVariantsByGene.put(gene, variants);
-                        }
+    private void buildArHetByGene(final VariantContext variant, final List<TranscriptFuncotations> transcriptFuncotations) {
+        transcriptFuncotations.forEach(funcotations -> {
+            String gene = funcotations.getValue(this.gene);
+            if (gene != null) {
+                if (AutosomalRecessiveConstants.AUTOSOMAL_RECESSIVE_GENES.contains(gene) && variant.getHetCount() > 0) {
+                    if(arHetVariantsByGene.containsKey(gene)) {
+                        arHetVariantsByGene.get(gene).add(variant);
+                    }
+                    else {
+                        ArrayList<VariantContext> variants = new ArrayList<>();
+                        variants.add(variant);
+                        arHetVariantsByGene.put(gene, variants);
                     }
                 }
-            });
+            }
         });
     }
 
@@ -5,8 +5,6 @@ import org.broadinstitute.hellbender.tools.funcotator.FilterFuncotations.Referen
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 public class ArHomvarFilter extends FuncotationFilter {
     /**
@@ -21,18 +19,19 @@ public class ArHomvarFilter extends FuncotationFilter {
         this.gene = "Gencode_" + reference.getGencodeVersion() + "_hugoSymbol";
     }
 
+    @Override
+    public List<String> getFuncotationFieldNames() {
+        return Collections.singletonList(gene);
+    }
+
     @Override
     List<FuncotationFiltrationRule> getRules() {
         return Collections.singletonList(this::arHomvarRule);
     }
 
-    private boolean arHomvarRule(Set<Map.Entry<String, String>> funcotations, VariantContext variantContext) {
+    private boolean arHomvarRule(TranscriptFuncotations funcotations, VariantContext variantContext) {
         // Is this gene part of the list of genes we care about?
-        boolean isInterestingGene = funcotations.stream()
-                .anyMatch(funcotation ->
-                        funcotation.getKey().equals(gene)
-                        && AutosomalRecessiveConstants.AUTOSOMAL_RECESSIVE_GENES.contains(funcotation.getValue())
-                );
+        boolean isInterestingGene = funcotations.anyValueMatches(gene, AutosomalRecessiveConstants.AUTOSOMAL_RECESSIVE_GENES::contains);
         // If so, is this a homvar?
         if (isInterestingGene) {
             return variantContext.getHomVarCount() > 0;
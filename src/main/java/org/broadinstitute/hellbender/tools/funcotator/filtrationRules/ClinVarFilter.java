@@ -2,10 +2,9 @@ package org.broadinstitute.hellbender.tools.funcotator.filtrationRules;
 
 import org.broadinstitute.hellbender.tools.funcotator.FilterFuncotations.AlleleFrequencyDataSource;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * {@link FuncotationFilter} matching variants which:
@@ -61,16 +60,18 @@ public class ClinVarFilter extends FuncotationFilter {
         this.afDataSource = afDataSource;
     }
 
+    @Override
+    public List<String> getFuncotationFieldNames() {
+        final List<String> fieldNames = new ArrayList<>(Arrays.asList(ACMG_DISEASE_FUNCOTATION, CLINVAR_SIGNIFICANCE_FUNCOTATION));
+        fieldNames.addAll(AlleleFrequencyUtils.getMaxMafFuncotationFieldNames(afDataSource));
+        return fieldNames;
+    }
+
     @Override
     List<FuncotationFiltrationRule> getRules() {
         return Arrays.asList(
-                (funcotations, variant) -> containsKey(funcotations, ACMG_DISEASE_FUNCOTATION),
-                (funcotations, variant) -> {
-                    final Set<String> significance = matchOnKeyOrDefault(funcotations, CLINVAR_SIGNIFICANCE_FUNCOTATION, "")
-                            .filter(value -> !value.isEmpty())
-                            .collect(Collectors.toSet());
-                    return CLINVAR_SIGNIFICANCE_MATCHING_VALUES.stream().anyMatch(significance::contains);
-                },
+                (funcotations, variant) -> funcotations.containsField(ACMG_DISEASE_FUNCOTATION),
+                (funcotations, variant) -> funcotations.anyValueMatches(CLINVAR_SIGNIFICANCE_FUNCOTATION, CLINVAR_SIGNIFICANCE_MATCHING_VALUES::contains),
                 AlleleFrequencyUtils.buildMaxMafRule(CLINVAR_MAX_MAF, afDataSource));
     }
 }
@@ -3,13 +3,7 @@ package org.broadinstitute.hellbender.tools.funcotator.filtrationRules;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.broadinstitute.hellbender.utils.Utils;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * A filter to apply to Funcotations in {@link org.broadinstitute.hellbender.tools.funcotator.FilterFuncotations}.
@@ -24,6 +18,11 @@ public abstract class FuncotationFilter {
      */
     private final String filterName;
 
+    /**
+     * The rules of this filter, built on first use so that they are only built once.
+     */
+    private List<FuncotationFiltrationRule> rules = null;
+
     FuncotationFilter(final String filterName) {
         this.filterName = filterName;
     }
@@ -33,64 +32,39 @@ public abstract class FuncotationFilter {
     }
 
     /**
-     * Check all of this filter's rules against a set of Funcotations.
+     * Check all of this filter's rules against the Funcotations of a transcript.
      *
-     * @param prunedTranscriptFuncotations Funcotation values of a single transcript. Assumed to have
-     *                                     been "pruned" to remove null / empty values. Never {@code null}
+     * @param transcriptFuncotations Funcotation values of a single transcript, extracted for at least the fields
+     *                               in {@link #getFuncotationFieldNames()}. Never {@code null}
      * @param variant VariantContext of this transcript.
      *
      * @return true if the Funcotations match all of this filter's rules, and false otherwise
      */
-    public Boolean checkFilter(final Set<Map.Entry<String, String>> prunedTranscriptFuncotations, final VariantContext variant) {
-        Utils.nonNull(prunedTranscriptFuncotations);
-
-        return getRules().stream()
-                .map(rule -> rule.checkRule(prunedTranscriptFuncotations, variant))
-                .reduce(Boolean::logicalAnd)
-                .orElse(false);
-    }
-
-    /**
-     * Build the collection of rules which must match to pass this filter.
-     */
-    abstract List<FuncotationFiltrationRule> getRules();
-
+    public boolean checkFilter(final TranscriptFuncotations transcriptFuncotations, final VariantContext variant) {
+        Utils.nonNull(transcriptFuncotations);
 
-    /**
-     * Given a set of extracted funcotations of a variant, return a Stream of values that belong to the key.
-     * @param funcotations A Set of Map.Entry key-value pairs of funcotations
-     * @param key The funcotations to get
-     * @param defaultValue A default value to get if there are no matches
-     * @return A Stream of matched values
-     */
-    protected Stream<String> matchOnKeyOrDefault(Set<Map.Entry<String, String>> funcotations, String key, String defaultValue) {
-        return getMatchesOrDefault(funcotations, entry -> entry.getKey().equals(key), defaultValue);
+        if (rules == null) {
+            rules = getRules();
+        }
+        if (rules.isEmpty()) {
+            return false;
+        }
+        for (final FuncotationFiltrationRule rule : rules) {
+            if (!rule.checkRule(transcriptFuncotations, variant)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Given a set of extracted funcotations, return a Stream of values whose entry matches the supplied predicate
-     * @param funcotations A Set of Map.Entry key-value pairs of funcotations
-     * @param matcher A predicate taking a Map.Entry to filter on
-     * @param defaultValue A default value to get if there are no matches
-     * @return A Stream of matched values
+     * The names of the Funcotation fields read by this filter's rules. Only these fields are extracted from the
+     * Funcotations of each variant.
      */
-    protected Stream<String> getMatchesOrDefault(Set<Map.Entry<String, String>> funcotations, Predicate<Map.Entry<String, String>> matcher, String defaultValue) {
-        Set<String> matched = funcotations.stream().filter(matcher).map(Map.Entry::getValue).collect(Collectors.toSet());
-        if (matched.isEmpty()) {
-            return Stream.of(defaultValue);
-        } else {
-            return matched.stream();
-        }
-    }
+    public abstract List<String> getFuncotationFieldNames();
 
     /**
-     * Does the set of funcotations contain the key supplied
-     * @param funcotations A Set of Map.Entry key-value pairs of funcotations
-     * @param key The key to look for
-     * @return Whether or not the key exists in the funcotations
+     * Build the collection of rules which must match to pass this filter.
      */
-    protected Boolean containsKey(Set<Map.Entry<String, String>> funcotations, String key) {
-        return funcotations.stream().anyMatch(entry -> entry.getKey().equals(key));
-    }
-
+    abstract List<FuncotationFiltrationRule> getRules();
 }
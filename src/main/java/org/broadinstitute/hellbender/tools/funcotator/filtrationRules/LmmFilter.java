@@ -26,13 +26,13 @@ public class LmmFilter extends FuncotationFilter {
         super(CLINSIG_INFO_VALUE);
     }
 
+    @Override
+    public List<String> getFuncotationFieldNames() {
+        return Collections.singletonList(LMM_FLAGGED);
+    }
+
     @Override
     List<FuncotationFiltrationRule> getRules() {
-        return Collections.singletonList((funcotations, variant) ->
-                getMatchesOrDefault(funcotations, entry -> entry.getKey().equals(LMM_FLAGGED), "false")
-                        .map(Boolean::valueOf)
-                        .reduce(Boolean::logicalOr)
-                        .orElse(false) // Even though we've provided a default value, the Java type system complains without an orElse call.
-        );
+        return Collections.singletonList((funcotations, variant) -> funcotations.anyValueMatches(LMM_FLAGGED, Boolean::parseBoolean));
     }
 }
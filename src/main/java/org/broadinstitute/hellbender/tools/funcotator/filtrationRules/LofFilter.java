@@ -4,6 +4,7 @@ import org.broadinstitute.hellbender.tools.funcotator.FilterFuncotations;
 import org.broadinstitute.hellbender.tools.funcotator.FilterFuncotations.AlleleFrequencyDataSource;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
@@ -70,11 +71,18 @@ public class LofFilter extends FuncotationFilter {
         this.afDataSource = afDataSource;
     }
 
+    @Override
+    public List<String> getFuncotationFieldNames() {
+        final List<String> fieldNames = new ArrayList<>(Arrays.asList(classificationFuncotation, LOF_GENE_FUNCOTATION));
+        fieldNames.addAll(AlleleFrequencyUtils.getMaxMafFuncotationFieldNames(afDataSource));
+        return fieldNames;
+    }
+
     @Override
     List<FuncotationFiltrationRule> getRules() {
         return Arrays.asList(
-                (funcotations, variant) -> matchOnKeyOrDefault(funcotations, classificationFuncotation, "").anyMatch(CONSTANT_LOF_CLASSIFICATIONS::contains),
-                (funcotations, variant) -> matchOnKeyOrDefault(funcotations, LOF_GENE_FUNCOTATION, "").anyMatch("YES"::equals),
+                (funcotations, variant) -> funcotations.anyValueMatches(classificationFuncotation, CONSTANT_LOF_CLASSIFICATIONS::contains),
+                (funcotations, variant) -> funcotations.anyValueMatches(LOF_GENE_FUNCOTATION, "YES"::equals),
                 AlleleFrequencyUtils.buildMaxMafRule(LOF_MAX_MAF, afDataSource));
     }
 }
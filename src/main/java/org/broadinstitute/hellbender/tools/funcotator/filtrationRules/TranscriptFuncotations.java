@@ -0,0 +1,83 @@
+package org.broadinstitute.hellbender.tools.funcotator.filtrationRules;
+
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The values of the Funcotation fields read by the {@link FuncotationFilter}s for a single transcript of one allele
+ * of a variant.
+ *
+ * Only the fields the filters ask for are kept, and values that are empty in the input VCF are treated as absent.
+ * A transcript normally has a single Funcotation, but if the input VCF contains several Funcotations for the same
+ * transcript, a field has all of their values.
+ */
+public final class TranscriptFuncotations {
+
+    /**
+     * Index of each extracted field in the rows of values.  Shared by all instances with the same fields.
+     */
+    private final Map<String, Integer> fieldIndices;
+
+    /**
+     * One row of values per Funcotation of the transcript, with {@code null} for absent values.
+     */
+    private final List<String[]> rows;
+
+    /**
+     * @param fieldIndices Index of each extracted field in {@code rows}.  Never {@code null}.
+     * @param rows One row of values per Funcotation of the transcript, with {@code null} for absent values.  Never {@code null}.
+     */
+    public TranscriptFuncotations(final Map<String, Integer> fieldIndices, final List<String[]> rows) {
+        this.fieldIndices = Utils.nonNull(fieldIndices);
+        this.rows = Utils.nonNull(rows);
+    }
+
+    /**
+     * @param fieldName Name of an extracted field.
+     * @return Whether the transcript has a value for {@code fieldName}.
+     */
+    public boolean containsField(final String fieldName) {
+        return getValue(fieldName) != null;
+    }
+
+    /**
+     * @param fieldName Name of an extracted field.
+     * @return The first value of {@code fieldName} for the transcript, or {@code null} if it has none.
+     */
+    public String getValue(final String fieldName) {
+        final int index = getFieldIndex(fieldName);
+        for ( final String[] row : rows ) {
+            if ( row[index] != null ) {
+                return row[index];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param fieldName Name of an extracted field.
+     * @param predicate Test to apply to the values of {@code fieldName}.  Never {@code null}.
+     * @return Whether any value of {@code fieldName} for the transcript matches {@code predicate}.
+     */
+    public boolean anyValueMatches(final String fieldName, final Predicate<String> predicate) {
+        final int index = getFieldIndex(fieldName);
+        for ( final String[] row : rows ) {
+            if ( (row[index] != null) && predicate.test(row[index]) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int getFieldIndex(final String fieldName) {
+        final Integer index = fieldIndices.get(fieldName);
+        if ( index == null ) {
+            throw new GATKException("Funcotation field " + fieldName + " was not extracted for filtering.  Filters must list the fields they read in getFuncotationFieldNames().");
+        }
+        return index;
+    }
+}
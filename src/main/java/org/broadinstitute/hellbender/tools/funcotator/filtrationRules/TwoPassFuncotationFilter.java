@@ -3,12 +3,21 @@ package org.broadinstitute.hellbender.tools.funcotator.filtrationRules;
 
 import htsjdk.variant.variantcontext.VariantContext;
 
+import java.util.List;
+
 public abstract class TwoPassFuncotationFilter extends FuncotationFilter {
     TwoPassFuncotationFilter(String filterName) {
         super(filterName);
     }
 
-    public abstract void firstPassApply(final VariantContext variant);
+    /**
+     * Gather information about a variant in the first pass over the variants.
+     *
+     * @param variant The variant.
+     * @param transcriptFuncotations The Funcotations of each transcript of {@code variant}, extracted for at least
+     *                               the fields in {@link #getFuncotationFieldNames()}.
+     */
+    public abstract void firstPassApply(final VariantContext variant, final List<TranscriptFuncotations> transcriptFuncotations);
 
     public abstract void afterFirstPass();
 }
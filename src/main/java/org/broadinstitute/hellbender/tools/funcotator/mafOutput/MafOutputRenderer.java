@@ -9,7 +9,6 @@ import htsjdk.variant.vcf.VCFHeaderLine;
 import org.apache.commons.lang.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.funcotator.DataSourceFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.Funcotation;
@@ -17,6 +16,7 @@ import org.broadinstitute.hellbender.tools.funcotator.FuncotationMap;
 import org.broadinstitute.hellbender.tools.funcotator.FuncotatorConstants;
 import org.broadinstitute.hellbender.tools.funcotator.FuncotatorUtils;
 import org.broadinstitute.hellbender.tools.funcotator.OutputRenderer;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotation;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
 import org.broadinstitute.hellbender.tools.funcotator.metadata.SamplePairExtractor;
 import org.broadinstitute.hellbender.tools.funcotator.metadata.TumorNormalPair;
@@ -41,7 +41,6 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -110,6 +109,12 @@ public class MafOutputRenderer extends OutputRenderer {
         MafOutputRendererConstants.VariantClassificationMap.get(GencodeFuncotation.VariantClassification.LINCRNA.toString())
     ));
 
+    /** {@link #ORDERED_GENCODE_VARIANT_CLASSIFICATIONS} as an array, for {@link StringUtils#replaceEachRepeatedly}. */
+    private static final String[] ORDERED_GENCODE_VARIANT_CLASSIFICATIONS_ARRAY = ORDERED_GENCODE_VARIANT_CLASSIFICATIONS.toArray(new String[]{});
+
+    /** {@link #ORDERED_MAF_VARIANT_CLASSIFICATIONS} as an array, for {@link StringUtils#replaceEachRepeatedly}. */
+    private static final String[] ORDERED_MAF_VARIANT_CLASSIFICATIONS_ARRAY = ORDERED_MAF_VARIANT_CLASSIFICATIONS.toArray(new String[]{});
+
     //==================================================================================================================
     // Private Members:
 
@@ -144,6 +149,9 @@ public class MafOutputRenderer extends OutputRenderer {
      */
     private Writer writer;
 
+    /** Buffer in which each line of the MAF file is rendered before it is written.  Reused for every line. */
+    private final StringBuilder mafLineBuilder = new StringBuilder();
+
     /**
      * Tool header information to go into the header.
      */
@@ -352,29 +360,32 @@ public class MafOutputRenderer extends OutputRenderer {
             for (final String txId : txToFuncotationMap.getTranscriptList()) {
 
                 final List<Funcotation> funcotations = txToFuncotationMap.get(txId);
-                final LinkedHashMap<String, String> mafCompliantOutputMap = createMafCompliantOutputMap(altAllele, funcotations);
+                final LinkedHashMap<String, String> mafOutputMap = createMafOutputMap(altAllele, funcotations);
 
                 // Write our header if we have to:
                 if (!hasWrittenHeader) {
                     // Please note that we are implicitly using the ordering of a LinkedHashMap under the hood.
-                    writeHeader(new ArrayList<>(mafCompliantOutputMap.keySet()));
+                    writeHeader(mafOutputMap.keySet().stream().filter(k -> !excludedOutputFields.contains(k)).collect(Collectors.toList()));
                 }
 
-                try {
-                    // Write the output (with manual annotations at the end):
-                    final Iterator<Map.Entry<String, String>> entryIterator =
-                            mafCompliantOutputMap.entrySet().iterator();
-
-                    // We should always have at least 1 field here:
-                    Map.Entry<String, String> entry = entryIterator.next();
-                    writeString(entry.getValue());
-
-                    while (entryIterator.hasNext()) {
-                        entry = entryIterator.next();
-                        writeString(MafOutputRendererConstants.FIELD_DELIMITER);
-                        writeString(entry.getValue());
+                // Render the line (with manual annotations at the end) into our buffer, sanitizing each value as we
+                //  go, and then write it all at once:
+                mafLineBuilder.setLength(0);
+                boolean isFirstField = true;
+                for ( final Map.Entry<String, String> entry : mafOutputMap.entrySet() ) {
+                    if ( excludedOutputFields.contains(entry.getKey()) ) {
+                        continue;
+                    }
+                    if ( !isFirstField ) {
+                        mafLineBuilder.append(MafOutputRendererConstants.FIELD_DELIMITER);
                     }
-                    writeLine("");
+                    FuncotatorUtils.appendSanitizedFuncotationFieldForMaf(mafLineBuilder, entry.getValue());
+                    isFirstField = false;
+                }
+                mafLineBuilder.append(System.lineSeparator());
+
+                try {
+                    writer.append(mafLineBuilder);
                 } catch (IOException e){
                     throw new UserException.CouldNotCreateOutputFile("Error while writing maf file, cause by: " + e.getMessage(), e);
                 }
@@ -384,6 +395,23 @@ public class MafOutputRenderer extends OutputRenderer {
 
     @VisibleForTesting
     LinkedHashMap<String, String> createMafCompliantOutputMap(final Allele altAllele, final List<Funcotation> funcotations) {
+        final LinkedHashMap<String, String> mafOutputMap = createMafOutputMap(altAllele, funcotations);
+
+        // Remove any fields that are excluded and sanitize any field values.
+        final LinkedHashMap<String, String> mafCompliantMap = new LinkedHashMap<>(mafOutputMap.size());
+        for ( final Map.Entry<String, String> entry : mafOutputMap.entrySet() ) {
+            if ( !excludedOutputFields.contains(entry.getKey()) ) {
+                mafCompliantMap.put(entry.getKey(), FuncotatorUtils.sanitizeFuncotationFieldForMaf(entry.getValue()));
+            }
+        }
+        return mafCompliantMap;
+    }
+
+    /**
+     * Create the MAF columns and their values for the given alt allele and funcotations, in output order.  Excluded
+     * fields are still present and values are not yet sanitized.
+     */
+    private LinkedHashMap<String, String> createMafOutputMap(final Allele altAllele, final List<Funcotation> funcotations) {
         // Create our output maps:
         final LinkedHashMap<String, Object> outputMap = new LinkedHashMap<>(defaultMap);
         final LinkedHashMap<String, Object> extraFieldOutputMap = new LinkedHashMap<>();
@@ -392,8 +420,18 @@ public class MafOutputRenderer extends OutputRenderer {
         for (final Funcotation funcotation : funcotations) {
             if (funcotation.getAltAllele().equals(altAllele)) {
                 // Add all the fields from the other funcotations into the extra field output:
-                for (final String field : funcotation.getFieldNames()) {
-                    setField(extraFieldOutputMap, field, funcotation.getField(field));
+                if ( funcotation instanceof TableFuncotation ) {
+                    // Read the values straight from the table rather than copying its field names and looking each one up:
+                    final TableFuncotation tableFuncotation = (TableFuncotation) funcotation;
+                    final List<String> fieldNames = tableFuncotation.getSchema().getFieldNames();
+                    for ( int i = 0; i < fieldNames.size(); ++i ) {
+                        setField(extraFieldOutputMap, fieldNames.get(i), tableFuncotation.getFieldValue(i));
+                    }
+                }
+                else {
+                    for (final String field : funcotation.getFieldNames()) {
+                        setField(extraFieldOutputMap, field, funcotation.getField(field));
+                    }
                 }
             }
         }
@@ -417,17 +455,7 @@ public class MafOutputRenderer extends OutputRenderer {
         outputMap.putAll(extraFieldOutputMap);
 
         // Now translate fields/values to the field names/values that MAF likes:
-        final LinkedHashMap<String, String> mafCompliantMap = replaceFuncotationValuesWithMafCompliantValues(outputMap);
-
-        // Remove any fields that are excluded and sanitize any field values.
-        return mafCompliantMap.keySet().stream()
-            .filter(k -> !excludedOutputFields.contains(k))
-            .collect(Collectors.toMap(
-                    Function.identity(), k -> FuncotatorUtils.sanitizeFuncotationFieldForMaf(mafCompliantMap.get(k)),
-                    (u, v) -> {
-                        throw new GATKException.ShouldNeverReachHereException("Found duplicate keys for MAF output");
-                        },
-                    LinkedHashMap::new));
+        return replaceFuncotationValuesWithMafCompliantValues(outputMap);
     }
 
     //==================================================================================================================
@@ -460,7 +488,7 @@ public class MafOutputRenderer extends OutputRenderer {
         if ( finalOutMap.containsKey(MafOutputRendererConstants.FieldName_Other_Transcripts) ) {
             finalOutMap.put(
                     MafOutputRendererConstants.FieldName_Other_Transcripts, finalOutMap.get(MafOutputRendererConstants.FieldName_Other_Transcripts)
-                            .replaceAll(VcfOutputRenderer.OTHER_TRANSCRIPT_DELIMITER, MafOutputRendererConstants.OTHER_TRANSCRIPT_DELIMITER)
+                            .replace(VcfOutputRenderer.OTHER_TRANSCRIPT_DELIMITER, MafOutputRendererConstants.OTHER_TRANSCRIPT_DELIMITER)
             );
         }
 
@@ -541,7 +569,7 @@ public class MafOutputRenderer extends OutputRenderer {
                 if ( value.equals(MafOutputRendererConstants.FieldValue_Gencode_Chromosome_Mito) ) {
                     return MafOutputRendererConstants.FieldValue_Chromosome_Mito;
                 }
-                else if ( value.toLowerCase().startsWith("chr") && (referenceVersion.toLowerCase().equals("hg19") || referenceVersion.toLowerCase().equals("b37"))) {
+                else if ( value.regionMatches(true, 0, "chr", 0, 3) && (referenceVersion.equalsIgnoreCase("hg19") || referenceVersion.equalsIgnoreCase("b37"))) {
                     final String trimVal = value.substring(3);
                     if ( HG_19_CHR_SET.contains(trimVal)) {
                         return trimVal;
@@ -550,7 +578,7 @@ public class MafOutputRenderer extends OutputRenderer {
                 break;
             case MafOutputRendererConstants.FieldName_Other_Transcripts:
                 // Use apache commons string utils because it's much, much faster to do this replacement:
-                return StringUtils.replaceEachRepeatedly(value, ORDERED_GENCODE_VARIANT_CLASSIFICATIONS.toArray(new String[]{}), ORDERED_MAF_VARIANT_CLASSIFICATIONS.toArray(new String[]{}));
+                return StringUtils.replaceEachRepeatedly(value, ORDERED_GENCODE_VARIANT_CLASSIFICATIONS_ARRAY, ORDERED_MAF_VARIANT_CLASSIFICATIONS_ARRAY);
         }
 
         return value;
@@ -8,6 +8,7 @@ import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.*;
 import org.broadinstitute.hellbender.tools.funcotator.*;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.DataSourceUtils;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotation;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotationBuilder;
 import org.broadinstitute.hellbender.utils.Utils;
@@ -75,6 +76,12 @@ public class VcfOutputRenderer extends OutputRenderer {
     /** List of the fields that will get rendered in the funcotation annotation.  Excluded fields have been removed.  */
     private final List<String> finalFuncotationFieldNames;
 
+    /** {@link #finalFuncotationFieldNames} as a {@link Set}, for quick lookups while rendering. */
+    private final Set<String> finalFuncotationFieldNameSet;
+
+    /** Buffer in which the funcotation annotation of each variant is rendered.  Reused for every variant. */
+    private final StringBuilder funcotatorAnnotationStringBuilder = new StringBuilder();
+
     //==================================================================================================================
     
     /**
@@ -124,6 +131,7 @@ public class VcfOutputRenderer extends OutputRenderer {
         finalFuncotationFieldNames = Stream.concat(getDataSourceFieldNamesForHeaderAsList(dataSourceFactories).stream(), manualAnnotations.keySet().stream())
                 .filter(f -> !excludedOutputFields.contains(f))
                 .collect(Collectors.toList());
+        finalFuncotationFieldNameSet = new HashSet<>(finalFuncotationFieldNames);
 
         // Open the output file and set up the header:
         final VCFHeader newHeader = createVCFHeader();
@@ -143,7 +151,9 @@ public class VcfOutputRenderer extends OutputRenderer {
         // Create a new variant context builder:
         final VariantContextBuilder variantContextOutputBuilder = new VariantContextBuilder(variant);
 
-        final StringBuilder funcotatorAnnotationStringBuilder = new StringBuilder();
+        // Reuse the same buffer for every variant:
+        final StringBuilder funcotatorAnnotationStringBuilder = this.funcotatorAnnotationStringBuilder;
+        funcotatorAnnotationStringBuilder.setLength(0);
 
         // Get the old VCF Annotation field and append the new information to it:
         final Object existingAnnotation = variant.getAttribute(FUNCOTATOR_VCF_FIELD_NAME, null);
@@ -166,20 +176,18 @@ public class VcfOutputRenderer extends OutputRenderer {
                 funcotatorAnnotationStringBuilder.append(FIELD_DELIMITER);
             }
 
+            // The manual annotations are the same for every transcript:
+            final Funcotation manualAnnotationFuncotation = createManualAnnotationFuncotation(altAllele);
+
             for (final String txId : txToFuncotationMap.getTranscriptList()) {
                 funcotatorAnnotationStringBuilder.append(START_TRANSCRIPT_DELIMITER);
-                final List<Funcotation> funcotations = txToFuncotationMap.get(txId);
-                final Funcotation manualAnnotationFuncotation = createManualAnnotationFuncotation(altAllele);
-
-                funcotatorAnnotationStringBuilder.append(
-                        Stream.concat(funcotations.stream(), Stream.of(manualAnnotationFuncotation))
-                                .filter(f -> f.getAltAllele().equals(altAllele))
-                                .filter(f -> f.getFieldNames().size() > 0)
-                                .filter(f -> !f.getDataSourceName().equals(FuncotatorConstants.DATASOURCE_NAME_FOR_INPUT_VCFS))
-                                .map(VcfOutputRenderer::adjustIndelAlleleInformation)
-                                .map(f -> FuncotatorUtils.renderSanitizedFuncotationForVcf(f, finalFuncotationFieldNames))
-                                .collect(Collectors.joining(FIELD_DELIMITER))
-                );
+
+                // Render each funcotation straight into the buffer, with the manual annotations last:
+                boolean hasAppendedFuncotation = false;
+                for ( final Funcotation funcotation : txToFuncotationMap.get(txId) ) {
+                    hasAppendedFuncotation |= appendFuncotation(funcotatorAnnotationStringBuilder, funcotation, altAllele, hasAppendedFuncotation);
+                }
+                appendFuncotation(funcotatorAnnotationStringBuilder, manualAnnotationFuncotation, altAllele, hasAppendedFuncotation);
 
                 funcotatorAnnotationStringBuilder.append(END_TRANSCRIPT_DELIMITER + ALL_TRANSCRIPT_DELIMITER);
             }
@@ -201,6 +209,34 @@ public class VcfOutputRenderer extends OutputRenderer {
         vcfWriter.add( variantContextOutputBuilder.make() );
     }
 
+    /**
+     * Append the given {@link Funcotation} to the given {@link StringBuilder} if it should be rendered for the given
+     * alt allele, preceded by {@link #FIELD_DELIMITER} if another funcotation has already been appended.
+     * @return {@code true} if the funcotation was appended.
+     */
+    private boolean appendFuncotation(final StringBuilder stringBuilder, final Funcotation funcotation, final Allele altAllele,
+                                      final boolean hasAppendedFuncotation) {
+        if ( !funcotation.getAltAllele().equals(altAllele) ||
+                !hasFields(funcotation) ||
+                funcotation.getDataSourceName().equals(FuncotatorConstants.DATASOURCE_NAME_FOR_INPUT_VCFS) ) {
+            return false;
+        }
+
+        if ( hasAppendedFuncotation ) {
+            stringBuilder.append(FIELD_DELIMITER);
+        }
+        FuncotatorUtils.appendSanitizedFuncotationForVcf(stringBuilder, adjustIndelAlleleInformation(funcotation), finalFuncotationFieldNameSet);
+        return true;
+    }
+
+    private static boolean hasFields(final Funcotation funcotation) {
+        // Avoid copying the field names of table funcotations just to count them:
+        if ( funcotation instanceof TableFuncotation ) {
+            return ((TableFuncotation) funcotation).getSchema().size() > 0;
+        }
+        return funcotation.getFieldNames().size() > 0;
+    }
+
     private Funcotation createManualAnnotationFuncotation(final Allele altAllele) {
         return OutputRenderer.createFuncotationFromLinkedHashMap(manualAnnotations, altAllele, "UnaccountedManualAnnotations");
     }
@@ -221,16 +257,17 @@ public class VcfOutputRenderer extends OutputRenderer {
     /**
      * Adjusts the given {@link GencodeFuncotation}'s start, end, reference, and alternate alleles if the variant to
      * which the funcotation is associated was an insertion or deletion.
-     * Makes adjustments in place.
+     * Makes adjustments to a copy of the given {@link GencodeFuncotation}, which is returned unchanged if it is not an indel.
      * @param gencodeFuncotation The {@link GencodeFuncotation} to adjust.
      */
     private static GencodeFuncotation adjustIndelAlleleInformation(final GencodeFuncotation gencodeFuncotation) {
 
-        final GencodeFuncotation outFuncotation = new GencodeFuncotationBuilder(gencodeFuncotation).build();
-
+        // Only indels are adjusted, so there is no need to copy anything else:
         if ( (gencodeFuncotation.getVariantType().equals(GencodeFuncotation.VariantType.DEL)) ||
                 (gencodeFuncotation.getVariantType().equals(GencodeFuncotation.VariantType.INS)) ) {
 
+            final GencodeFuncotation outFuncotation = new GencodeFuncotationBuilder(gencodeFuncotation).build();
+
             final int refAlleleLength = gencodeFuncotation.getRefAllele().length();
             final int altAlleleLength = gencodeFuncotation.getTumorSeqAllele2().length();
 
@@ -258,9 +295,11 @@ public class VcfOutputRenderer extends OutputRenderer {
                 outFuncotation.setStart(gencodeFuncotation.getStart() + 1);
                 outFuncotation.setEnd(gencodeFuncotation.getStart() + refAlleleLength - 1);
             }
+
+            return outFuncotation;
         }
 
-        return outFuncotation;
+        return gencodeFuncotation;
     }
 
     /**
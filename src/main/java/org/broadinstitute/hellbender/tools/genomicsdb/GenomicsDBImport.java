@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.genomicsdb;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.util.Interval;
 import htsjdk.samtools.util.IntervalList;
 import htsjdk.samtools.util.Locatable;
@@ -51,6 +52,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -59,7 +61,9 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.Arrays;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
@@ -69,6 +73,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 /**
@@ -150,6 +155,20 @@ import java.util.stream.Collectors;
  *      --tmp-dir /path/to/large/tmp \
  *  </pre>
  *
+ *  Resume an import of many batches that failed or was preempted. Batches recorded as complete in the checkpoint
+ *  that is written to the workspace after each batch are skipped, and the import continues with the first unfinished
+ *  batch, after deleting anything that batch may have written before the import stopped. The samples, intervals and
+ *  batch size must be the same as in the original import. Only imports of a single interval (GenomicsDB array) can be
+ *  resumed. The checkpoint is deleted once the import completes.
+ *  <pre>
+ *    gatk --java-options "-Xmx4g -Xms4g" GenomicsDBImport \
+ *      --genomicsdb-workspace-path my_database \
+ *      --batch-size 50 \
+ *      -L chr1:1000-10000 \
+ *      --sample-name-map cohort.sample_map \
+ *      --genomicsdb-resume-import
+ *  </pre>
+ *
  *  Get Picard-style interval_list from existing workspace
  *  <pre>
  *    gatk --java-options "-Xmx4g -Xms4g" GenomicsDBImport \
@@ -163,7 +182,7 @@ import java.util.stream.Collectors;
  *     <li>IMPORTANT: The -Xmx value the tool is run with should be less than the total amount of physical memory available by at least a few GB, as the native TileDB library requires additional memory on top of the Java memory. Failure to leave enough memory for the native code can result in confusing error messages!</li>
  *     <li>At least one interval must be provided, unless incrementally importing new samples in which case specified intervals are ignored in favor of intervals specified in the existing workspace</li>
  *     <li>Input GVCFs cannot contain multiple entries for a single genomic position</li>
- *     <li>The --genomicsdb-workspace-path must point to a non-existent or empty directory</li>
+ *     <li>The --genomicsdb-workspace-path must point to a non-existent or empty directory, unless resuming an import with --genomicsdb-resume-import</li>
  *     <li>The --genomicsdb-update-workspace-path must point to a existing genomicsdb workspace</li>
  *     <li>Either --genomicsdb-workspace-path or genomicsdb-update-workspace-path must be specified</li>
  *     <li>GenomicsDBImport uses temporary disk storage during import. The amount of temporary disk storage required can exceed the space available, especially when specifying a large number of intervals. The command line argument `--tmp-dir` can be used to specify an alternate temporary storage location with sufficient space..</li>
@@ -202,6 +221,9 @@ public final class GenomicsDBImport extends GATKTool {
     public static final String VCF_INITIALIZER_THREADS_LONG_NAME = "reader-threads";
     public static final String MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL = "max-num-intervals-to-import-in-parallel";
     public static final String MERGE_CONTIGS_INTO_NUM_PARTITIONS = "merge-contigs-into-num-partitions";
+    public static final String IMPORT_MEMORY_BUDGET_LONG_NAME = "genomicsdb-import-memory-budget";
+    public static final String DECODE_THREADS_LONG_NAME = "genomicsdb-decode-threads";
+    public static final String RESUME_IMPORT_LONG_NAME = "genomicsdb-resume-import";
     public static final int INTERVAL_LIST_SIZE_WARNING_THRESHOLD = 100;
     public static final int ARRAY_COLUMN_BOUNDS_START = 0;
     public static final int ARRAY_COLUMN_BOUNDS_END = 1;
@@ -223,7 +245,7 @@ public final class GenomicsDBImport extends GATKTool {
                     "when using the "+INTERVAL_LIST_LONG_NAME+" option. " +
                     "Either this or "+WORKSPACE_ARG_LONG_NAME+" must be specified. " +
                     "Must point to an existing workspace.",
-              mutex = {WORKSPACE_ARG_LONG_NAME})
+              mutex = {WORKSPACE_ARG_LONG_NAME, RESUME_IMPORT_LONG_NAME})
     private String incrementalImportWorkspace;
 
     @Argument(fullName = SEGMENT_SIZE_ARG_LONG_NAME,
@@ -256,7 +278,8 @@ public final class GenomicsDBImport extends GATKTool {
                     "Otherwise a new workspace is created. " +
                     "Cannot be set to true if "+INCREMENTAL_WORKSPACE_ARG_LONG_NAME+" is also set. " +
                     "Defaults to false",
-              optional = true)
+              optional = true,
+              mutex = {RESUME_IMPORT_LONG_NAME})
     private Boolean overwriteExistingWorkspace = false;
 
     @Argument(fullName = BATCHSIZE_ARG_LONG_NAME,
@@ -265,7 +288,8 @@ public final class GenomicsDBImport extends GATKTool {
                     "Use the consolidate flag if more than a hundred batches were used. This will improve feature read time. " +
                     "batchSize=0 means no batching (i.e. readers for all samples will be opened at once) " +
                     "Defaults to " + DEFAULT_ZERO_BATCH_SIZE,
-              optional = true)
+              optional = true,
+              mutex = {IMPORT_MEMORY_BUDGET_LONG_NAME})
     private int batchSize = DEFAULT_ZERO_BATCH_SIZE;
 
     @Argument(fullName = CONSOLIDATE_ARG_NAME,
@@ -324,9 +348,45 @@ public final class GenomicsDBImport extends GATKTool {
             doc = "Max number of intervals to import in parallel; higher values may improve performance, but require more" +
                   " memory and a higher number of file descriptors open at the same time",
             optional = true,
-            minValue = 1)
+            minValue = 1,
+            mutex = {IMPORT_MEMORY_BUDGET_LONG_NAME})
     private int maxNumIntervalsToImportInParallel = 1;
 
+    @Advanced
+    @Argument(fullName = IMPORT_MEMORY_BUDGET_LONG_NAME,
+            doc = "Approximate number of bytes of memory to use for importing, shared by all intervals imported in parallel. " +
+                  "If specified, the batch size and the number of intervals to import in parallel are chosen automatically " +
+                  "to fit within this budget, taking into account " + VCF_BUFFER_SIZE_ARG_NAME + ", " + SEGMENT_SIZE_ARG_LONG_NAME +
+                  " and " + DECODE_THREADS_LONG_NAME + ". This should be well below -Xmx, and leave room for the memory used " +
+                  "by the native GenomicsDB library. Defaults to 0, which disables automatic tuning",
+            optional = true,
+            minValue = 0,
+            mutex = {BATCHSIZE_ARG_LONG_NAME, MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL})
+    private long importMemoryBudget = 0;
+
+    @Advanced
+    @Argument(fullName = DECODE_THREADS_LONG_NAME,
+            doc = "Number of threads decoding the input GVCFs ahead of the import, shared by all intervals imported in parallel. " +
+                  "Decoding ahead lets VCF parsing run concurrently with writing to GenomicsDB, at the cost of buffering a " +
+                  "bounded number of decoded records per sample. Defaults to 0, which decodes the GVCFs on the import threads",
+            optional = true,
+            minValue = 0)
+    private int decodeThreads = 0;
+
+    @Advanced
+    @Argument(fullName = RESUME_IMPORT_LONG_NAME,
+            doc = "Resume an import into " + WORKSPACE_ARG_LONG_NAME + " that failed or was interrupted, skipping the batches " +
+                  "that the checkpoint in the workspace records as completely imported. The import must be run with the same " +
+                  "samples, intervals and batch size as the original import. If the workspace does not exist yet, a new import " +
+                  "is started, so this can be set on every attempt when running on preemptible machines. " +
+                  "Batch checkpoints are written to the workspace whenever more than one batch is imported, or if this is set, " +
+                  "and deleted once the import completes. A batch that was being imported when the import stopped is rolled back and imported again. " +
+                  "Only imports of a single interval can be resumed, since each batch is committed to every interval separately, " +
+                  "and a failed import of several intervals may have committed its last batch to only some of them",
+            optional = true,
+            mutex = {INCREMENTAL_WORKSPACE_ARG_LONG_NAME, OVERWRITE_WORKSPACE_LONG_NAME})
+    private boolean resumeImport = false;
+
     @Advanced
     @Argument(fullName = MERGE_CONTIGS_INTO_NUM_PARTITIONS,
             shortName = MERGE_CONTIGS_INTO_NUM_PARTITIONS,
@@ -356,6 +416,9 @@ public final class GenomicsDBImport extends GATKTool {
     //executor service used when vcfInitializerThreads > 1
     private ExecutorService inputPreloadExecutorService;
 
+    //executor service used to decode variants ahead of the import when decodeThreads > 0
+    private ExecutorService decodeExecutorService;
+
     /**
      * Get the largest interval per contig that contains the intervals specified on the command line.
      * @param getIntervals intervals to be transformed
@@ -426,6 +489,18 @@ public final class GenomicsDBImport extends GATKTool {
     //in-progress batchCount
     private int batchCount = 1;
 
+    // batch size used by the importer, after applying defaults or the memory budget
+    private int importBatchSize;
+
+    // checkpoint recording the completed batches, null if checkpoints are not written for this import
+    private GenomicsDBImportCheckpoint checkpoint;
+
+    // System.nanoTime() at which the previous batch completed, or at which the import started
+    private long lastBatchCompletionTime;
+
+    // true if resuming an import into a workspace that already exists
+    private boolean resumingExistingWorkspace = false;
+
     // true if genomicsdb-update-workspace-path is specified
     private Boolean doIncrementalImport = false;
 
@@ -444,6 +519,7 @@ public final class GenomicsDBImport extends GATKTool {
         assertOverwriteWorkspaceAndIncrementalImportMutuallyExclusive();
         initializeHeaderAndSampleMappings();
         initializeIntervals();
+        assertResumeImportIsOfASingleInterval();
         super.onStartup();
     }
 
@@ -467,6 +543,20 @@ public final class GenomicsDBImport extends GATKTool {
         }
     }
 
+    /**
+     * The native importer commits each batch to every interval (GenomicsDB array) separately, and in parallel when
+     * importing several intervals in parallel, but only reports the completion of a batch once all of the intervals have
+     * committed it. A batch of a failed import may therefore have been committed to some of the intervals but not others,
+     * and importing it again on resume would import its samples twice into those intervals.
+     */
+    private void assertResumeImportIsOfASingleInterval() {
+        if (resumeImport && intervals != null && getNumPartitionsToImport() > 1) {
+            throw new CommandLineException(RESUME_IMPORT_LONG_NAME + " cannot be used when importing more than one " +
+                    "interval, since a failed import may have committed its last batch to only some of the intervals. " +
+                    "Import each interval into its own workspace to be able to resume the imports");
+        }
+    }
+
     private void assertVariantPathsOrSampleNameFileWasSpecified(){
         if ( (variantPaths == null || variantPaths.isEmpty()) && sampleNameMapFile == null && !getIntervalsFromExistingWorkspace) {
             throw new CommandLineException.MissingArgument(StandardArgumentDefinitions.VARIANT_LONG_NAME,
@@ -687,6 +777,30 @@ public final class GenomicsDBImport extends GATKTool {
             logger.info("Importing to workspace - " + workspaceDir);
         }
         initializeInputPreloadExecutorService();
+        initializeDecodeExecutorService();
+    }
+
+    private void initializeDecodeExecutorService() {
+        if (decodeThreads > 0) {
+            final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("variantDecoder-thread-%d")
+                .setDaemon(true)
+                .build();
+            decodeExecutorService = Executors.newFixedThreadPool(decodeThreads, threadFactory);
+        } else {
+            decodeExecutorService = null;
+        }
+    }
+
+    /**
+     * @return the number of intervals (GenomicsDB arrays) that will be imported
+     */
+    private int getNumPartitionsToImport() {
+        if (intervals == null || intervals.isEmpty()) {
+            return GenomicsDBUtils.listGenomicsDBArrays(workspace).length;
+        }
+        return mergeContigsIntoNumPartitions != 0 && !doIncrementalImport ?
+                Math.min(mergeContigsIntoNumPartitions, intervals.size()) : intervals.size();
     }
 
     private void initializeInputPreloadExecutorService() {
@@ -710,6 +824,15 @@ public final class GenomicsDBImport extends GATKTool {
 
     private Map<String, FeatureReader<VariantContext>> createSampleToReaderMap(
             final Map<String, URI> sampleNameToVcfPath, final int batchSize, final int index) {
+        if (checkpoint != null) {
+            final int batch = GenomicsDBImportCheckpoint.getBatchNumber(index, batchSize);
+            if (checkpoint.isBatchComplete(batch)) {
+                return getCompletedBatchReaders(sampleNameToVcfPath, batchSize, index);
+            }
+            // record the state of the workspace before GenomicsDB starts writing the batch, so that it can be rolled back
+            // if the import stops before the batch is recorded as complete
+            checkpoint.recordStartedBatch(batch, listArrayContents());
+        }
         // TODO: fix casting since it's really ugly
         return inputPreloadExecutorService != null ?
                 getFeatureReadersInParallel((SortedMap<String, URI>) sampleNameToVcfPath, batchSize, index)
@@ -718,7 +841,19 @@ public final class GenomicsDBImport extends GATKTool {
 
     private Void logMessageOnBatchCompletion(final BatchCompletionCallbackFunctionArgument arg) {
         progressMeter.update(null);
-        logger.info("Done importing batch " + arg.batchCount + "/" + arg.totalBatchCount);
+        final long now = System.nanoTime();
+        if (checkpoint == null) {
+            logger.info("Done importing batch " + arg.batchCount + "/" + arg.totalBatchCount);
+        } else if (checkpoint.isBatchComplete(arg.batchCount)) {
+            logger.info("Skipped batch " + arg.batchCount + "/" + arg.totalBatchCount + ", which was imported before the import was resumed");
+        } else {
+            final int numSamples = Math.min(importBatchSize, sampleNameToVcfPath.size() - (arg.batchCount - 1) * importBatchSize);
+            final GenomicsDBImportCheckpoint.CompletedBatch completedBatch =
+                    checkpoint.recordCompletedBatch(arg.batchCount, numSamples, (now - lastBatchCompletionTime) / 1_000_000L);
+            logger.info(String.format("Done importing batch %d/%d: %d samples in %.1f seconds (%.2f samples/second)",
+                    arg.batchCount, arg.totalBatchCount, numSamples, completedBatch.getSeconds(), completedBatch.getSamplesPerSecond()));
+        }
+        lastBatchCompletionTime = now;
         this.batchCount = arg.batchCount + 1;
         return null;
     }
@@ -809,7 +944,7 @@ public final class GenomicsDBImport extends GATKTool {
                 GenomicsDBImportConfiguration.ImportConfiguration.newBuilder();
         importConfigurationBuilder.addAllColumnPartitions(partitions);
         importConfigurationBuilder.setSizePerColumnPartition(vcfBufferSizePerSample);
-        importConfigurationBuilder.setFailIfUpdating(true && !doIncrementalImport);
+        importConfigurationBuilder.setFailIfUpdating(true && !doIncrementalImport && !resumingExistingWorkspace);
         importConfigurationBuilder.setSegmentSize(segmentSize);
         importConfigurationBuilder.setConsolidateTiledbArrayAfterLoad(doConsolidation);
         importConfigurationBuilder.setEnableSharedPosixfsOptimizations(sharedPosixFSOptimizations);
@@ -842,7 +977,19 @@ public final class GenomicsDBImport extends GATKTool {
         progressMeter.setRecordsBetweenTimeChecks(1L);
 
         final int sampleCount = sampleNameToVcfPath.size();
-        final int updatedBatchSize = (batchSize == DEFAULT_ZERO_BATCH_SIZE) ? sampleCount : batchSize;
+        int updatedBatchSize = (batchSize == DEFAULT_ZERO_BATCH_SIZE) ? sampleCount : batchSize;
+        int numIntervalsToImportInParallel = maxNumIntervalsToImportInParallel;
+        if (importMemoryBudget > 0) {
+            final GenomicsDBImportMemoryPlan plan = GenomicsDBImportMemoryPlan.fromBudget(importMemoryBudget, sampleCount,
+                    getNumPartitionsToImport(), decodeThreads > 0 ? decodeThreads : Runtime.getRuntime().availableProcessors(),
+                    vcfBufferSizePerSample, segmentSize, decodeThreads > 0 ? GenomicsDBImportMemoryPlan.DEFAULT_READ_AHEAD_RECORDS : 0);
+            logger.info("Importing within a memory budget of " + importMemoryBudget + " bytes using " + plan);
+            updatedBatchSize = plan.getBatchSize();
+            numIntervalsToImportInParallel = plan.getNumIntervalsInParallel();
+        }
+        importBatchSize = updatedBatchSize;
+        initializeCheckpoint();
+        lastBatchCompletionTime = System.nanoTime();
         final ImportConfig importConfig = createImportConfig(updatedBatchSize);
 
         GenomicsDBImporter importer;
@@ -861,7 +1008,7 @@ public final class GenomicsDBImport extends GATKTool {
                         "GenomicsDBImport must use the same partition boundaries/intervals as the original import"); 
                 }
             }
-            importer.executeImport(maxNumIntervalsToImportInParallel);
+            importer.executeImport(numIntervalsToImportInParallel);
         } catch (final IOException e) {
             throw new UserException("Error initializing GenomicsDBImporter", e);
         } catch (final IllegalArgumentException iae) {
@@ -871,8 +1018,82 @@ public final class GenomicsDBImport extends GATKTool {
         }
     }
 
+    /**
+     * Writes a new checkpoint to the workspace, or loads the checkpoint of the import being resumed.
+     * Checkpoints are only used when creating a new workspace of a single interval, and there is more than one batch to
+     * resume from.
+     */
+    private void initializeCheckpoint() {
+        final int totalBatchCount = (sampleNameToVcfPath.size() + importBatchSize - 1) / importBatchSize;
+        if (doIncrementalImport || getNumPartitionsToImport() > 1 || (!resumeImport && totalBatchCount <= 1)) {
+            return;
+        }
+        final Path checkpointPath = IOUtils.getPath(IOUtils.appendPathToDir(BucketUtils.makeFilePathAbsolute(workspace),
+                GenomicsDBImportCheckpoint.CHECKPOINT_FILE_NAME));
+        final String fingerprint = GenomicsDBImportCheckpoint.computeFingerprint(sampleNameToVcfPath, intervals, mergeContigsIntoNumPartitions);
+        if (!resumingExistingWorkspace) {
+            checkpoint = GenomicsDBImportCheckpoint.create(checkpointPath, fingerprint, importBatchSize, totalBatchCount);
+            return;
+        }
+        if (!Files.exists(checkpointPath)) {
+            throw new UserException.BadInput("Cannot resume the import into " + workspace + " since the workspace has no " +
+                    "import checkpoint. Either the import already completed, or it was not checkpointed: only imports of " +
+                    "more than one batch into a new workspace can be resumed.");
+        }
+        checkpoint = GenomicsDBImportCheckpoint.load(checkpointPath, fingerprint, importBatchSize);
+        if (checkpoint.getStartedBatch() != 0) {
+            rollBackStartedBatch();
+        }
+        logger.info("Resuming import into " + workspace + ": " + checkpoint.getNumCompletedBatches() + " of " +
+                checkpoint.getTotalBatchCount() + " batches were already imported and will be skipped");
+    }
+
+    /**
+     * Undo whatever the batch that was being imported when the previous import stopped may have written, which may be
+     * anything from nothing to the whole batch, by deleting the arrays and array fragments that were not in the workspace
+     * when the batch started.
+     */
+    private void rollBackStartedBatch() {
+        final Path workspacePath = IOUtils.getPath(BucketUtils.makeFilePathAbsolute(workspace));
+        final Set<String> contentsBeforeBatch = checkpoint.getContentsBeforeStartedBatch();
+        final List<String> added = new ArrayList<>();
+        for (final String entry : listArrayContents()) {
+            // skip the contents of arrays that are deleted as a whole
+            final String array = entry.contains("/") ? entry.substring(0, entry.indexOf('/')) : null;
+            if (!contentsBeforeBatch.contains(entry) && (array == null || contentsBeforeBatch.contains(array))) {
+                added.add(entry);
+            }
+        }
+        logger.warn("The previous import stopped while importing batch " + checkpoint.getStartedBatch() + ", so it will be " +
+                "imported again after deleting what it wrote to the workspace: " + (added.isEmpty() ? "nothing" : String.join(", ", added)));
+        added.forEach(entry -> IOUtils.deleteRecursively(workspacePath.resolve(entry)));
+        checkpoint.clearStartedBatch();
+    }
+
+    /**
+     * @return the arrays in the workspace, and every file or fragment directory in each of them, as paths relative to
+     *         the workspace
+     */
+    private SortedSet<String> listArrayContents() {
+        final Path workspacePath = IOUtils.getPath(BucketUtils.makeFilePathAbsolute(workspace));
+        final SortedSet<String> contents = new TreeSet<>();
+        for (final String array : GenomicsDBUtils.listGenomicsDBArrays(workspace)) {
+            contents.add(array);
+            try (final Stream<Path> arrayContents = Files.list(workspacePath.resolve(array))) {
+                arrayContents.forEach(entry -> contents.add(array + "/" + entry.getFileName().toString()));
+            } catch (final IOException e) {
+                throw new UserException.CouldNotReadInputFile(workspacePath.resolve(array), "exception while listing the contents of the array", e);
+            }
+        }
+        return contents;
+    }
+
     @Override
     public Object onTraversalSuccess() {
+        if (checkpoint != null) {
+            // the import is complete, so there is nothing left to resume
+            checkpoint.delete();
+        }
         if (getIntervalsFromExistingWorkspace) {
             logger.info("Interval list generated!");
         } else if (batchSize == DEFAULT_ZERO_BATCH_SIZE) {
@@ -937,6 +1158,22 @@ public final class GenomicsDBImport extends GATKTool {
         return sampleToReaderMap;
     }
 
+    /**
+     * Creates readers for a batch that was completely imported before the import was resumed. The readers only provide
+     * the headers of the GVCFs, so that the importer handles the batch as before, but no variants are imported again.
+     */
+    private SortedMap<String, FeatureReader<VariantContext>> getCompletedBatchReaders(final Map<String, URI> sampleNameToPath,
+                                                                                   final int batchSize, final int lowerSampleIndex) {
+        final SortedMap<String, FeatureReader<VariantContext>> sampleToReaderMap = new TreeMap<>();
+        final List<String> sampleNames = new ArrayList<>(sampleNameToPath.keySet());
+        for(int i = lowerSampleIndex; i < sampleNameToPath.size() && i < lowerSampleIndex+batchSize; ++i) {
+            final String sampleName = sampleNames.get(i);
+            final VCFHeader header = getHeaderFromPath(IOUtils.getPath(sampleNameToPath.get(sampleName).toString()));
+            sampleToReaderMap.put(sampleName, new CompletedBatchReader(header));
+        }
+        return sampleToReaderMap;
+    }
+
     /**
      * Creates a feature reader object from a given VCF URI (can also be
      * a local file path) and returns it
@@ -982,14 +1219,14 @@ public final class GenomicsDBImport extends GATKTool {
                 @Override public boolean isQueryable() { return reader.isQueryable(); }
 
                 @Override public CloseableTribbleIterator<VariantContext> query(Locatable locus) throws IOException {
-                    return new NoMnpIterator(reader.query(locus));
+                    return decodeAhead(new NoMnpIterator(reader.query(locus)));
                 }
                 @Override public CloseableTribbleIterator<VariantContext> query(String chr, int start, int end) throws IOException {
-                    return new NoMnpIterator(reader.query(chr, start, end));
+                    return decodeAhead(new NoMnpIterator(reader.query(chr, start, end)));
                 }
 
                 @Override public CloseableTribbleIterator<VariantContext> iterator() throws IOException {
-                    return new NoMnpIterator(reader.iterator());
+                    return decodeAhead(new NoMnpIterator(reader.iterator()));
                 }
             };
         } catch (final TribbleException e){
@@ -997,10 +1234,15 @@ public final class GenomicsDBImport extends GATKTool {
         }
     }
 
+    private CloseableTribbleIterator<VariantContext> decodeAhead(final CloseableTribbleIterator<VariantContext> iterator) {
+        return decodeExecutorService == null ? iterator : new ReadAheadVariantIterator(iterator, decodeExecutorService, GenomicsDBImportMemoryPlan.DEFAULT_READ_AHEAD_RECORDS);
+    }
+
     /**
      * Input argument "overwriteExistingWorkspace" defaults to false.
      * The tool creates a new workspace if it doesn't exist, or checks that
-     * a workspace exists in the incremental import case. Deletes
+     * a workspace exists in the incremental import case. An existing workspace
+     * is also accepted when resuming an import. Deletes
      * an existing workspace if argument is true
      *
      * @return  The workspace directory
@@ -1020,6 +1262,9 @@ public final class GenomicsDBImport extends GATKTool {
         } else if (!overwriteExistingWorkspace && returnCode == 1) {
             if (doIncrementalImport) {
                 return workspaceDir;
+            } else if (resumeImport) {
+                resumingExistingWorkspace = true;
+                return workspaceDir;
             } else {
                 throw new UnableToCreateGenomicsDBWorkspace("Error creating GenomicsDB workspace: " + workspace + " already exists");
             }
@@ -1084,6 +1329,9 @@ public final class GenomicsDBImport extends GATKTool {
         if(inputPreloadExecutorService != null) {
             inputPreloadExecutorService.shutdownNow();
         }
+        if(decodeExecutorService != null) {
+            decodeExecutorService.shutdownNow();
+        }
     }
 
     /**
@@ -1154,5 +1402,45 @@ public final class GenomicsDBImport extends GATKTool {
             return reader.getHeader();
         }
     }
-}
 
+    /**
+     * Reader standing in for a GVCF whose batch was imported before the import was resumed. It provides the header of
+     * the GVCF but no variants, so that the batch is not imported again.
+     */
+    private static final class CompletedBatchReader implements FeatureReader<VariantContext> {
+        private final VCFHeader header;
+
+        private CompletedBatchReader(final VCFHeader header) {
+            this.header = header;
+        }
+
+        @Override
+        public CloseableTribbleIterator<VariantContext> query(final String chr, final int start, final int end) {
+            return iterator();
+        }
+
+        @Override
+        public CloseableTribbleIterator<VariantContext> iterator() {
+            return new CloseableTribbleIterator<VariantContext>() {
+                @Override public void close() { }
+                @Override public Iterator<VariantContext> iterator() { return this; }
+                @Override public boolean hasNext() { return false; }
+                @Override public VariantContext next() { throw new NoSuchElementException(); }
+            };
+        }
+
+        @Override
+        public void close() { }
+
+        @Override
+        public List<String> getSequenceNames() {
+            return header.getSequenceDictionary() == null ? Collections.emptyList() :
+                    header.getSequenceDictionary().getSequences().stream().map(SAMSequenceRecord::getSequenceName).collect(Collectors.toList());
+        }
+
+        @Override
+        public Object getHeader() {
+            return header;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package org.broadinstitute.hellbender.tools.genomicsdb;
+
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Records which batches of a {@link GenomicsDBImport} run have been completely imported into the workspace, so that an
+ * import which fails or is preempted part way through can be resumed from the first unfinished batch.
+ *
+ * The checkpoint is a small tab delimited file in the workspace directory. It holds a fingerprint of the sample map,
+ * intervals and batch size of the import, which must be unchanged for the import to be resumed, followed by one line per
+ * completed batch with the number of samples in the batch, the time taken to import it and the resulting throughput.
+ * The file is rewritten before and after every batch, by writing a new file and moving it over the previous one, and is
+ * deleted once the import completes.
+ *
+ * GenomicsDB commits a batch before the import can record it as complete, so an import that stops between the two has
+ * imported a batch that the checkpoint does not list. To be able to undo it, the checkpoint also records the batch
+ * being imported, if any, together with the arrays and array fragments that were in the workspace when it started: the
+ * batch only ever adds new arrays and fragments, so deleting the others rolls the workspace back to its state before
+ * the batch.
+ */
+final class GenomicsDBImportCheckpoint {
+    static final String CHECKPOINT_FILE_NAME = "gatk_import_checkpoint.tsv";
+
+    private static final String FINGERPRINT_KEY = "#fingerprint";
+    private static final String BATCH_SIZE_KEY = "#batchSize";
+    private static final String TOTAL_BATCHES_KEY = "#totalBatches";
+    private static final String STARTED_BATCH_KEY = "#startedBatch";
+    private static final String BATCH_COLUMNS = "BATCH\tSAMPLES\tSECONDS\tSAMPLES_PER_SECOND";
+
+    private final Path path;
+    private final String fingerprint;
+    private final int batchSize;
+    private final int totalBatchCount;
+    // batch number (1-based) -> completed batch
+    private final SortedMap<Integer, CompletedBatch> completedBatches = new TreeMap<>();
+    // batch number (1-based) of the batch being imported, or 0 if none, and the workspace contents before it started
+    private int startedBatch = 0;
+    private final SortedSet<String> contentsBeforeStartedBatch = new TreeSet<>();
+
+    private GenomicsDBImportCheckpoint(final Path path, final String fingerprint, final int batchSize, final int totalBatchCount) {
+        this.path = Utils.nonNull(path);
+        this.fingerprint = Utils.nonNull(fingerprint);
+        Utils.validateArg(batchSize > 0, "batchSize must be > 0");
+        Utils.validateArg(totalBatchCount > 0, "totalBatchCount must be > 0");
+        this.batchSize = batchSize;
+        this.totalBatchCount = totalBatchCount;
+    }
+
+    /**
+     * Create a checkpoint for a new import with no completed batches, and write it to {@code path}
+     */
+    static GenomicsDBImportCheckpoint create(final Path path, final String fingerprint, final int batchSize, final int totalBatchCount) {
+        final GenomicsDBImportCheckpoint checkpoint = new GenomicsDBImportCheckpoint(path, fingerprint, batchSize, totalBatchCount);
+        checkpoint.write();
+        return checkpoint;
+    }
+
+    /**
+     * Load the checkpoint of a previous import, which must have been run with the same fingerprint and batch size
+     *
+     * @throws UserException.BadInput if the previous import was run with different inputs, intervals or batch size
+     */
+    static GenomicsDBImportCheckpoint load(final Path path, final String expectedFingerprint, final int expectedBatchSize) {
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(path, "exception while reading the import checkpoint", e);
+        }
+
+        String fingerprint = null;
+        int batchSize = 0;
+        int totalBatchCount = 0;
+        final List<String[]> batchLines = new ArrayList<>();
+        String[] startedBatchLine = null;
+        try {
+            for (final String line : lines) {
+                final String[] fields = line.split("\\t", -1);
+                if (line.isEmpty() || line.equals(BATCH_COLUMNS)) {
+                    continue;
+                } else if (fields.length == 2 && fields[0].equals(FINGERPRINT_KEY)) {
+                    fingerprint = fields[1];
+                } else if (fields.length == 2 && fields[0].equals(BATCH_SIZE_KEY)) {
+                    batchSize = Integer.parseInt(fields[1]);
+                } else if (fields.length == 2 && fields[0].equals(TOTAL_BATCHES_KEY)) {
+                    totalBatchCount = Integer.parseInt(fields[1]);
+                } else if (fields.length >= 2 && fields[0].equals(STARTED_BATCH_KEY)) {
+                    startedBatchLine = fields;
+                } else if (fields.length == 4) {
+                    batchLines.add(fields);
+                } else {
+                    throw new UserException.MalformedFile(path, "Unexpected line in import checkpoint: " + line);
+                }
+            }
+            if (fingerprint == null || batchSize <= 0 || totalBatchCount <= 0) {
+                throw new UserException.MalformedFile(path, "Import checkpoint is missing its fingerprint, batch size or batch count");
+            }
+            if (!fingerprint.equals(expectedFingerprint) || batchSize != expectedBatchSize) {
+                throw new UserException.BadInput("The import checkpoint " + path.toUri() + " was written by an import with a " +
+                        "different sample map, intervals or batch size, so this import cannot be resumed from it. " +
+                        "Resume the import with the same arguments as the original import, or import into a new workspace.");
+            }
+
+            final GenomicsDBImportCheckpoint checkpoint = new GenomicsDBImportCheckpoint(path, fingerprint, batchSize, totalBatchCount);
+            for (final String[] fields : batchLines) {
+                final int batch = Integer.parseInt(fields[0]);
+                checkpoint.completedBatches.put(batch, new CompletedBatch(batch, Integer.parseInt(fields[1]),
+                        Math.round(Double.parseDouble(fields[2]) * 1000)));
+            }
+            if (startedBatchLine != null) {
+                checkpoint.startedBatch = Integer.parseInt(startedBatchLine[1]);
+                checkpoint.contentsBeforeStartedBatch.addAll(Arrays.asList(startedBatchLine).subList(2, startedBatchLine.length));
+            }
+            return checkpoint;
+        } catch (final NumberFormatException e) {
+            throw new UserException.MalformedFile(path, "Malformed number in import checkpoint", e);
+        }
+    }
+
+    /**
+     * @return a fingerprint of everything that determines which samples are imported in which batch, and where
+     */
+    static String computeFingerprint(final SortedMap<String, URI> sampleNameToVcfPath, final List<SimpleInterval> intervals,
+                                     final int mergeContigsIntoNumPartitions) {
+        final StringBuilder builder = new StringBuilder();
+        for (final Map.Entry<String, URI> entry : sampleNameToVcfPath.entrySet()) {
+            builder.append(entry.getKey()).append('\t').append(entry.getValue()).append('\n');
+        }
+        for (final SimpleInterval interval : intervals) {
+            builder.append(interval).append('\n');
+        }
+        builder.append(mergeContigsIntoNumPartitions);
+        return Utils.calcMD5(builder.toString());
+    }
+
+    /**
+     * @return the 1-based number of the batch of samples starting at {@code lowerSampleIndex}
+     */
+    static int getBatchNumber(final int lowerSampleIndex, final int batchSize) {
+        return lowerSampleIndex / batchSize + 1;
+    }
+
+    boolean isBatchComplete(final int batch) {
+        return completedBatches.containsKey(batch);
+    }
+
+    int getNumCompletedBatches() {
+        return completedBatches.size();
+    }
+
+    int getTotalBatchCount() {
+        return totalBatchCount;
+    }
+
+    List<CompletedBatch> getCompletedBatches() {
+        return Collections.unmodifiableList(new ArrayList<>(completedBatches.values()));
+    }
+
+    /**
+     * @return the batch that was being imported when the checkpoint was last written, or 0 if there is none
+     */
+    int getStartedBatch() {
+        return startedBatch;
+    }
+
+    /**
+     * @return the arrays and their contents, as paths relative to the workspace, that were in the workspace when the
+     *         {@link #getStartedBatch() started batch} started
+     */
+    SortedSet<String> getContentsBeforeStartedBatch() {
+        return Collections.unmodifiableSortedSet(contentsBeforeStartedBatch);
+    }
+
+    /**
+     * Record that a batch is about to be imported, and update the checkpoint file
+     *
+     * @param existingContents the arrays and their contents, as paths relative to the workspace, in the workspace before the batch
+     */
+    void recordStartedBatch(final int batch, final Collection<String> existingContents) {
+        Utils.validateArg(batch >= 1 && batch <= totalBatchCount, () -> "batch " + batch + " is not between 1 and " + totalBatchCount);
+        Utils.nonNull(existingContents);
+        startedBatch = batch;
+        contentsBeforeStartedBatch.clear();
+        contentsBeforeStartedBatch.addAll(existingContents);
+        write();
+    }
+
+    /**
+     * Record that the started batch has been rolled back, and update the checkpoint file
+     */
+    void clearStartedBatch() {
+        startedBatch = 0;
+        contentsBeforeStartedBatch.clear();
+        write();
+    }
+
+    /**
+     * Record that a batch has been imported for every interval, and update the checkpoint file
+     */
+    CompletedBatch recordCompletedBatch(final int batch, final int numSamples, final long elapsedMillis) {
+        Utils.validateArg(batch >= 1 && batch <= totalBatchCount, () -> "batch " + batch + " is not between 1 and " + totalBatchCount);
+        final CompletedBatch completedBatch = new CompletedBatch(batch, numSamples, elapsedMillis);
+        completedBatches.put(batch, completedBatch);
+        if (startedBatch == batch) {
+            startedBatch = 0;
+            contentsBeforeStartedBatch.clear();
+        }
+        write();
+        return completedBatch;
+    }
+
+    /**
+     * Delete the checkpoint file, once the import is complete
+     */
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(path.toUri().toString(), "exception while deleting the import checkpoint", e);
+        }
+    }
+
+    private void write() {
+        final List<String> lines = new ArrayList<>(completedBatches.size() + 5);
+        lines.add(FINGERPRINT_KEY + "\t" + fingerprint);
+        lines.add(BATCH_SIZE_KEY + "\t" + batchSize);
+        lines.add(TOTAL_BATCHES_KEY + "\t" + totalBatchCount);
+        if (startedBatch != 0) {
+            final StringBuilder startedBatchLine = new StringBuilder(STARTED_BATCH_KEY).append('\t').append(startedBatch);
+            contentsBeforeStartedBatch.forEach(entry -> startedBatchLine.append('\t').append(entry));
+            lines.add(startedBatchLine.toString());
+        }
+        lines.add(BATCH_COLUMNS);
+        completedBatches.values().forEach(batch -> lines.add(batch.toString()));
+
+        final Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.write(tempPath, lines, StandardCharsets.UTF_8);
+            try {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(path.toUri().toString(), "exception while writing the import checkpoint", e);
+        }
+    }
+
+    /**
+     * A batch that has been imported for every interval, and its throughput
+     */
+    static final class CompletedBatch {
+        private final int batch;
+        private final int numSamples;
+        private final long elapsedMillis;
+
+        CompletedBatch(final int batch, final int numSamples, final long elapsedMillis) {
+            this.batch = batch;
+            this.numSamples = numSamples;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        int getBatch() {
+            return batch;
+        }
+
+        int getNumSamples() {
+            return numSamples;
+        }
+
+        double getSeconds() {
+            return elapsedMillis / 1000.0;
+        }
+
+        double getSamplesPerSecond() {
+            return elapsedMillis == 0 ? 0.0 : numSamples / getSeconds();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d\t%d\t%.3f\t%.3f", batch, numSamples, getSeconds(), getSamplesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.broadinstitute.hellbender.tools.genomicsdb;
+
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+/**
+ * Chooses the batch size and the number of intervals imported in parallel by {@link GenomicsDBImport} so that the
+ * estimated memory used by all open readers, their read-ahead buffers and the GenomicsDB import buffers fits within a
+ * single memory budget shared by every interval being imported.
+ *
+ * While importing, each interval holds one segment buffer, and each sample of the current batch of each interval holds
+ * an open reader, a VCF buffer of {@code vcfBufferSizePerSample} bytes, and up to two chunks of decoded variants in its
+ * read-ahead iterator. The plan prefers importing as many intervals in parallel as there are decode threads, as long as
+ * each interval can still import reasonably large batches, since small batches produce many fragments in the workspace.
+ */
+final class GenomicsDBImportMemoryPlan {
+    // rough estimates of the java memory held by an open GVCF reader (BGZF buffers, index) and by a decoded GVCF
+    // record whose genotypes have not been fully decoded
+    static final long READER_OVERHEAD_BYTES = 256 * 1024L;
+    static final long DECODED_RECORD_BYTES = 2 * 1024L;
+
+    static final int DEFAULT_READ_AHEAD_RECORDS = 256;
+    static final int MIN_PREFERRED_BATCH_SIZE = 50;
+
+    private final int batchSize;
+    private final int numIntervalsInParallel;
+    private final int readAheadRecords;
+
+    private GenomicsDBImportMemoryPlan(final int batchSize, final int numIntervalsInParallel, final int readAheadRecords) {
+        this.batchSize = batchSize;
+        this.numIntervalsInParallel = numIntervalsInParallel;
+        this.readAheadRecords = readAheadRecords;
+    }
+
+    /**
+     * @param memoryBudget total number of bytes that may be used for importing
+     * @param numSamples number of samples to import
+     * @param numIntervals number of intervals (partitions) to import
+     * @param maxParallelism maximum number of intervals to import in parallel, usually the number of decode threads
+     * @param vcfBufferSizePerSample GenomicsDB VCF buffer size for each sample
+     * @param segmentSize GenomicsDB segment size for each interval
+     * @param readAheadRecords number of decoded records in each chunk of the read-ahead iterators, or 0 if reads are not decoded ahead
+     */
+    static GenomicsDBImportMemoryPlan fromBudget(final long memoryBudget, final int numSamples, final int numIntervals,
+                                                 final int maxParallelism, final long vcfBufferSizePerSample,
+                                                 final long segmentSize, final int readAheadRecords) {
+        Utils.validateArg(memoryBudget > 0, "memoryBudget must be > 0");
+        Utils.validateArg(numSamples > 0, "numSamples must be > 0");
+        Utils.validateArg(numIntervals > 0, "numIntervals must be > 0");
+        Utils.validateArg(maxParallelism > 0, "maxParallelism must be > 0");
+        Utils.validateArg(readAheadRecords >= 0, "readAheadRecords must be >= 0");
+
+        final long bytesPerSample = getBytesPerSample(vcfBufferSizePerSample, readAheadRecords);
+        final int preferredBatchSize = Math.min(numSamples, MIN_PREFERRED_BATCH_SIZE);
+
+        // use as many parallel intervals as possible while still allowing batches of the preferred size
+        for ( int parallelism = Math.min(numIntervals, maxParallelism); parallelism >= 1; parallelism-- ) {
+            final int batchSize = getLargestBatchSize(memoryBudget, parallelism, numSamples, bytesPerSample, segmentSize);
+            if ( batchSize >= preferredBatchSize || (parallelism == 1 && batchSize >= 1) ) {
+                return new GenomicsDBImportMemoryPlan(batchSize, parallelism, readAheadRecords);
+            }
+        }
+        throw new UserException.BadInput(String.format("The import memory budget of %d bytes is too small to import even a " +
+                "single sample, which is estimated to require %d bytes. Increase the budget or reduce %s or %s.",
+                memoryBudget, segmentSize + bytesPerSample, GenomicsDBImport.VCF_BUFFER_SIZE_ARG_NAME, GenomicsDBImport.SEGMENT_SIZE_ARG_LONG_NAME));
+    }
+
+    static long getBytesPerSample(final long vcfBufferSizePerSample, final int readAheadRecords) {
+        return vcfBufferSizePerSample + READER_OVERHEAD_BYTES + 2L * readAheadRecords * DECODED_RECORD_BYTES;
+    }
+
+    private static int getLargestBatchSize(final long memoryBudget, final int parallelism, final int numSamples,
+                                           final long bytesPerSample, final long segmentSize) {
+        final long budgetPerInterval = memoryBudget / parallelism - segmentSize;
+        return budgetPerInterval <= 0 ? 0 : (int) Math.min(numSamples, budgetPerInterval / bytesPerSample);
+    }
+
+    /**
+     * @return the number of samples to import in each batch
+     */
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the number of intervals to import in parallel
+     */
+    int getNumIntervalsInParallel() {
+        return numIntervalsInParallel;
+    }
+
+    /**
+     * @return the number of records decoded ahead in each chunk of the read-ahead iterators
+     */
+    int getReadAheadRecords() {
+        return readAheadRecords;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("batch size %d, %d interval(s) in parallel, %d records decoded ahead per sample",
+                batchSize, numIntervalsInParallel, readAheadRecords);
+    }
+}
@@ -3,6 +3,9 @@ package org.broadinstitute.hellbender.tools.genomicsdb;
 import org.broadinstitute.hellbender.tools.walkers.genotyper.GenotypeCalculationArgumentCollection;
 
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Encapsulates the GenomicsDB-specific options relevant to the FeatureDataSource
@@ -15,6 +18,9 @@ public final class GenomicsDBOptions {
     final private boolean useBCFCodec;
     final private boolean sharedPosixFSOptimizations;
     final private boolean useGcsHdfsConnector;
+    final private Set<String> samplesToQuery;
+    final private Set<String> fieldsToExclude;
+    final private boolean sitesOnlyQuery;
 
     public GenomicsDBOptions() {
         this(null);
@@ -29,6 +35,16 @@ public final class GenomicsDBOptions {
     }
 
     public GenomicsDBOptions(final Path reference, GenomicsDBArgumentCollection genomicsdbArgs, GenotypeCalculationArgumentCollection genotypeCalcArgs) {
+        this(reference, genomicsdbArgs, genotypeCalcArgs, null, Collections.emptySet(), false);
+    }
+
+    /**
+     * @param samplesToQuery samples to read from the GenomicsDB, or null to read all samples
+     * @param fieldsToExclude INFO and FORMAT fields that the tool does not need, and which are not read from the GenomicsDB
+     * @param sitesOnlyQuery if true, read the sites without any genotypes
+     */
+    public GenomicsDBOptions(final Path reference, GenomicsDBArgumentCollection genomicsdbArgs, GenotypeCalculationArgumentCollection genotypeCalcArgs,
+                             final Set<String> samplesToQuery, final Set<String> fieldsToExclude, final boolean sitesOnlyQuery) {
         this.reference = reference;
         this.callGenotypes = genomicsdbArgs.callGenotypes;
         this.maxDiploidAltAllelesThatCanBeGenotyped = genomicsdbArgs.maxDiploidAltAllelesThatCanBeGenotyped;
@@ -36,6 +52,9 @@ public final class GenomicsDBOptions {
         this.useBCFCodec = genomicsdbArgs.useBCFCodec;
         this.sharedPosixFSOptimizations = genomicsdbArgs.sharedPosixFSOptimizations;
         this.useGcsHdfsConnector = genomicsdbArgs.useGcsHdfsConnector;
+        this.samplesToQuery = samplesToQuery == null ? null : Collections.unmodifiableSet(new LinkedHashSet<>(samplesToQuery));
+        this.fieldsToExclude = Collections.unmodifiableSet(new LinkedHashSet<>(fieldsToExclude));
+        this.sitesOnlyQuery = sitesOnlyQuery;
     }
 
     public Path getReference() {
@@ -65,4 +84,19 @@ public final class GenomicsDBOptions {
     public boolean useGcsHdfsConnector() {
         return useGcsHdfsConnector;
     }
+
+    /**
+     * @return the samples to read from the GenomicsDB, or null if all samples should be read
+     */
+    public Set<String> getSamplesToQuery() {
+        return samplesToQuery;
+    }
+
+    public Set<String> getFieldsToExclude() {
+        return fieldsToExclude;
+    }
+
+    public boolean doSitesOnlyQuery() {
+        return sitesOnlyQuery;
+    }
 }
@@ -5,7 +5,9 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.AnnotationUtils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+import htsjdk.variant.vcf.VCFConstants;
 import org.genomicsdb.importer.GenomicsDBImporter;
+import org.genomicsdb.model.GenomicsDBCallsetsMapProto;
 import org.genomicsdb.model.GenomicsDBExportConfiguration;
 import org.genomicsdb.model.GenomicsDBVidMapProto;
 
@@ -14,8 +16,12 @@ import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Utility class containing various methods for working with GenomicsDB
@@ -39,6 +45,12 @@ public class GenomicsDBUtils {
     private static final String GDB_TYPE_FLOAT = "float";
     private static final String GDB_TYPE_INT = "int";
 
+    private static final String VCF_FIELD_CLASS_FILTER = "FILTER";
+    // fixed VCF columns stored as GenomicsDB attributes, which must be queried along with any subset of the INFO and FORMAT fields
+    private static final List<String> FIXED_FIELDS = Arrays.asList(VCFConstants.ID_KEY, "REF", "ALT", "QUAL", "FILTER");
+    // fields required to produce GVCF records, which are never excluded from a query
+    private static final List<String> REQUIRED_FIELDS = Arrays.asList(VCFConstants.END_KEY, VCFConstants.GENOTYPE_KEY);
+
 
     /**
      * Info and Allele-specific fields that need to be treated differently
@@ -107,7 +119,7 @@ public class GenomicsDBUtils {
                         .setVcfHeaderFilename(vcfHeader)
                         .setProduceGTField(genomicsDBOptions.doCallGenotypes())
                         .setProduceGTWithMinPLValueForSpanningDeletions(false)
-                        .setSitesOnlyQuery(false)
+                        .setSitesOnlyQuery(genomicsDBOptions.doSitesOnlyQuery())
                         .setMaxDiploidAltAllelesThatCanBeGenotyped(genomicsDBOptions.getMaxDiploidAltAllelesThatCanBeGenotyped())
                         .setMaxGenotypeCount(genomicsDBOptions.getMaxGenotypeCount())
                         .setEnableSharedPosixfsOptimizations(genomicsDBOptions.sharedPosixFSOptimizations());
@@ -133,7 +145,24 @@ public class GenomicsDBUtils {
             exportConfigurationBuilder.setGenerateArrayNameFromPartitionBounds(true);
         }
 
-
+        // Push the samples and fields needed by the tool down into the query, so that GenomicsDB doesn't
+        // read, combine and transfer the data of other samples and fields only for them to be dropped later.
+        if (genomicsDBOptions.getSamplesToQuery() != null) {
+            final GenomicsDBExportConfiguration.RowRangeList rowRanges =
+                    getRowRangesForSamples(getProtobufCallsetMappingFromJsonFile(callsetJson), genomicsDBOptions.getSamplesToQuery());
+            // if none of the samples are in the workspace, query all of them and leave it to the tool to report or ignore
+            if (rowRanges.getRangeListCount() > 0) {
+                exportConfigurationBuilder.addQueryRowRanges(rowRanges);
+            }
+        }
+        if (!genomicsDBOptions.getFieldsToExclude().isEmpty()) {
+            try {
+                exportConfigurationBuilder.addAllAttributes(
+                        getFieldsToQuery(getProtobufVidMappingFromJsonFile(vidmapJson), genomicsDBOptions.getFieldsToExclude()));
+            } catch (final IOException e) {
+                throw new UserException.CouldNotReadInputFile(IOUtils.getPath(vidmapJson), "exception while reading the GenomicsDB vid map", e);
+            }
+        }
 
         return exportConfigurationBuilder.build();
     }
@@ -160,6 +189,78 @@ public class GenomicsDBUtils {
         return vidMapBuilder.build();
     }
 
+    /**
+     * Parse the callset json and create an in-memory Protobuf structure representing the
+     * information in the JSON file
+     *
+     * @param callsetJson callset JSON file
+     * @return Protobuf object
+     */
+    public static GenomicsDBCallsetsMapProto.CallsetMappingPB getProtobufCallsetMappingFromJsonFile(final String callsetJson) {
+        final GenomicsDBCallsetsMapProto.CallsetMappingPB.Builder callsetMapBuilder = GenomicsDBCallsetsMapProto.CallsetMappingPB.newBuilder();
+        try (final Reader reader = Files.newBufferedReader(IOUtils.getPath(callsetJson))) {
+            JsonFormat.merge(reader, callsetMapBuilder);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(IOUtils.getPath(callsetJson), "exception while reading the GenomicsDB callset map", e);
+        }
+        return callsetMapBuilder.build();
+    }
+
+    /**
+     * Find the GenomicsDB rows holding the given samples, merging consecutive rows into a single range
+     *
+     * @param callsetMapPB Protobuf callset mapping object
+     * @param samples samples to query; samples not in the callset map are ignored
+     * @return row ranges of the samples, sorted by row, or an empty list if none of the samples are in the callset map
+     */
+    public static GenomicsDBExportConfiguration.RowRangeList getRowRangesForSamples(
+            final GenomicsDBCallsetsMapProto.CallsetMappingPB callsetMapPB, final Set<String> samples) {
+        final long[] rows = callsetMapPB.getCallsetsList().stream()
+                .filter(callset -> samples.contains(callset.getSampleName()))
+                .mapToLong(GenomicsDBCallsetsMapProto.SampleIDToTileDBIDMap::getRowIdx)
+                .sorted()
+                .toArray();
+
+        final GenomicsDBExportConfiguration.RowRangeList.Builder rowRanges = GenomicsDBExportConfiguration.RowRangeList.newBuilder();
+        int start = 0;
+        for (int i = 1; i <= rows.length; i++) {
+            if (i == rows.length || rows[i] != rows[i - 1] + 1) {
+                rowRanges.addRangeList(GenomicsDBExportConfiguration.RowRange.newBuilder().setLow(rows[start]).setHigh(rows[i - 1]));
+                start = i;
+            }
+        }
+        return rowRanges.build();
+    }
+
+    /**
+     * Get the GenomicsDB attributes to query in order to read every field in the workspace except the given ones.
+     * The fixed VCF columns and the fields required to produce GVCF records are always queried.
+     *
+     * @param vidMapPB Protobuf vid mapping object
+     * @param fieldsToExclude INFO and FORMAT fields not to query
+     * @return names of the attributes to query
+     */
+    public static List<String> getFieldsToQuery(final GenomicsDBVidMapProto.VidMappingPB vidMapPB, final Set<String> fieldsToExclude) {
+        final List<String> fields = new ArrayList<>();
+        for (final String fixedField : FIXED_FIELDS) {
+            // ID is only stored if it was present in the imported GVCFs
+            if (!fixedField.equals(VCFConstants.ID_KEY) || vidMapPB.getFieldsList().stream().anyMatch(field -> field.getName().equals(fixedField))) {
+                fields.add(fixedField);
+            }
+        }
+        for (final GenomicsDBVidMapProto.GenomicsDBFieldInfo field : vidMapPB.getFieldsList()) {
+            final String name = field.getName();
+            // FILTER values are stored in the FILTER attribute rather than as attributes of their own
+            final boolean isFilter = field.getVcfFieldClassList().size() == 1 && field.getVcfFieldClassList().contains(VCF_FIELD_CLASS_FILTER);
+            // fields stored as both INFO and FORMAT fields are always queried, since only one of them may be excluded
+            final boolean excluded = fieldsToExclude.contains(name) && field.getVcfFieldClassCount() == 1 && !REQUIRED_FIELDS.contains(name);
+            if (!isFilter && !excluded && !fields.contains(name)) {
+                fields.add(name);
+            }
+        }
+        return fields;
+    }
+
     /**
      * In vidMapPB, fields is a list of GenomicsDBVidMapProto.GenomicsDBFieldInfo objects
      * Each GenomicsDBFieldInfo object contains information about a specific field in the GenomicsDB store
@@ -0,0 +1,114 @@
+package org.broadinstitute.hellbender.tools.genomicsdb;
+
+import htsjdk.tribble.CloseableTribbleIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Decodes the variants of a GVCF reader ahead of the GenomicsDB importer, on a thread pool shared by all readers, so
+ * that VCF decoding runs concurrently with the import of the previously decoded variants.
+ *
+ * Variants are decoded in chunks of a fixed number of records. The next chunk is only decoded once the previous one has
+ * been handed to the importer, so each iterator holds at most two chunks at any time, and decoding is throttled to the
+ * rate at which the importer consumes variants.
+ */
+final class ReadAheadVariantIterator implements CloseableTribbleIterator<VariantContext> {
+    private final CloseableTribbleIterator<VariantContext> source;
+    private final ExecutorService decodeExecutor;
+    private final int chunkSize;
+
+    private List<VariantContext> currentChunk = Collections.emptyList();
+    private int positionInChunk = 0;
+    // null once the source has been exhausted
+    private Future<List<VariantContext>> nextChunk;
+
+    /**
+     * @param source iterator to decode ahead; it is only ever accessed by one thread at a time
+     * @param decodeExecutor executor on which to decode the chunks
+     * @param chunkSize number of variants to decode in each chunk
+     */
+    ReadAheadVariantIterator(final CloseableTribbleIterator<VariantContext> source, final ExecutorService decodeExecutor, final int chunkSize) {
+        this.source = Utils.nonNull(source);
+        this.decodeExecutor = Utils.nonNull(decodeExecutor);
+        Utils.validateArg(chunkSize > 0, "chunkSize must be > 0");
+        this.chunkSize = chunkSize;
+        this.nextChunk = decodeNextChunk();
+    }
+
+    private Future<List<VariantContext>> decodeNextChunk() {
+        return decodeExecutor.submit(() -> {
+            final List<VariantContext> chunk = new ArrayList<>(chunkSize);
+            while ( chunk.size() < chunkSize && source.hasNext() ) {
+                chunk.add(source.next());
+            }
+            return chunk;
+        });
+    }
+
+    private static List<VariantContext> await(final Future<List<VariantContext>> chunk) {
+        try {
+            return chunk.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while decoding variants", e);
+        } catch (final ExecutionException e) {
+            // rethrow errors from the reader, such as malformed or unsupported input, as they are
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new GATKException("Error decoding variants", e.getCause());
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while ( positionInChunk >= currentChunk.size() ) {
+            if ( nextChunk == null ) {
+                return false;
+            }
+            currentChunk = await(nextChunk);
+            positionInChunk = 0;
+            // a partial chunk means the source is exhausted
+            nextChunk = currentChunk.size() < chunkSize ? null : decodeNextChunk();
+        }
+        return true;
+    }
+
+    @Override
+    public VariantContext next() {
+        if ( ! hasNext() ) {
+            throw new NoSuchElementException();
+        }
+        // release each variant as soon as it has been consumed
+        return currentChunk.set(positionInChunk++, null);
+    }
+
+    @Override
+    public Iterator<VariantContext> iterator() {
+        return this;
+    }
+
+    @Override
+    public void close() {
+        // wait for any decoding in progress so that the source isn't closed while in use
+        if ( nextChunk != null ) {
+            try {
+                nextChunk.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (final ExecutionException e) {
+                // the error is irrelevant once the iterator is closed
+            }
+            nextChunk = null;
+        }
+        currentChunk = Collections.emptyList();
+        source.close();
+    }
+}
@@ -13,7 +13,6 @@ import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
 import org.broadinstitute.hellbender.exceptions.UserException;
-import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 
 import java.io.File;
@@ -196,9 +195,9 @@ public class GetPileupSummaries extends LocusWalker {
         final VariantContext vc = vcs.get(0);
 
         if ( vc.isBiallelic() && vc.isSNP() && alleleFrequencyInRange(vc) ) {
-            final ReadPileup pileup = alignmentContext.getBasePileup()
-                    .makeFilteredPileup(pe -> pe.getRead().getMappingQuality() >= minMappingQuality);
-            pileupSummaries.add(new PileupSummary(vc, pileup));
+            final int[] baseCounts = alignmentContext.getBasePileup()
+                    .getBaseCounts(pe -> pe.getRead().getMappingQuality() >= minMappingQuality, new int[4]);
+            pileupSummaries.add(new PileupSummary(vc, baseCounts));
         }
     }
 
@@ -0,0 +1,309 @@
+package org.broadinstitute.hellbender.tools.walkers.coverage;
+
+import htsjdk.samtools.seekablestream.SeekablePathStream;
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.samtools.util.Locatable;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Random access reader for the binary per-locus depth of coverage files written by {@link BinaryCoverageWriter}.
+ *
+ * Coverage is returned as {@link CoverageRun}s, each of which holds the depth in every column for a range of
+ * consecutive loci. Loci that were not written (for instance because they were outside of the traversal intervals)
+ * are not covered by any run.
+ *
+ * The reader holds a single underlying stream, so only one iterator returned by {@link #iterator()} or {@link #query}
+ * may be in use at a time.
+ */
+public final class BinaryCoverageReader implements Closeable, Iterable<BinaryCoverageReader.CoverageRun> {
+    private final Path path;
+    private final BlockCompressedInputStream in;
+    private final List<String> columnNames;
+    private final List<String> contigs;
+    private final Map<String, Integer> contigIndices = new HashMap<>();
+
+    // index entries, sorted by contig index then start
+    private final int[] indexContigs;
+    private final int[] indexStarts;
+    private final long[] indexFilePointers;
+
+    /**
+     * @param path path of the data file; its index is expected next to it, with {@link BinaryCoverageWriter#INDEX_EXTENSION} appended
+     */
+    public BinaryCoverageReader(final Path path) {
+        this.path = Utils.nonNull(path);
+        final Path indexPath = BinaryCoverageWriter.getIndexPath(path);
+        try (final DataInputStream indexIn = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            checkHeader(indexIn.readInt(), BinaryCoverageWriter.INDEX_MAGIC, indexIn.readInt(), indexPath);
+            final int numContigs = indexIn.readInt();
+            final List<String> contigs = new ArrayList<>(numContigs);
+            for (int i = 0; i < numContigs; i++) {
+                contigs.add(indexIn.readUTF());
+                contigIndices.put(contigs.get(i), i);
+            }
+            this.contigs = Collections.unmodifiableList(contigs);
+            final int numEntries = indexIn.readInt();
+            indexContigs = new int[numEntries];
+            indexStarts = new int[numEntries];
+            indexFilePointers = new long[numEntries];
+            for (int i = 0; i < numEntries; i++) {
+                indexContigs[i] = indexIn.readInt();
+                indexStarts[i] = indexIn.readInt();
+                indexFilePointers[i] = indexIn.readLong();
+            }
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(indexPath, e);
+        }
+
+        try {
+            in = new BlockCompressedInputStream(new SeekablePathStream(path));
+            final DataInputStream dataIn = new DataInputStream(in);
+            checkHeader(dataIn.readInt(), BinaryCoverageWriter.MAGIC, dataIn.readInt(), path);
+            final int numColumns = dataIn.readInt();
+            final List<String> columnNames = new ArrayList<>(numColumns);
+            for (int i = 0; i < numColumns; i++) {
+                columnNames.add(dataIn.readUTF());
+            }
+            this.columnNames = Collections.unmodifiableList(columnNames);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(path, e);
+        }
+    }
+
+    private static void checkHeader(final int magic, final int expectedMagic, final int version, final Path path) {
+        if (magic != expectedMagic) {
+            throw new UserException.MalformedFile(path, "Not a binary depth of coverage file");
+        }
+        if (version != BinaryCoverageWriter.VERSION) {
+            throw new UserException.MalformedFile(path, "Unsupported binary depth of coverage version " + version);
+        }
+    }
+
+    /**
+     * @return the names of the depth columns, in the order of the depths of each run
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * @return the contigs with coverage in this file, in file order
+     */
+    public List<String> getContigs() {
+        return contigs;
+    }
+
+    /**
+     * @return an iterator over every run in the file
+     */
+    @Override
+    public Iterator<CoverageRun> iterator() {
+        return indexFilePointers.length == 0 ? Collections.emptyIterator() : new RunIterator(indexFilePointers[0], -1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return an iterator over the runs overlapping the given interval, in coordinate order. Runs are not clipped to
+     *         the interval.
+     */
+    public Iterator<CoverageRun> query(final Locatable interval) {
+        Utils.nonNull(interval);
+        final Integer contigIndex = contigIndices.get(interval.getContig());
+        if (contigIndex == null) {
+            return Collections.emptyIterator();
+        }
+        // find the last index entry at or before the start of the interval, or else the first entry on the contig
+        int entry = -1;
+        for (int lo = 0, hi = indexContigs.length - 1; lo <= hi; ) {
+            final int mid = (lo + hi) >>> 1;
+            if (indexContigs[mid] < contigIndex || (indexContigs[mid] == contigIndex && indexStarts[mid] <= interval.getStart())) {
+                entry = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (entry == -1 || indexContigs[entry] != contigIndex) {
+            entry++;
+        }
+        if (entry >= indexContigs.length || indexContigs[entry] != contigIndex) {
+            return Collections.emptyIterator();
+        }
+        return new RunIterator(indexFilePointers[entry], contigIndex, interval.getStart(), interval.getEnd());
+    }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (final IOException e) {
+            throw new GATKException("Error closing " + path, e);
+        }
+    }
+
+    /**
+     * Depth in every column over a range of consecutive loci.
+     */
+    public static final class CoverageRun implements Locatable {
+        private final String contig;
+        private final int start;
+        private final int end;
+        private final int[] depths;
+
+        CoverageRun(final String contig, final int start, final int end, final int[] depths) {
+            this.contig = contig;
+            this.start = start;
+            this.end = end;
+            this.depths = depths;
+        }
+
+        @Override
+        public String getContig() {
+            return contig;
+        }
+
+        @Override
+        public int getStart() {
+            return start;
+        }
+
+        @Override
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * @return the depth of the given column at every locus of this run
+         */
+        public int getDepth(final int column) {
+            return depths[column];
+        }
+
+        /**
+         * @return a copy of the depths of every column
+         */
+        public int[] getDepths() {
+            return depths.clone();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s:%d-%d %s", contig, start, end, Arrays.toString(depths));
+        }
+    }
+
+    private final class RunIterator implements Iterator<CoverageRun> {
+        // if not -1, stop at the end of this contig, and skip runs ending before queryStart
+        private final int queryContig;
+        private final int queryStart;
+        private final int queryEnd;
+
+        private int lastContig = -1;
+        private int lastEnd = 0;
+        private final int[] lastDepths = new int[columnNames.size()];
+        private CoverageRun next;
+
+        private RunIterator(final long filePointer, final int queryContig, final int queryEnd) {
+            this(filePointer, queryContig, 0, queryEnd);
+        }
+
+        private RunIterator(final long filePointer, final int queryContig, final int queryStart, final int queryEnd) {
+            this.queryContig = queryContig;
+            this.queryStart = queryStart;
+            this.queryEnd = queryEnd;
+            try {
+                in.seek(filePointer);
+            } catch (final IOException e) {
+                throw new UserException.CouldNotReadInputFile(path, e);
+            }
+            next = advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public CoverageRun next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            final CoverageRun result = next;
+            next = advance();
+            return result;
+        }
+
+        private CoverageRun advance() {
+            while (true) {
+                final CoverageRun run = readRun();
+                if (run == null) {
+                    return null;
+                }
+                if (queryContig == -1) {
+                    return run;
+                }
+                if (lastContig != queryContig || run.getStart() > queryEnd) {
+                    return null;
+                }
+                if (run.getEnd() >= queryStart) {
+                    return run;
+                }
+            }
+        }
+
+        private CoverageRun readRun() {
+            try {
+                final int tag = readVarInt(true);
+                if (tag == -1) {
+                    return null;
+                }
+                final int contig = tag >>> 1;
+                if ((tag & 1) != 0) {
+                    // the delta encoding was reset at this run
+                    lastEnd = 0;
+                    Arrays.fill(lastDepths, 0);
+                }
+                final int start = lastEnd + 1 + readVarInt(false);
+                final int length = readVarInt(false);
+                final int[] depths = new int[lastDepths.length];
+                for (int c = 0; c < depths.length; c++) {
+                    depths[c] = lastDepths[c] + unzigzag(readVarInt(false));
+                    lastDepths[c] = depths[c];
+                }
+                lastContig = contig;
+                lastEnd = start + length - 1;
+                return new CoverageRun(contigs.get(contig), start, lastEnd, depths);
+            } catch (final IOException e) {
+                throw new UserException.CouldNotReadInputFile(path, e);
+            }
+        }
+
+        private int readVarInt(final boolean allowEndOfFile) throws IOException {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                final int b = in.read();
+                if (b == -1) {
+                    if (allowEndOfFile && shift == 0) {
+                        return -1;
+                    }
+                    throw new EOFException("Truncated binary depth of coverage file " + path);
+                }
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+    }
+
+    private static int unzigzag(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,191 @@
+package org.broadinstitute.hellbender.tools.walkers.coverage;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Writes per-locus depth of coverage in a compact, block-compressed binary format with a coordinate index, as an
+ * alternative to the per-locus text table of {@link CoverageOutputWriter}. Use {@link BinaryCoverageReader} to read it back.
+ *
+ * The data file is a BGZF stream holding a header followed by a sequence of runs. A run is a maximal set of consecutive
+ * loci on one contig whose depths are identical in every column. Each run is written as unsigned variable-length
+ * integers: the contig index (shifted left by one, with the low bit flagging a reset of the delta encoding), the start of the run (as the gap from the end of the previous run when on the same
+ * contig), the run length, and then for every column the zigzag-encoded difference between its depth and the depth
+ * of that column in the previous run.
+ *
+ * Every {@link #INDEX_BIN_SIZE} bases, and at the start of every contig, the delta encoding is reset (so the run is
+ * written with an absolute start and absolute depths) and an index entry holding the contig, start, and virtual file
+ * pointer of the run is recorded. The index, together with the contig names, is written to a separate file with the
+ * {@link #INDEX_EXTENSION} extension when the writer is closed.
+ *
+ * Loci must be added in coordinate order, with all loci of a contig added together.
+ */
+public final class BinaryCoverageWriter implements Closeable {
+    public static final String EXTENSION = ".bdoc";
+    public static final String INDEX_EXTENSION = ".bdi";
+    static final int MAGIC = 0x42444f43; // "BDOC"
+    static final int INDEX_MAGIC = 0x42444949; // "BDII"
+    static final int VERSION = 1;
+    static final int INDEX_BIN_SIZE = 16384;
+
+    private final Path indexPath;
+    private final BlockCompressedOutputStream blockStream;
+    private final DataOutputStream out;
+    private final int numColumns;
+
+    private final Map<String, Integer> contigIndices = new LinkedHashMap<>();
+    private final List<IndexEntry> index = new ArrayList<>();
+
+    // the run being extended, not yet written
+    private int runContig = -1;
+    private int runStart = -1;
+    private int runLength = 0;
+    private final int[] runDepths;
+
+    // state of the delta encoding: the end and depths of the last run written
+    private int lastWrittenContig = -1;
+    private int lastWrittenEnd = 0;
+    private final int[] lastWrittenDepths;
+    private int lastIndexedStart = -1;
+
+    /**
+     * @param path path of the data file; the index is written next to it with {@link #INDEX_EXTENSION} appended
+     * @param columnNames names of the depth columns (e.g. the samples of each partition), in the order in which the
+     *                    depths will be provided
+     */
+    public BinaryCoverageWriter(final Path path, final List<String> columnNames) throws IOException {
+        Utils.nonNull(path);
+        Utils.nonNull(columnNames);
+        this.indexPath = getIndexPath(path);
+        this.numColumns = columnNames.size();
+        this.runDepths = new int[numColumns];
+        this.lastWrittenDepths = new int[numColumns];
+        this.blockStream = new BlockCompressedOutputStream(Files.newOutputStream(path), (Path) null);
+        this.out = new DataOutputStream(blockStream);
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(numColumns);
+        for (final String columnName : columnNames) {
+            out.writeUTF(String.valueOf(columnName));
+        }
+    }
+
+    static Path getIndexPath(final Path path) {
+        final Path fileName = Utils.nonNull(path.getFileName(), "Invalid binary coverage path " + path);
+        return path.resolveSibling(fileName.toString() + INDEX_EXTENSION);
+    }
+
+    /**
+     * Add the depths of a single locus.
+     *
+     * @param contig contig of the locus
+     * @param position 1-based position of the locus, greater than that of the previous locus on the same contig
+     * @param depths depth for each column; copied, so the caller may reuse the array
+     */
+    public void add(final String contig, final int position, final int[] depths) {
+        Utils.validateArg(depths.length == numColumns, "Wrong number of depths");
+        Integer contigIndex = contigIndices.get(contig);
+        if (contigIndex == null) {
+            contigIndex = contigIndices.size();
+            contigIndices.put(contig, contigIndex);
+        } else if (contigIndex != runContig) {
+            throw new GATKException(String.format("Loci must be added in coordinate order, but contig %s was revisited", contig));
+        }
+        if (contigIndex == runContig) {
+            final int runEnd = runStart + runLength - 1;
+            Utils.validateArg(position > runEnd, () -> String.format("Loci must be added in coordinate order, but %s:%d follows %s:%d", contig, position, contig, runEnd));
+            if (position == runEnd + 1 && Arrays.equals(depths, runDepths)) {
+                runLength++;
+                return;
+            }
+        }
+        flushRun();
+        runContig = contigIndex;
+        runStart = position;
+        runLength = 1;
+        System.arraycopy(depths, 0, runDepths, 0, numColumns);
+    }
+
+    private void flushRun() {
+        if (runLength == 0) {
+            return;
+        }
+        try {
+            final boolean reset = runContig != lastWrittenContig || runStart >= lastIndexedStart + INDEX_BIN_SIZE;
+            if (reset) {
+                // reset the delta encoding so that decoding can start at this run
+                index.add(new IndexEntry(runContig, runStart, blockStream.getFilePointer()));
+                lastIndexedStart = runStart;
+                lastWrittenEnd = 0;
+                Arrays.fill(lastWrittenDepths, 0);
+            }
+            writeVarInt((runContig << 1) | (reset ? 1 : 0));
+            writeVarInt(runStart - lastWrittenEnd - 1);
+            writeVarInt(runLength);
+            for (int c = 0; c < numColumns; c++) {
+                writeVarInt(zigzag(runDepths[c] - lastWrittenDepths[c]));
+                lastWrittenDepths[c] = runDepths[c];
+            }
+            lastWrittenContig = runContig;
+            lastWrittenEnd = runStart + runLength - 1;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        runLength = 0;
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int zigzag(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushRun();
+        out.close();
+        try (final DataOutputStream indexOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+            indexOut.writeInt(INDEX_MAGIC);
+            indexOut.writeInt(VERSION);
+            indexOut.writeInt(contigIndices.size());
+            for (final String contig : contigIndices.keySet()) {
+                indexOut.writeUTF(contig);
+            }
+            indexOut.writeInt(index.size());
+            for (final IndexEntry entry : index) {
+                indexOut.writeInt(entry.contigIndex);
+                indexOut.writeInt(entry.start);
+                indexOut.writeLong(entry.filePointer);
+            }
+        }
+    }
+
+    static final class IndexEntry {
+        final int contigIndex;
+        final int start;
+        final long filePointer;
+
+        IndexEntry(final int contigIndex, final int start, final long filePointer) {
+            this.contigIndex = contigIndex;
+            this.start = start;
+            this.filePointer = filePointer;
+        }
+    }
+}
@@ -5,8 +5,8 @@ import com.opencsv.CSVWriter;
 import htsjdk.samtools.SAMFileHeader;
 import org.broadinstitute.hellbender.engine.AlignmentContext;
 import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.BaseUtils;
-import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.codecs.refseq.RefSeqFeature;
@@ -28,8 +28,9 @@ import java.util.*;
  *
  *  1. writePerLocusDepthSummary() - This should be called over every locus and is responsible for producing the locus
  *                                   coverage output table summarizing the coverage (and possibly base counts)
- *                                   for every partition type x relevant samples. This takes as input the output from
- *                                   {@link CoverageUtils#getBaseCountsByPartition}
+ *                                   for every partition type x relevant samples, or alternatively the binary
+ *                                   per-locus depth file written by {@link BinaryCoverageWriter}. This takes as input the buffer filled by
+ *                                   {@link CoverageUtils#fillBaseCountsByPartition}
  *
  *  2a. writePerIntervalDepthInformation() - This should be called once per traversal interval once it is finished and takes
  *                                        as input a {@link DepthOfCoveragePartitionedDataStore} object corresponding to the coverage
@@ -61,6 +62,11 @@ public class CoverageOutputWriter implements Closeable {
     private Map<DoCOutputType, SimpleCSVWriterWrapperWithHeader> outputs;
     private DEPTH_OF_COVERAGE_OUTPUT_FORMAT outputFormat;
     private boolean omitDepthOutput;
+    private final boolean binaryDepthOutput;
+    private final String outputBaseName;
+    private BinaryCoverageWriter binaryDepthWriter;
+    // per-locus depths for every column of the binary output, reused across loci
+    private int[] binaryDepths;
     private List<Integer> coverageThresholds;
     private final DecimalFormat DOUBLE_FORMAT_2PLACES = new DecimalFormat("0.00");
     private final DecimalFormat DOUBLE_FORMAT_1PLACE = new DecimalFormat("0.0");
@@ -87,6 +93,8 @@ public class CoverageOutputWriter implements Closeable {
      * @param includeGeneOutputPerSample whether to produce an output sink for gene partition data
      * @param printBaseCounts            whether to summarize per-nucleotide counts at each locus
      * @param omitDepthOutput            if true will not generate locus output files
+     * @param binaryDepthOutput          if true the locus output is written in the indexed binary format of {@link BinaryCoverageWriter}
+     *                                   rather than as a table
      * @param omitIntervals              if true then will generate "_interval_summary" output files
      * @param omitSampleSummary          if true then will not generate "_statistics" and "_summary" output sinks
      * @param omitLocusTable             if true will not generate "_cumulative_coverage_counts" or "_cumulative_coverage_proportions"
@@ -99,6 +107,7 @@ public class CoverageOutputWriter implements Closeable {
                                 final boolean includeGeneOutputPerSample,
                                 final boolean printBaseCounts,
                                 final boolean omitDepthOutput,
+                                final boolean binaryDepthOutput,
                                 final boolean omitIntervals,
                                 final boolean omitSampleSummary,
                                 final boolean omitLocusTable,
@@ -112,6 +121,8 @@ public class CoverageOutputWriter implements Closeable {
         this.omitIntervals = omitIntervals;
         this.printBaseCounts = printBaseCounts;
         this.omitDepthOutput = omitDepthOutput;
+        this.binaryDepthOutput = binaryDepthOutput;
+        this.outputBaseName = outputBaseName;
         this.coverageThresholds = coverageThresholds;
         this.summaryHeaderSampleSuffixes = getSampleSuffixes(coverageThresholds);
 
@@ -123,7 +134,7 @@ public class CoverageOutputWriter implements Closeable {
         }
 
         outputs = new HashMap<>();
-        if (!omitDepthOutput) {
+        if (!omitDepthOutput && !binaryDepthOutput) {
             // Create a depth summary output sink
             DoCOutputType depthSummaryByLocus = new DoCOutputType(null, DoCOutputType.Aggregation.locus, DoCOutputType.FileType.summary);
             outputs.put(depthSummaryByLocus, getOutputStream(outputBaseName, depthSummaryByLocus, separator));
@@ -194,7 +205,11 @@ public class CoverageOutputWriter implements Closeable {
      */
     public void writeCoverageOutputHeaders(final Map<DoCOutputType.Partition, List<String>> sortedSamplesByPartition) {
         if (!omitDepthOutput) { // print header
-            writePerLocusDepthOutputSummaryHeader(sortedSamplesByPartition);
+            if (binaryDepthOutput) {
+                createBinaryDepthWriter(sortedSamplesByPartition);
+            } else {
+                writePerLocusDepthOutputSummaryHeader(sortedSamplesByPartition);
+            }
         }
 
         // write
@@ -235,6 +250,24 @@ public class CoverageOutputWriter implements Closeable {
         out.addHeaderLine(columns);
     }
 
+    /**
+     * Create the binary per-locus depth writer, with one depth column for each sample of each partition in the same
+     * order as the columns of the text output.
+     */
+    private void createBinaryDepthWriter(final Map<DoCOutputType.Partition, List<String>> identifiersByType) {
+        final List<String> columns = new ArrayList<>();
+        for (DoCOutputType.Partition type : partitions) {
+            columns.addAll(identifiersByType.get(type));
+        }
+        final String path = new DoCOutputType(null, DoCOutputType.Aggregation.locus, DoCOutputType.FileType.binary).getFilePath(outputBaseName);
+        try {
+            binaryDepthWriter = new BinaryCoverageWriter(IOUtils.getPath(path), columns);
+        } catch (IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(path, "Couldn't create binary depth output", e);
+        }
+        binaryDepths = new int[columns.size()];
+    }
+
     private SimpleCSVWriterWrapperWithHeader getCorrectOutputWriter(DoCOutputType.Partition partition, DoCOutputType.Aggregation aggregation, DoCOutputType.FileType fileType) {
         DoCOutputType outputType = new DoCOutputType(partition, aggregation, fileType);
         if (!outputs.containsKey(outputType)) {
@@ -258,28 +291,36 @@ public class CoverageOutputWriter implements Closeable {
      * the locus site are present in the first lines of the locusSummary output.
      *
      * @param locus                The site corresponding to the data that will be written out
-     * @param countsBySampleByType A map of partition to sample and finally to 4 element array of bases. This output is
-     *                             expected to be produced by {@link CoverageUtils#getBaseCountsByPartition(AlignmentContext, byte, byte, CoverageUtils.CountPileupType, Collection, SAMFileHeader)}
-     * @param identifiersByType    A global map of sorted samples in each partition, to be used for ordering.
+     * @param countsBySampleByType Base counts at the locus for each sample of each partition. This buffer is
+     *                             expected to be filled by {@link CoverageUtils#fillBaseCountsByPartition(AlignmentContext, byte, byte, CoverageUtils.CountPileupType, SAMFileHeader, PartitionedLocusCounts)}
+     * @param identifiersByType    A global map of sorted samples in each partition, to be used for ordering. This must be
+     *                             the same map that was used to write the header and to create the counts buffer.
      *                             NOTE: this map should remain unchanged between every call of this method or correct output is not guarinteed.
      * @param includeDeletions     Whether or not to include deletions in the summary line
      */
-    public void writePerLocusDepthSummary(final SimpleInterval locus, final Map<DoCOutputType.Partition, Map<String, int[]>> countsBySampleByType,
+    public void writePerLocusDepthSummary(final SimpleInterval locus, final PartitionedLocusCounts countsBySampleByType,
                                           final Map<DoCOutputType.Partition, List<String>> identifiersByType, final boolean includeDeletions) {
+        if (binaryDepthOutput) {
+            writePerLocusBinaryDepths(locus, countsBySampleByType);
+            return;
+        }
 
         SimpleCSVWriterWrapperWithHeader lineWriter = getCorrectOutputWriter(null, DoCOutputType.Aggregation.locus, DoCOutputType.FileType.summary);
         SimpleCSVWriterWrapperWithHeader.SimpleCSVWriterLineBuilder lineBuilder = lineWriter.getNewLineBuilder();
 
-        // get the depths per sample and buildAndWriteLine up the output string while tabulating total and average coverage
+        // get the depths per sample and buildAndWriteLine up the output string while tabulating total and average coverage.
+        // The per-sample columns follow the locus, total depth, and average depth columns, in the same order as they were
+        // added by writePerLocusDepthOutputSummaryHeader(), so they are set by position rather than looked up by name
+        int column = 2 + partitions.size();
         int tDepth = 0;
         boolean depthCounted = false;
         for (DoCOutputType.Partition type : partitions) {
-            Map<String, int[]> countsByID = countsBySampleByType.get(type);
-            for (String sample : identifiersByType.get(type)) {
-                long dp = (countsByID != null && countsByID.keySet().contains(sample)) ? MathUtils.sum(countsByID.get(sample)) : 0;
-                lineBuilder.setColumn("Depth_for_" + sample, Long.toString(dp));
+            final int[][] countsByID = countsBySampleByType.getCounts(type);
+            for (int sampleIndex = 0; sampleIndex < countsByID.length; sampleIndex++) {
+                final int dp = PartitionedLocusCounts.getDepth(countsByID[sampleIndex], true);
+                lineBuilder.setColumn(column++, Integer.toString(dp));
                 if (printBaseCounts) {
-                    lineBuilder.setColumn(sample + "_base_counts", getBaseCountsString(countsByID != null ? countsByID.get(sample) : null, includeDeletions));
+                    lineBuilder.setColumn(column++, getBaseCountsString(countsByID[sampleIndex], includeDeletions));
                 }
                 if (!depthCounted) {
                     tDepth += dp;
@@ -296,6 +337,17 @@ public class CoverageOutputWriter implements Closeable {
         lineBuilder.buildAndWriteLine();
     }
 
+    // Writes the depth of every column at the given locus to the binary output
+    private void writePerLocusBinaryDepths(final SimpleInterval locus, final PartitionedLocusCounts countsBySampleByType) {
+        int column = 0;
+        for (DoCOutputType.Partition type : partitions) {
+            for (final int[] counts : countsBySampleByType.getCounts(type)) {
+                binaryDepths[column++] = PartitionedLocusCounts.getDepth(counts, true);
+            }
+        }
+        binaryDepthWriter.add(locus.getContig(), locus.getStart(), binaryDepths);
+    }
+
     /**
      * Method that should be called once per-partition at the end of each coverage interval. This method is responsible
      * for extending the per-interval depth summary information for each sample.
@@ -402,7 +454,7 @@ public class CoverageOutputWriter implements Closeable {
     private void outputPerLocusCumulativeSummaryAndStatistics(SimpleCSVWriterWrapperWithHeader countsOutput, SimpleCSVWriterWrapperWithHeader proportionsOutput,
                                                               DepthOfCoverageStats stats, DoCOutputType.Partition partitionType, List<String> sortedSampleList) {
         int[] endpoints = stats.getEndpoints();
-        int samples = stats.getHistograms().size();
+        int samples = stats.getNumberOfSamples();
 
         long[][] baseCoverageCumDist = stats.getLocusCounts();
 
@@ -484,18 +536,20 @@ public class CoverageOutputWriter implements Closeable {
 
         // each sample is in the order +[sample_total_cvg, sample_mean_cvg, sample_granular_Q1, sample_granular_median, sample_granular_Q3] so we set colums accordingly
         for (String s : sortedSamples) {
+            final int sampleIndex = stats.getSampleIndex(s);
+            final long[] histogram = stats.getHistogram(sampleIndex);
             int sIdx = outputWriter.getIndexForColumn(s + "_total_cvg");
-            int median = CoverageUtils.getQuantile(stats.getHistograms().get(s), 0.5);
-            int q1 = CoverageUtils.getQuantile(stats.getHistograms().get(s), 0.25);
-            int q3 = CoverageUtils.getQuantile(stats.getHistograms().get(s), 0.75);
-            lineBuilder.setColumn(sIdx, Long.toString(stats.getTotals().get(s)))
-                    .setColumn(sIdx + 1, DOUBLE_FORMAT_2PLACES.format(stats.getMeans().get(s)))
+            int median = CoverageUtils.getQuantile(histogram, 0.5);
+            int q1 = CoverageUtils.getQuantile(histogram, 0.25);
+            int q3 = CoverageUtils.getQuantile(histogram, 0.75);
+            lineBuilder.setColumn(sIdx, Long.toString(stats.getTotal(sampleIndex)))
+                    .setColumn(sIdx + 1, DOUBLE_FORMAT_2PLACES.format(stats.getMean(sampleIndex)))
                     .setColumn(sIdx + 2, formatBin(bins, q1))
                     .setColumn(sIdx + 3, formatBin(bins, median))
                     .setColumn(sIdx + 4, formatBin(bins, q3));
 
             for (int thresh : coverageThresholds) {
-                lineBuilder.setColumn(s + "_%_above_" + thresh, DOUBLE_FORMAT_1PLACE.format(CoverageUtils.getPctBasesAbove(stats.getHistograms().get(s), stats.value2bin(thresh))));
+                lineBuilder.setColumn(s + "_%_above_" + thresh, DOUBLE_FORMAT_1PLACE.format(CoverageUtils.getPctBasesAbove(histogram, stats.value2bin(thresh))));
             }
         }
         lineBuilder.buildAndWriteLine();
@@ -525,11 +579,10 @@ public class CoverageOutputWriter implements Closeable {
         output.addHeaderLine(headerColumns);
 
         // Print out the histogram for every line
-        Map<String, long[]> histograms = stats.getHistograms();
         for (String sample : sortedSamples) {
             SimpleCSVWriterWrapperWithHeader.SimpleCSVWriterLineBuilder lineBuilder = output.getNewLineBuilder();
             lineBuilder.setColumn("Source_of_reads", "sample_" + sample);
-            long[] histForSample = histograms.get(sample);
+            long[] histForSample = stats.getHistogram(stats.getSampleIndex(sample));
             for (int i = 0; i < histForSample.length; i++) {
                 lineBuilder.setColumn(i + 1, Long.toString(histForSample[i])); // +1 on the index here because the histogram starts at index 1
             }
@@ -550,16 +603,14 @@ public class CoverageOutputWriter implements Closeable {
         }
         output.addHeaderLine(headerLines);
 
-        Map<String, long[]> histograms = stats.getHistograms();
-        Map<String, Double> means = stats.getMeans();
-        Map<String, Long> totals = stats.getTotals();
         int[] leftEnds = stats.getEndpoints();
 
         // Write out a line for each sample
         for (String sample : sortedSamples) {
             SimpleCSVWriterWrapperWithHeader.SimpleCSVWriterLineBuilder lineBuilder = output.getNewLineBuilder();
 
-            long[] histogram = histograms.get(sample);
+            final int sampleIndex = stats.getSampleIndex(sample);
+            long[] histogram = stats.getHistogram(sampleIndex);
             int median = CoverageUtils.getQuantile(histogram, 0.5);
             int q1 = CoverageUtils.getQuantile(histogram, 0.25);
             int q3 = CoverageUtils.getQuantile(histogram, 0.75);
@@ -569,8 +620,8 @@ public class CoverageOutputWriter implements Closeable {
             q3 = q3 == histogram.length - 1 ? histogram.length - 2 : q3;
 
             lineBuilder.setColumn(0, sample)
-                    .setColumn(1, Long.toString(totals.get(sample)))
-                    .setColumn(2, DOUBLE_FORMAT_2PLACES.format(means.get(sample)))
+                    .setColumn(1, Long.toString(stats.getTotal(sampleIndex)))
+                    .setColumn(2, DOUBLE_FORMAT_2PLACES.format(stats.getMean(sampleIndex)))
                     .setColumn(3, Integer.toString(leftEnds[q3]))
                     .setColumn(4, Integer.toString(leftEnds[median]))
                     .setColumn(5, Integer.toString(leftEnds[q1]));
@@ -644,10 +695,7 @@ public class CoverageOutputWriter implements Closeable {
      * @param includeDeletions whether to include "D:##" in the output string
      * @return writer string for base counts
      */
-    private String getBaseCountsString(int[] counts, boolean includeDeletions) {
-        if (counts == null) {
-            counts = new int[6];
-        }
+    private String getBaseCountsString(final int[] counts, final boolean includeDeletions) {
         StringBuilder s = new StringBuilder();
         int nbases = 0;
         for (byte b : BaseUtils.BASES_EXTENDED) {
@@ -671,6 +719,9 @@ public class CoverageOutputWriter implements Closeable {
             for (SimpleCSVWriterWrapperWithHeader stream : outputs.values()) {
                 stream.close();
             }
+            if (binaryDepthWriter != null) {
+                binaryDepthWriter.close();
+            }
         } catch (IOException e) {
             throw new GATKException("Error closing output files:", e);
         }
@@ -67,73 +67,23 @@ class CoverageUtils {
     }
 
     /**
-     * Returns the counts of bases from reads with maxMapQ >= MAPQ >= minMapQ and maxBaseQ >= base quality >= minBaseQ in the context
-     * as an array of ints, indexed by the index fields of BaseUtils. These counts are computed seperately for each combination of
-     * {@link DoCOutputType.Partition} and then by sampleID.
+     * Fills the provided buffer with the counts of bases from reads with maxBaseQ >= base quality >= minBaseQ in the context,
+     * indexed by the index fields of BaseUtils. These counts are computed separately for each tracked
+     * {@link DoCOutputType.Partition} and then by identifier within that partition.
+     *
+     * NOTE: this currently doesn't support counts by fragments as was the case in gatk3
      *
      * @param context Alignment context to compute base counts over
      * @param minBaseQ minimum base quality for read to be counted towards depth
      * @param maxBaseQ maximum base quality for read to be counted towards depth
      * @param countType flag for controlling whether to count fragments or independent reads (currently only COUNT_READS is supported)
-     * @param types partitions over which to copy count information across
      * @param header header to collect read group associations from
-     * @return
-     */
-    public static Map<DoCOutputType.Partition,Map<String,int[]>>
-                    getBaseCountsByPartition(final AlignmentContext context, final byte minBaseQ, final byte maxBaseQ,
-                                             final CountPileupType countType, final Collection<DoCOutputType.Partition> types, final SAMFileHeader header) {
-
-        final Map<DoCOutputType.Partition,Map<String,int[]>> countsByIDByType = new HashMap<>();
-        final Map<SAMReadGroupRecord,int[]> countsByRG = getBaseCountsByReadGroup(context, minBaseQ, maxBaseQ, countType, header);
-        for (DoCOutputType.Partition t : types ) {
-            // iterate through the read group counts and buildAndWriteLine the type associations
-            for ( Map.Entry<SAMReadGroupRecord, int[]> readGroupCountEntry : countsByRG.entrySet() ) {
-                String typeID = getTypeID(readGroupCountEntry.getKey(), t);
-
-                if ( ! countsByIDByType.keySet().contains(t) ) {
-                    countsByIDByType.put(t, new HashMap<>());
-                }
-
-                if ( ! countsByIDByType.get(t).keySet().contains(typeID) ) {
-                    countsByIDByType.get(t).put(typeID, readGroupCountEntry.getValue().clone());
-                } else {
-                    addCounts(countsByIDByType.get(t).get(typeID), readGroupCountEntry.getValue());
-                }
-            }
-        }
-
-
-        return countsByIDByType;
-    }
-
-    private static void addCounts(int[] updateMe, int[] leaveMeAlone ) {
-        for ( int index = 0; index < leaveMeAlone.length; index++ ) {
-            updateMe[index] += leaveMeAlone[index];
-        }
-    }
-
-    /**
-     * Takes an AlignmentContext object and extracts all the reads that pass the provided filters, and then returns a
-     * count breakdown for each base (plus D and N bases) present at the site.
-     *
-     * NOTE: this currently doesn't support counts by fragments as was the case in gatk3
+     * @param counts buffer to fill; it is cleared first, and so only holds the counts for this context afterwards
      */
-    private static Map<SAMReadGroupRecord,int[]> getBaseCountsByReadGroup(final AlignmentContext context, final byte minBaseQ, final byte maxBaseQ, final CountPileupType countType, final SAMFileHeader header) {
-        Map<SAMReadGroupRecord, int[]> countsByRG = new HashMap<>();
-
-        Map<String, int[]> countsByRGName = new HashMap<>();
-        Map<String, SAMReadGroupRecord> RGByName = new HashMap<>();
-
-        List<PileupElement> countPileup = new ArrayList<>(context.getBasePileup().size());
-
+    public static void fillBaseCountsByPartition(final AlignmentContext context, final byte minBaseQ, final byte maxBaseQ,
+                                                 final CountPileupType countType, final SAMFileHeader header, final PartitionedLocusCounts counts) {
         switch (countType) {
-
             case COUNT_READS:
-                for (PileupElement read : context.getBasePileup()) {
-                    if (elementWithinQualRange(read, minBaseQ, maxBaseQ)) {
-                        countPileup.add(read);
-                    }
-                }
                 break;
 
             // TODO see reconcile FragmentUtils.create() and its various idiosyncrasies to re-enable this feature see https://github.com/broadinstitute/gatk/issues/6491
@@ -147,27 +97,23 @@ class CoverageUtils {
                 throw new UserException("Must use valid CountPileupType");
         }
 
-        for (PileupElement e : countPileup) {
-            SAMReadGroupRecord readGroup = ReadUtils.getSAMReadGroupRecord(e.getRead(), header);
-            Utils.nonNull(readGroup, () -> String.format("Read %s was missing read group information", e.getRead()));
-
-            // uniqueReadGroupID is unique across the library, read group ID, and the sample
-            String uniqueReadGroupId = readGroup.getSample() + "_" + readGroup.getReadGroupId() + "_" + readGroup.getLibrary() + "_" + readGroup.getPlatformUnit();
-            int[] counts = countsByRGName.get(uniqueReadGroupId);
-            if (counts == null) {
-                counts = new int[6];
-                countsByRGName.put(uniqueReadGroupId, counts);
-                RGByName.put(uniqueReadGroupId, readGroup);
+        counts.clear();
+        // reads from the same read group tend to be adjacent in the pileup, so cache the last lookup
+        String lastReadGroupId = null;
+        int[] identifierIndices = null;
+        for (final PileupElement e : context.getBasePileup()) {
+            if (!elementWithinQualRange(e, minBaseQ, maxBaseQ)) {
+                continue;
             }
-
-            updateCounts(counts, e);
-        }
-
-        for (String readGroupId : RGByName.keySet()) {
-            countsByRG.put(RGByName.get(readGroupId), countsByRGName.get(readGroupId));
+            final String readGroupId = e.getRead().getReadGroup();
+            if (identifierIndices == null || readGroupId == null || !readGroupId.equals(lastReadGroupId)) {
+                final SAMReadGroupRecord readGroup = ReadUtils.getSAMReadGroupRecord(e.getRead(), header);
+                Utils.nonNull(readGroup, () -> String.format("Read %s was missing read group information", e.getRead()));
+                identifierIndices = counts.getIdentifierIndices(readGroup);
+                lastReadGroupId = readGroupId;
+            }
+            counts.add(identifierIndices, getBaseIndex(e));
         }
-
-        return countsByRG;
     }
 
     // Applies the provided mapping and base quality filters to the provided read
@@ -175,17 +121,17 @@ class CoverageUtils {
         return ( e.getQual() >= minBaseQ && e.getQual() <= maxBaseQ || e.isDeletion() );
     }
 
-    private static void updateCounts(int[] counts, PileupElement e) {
+    private static int getBaseIndex(final PileupElement e) {
         if ( e.isDeletion() ) {
-            counts[BaseUtils.Base.D.ordinal()]++;
+            return BaseUtils.Base.D.ordinal();
         } else if ( BaseUtils.basesAreEqual(BaseUtils.Base.N.base, e.getBase()) ) {
-            counts[BaseUtils.Base.N.ordinal()]++;
+            return BaseUtils.Base.N.ordinal();
         } else {
-            try {
-                counts[BaseUtils.simpleBaseToBaseIndex(e.getBase())]++;
-            } catch (ArrayIndexOutOfBoundsException exc) {
+            final int index = BaseUtils.simpleBaseToBaseIndex(e.getBase());
+            if ( index == -1 ) {
                 throw new UserException("Expected a simple base, but actually received"+(char)e.getBase());
             }
+            return index;
         }
     }
 
@@ -243,8 +189,8 @@ class CoverageUtils {
         int[] cutoffs = stats.getEndpoints();
         int[] countsOfMediansAboveCutoffs = new int[cutoffs.length+1]; // 0 bin to catch everything
 
-        for ( String s : stats.getAllSamples() ) {
-            int medianBin = getQuantile(stats.getHistograms().get(s),0.5);
+        for ( int s = 0; s < stats.getNumberOfSamples(); s++ ) {
+            int medianBin = getQuantile(stats.getHistogram(s),0.5);
             for ( int i = 0; i <= medianBin; i ++) {
                 countsOfMediansAboveCutoffs[i]++;
             }
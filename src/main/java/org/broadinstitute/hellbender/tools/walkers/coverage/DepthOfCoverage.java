@@ -85,6 +85,8 @@ import java.util.*;
 @BetaFeature
 @DocumentedFeature
 public class DepthOfCoverage extends LocusWalkerByInterval {
+    public static final String BINARY_DEPTH_OUTPUT_LONG_NAME = "binary-depth-output";
+
     private CoverageOutputWriter writer;
     // Map used to store running aggregate counts for intervals that are being recorded by DepthOfCoverage
     private Map<Locatable, DepthOfCoveragePartitionedDataStore> activeCoveragePartitioner = new HashMap<>();
@@ -97,6 +99,8 @@ public class DepthOfCoverage extends LocusWalkerByInterval {
     private DepthOfCoveragePartitionedDataStore coverageTotalsForEntireTraversal;
     // List of all of the samples to be output split by the partition type
     private Map<DoCOutputType.Partition, List<String>> globalIdentifierMap;
+    // Buffer holding the base counts at the current locus, reused across loci
+    private PartitionedLocusCounts countsByPartition;
 
     /**
      * Base file name about which to create the coverage information
@@ -139,6 +143,17 @@ public class DepthOfCoverage extends LocusWalkerByInterval {
      */
     @Argument(fullName = "omit-depth-output-at-each-base", doc = "Do not output depth of coverage at each base", optional = true)
     private boolean omitDepthOutput = false;
+    /**
+     * Write the depth of coverage at each base to a block-compressed binary file (with the .bdoc extension) and its
+     * index (.bdoc.bdi) instead of to the per-locus text table. Consecutive bases with the same depths are run-length
+     * encoded, which is much smaller and faster to write than the text table for whole genomes, and the index allows
+     * coverage over arbitrary intervals to be queried with {@link BinaryCoverageReader}. Base counts cannot be written
+     * in this format.
+     */
+    @Advanced
+    @Argument(fullName = BINARY_DEPTH_OUTPUT_LONG_NAME, doc = "Write depth of coverage at each base in an indexed binary format instead of as a table", optional = true,
+            mutex = {"print-base-counts", "omit-depth-output-at-each-base"})
+    private boolean binaryDepthOutput = false;
     /**
      * This option simply disables writing separate files for per-sample summary statistics (total, mean, median, quartile coverage per sample). These statistics are still calculated internally, so enabling this option will not improve runtime.
      */
@@ -264,6 +279,7 @@ public class DepthOfCoverage extends LocusWalkerByInterval {
                     !refSeqGeneListFiles.isEmpty(),
                     printBaseCounts,
                     omitDepthOutput,
+                    binaryDepthOutput,
                     omitIntervals,
                     omitSampleSummary,
                     omitLocusTable,
@@ -278,6 +294,7 @@ public class DepthOfCoverage extends LocusWalkerByInterval {
         ReadUtils.getSamplesFromHeader(getHeaderForReads());
 
         coverageTotalsForEntireTraversal = createCoveragePartitioner();
+        countsByPartition = new PartitionedLocusCounts(partitionTypes, globalIdentifierMap);
     }
 
     /**
@@ -295,7 +312,7 @@ public class DepthOfCoverage extends LocusWalkerByInterval {
     public void apply(AlignmentContext alignmentContext, ReferenceContext referenceContext, FeatureContext featureContext, Set<Locatable> activeIntervals) {
         // TODO evaluate consequences of supporting nonexistant references
         if (includeRefNBases || (hasReference() && BaseUtils.isRegularBase(referenceContext.getBase()))) {
-            final Map<DoCOutputType.Partition, Map<String, int[]>> countsByPartition = CoverageUtils.getBaseCountsByPartition(alignmentContext, minBaseQuality, maxBaseQuality, countType, partitionTypes, getHeaderForReads());
+            CoverageUtils.fillBaseCountsByPartition(alignmentContext, minBaseQuality, maxBaseQuality, countType, getHeaderForReads(), countsByPartition);
 
             if (!omitDepthOutput) {
                 writer.writePerLocusDepthSummary(referenceContext.getInterval(), countsByPartition, globalIdentifierMap, includeDeletions);
@@ -350,7 +367,7 @@ public class DepthOfCoverage extends LocusWalkerByInterval {
 
                     // Create a new table if necessary
                     if (!perIntervalStatisticsAggregationByPartitioning.containsKey(p)) {
-                        perIntervalStatisticsAggregationByPartitioning.put(p, new int[coverageByAggregationPartitionType.getHistograms().size()][coverageByAggregationPartitionType.getEndpoints().length + 1]);
+                        perIntervalStatisticsAggregationByPartitioning.put(p, new int[coverageByAggregationPartitionType.getNumberOfSamples()][coverageByAggregationPartitionType.getEndpoints().length + 1]);
                     }
                     // Update the target table to reflect the updated coverage information for this target
                     CoverageUtils.updateTargetTable(perIntervalStatisticsAggregationByPartitioning.get(p), coverageByAggregationPartitionType);
@@ -367,7 +384,7 @@ public class DepthOfCoverage extends LocusWalkerByInterval {
 
                 // Create a new table if necessary
                 if (!perGeneStatisticsAggregationByPartitioning.containsKey(DoCOutputType.Partition.sample)) {
-                    perGeneStatisticsAggregationByPartitioning.put(DoCOutputType.Partition.sample, new int[coverageByAggregationPartitionType.getHistograms().size()][coverageByAggregationPartitionType.getEndpoints().length + 1]);
+                    perGeneStatisticsAggregationByPartitioning.put(DoCOutputType.Partition.sample, new int[coverageByAggregationPartitionType.getNumberOfSamples()][coverageByAggregationPartitionType.getEndpoints().length + 1]);
                 }
 
                 // Update the target table to reflect the updated coverage information for this target
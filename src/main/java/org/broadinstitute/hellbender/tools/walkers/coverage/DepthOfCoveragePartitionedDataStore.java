@@ -1,9 +1,9 @@
 package org.broadinstitute.hellbender.tools.walkers.coverage;
 
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
 /**
  * A class helper for storing running intervalPartition data.
@@ -17,7 +17,9 @@ import java.util.TreeMap;
  * be called on this object once for each locus this object corresponds to.
  */
 public class DepthOfCoveragePartitionedDataStore {
-    private Map<DoCOutputType.Partition,DepthOfCoverageStats> coverageProfiles;
+    private final EnumSet<DoCOutputType.Partition> partitions;
+    // indexed by partition ordinal, null for partitions that are not tracked
+    private final DepthOfCoverageStats[] coverageProfiles = new DepthOfCoverageStats[DoCOutputType.Partition.values().length];
 
     /**
      * @param typesToUse Partitions by which to subdivide the coverage counts
@@ -27,35 +29,36 @@ public class DepthOfCoveragePartitionedDataStore {
      */
     public DepthOfCoveragePartitionedDataStore(final Collection<DoCOutputType.Partition> typesToUse, final int start, final int stop, final int nBins,
                                                final boolean includeDeletions, final boolean omitLocusTable, final Map<DoCOutputType.Partition, List<String>> globalIdentifierMap) {
-        coverageProfiles = new TreeMap<>();
-        for ( DoCOutputType.Partition type : typesToUse ) {
-            coverageProfiles.put(type,new DepthOfCoverageStats(CoverageUtils.calculateCoverageHistogramBinEndpoints(start,stop,nBins), includeDeletions, omitLocusTable));
+        partitions = typesToUse.isEmpty() ? EnumSet.noneOf(DoCOutputType.Partition.class) : EnumSet.copyOf(typesToUse);
+        for ( DoCOutputType.Partition type : partitions ) {
+            coverageProfiles[type.ordinal()] = new DepthOfCoverageStats(CoverageUtils.calculateCoverageHistogramBinEndpoints(start,stop,nBins), includeDeletions, omitLocusTable);
         }
         initializeStats(omitLocusTable, globalIdentifierMap);
     }
 
     // Calls out to the underlying DepthOfCoverageStats objects to ensure that they had all of their initilization steps called on them
     public void initializeStats(final boolean omitLocusTable, final Map<DoCOutputType.Partition, List<String>> globalIdentifierMap) {
-        for ( DoCOutputType.Partition t : coverageProfiles.keySet() ) {
-            // Make sure the identifiers have been added to the underlying DepthOfCoverageStats object
+        for ( DoCOutputType.Partition t : partitions ) {
+            // Make sure the identifiers have been added to the underlying DepthOfCoverageStats object, in the same order
+            // as they are indexed in PartitionedLocusCounts
             for ( String sample : globalIdentifierMap.get(t) ) {
-                coverageProfiles.get(t).initializeSample(sample);
+                coverageProfiles[t.ordinal()].initializeSample(sample);
             }
             if ( ! omitLocusTable ) {
-                coverageProfiles.get(t).initializeLocusCounts();
+                coverageProfiles[t.ordinal()].initializeLocusCounts();
             }
         }
     }
 
     // Adds each of the DepthOfCoverageStats objects information summarizing a new locus
-    public void addLocusData(final Map<DoCOutputType.Partition, Map<String,int[]>> countsByIdentifierByType) {
-        for ( DoCOutputType.Partition t : coverageProfiles.keySet() ) {
-            coverageProfiles.get(t).update(countsByIdentifierByType.get(t));
+    public void addLocusData(final PartitionedLocusCounts countsByIdentifierByType) {
+        for ( DoCOutputType.Partition t : partitions ) {
+            coverageProfiles[t.ordinal()].update(countsByIdentifierByType.getCounts(t));
         }
     }
 
     // Returns the underlying DepthOfCoverageStats object for a given partition
     public DepthOfCoverageStats getCoverageByAggregationType( final DoCOutputType.Partition t) {
-        return coverageProfiles.get(t);
+        return coverageProfiles[t.ordinal()];
     }
 }
@@ -1,11 +1,14 @@
 package org.broadinstitute.hellbender.tools.walkers.coverage;
 
-import org.broadinstitute.hellbender.utils.BaseUtils;
+import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.*;
 
 /**
  * A class for storing summarized coverage statistics for DepthOfCoverage.
+ *
+ * Per-sample data is held in primitive arrays indexed by sample index, which is the order in which the samples were
+ * added with {@link #initializeSample(String)}.
  */
 public class DepthOfCoverageStats {
 
@@ -13,8 +16,10 @@ public class DepthOfCoverageStats {
     // STANDARD DATA
     ////////////////////////////////////////////////////////////////////////////////////
 
-    private Map<String,long[]> granularHistogramBySample; // holds the counts per each bin
-    private Map<String,Long> totalCoverages; // holds total coverage per sample
+    private final List<String> samples; // sample names, by sample index
+    private final Map<String,Integer> sampleIndices; // sample name -> sample index
+    private final List<long[]> granularHistograms; // holds the counts per each bin, by sample index
+    private long[] totalCoverages; // holds total coverage, by sample index
     private int[] binLeftEndpoints; // describes the left endpoint for each bin
     private long[][] locusCoverageCounts; // holds counts of number of bases with >=X samples at >=Y coverage
     private boolean tabulateLocusCounts = false;
@@ -41,8 +46,10 @@ public class DepthOfCoverageStats {
      */
     public DepthOfCoverageStats(int[] leftEndpoints, boolean includeDeletions, boolean dontComputeLocusTable) {
         this.binLeftEndpoints = leftEndpoints;
-        this.granularHistogramBySample = new HashMap<>();
-        this.totalCoverages = new HashMap<>();
+        this.samples = new ArrayList<>();
+        this.sampleIndices = new HashMap<>();
+        this.granularHistograms = new ArrayList<>();
+        this.totalCoverages = new long[0];
         this.nLoci = 0;
         this.totalLocusDepth = 0;
         this.totalDepthOfCoverage = 0;
@@ -52,20 +59,22 @@ public class DepthOfCoverageStats {
         }
     }
 
-    // Adds to granularHistogramBySample a per-locus histogram for the given sample to track
+    // Adds a per-locus histogram for the given sample to track, at the next sample index
     void initializeSample(String sample) {
-        if ( granularHistogramBySample.containsKey(sample) ) {
+        if ( sampleIndices.containsKey(sample) ) {
             return;
         }
+        sampleIndices.put(sample, samples.size());
+        samples.add(sample);
         // Note: we add 1 here because bin left endpoints has values for ever bin except for the first one (which covers everything below the defined lower bound)
-        granularHistogramBySample.put(sample, new long[this.binLeftEndpoints.length+1]);
-        totalCoverages.put(sample,0L);
+        granularHistograms.add(new long[this.binLeftEndpoints.length+1]);
+        totalCoverages = Arrays.copyOf(totalCoverages, samples.size());
     }
 
     // Create the per-locus coverage counting arrays and histogram
     void initializeLocusCounts() {
         // Note: we add 1 here because bin left endpoints has values for ever bin except for the first one (which covers everything below the defined lower bound)
-        locusCoverageCounts = new long[granularHistogramBySample.size()][binLeftEndpoints.length+1];
+        locusCoverageCounts = new long[samples.size()][binLeftEndpoints.length+1];
         locusHistogram = new int[binLeftEndpoints.length+1];
         tabulateLocusCounts = true;
     }
@@ -74,15 +83,18 @@ public class DepthOfCoverageStats {
     // UPDATE METHODS
     ////////////////////////////////////////////////////////////////////////////////////
 
-    private void updateDepths(Map<String, Integer> depthBySample) {
-        int coverageThresholdIndex;
-        for ( String sample : granularHistogramBySample.keySet() ) {
-            if ( depthBySample.containsKey(sample) ) {
-                coverageThresholdIndex = updateSample(sample,depthBySample.get(sample));
-                totalLocusDepth += depthBySample.get(sample);
-            } else {
-                coverageThresholdIndex = updateSample(sample,0);
-            }
+    /**
+     * Add a locus to the statistics.
+     *
+     * @param countsBySample base counts at the locus, indexed by sample index then by {@link org.broadinstitute.hellbender.utils.BaseUtils.Base}
+     *                       ordinal, as held by {@link PartitionedLocusCounts}; null if there is no coverage at the locus
+     */
+    public void update(final int[][] countsBySample) {
+        Utils.validateArg(countsBySample == null || countsBySample.length == samples.size(), "Counts must be provided for every sample");
+        for ( int s = 0; s < samples.size(); s++ ) {
+            final int depth = countsBySample == null ? 0 : PartitionedLocusCounts.getDepth(countsBySample[s], includeDeletions);
+            final int coverageThresholdIndex = updateSample(s, depth);
+            totalLocusDepth += depth;
 
             if ( tabulateLocusCounts ) {
                 for ( int i = 0; i <= coverageThresholdIndex; i ++ ) {
@@ -97,31 +109,11 @@ public class DepthOfCoverageStats {
         totalLocusDepth = 0;
     }
 
-    public void update(Map<String,int[]> countsBySample) {
-        if ( countsBySample == null ) {
-            this.updateDepths(new HashMap<>(1));
-            return;
-        }
-        final HashMap<String,Integer> depthBySample = new HashMap<String,Integer>();
-        for ( Map.Entry<String, int[]> entry : countsBySample.entrySet() ) {
-            int total = 0;
-            int[] counts = entry.getValue();
-            for ( byte base : BaseUtils.BASES_EXTENDED ) {
-                if ( includeDeletions || base != BaseUtils.Base.D.base ) { // note basesAreEqual assigns TRUE to (N,D) as both have simple index -1
-                    total += counts[BaseUtils.extendedBaseToBaseIndex(base)];
-                }
-            }
-            depthBySample.put(entry.getKey(),total);
-        }
-        
-        this.updateDepths(depthBySample);
-    }
-
     // returns the index of the last bin that the given depth exceeds the left endpoint of
-    private int updateSample(final String sample, final int depth) {
-        totalCoverages.put(sample,totalCoverages.get(sample)+depth);
+    private int updateSample(final int sampleIndex, final int depth) {
+        totalCoverages[sampleIndex] += depth;
 
-        long[] granularBins = granularHistogramBySample.get(sample);
+        long[] granularBins = granularHistograms.get(sampleIndex);
         for ( int b = 0; b < binLeftEndpoints.length; b ++ ) {
             if ( depth < binLeftEndpoints[b] ) {
                 granularBins[b]++;
@@ -143,16 +135,15 @@ public class DepthOfCoverageStats {
     }
 
     private void mergeSamples(DepthOfCoverageStats otherStats) {
-        Map<String,long[]> otherHistogram = otherStats.getHistograms();
-        Map<String,Double> otherMeans = otherStats.getMeans();
-        for ( String s : granularHistogramBySample.keySet() ) {
-            long[] internalCounts = granularHistogramBySample.get(s);
-            long[] externalCounts = otherHistogram.get(s);
+        for ( int s = 0; s < samples.size(); s++ ) {
+            final int otherIndex = otherStats.getSampleIndex(samples.get(s));
+            long[] internalCounts = granularHistograms.get(s);
+            long[] externalCounts = otherStats.getHistogram(otherIndex);
             for ( int b = 0; b < internalCounts.length; b++ ) {
                 internalCounts[b] += externalCounts[b];
             }
 
-            this.totalCoverages.put(s, this.totalCoverages.get(s) + otherStats.totalCoverages.get(s));
+            this.totalCoverages[s] += otherStats.getTotal(otherIndex);
         }
     }
 
@@ -193,7 +184,43 @@ public class DepthOfCoverageStats {
 
     // Return the per-sample histograms of depths
     public Map<String,long[]> getHistograms() {
-        return granularHistogramBySample;
+        final Map<String,long[]> histograms = new LinkedHashMap<>();
+        for ( int s = 0; s < samples.size(); s++ ) {
+            histograms.put(samples.get(s), granularHistograms.get(s));
+        }
+        return histograms;
+    }
+
+    // Return the number of samples tracked
+    public int getNumberOfSamples() {
+        return samples.size();
+    }
+
+    // Return the samples, in sample index order
+    public List<String> getSamples() {
+        return Collections.unmodifiableList(samples);
+    }
+
+    // Return the index of the given sample, throwing if it is not tracked
+    public int getSampleIndex(final String sample) {
+        final Integer index = sampleIndices.get(sample);
+        Utils.validateArg(index != null, () -> "Sample " + sample + " is not tracked by these statistics");
+        return index;
+    }
+
+    // Return the histogram of depths for the sample with the given index
+    public long[] getHistogram(final int sampleIndex) {
+        return granularHistograms.get(sampleIndex);
+    }
+
+    // Return the total coverage for the sample with the given index
+    public long getTotal(final int sampleIndex) {
+        return totalCoverages[sampleIndex];
+    }
+
+    // Return the mean coverage for the sample with the given index
+    public double getMean(final int sampleIndex) {
+        return ( (double)totalCoverages[sampleIndex])/( (double) nLoci );
     }
 
     // Return array with the counts of number of bases with >=X samples at >=Y coverage
@@ -208,8 +235,8 @@ public class DepthOfCoverageStats {
 
     public Map<String,Double> getMeans() {
         HashMap<String,Double> means = new HashMap<String,Double>();
-        for ( String s : granularHistogramBySample.keySet() ) {
-            means.put(s,( (double)totalCoverages.get(s))/( (double) nLoci ));
+        for ( int s = 0; s < samples.size(); s++ ) {
+            means.put(samples.get(s), getMean(s));
         }
 
         return means;
@@ -217,7 +244,11 @@ public class DepthOfCoverageStats {
 
     // Returns the total coverage (sum of coverage at each base) per sample
     public Map<String,Long> getTotals() {
-        return totalCoverages;
+        final Map<String,Long> totals = new HashMap<>();
+        for ( int s = 0; s < samples.size(); s++ ) {
+            totals.put(samples.get(s), totalCoverages[s]);
+        }
+        return totals;
     }
 
     // Returns the number of loci counted
@@ -229,7 +260,7 @@ public class DepthOfCoverageStats {
      * @return  An unordered set of all the samples covered by this stats object
      */
     public Set<String> getAllSamples() {
-        return granularHistogramBySample.keySet();
+        return Collections.unmodifiableSet(sampleIndices.keySet());
     }
 
     // Returns the mean of coverage for all loci seen
@@ -248,7 +279,7 @@ public class DepthOfCoverageStats {
      * @return
      */
     public double[] getCoverageProportions(String sample) {
-        long[] hist = granularHistogramBySample.get(sample);
+        long[] hist = granularHistograms.get(getSampleIndex(sample));
         double[] distribution = new double[hist.length];
         long count = 0;
         for ( int i = hist.length-1; i >= 0; i -- ) {
@@ -7,7 +7,7 @@ package org.broadinstitute.hellbender.tools.walkers.coverage;
 public class DoCOutputType {
     public enum Partition { readgroup, sample, library, platform, center, sample_by_platform, sample_by_center, sample_by_platform_by_center }
     public enum Aggregation { locus, interval, gene, cumulative }
-    public enum FileType { summary, statistics, coverage_counts, coverage_proportions }
+    public enum FileType { summary, statistics, coverage_counts, coverage_proportions, binary }
 
     private final Partition partition;
     private final Aggregation aggregation;
@@ -24,7 +24,7 @@ public class DoCOutputType {
     public String getFilePath(final String baseName) {
         // main output
         if(partition == null) {
-            return baseName;
+            return fileType == FileType.binary ? baseName + BinaryCoverageWriter.EXTENSION : baseName;
         }
 
         // TODO handle this better
@@ -0,0 +1,128 @@
+package org.broadinstitute.hellbender.tools.walkers.coverage;
+
+import htsjdk.samtools.SAMReadGroupRecord;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.BaseUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.*;
+
+/**
+ * A reusable buffer holding the base counts at a single locus for every identifier (sample, read group, library...)
+ * of every partition being tracked by DepthOfCoverage.
+ *
+ * Counts are stored in primitive arrays indexed by partition ordinal, then by the index of the identifier in the sorted
+ * list of identifiers for that partition, then by the {@link BaseUtils.Base} ordinal (A, C, G, T, N, D). The mapping
+ * from read group to identifier indices is computed once per read group, so filling the buffer at a locus does not
+ * allocate. The buffer is cleared and refilled at each locus by {@link CoverageUtils#fillBaseCountsByPartition}, and
+ * so its contents are only valid until the next locus is counted.
+ */
+public final class PartitionedLocusCounts {
+    public static final int NUMBER_OF_BASES = BaseUtils.Base.values().length;
+
+    private final EnumSet<DoCOutputType.Partition> partitions;
+    // counts[partition.ordinal()][identifierIndex][base ordinal], null for partitions that are not tracked
+    private final int[][][] counts = new int[DoCOutputType.Partition.values().length][][];
+    private final Map<DoCOutputType.Partition, Map<String, Integer>> identifierIndicesByPartition = new EnumMap<>(DoCOutputType.Partition.class);
+
+    // read group id -> identifier index of that read group for each partition ordinal
+    private final Map<String, int[]> identifierIndicesByReadGroup = new HashMap<>();
+
+    /**
+     * @param partitions partitions over which the counts are tracked
+     * @param identifiersByPartition global map of partition to the sorted list of identifiers for that partition; the index
+     *                               of an identifier in its list is its index in this buffer
+     */
+    public PartitionedLocusCounts(final Collection<DoCOutputType.Partition> partitions, final Map<DoCOutputType.Partition, List<String>> identifiersByPartition) {
+        Utils.nonNull(partitions);
+        Utils.nonNull(identifiersByPartition);
+        this.partitions = partitions.isEmpty() ? EnumSet.noneOf(DoCOutputType.Partition.class) : EnumSet.copyOf(partitions);
+        for (final DoCOutputType.Partition partition : this.partitions) {
+            final List<String> identifiers = Utils.nonNull(identifiersByPartition.get(partition), () -> "No identifiers for partition " + partition);
+            counts[partition.ordinal()] = new int[identifiers.size()][NUMBER_OF_BASES];
+            // note that a HashMap is used rather than a binary search because identifiers may be null
+            final Map<String, Integer> indices = new HashMap<>(identifiers.size());
+            for (int i = 0; i < identifiers.size(); i++) {
+                indices.putIfAbsent(identifiers.get(i), i);
+            }
+            identifierIndicesByPartition.put(partition, indices);
+        }
+    }
+
+    /**
+     * Reset every count to zero, keeping the allocated arrays.
+     */
+    void clear() {
+        for (final DoCOutputType.Partition partition : partitions) {
+            for (final int[] identifierCounts : counts[partition.ordinal()]) {
+                Arrays.fill(identifierCounts, 0);
+            }
+        }
+    }
+
+    /**
+     * @return for each partition ordinal, the identifier index of the given read group, or 0 for untracked partitions.
+     *         The returned array is cached and must not be modified.
+     */
+    int[] getIdentifierIndices(final SAMReadGroupRecord readGroup) {
+        final int[] cached = identifierIndicesByReadGroup.get(readGroup.getReadGroupId());
+        if (cached != null) {
+            return cached;
+        }
+        final int[] indices = new int[counts.length];
+        for (final DoCOutputType.Partition partition : partitions) {
+            final String identifier = CoverageUtils.getTypeID(readGroup, partition);
+            final Integer index = identifierIndicesByPartition.get(partition).get(identifier);
+            if (index == null) {
+                throw new GATKException(String.format("Read group %s has %s identifier %s which was not found in the read header", readGroup.getReadGroupId(), partition, identifier));
+            }
+            indices[partition.ordinal()] = index;
+        }
+        identifierIndicesByReadGroup.put(readGroup.getReadGroupId(), indices);
+        return indices;
+    }
+
+    /**
+     * Add one observation of a base to the counts of every partition.
+     *
+     * @param identifierIndices identifier index of the read group for each partition, from {@link #getIdentifierIndices}
+     * @param baseIndex {@link BaseUtils.Base} ordinal of the observed base
+     */
+    void add(final int[] identifierIndices, final int baseIndex) {
+        for (final DoCOutputType.Partition partition : partitions) {
+            counts[partition.ordinal()][identifierIndices[partition.ordinal()]][baseIndex]++;
+        }
+    }
+
+    /**
+     * @return the partitions tracked by this buffer
+     */
+    public Set<DoCOutputType.Partition> getPartitions() {
+        return Collections.unmodifiableSet(partitions);
+    }
+
+    /**
+     * @return the counts for each identifier of the given partition, indexed by identifier index then base ordinal.
+     *         The returned arrays are backed by this buffer.
+     */
+    public int[][] getCounts(final DoCOutputType.Partition partition) {
+        final int[][] partitionCounts = counts[partition.ordinal()];
+        Utils.validate(partitionCounts != null, () -> "Partition " + partition + " is not tracked");
+        return partitionCounts;
+    }
+
+    /**
+     * @param counts base counts for a single identifier, indexed by {@link BaseUtils.Base} ordinal
+     * @param includeDeletions whether to count deletions towards the depth
+     * @return the depth of coverage represented by the counts
+     */
+    public static int getDepth(final int[] counts, final boolean includeDeletions) {
+        int depth = 0;
+        for (int b = 0; b < counts.length; b++) {
+            if (includeDeletions || b != BaseUtils.Base.D.ordinal()) {
+                depth += counts[b];
+            }
+        }
+        return depth;
+    }
+}
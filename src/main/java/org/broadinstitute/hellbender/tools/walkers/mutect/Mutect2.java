@@ -10,6 +10,7 @@ import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.programgroups.ShortVariantDiscoveryProgramGroup;
 import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.engine.spark.AssemblyRegionArgumentCollection;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.*;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.ReferenceConfidenceMode;
@@ -257,6 +258,12 @@ public final class Mutect2 extends AssemblyRegionWalker {
 
     @Override
     public void onTraversalStart() {
+        // Mutect2 downsamples per stride with its own MutectDownsampler, which has no per-window bound
+        if (assemblyRegionArgs.maxReadsPerDownsamplingWindow > 0) {
+            throw new CommandLineException.BadArgumentValue(AssemblyRegionArgumentCollection.MAX_READS_PER_WINDOW_LONG_NAME,
+                    String.valueOf(assemblyRegionArgs.maxReadsPerDownsamplingWindow),
+                    "is not supported by Mutect2, which limits reads with --" + M2ArgumentCollection.DOWNSAMPLING_STRIDE_LONG_NAME + " and --" + AssemblyRegionArgumentCollection.MAX_STARTS_LONG_NAME + " instead");
+        }
         VariantAnnotatorEngine annotatorEngine = new VariantAnnotatorEngine(makeVariantAnnotations(), null, Collections.emptyList(), false, false);
         m2Engine = new Mutect2Engine(MTAC, assemblyRegionArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), referenceArguments.getReferenceSpecifier(), annotatorEngine);
         vcfWriter = createVCFWriter(outputVCF);
@@ -112,6 +112,8 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
 
     private PileupQualBuffer tumorPileupQualBuffer = new PileupQualBuffer();
     private PileupQualBuffer normalPileupQualBuffer = new PileupQualBuffer();
+    private final BitSet tumorPileupMask = new BitSet();
+    private final BitSet normalPileupMask = new BitSet();
 
     /**
      * Create and initialize a new HaplotypeCallerEngine given a collection of HaplotypeCaller arguments, a reads header,
@@ -376,24 +378,25 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
         if (pileup.size() >= minCallableDepth) {
             callableSites.increment();
         }
-        final ReadPileup tumorPileup = pileup.makeFilteredPileup(pe -> isTumorSample(ReadUtils.getSampleName(pe.getRead(), header)));
-        f1R2CountsCollector.ifPresent(collector -> collector.process(tumorPileup, ref));
-        tumorPileupQualBuffer.accumulateQuals(tumorPileup, refBase, MTAC.pcrSnvQual);
+        // the F1R2 counts collector only looks at the tumor samples
+        f1R2CountsCollector.ifPresent(collector -> collector.process(pileup, ref));
+        final BitSet tumorMask = pileup.fillFilterMask(pe -> isTumorSample(ReadUtils.getSampleName(pe.getRead(), header)), tumorPileupMask);
+        tumorPileupQualBuffer.accumulateQuals(pileup, tumorMask, refBase, MTAC.pcrSnvQual);
         final Pair<Integer, ByteArrayList> bestTumorAltAllele = tumorPileupQualBuffer.likeliestIndexAndQuals();
-        final double tumorLogOdds = logLikelihoodRatio(tumorPileup.size() - bestTumorAltAllele.getRight().size(), bestTumorAltAllele.getRight());
+        final double tumorLogOdds = logLikelihoodRatio(tumorMask.cardinality() - bestTumorAltAllele.getRight().size(), bestTumorAltAllele.getRight());
 
         if (tumorLogOdds < MTAC.getInitialLogOdds()) {
             return new ActivityProfileState(refInterval, 0.0);
         } else if (MTAC.trainingDataMode) {
             return new ActivityProfileState(ref.getInterval(), 1.0);
         } else if (hasNormal() && !MTAC.genotypeGermlineSites) {
-            final ReadPileup normalPileup = pileup.makeFilteredPileup(pe -> isNormalSample(ReadUtils.getSampleName(pe.getRead(), header)));
-            normalPileupQualBuffer.accumulateQuals(normalPileup, refBase, MTAC.pcrSnvQual);
+            final BitSet normalMask = pileup.fillFilterMask(pe -> isNormalSample(ReadUtils.getSampleName(pe.getRead(), header)), normalPileupMask);
+            normalPileupQualBuffer.accumulateQuals(pileup, normalMask, refBase, MTAC.pcrSnvQual);
             final Pair<Integer, ByteArrayList> bestNormalAltAllele = normalPileupQualBuffer.likeliestIndexAndQuals();
             if (bestNormalAltAllele.getLeft() == bestTumorAltAllele.getLeft()) {
                 final int normalAltCount = bestNormalAltAllele.getRight().size();
                 final double normalQualSum = normalPileupQualBuffer.qualSum(bestNormalAltAllele.getLeft());
-                if (normalAltCount > normalPileup.size() * MAX_ALT_FRACTION_IN_NORMAL && normalQualSum > MAX_NORMAL_QUAL_SUM) {
+                if (normalAltCount > normalMask.cardinality() * MAX_ALT_FRACTION_IN_NORMAL && normalQualSum > MAX_NORMAL_QUAL_SUM) {
                     return new ActivityProfileState(refInterval, 0.0);
                 }
             }
@@ -560,11 +563,15 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
 
         public PileupQualBuffer() { }
 
-        public void accumulateQuals(final ReadPileup pileup, final byte refBase, final int pcrErrorQual) {
+        /**
+         * @param mask the elements of the pileup to accumulate (see {@link ReadPileup#fillFilterMask})
+         */
+        public void accumulateQuals(final ReadPileup pileup, final BitSet mask, final byte refBase, final int pcrErrorQual) {
             clear();
             final int position = pileup.getLocation().getStart();
 
-            for (final PileupElement pe : pileup) {
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                final PileupElement pe = pileup.get(i);
                 final int indelLength = getCurrentOrFollowingIndelLength(pe);
                 if (indelLength > 0) {
                     accumulateIndel(indelQual(indelLength));
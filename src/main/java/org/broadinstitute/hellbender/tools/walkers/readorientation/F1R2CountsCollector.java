@@ -1,6 +1,5 @@
 package org.broadinstitute.hellbender.tools.walkers.readorientation;
 
-import com.google.common.primitives.Ints;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.metrics.MetricsFile;
 import htsjdk.samtools.metrics.StringHeader;
@@ -13,8 +12,12 @@ import org.broadinstitute.hellbender.utils.BaseUtils;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.Nucleotide;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
+import org.broadinstitute.hellbender.utils.genotyper.SampleList;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.pileup.PileupElement;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
+import org.broadinstitute.hellbender.utils.pileup.SampleStratifiedPileup;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 
 import java.io.File;
@@ -32,6 +35,13 @@ public class F1R2CountsCollector {
 
     private final Set<String> samples;
 
+    private final SampleList sampleList;
+
+    // buffers reused across loci
+    private final BitSet baseQualityMask = new BitSet();
+
+    private final int[] baseCountsBuffer = new int[4];
+
     private final SAMFileHeader header;
 
     private final CollectF1R2CountsArgumentCollection CF1R2Args;
@@ -52,6 +62,7 @@ public class F1R2CountsCollector {
     public F1R2CountsCollector(final CollectF1R2CountsArgumentCollection CF1R2Args, final SAMFileHeader header, final File outputTarGzFile, final Collection<String> samples) {
         this.CF1R2Args = CF1R2Args;
         this.samples = samples.size() == 1 ? Collections.singleton(samples.iterator().next()) : new HashSet<>(samples);
+        this.sampleList = new IndexedSampleList(samples);
         this.header = header;
         this.outputTarGzFile = outputTarGzFile;
 
@@ -100,23 +111,20 @@ public class F1R2CountsCollector {
             return;
         }
 
-        // optimize the common case of a single tumor sample
-        final String onlySample = samples.size() == 1 ? samples.iterator().next() : null;
-        final Map<String, ReadPileup> splitPileup = samples.size() == 1 ? Collections.singletonMap(onlySample,
-                        pileup.makeFilteredPileup(pe -> Objects.equals(ReadUtils.getSampleName(pe.getRead(), header), onlySample) && pe.getQual() > CF1R2Args.minBaseQuality))
-                : pileup.splitBySample(header, null);
+        final SampleStratifiedPileup stratifiedPileup = pileup.stratifyBySample(header, sampleList);
+        final BitSet highQualityMask = pileup.fillFilterMask(pe -> pe.getQual() > CF1R2Args.minBaseQuality, baseQualityMask);
 
-        for (final Map.Entry<String, ReadPileup> entry : splitPileup.entrySet()) {
-            final String sample = entry.getKey();
+        for (int s = 0; s < sampleList.numberOfSamples(); s++) {
+            if (stratifiedPileup.size(s) == 0) {
+                continue;
+            }
+            final String sample = sampleList.getSample(s);
 
-            // if size == 1 we filtered by base quality already
-            final ReadPileup samplePileup = samples.size() == 1 ? entry.getValue() :
-                    entry.getValue().makeFilteredPileup(pe -> pe.getQual() > CF1R2Args.minBaseQuality);
-            final int[] baseCounts = samplePileup.getBaseCounts();
+            final int[] baseCounts = stratifiedPileup.getBaseCounts(s, highQualityMask, baseCountsBuffer);
             final int depth = (int) MathUtils.sum(baseCounts);
 
-            if (!isPileupGood(samplePileup)) {
-                return;
+            if (!isPileupGood(stratifiedPileup, s, highQualityMask, depth)) {
+                continue;
             }
 
             // Make a copy of base counts and update the counts of ref to -1. Now the maxElementIndex of the array gives us
@@ -129,7 +137,7 @@ public class F1R2CountsCollector {
             // If the site is ref, we simply update the coverage histogram
             if (referenceSite) {
                 refSiteHistograms.get(sample).get(refContext).increment(Math.min(depth, CF1R2Args.maxDepth));
-                return;
+                continue;
             }
 
             // If we got here, we have an alt site with a single alt base
@@ -139,13 +147,13 @@ public class F1R2CountsCollector {
             final int altCount = baseCounts[altBaseIndex];
             Utils.validate(altCount > 0, "We must have a nonzero alt read but got " + altCount);
 
-            final int refF1R2 = samplePileup.getNumberOfElements(pe -> Nucleotide.decode(pe.getBase()) == refBase && ReadUtils.isF1R2(pe.getRead()));
-            final int altF1R2 = samplePileup.getNumberOfElements(pe -> Nucleotide.decode(pe.getBase()) == altBase && ReadUtils.isF1R2(pe.getRead()));
+            final int refF1R2 = stratifiedPileup.getNumberOfElements(s, highQualityMask, pe -> Nucleotide.decode(pe.getBase()) == refBase && ReadUtils.isF1R2(pe.getRead()));
+            final int altF1R2 = stratifiedPileup.getNumberOfElements(s, highQualityMask, pe -> Nucleotide.decode(pe.getBase()) == altBase && ReadUtils.isF1R2(pe.getRead()));
 
             if (altCount == 1) {
                 final ReadOrientation type = altF1R2 == 1 ? ReadOrientation.F1R2 : ReadOrientation.F2R1;
                 depthOneAltHistograms.get(sample).increment(refContext, altBase, type, depth);
-                return;
+                continue;
             }
 
             try {
@@ -193,20 +201,33 @@ public class F1R2CountsCollector {
 
     /**
      * Use a series of heuristics to detect a bad pileup.
+     *
+     * @param pileup the pileup, stratified by sample
+     * @param sampleIndex the sample to test
+     * @param mask the elements of the pileup that pass the base quality filter
+     * @param depth the number of non-deleted elements of the sample in the mask
      */
-    private boolean isPileupGood(final ReadPileup pileup){
-        final int[] baseCounts = pileup.getBaseCounts();
-        final int depth = (int) MathUtils.sum(baseCounts);
-
-        List<Integer> mappingQualities = Ints.asList(pileup.getMappingQuals());
+    private boolean isPileupGood(final SampleStratifiedPileup pileup, final int sampleIndex, final BitSet mask, final int depth){
+        final List<Integer> mappingQualities = new ArrayList<>(pileup.size(sampleIndex));
+        int indelCount = 0;
+        for (int k = 0; k < pileup.size(sampleIndex); k++) {
+            if (!mask.get(pileup.getElementIndex(sampleIndex, k))) {
+                continue;
+            }
+            final PileupElement pe = pileup.get(sampleIndex, k);
+            mappingQualities.add(pe.getMappingQual());
+            if (pe.isDeletion() || pe.isAfterInsertion() || pe.isBeforeDeletionStart()) {
+                indelCount++;
+            }
+        }
 
         // If more than 1% of the reads is indel then consider this site an indel
         final int indelThreshold = depth/100;
-        boolean isIndel = pileup.getNumberOfElements(pe -> pe.isDeletion() || pe.isAfterInsertion() || pe.isBeforeDeletionStart()) > indelThreshold;
+        boolean isIndel = indelCount > indelThreshold;
 
         // If depth (the sum of base counts) is 0 but the pileup is non-empty, that means all the reads
         // have deleted bases at this particular locus
-        isIndel = isIndel || depth == 0 && pileup.size() > 0;
+        isIndel = isIndel || depth == 0 && !mappingQualities.isEmpty();
 
         return depth > 0 && ! isIndel && MathUtils.median(mappingQualities) >= CF1R2Args.minMedianMapQual;
     }
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -144,8 +145,12 @@ public class ASEReadCounter extends LocusWalker {
         COUNT_FRAGMENTS_REQUIRE_SAME_BASE
     }
 
+
     private PrintStream outputStream = null;
 
+    // reused across sites
+    private final BitSet nonDeletions = new BitSet();
+
     @Override
     public List<ReadFilter> getDefaultReadFilters() {
         final List<ReadFilter> defaultFilters = new ArrayList<>();
@@ -209,9 +214,10 @@ public class ASEReadCounter extends LocusWalker {
 
         final String siteID = vc.getID();
         final ReadPileup pileup = filterPileup(alignmentContext.getBasePileup(), countType);
+        final BitSet nonDeletionMask = pileup.fillFilterMask(p -> !p.isDeletion(), nonDeletions);
 
         // count up the depths of all and QC+ bases
-        final String line = calculateLineForSite(pileup, siteID, refAllele, altAllele);
+        final String line = calculateLineForSite(pileup, nonDeletionMask, siteID, refAllele, altAllele);
         if (line != null) {
             outputStream.println(line);
         }
@@ -223,29 +229,29 @@ public class ASEReadCounter extends LocusWalker {
             outputStream.close();
     }
 
+    /**
+     * Filter the pileup according to the count type. Deletions are kept; they are skipped when counting.
+     */
     private ReadPileup filterPileup(final ReadPileup originalPileup, final CountPileupType countType) {
         SAMFileHeader header = getHeaderForReads();
 
-        final ReadPileup pileupWithDeletions;
         switch (countType) {
-            case COUNT_FRAGMENTS_REQUIRE_SAME_BASE: pileupWithDeletions = originalPileup.getOverlappingFragmentFilteredPileup(true, ReadPileup.baseQualTieBreaker, header);
-                break;
-            case COUNT_READS: pileupWithDeletions = originalPileup;
-                break;
-            case COUNT_FRAGMENTS: pileupWithDeletions = originalPileup.getOverlappingFragmentFilteredPileup(false, ReadPileup.baseQualTieBreaker, header);
-                break;
+            case COUNT_FRAGMENTS_REQUIRE_SAME_BASE: return originalPileup.getOverlappingFragmentFilteredPileup(true, ReadPileup.baseQualTieBreaker, header);
+            case COUNT_READS: return originalPileup;
+            case COUNT_FRAGMENTS: return originalPileup.getOverlappingFragmentFilteredPileup(false, ReadPileup.baseQualTieBreaker, header);
             default: throw new UserException("Must use valid CountPileupType");
         }
-
-        return pileupWithDeletions.makeFilteredPileup(p -> !p.isDeletion());
-
     }
 
-    private String calculateLineForSite(final ReadPileup pileup, final String siteID, final char refAllele, final char altAllele) {
+    /**
+     * @param mask the elements of the pileup to count (see {@link ReadPileup#fillFilterMask})
+     */
+    private String calculateLineForSite(final ReadPileup pileup, final BitSet mask, final String siteID, final char refAllele, final char altAllele) {
 
         int rawDepth = 0, lowBaseQDepth = 0, lowMAPQDepth = 0, refCount = 0, altCount = 0, totalNonFilteredCount = 0, otherBasesCount = 0, improperPairsCount = 0;
 
-        for (final PileupElement base : pileup) {
+        for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+            final PileupElement base = pileup.get(i);
             rawDepth++;
 
             if (base.getRead().isPaired() && (base.getRead().mateIsUnmapped() || !base.getRead().isProperlyPaired())) {
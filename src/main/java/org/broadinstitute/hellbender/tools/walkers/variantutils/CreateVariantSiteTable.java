@@ -0,0 +1,109 @@
+package org.broadinstitute.hellbender.tools.walkers.variantutils;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.FeatureContext;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.engine.ReadsContext;
+import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.engine.VariantWalker;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.variant.VariantSiteTable;
+import picard.cmdline.programgroups.VariantManipulationProgramGroup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates a variant site table for a VCF, which lets {@link SelectVariants} read only the regions of the VCF containing
+ * sites that may be selected.
+ *
+ * <p>The site table is a compact binary sidecar file holding the position, variant type, number of alleles and
+ * filter status of every record, and the values of the requested numeric INFO fields. Only INFO fields with a single
+ * value per site are useful in the table; sites with several values for a field are always read from the VCF when
+ * selecting on that field.</p>
+ *
+ * <p>The table must be recreated whenever the VCF changes. It must be created from the complete VCF, without intervals.</p>
+ *
+ * <h3>Usage example</h3>
+ * <pre>
+ * gatk CreateVariantSiteTable \
+ *     -V cohort.vcf.gz \
+ *     --info-key AF \
+ *     --info-key QD
+ * </pre>
+ * <p>This writes the table to cohort.vcf.gz.sites, where SelectVariants can use it:</p>
+ * <pre>
+ * gatk SelectVariants \
+ *     -V cohort.vcf.gz \
+ *     --site-table cohort.vcf.gz.sites \
+ *     --select-type-to-include SNP \
+ *     --exclude-filtered \
+ *     -select "AF > 0.01" \
+ *     -O common_pass_snps.vcf.gz
+ * </pre>
+ */
+@CommandLineProgramProperties(
+        summary = "Creates a compact table of the sites of a VCF, which lets SelectVariants read only the regions of the " +
+                "VCF containing sites that may be selected.",
+        oneLineSummary = "Creates a variant site table for a VCF.",
+        programGroup = VariantManipulationProgramGroup.class
+)
+@DocumentedFeature
+public final class CreateVariantSiteTable extends VariantWalker {
+    public static final String INFO_KEY_LONG_NAME = "info-key";
+
+    @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            doc = "File to which the site table should be written. Defaults to the input VCF path with the extension " +
+                    VariantSiteTable.FILE_EXTENSION + " appended.",
+            optional = true)
+    public GATKPath outputPath = null;
+
+    @Argument(fullName = INFO_KEY_LONG_NAME,
+            doc = "Numeric INFO field whose values should be stored in the table. May be specified multiple times.",
+            optional = true)
+    public List<String> infoKeys = new ArrayList<>();
+
+    private VariantSiteTable.Writer writer;
+
+    @Override
+    public void onTraversalStart() {
+        if (IOUtils.isGenomicsDBPath(getDrivingVariantsFeatureInput())) {
+            throw new UserException.BadInput("Site tables can only be created for VCF files, not for GenomicsDB workspaces");
+        }
+        if (hasUserSuppliedIntervals()) {
+            throw new UserException.BadInput("The site table must be created from the complete VCF, so intervals may not be specified");
+        }
+
+        final Path vcfPath = drivingVariantFile.toPath();
+        final Path tablePath = outputPath == null ? VariantSiteTable.getDefaultPath(vcfPath) : outputPath.toPath();
+        try {
+            writer = new VariantSiteTable.Writer(tablePath, Files.size(vcfPath), Files.getLastModifiedTime(vcfPath).toMillis(), infoKeys);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(vcfPath, "could not get the size and modification time of the input", e);
+        }
+        logger.info("Writing variant site table to " + tablePath.toUri());
+    }
+
+    @Override
+    public void apply(final VariantContext variant, final ReadsContext readsContext, final ReferenceContext referenceContext,
+                      final FeatureContext featureContext) {
+        writer.add(variant);
+    }
+
+    // the table is only completed once every record has been added, so that a failed run doesn't leave a valid table
+    // that is missing sites
+    @Override
+    public Object onTraversalSuccess() {
+        writer.close();
+        return null;
+    }
+}
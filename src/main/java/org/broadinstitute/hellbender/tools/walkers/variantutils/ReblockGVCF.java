@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.walkers.variantutils;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.variant.variantcontext.*;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.*;
@@ -9,10 +10,14 @@ import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.*;
 import org.broadinstitute.hellbender.cmdline.argumentcollections.DbsnpArgumentCollection;
 import org.broadinstitute.hellbender.engine.FeatureContext;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.engine.FeatureInput;
 import org.broadinstitute.hellbender.engine.ReadsContext;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.engine.GATKPath;
 import org.broadinstitute.hellbender.engine.VariantWalker;
+import org.broadinstitute.hellbender.engine.filters.CountingVariantFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.*;
 import org.broadinstitute.hellbender.tools.walkers.annotator.allelespecific.AS_QualByDepth;
@@ -33,7 +38,15 @@ import org.broadinstitute.hellbender.utils.variant.HomoSapiensConstants;
 import org.broadinstitute.hellbender.utils.variant.writers.GVCFWriter;
 import picard.cmdline.programgroups.OtherProgramGroup;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.stream.Collectors;
 
 /**
@@ -74,6 +87,17 @@ import java.util.stream.Collectors;
  *    -O sample1.reblocked.g.vcf
  *  * </pre>
  *
+ * Reblocking many GVCFs in a single invocation, amortizing JVM startup and engine setup across inputs
+ * <pre>
+ *  gatk ReblockGVCF \
+ *    -R reference.fasta \
+ *    -V sample1.g.vcf \
+ *    -O sample1.reblocked.g.vcf \
+ *    --batch-map batch.txt \
+ *    --batch-threads 4
+ * </pre>
+ * where each line of batch.txt contains a tab-separated input GVCF and output path for an additional sample.
+ *
  * <h3>Caveats</h3>
  * <p>Only single-sample GVCF files produced by HaplotypeCaller can be used as input for this tool.</p>
  * <h3>Special note on ploidy</h3>
@@ -92,6 +116,9 @@ public final class ReblockGVCF extends VariantWalker {
 
     private final static int PLOIDY_TWO = 2;  //assume diploid genotypes
 
+    public static final String BATCH_MAP_LONG_NAME = "batch-map";
+    public static final String BATCH_THREADS_LONG_NAME = "batch-threads";
+
     @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
             doc="File to which variants should be written")
     private GATKPath outputFile;
@@ -130,6 +157,20 @@ public final class ReblockGVCF extends VariantWalker {
     @Argument(fullName="allow-missing-hom-ref-data", doc="Fill in homozygous reference genotypes with no PLs and no GQ with PL=[0,0,0].  Necessary for input from Regeneron's WeCall variant caller.")
     protected boolean allowMissingHomRefData = false;
 
+    /**
+     * A tab-delimited file with one line per additional GVCF to reblock in this invocation, containing the path of the
+     * input GVCF and the path of the reblocked output. These inputs are processed with the same arguments as the
+     * -V input, sharing the header processing and genotyping engines, which avoids paying JVM startup and engine
+     * initialization costs for every sample.
+     */
+    @Advanced
+    @Argument(fullName=BATCH_MAP_LONG_NAME, doc="Tab-delimited file mapping additional input GVCFs to output paths, to be reblocked in the same invocation", optional = true)
+    protected GATKPath batchMap = null;
+
+    @Advanced
+    @Argument(fullName=BATCH_THREADS_LONG_NAME, doc="Number of threads used to reblock the GVCFs in the --" + BATCH_MAP_LONG_NAME, minValue = 1, optional = true)
+    protected int batchThreads = 1;
+
     /**
      * The rsIDs from this file are used to populate the ID column of the output.  Also, the DB INFO flag will be set when appropriate. Note that dbSNP is not used in any way for the calculations themselves.
      */
@@ -147,6 +188,14 @@ public final class ReblockGVCF extends VariantWalker {
 
     private VariantContextWriter vcfWriter;
 
+    // header lines added to every output, independent of the input header
+    private Set<VCFHeaderLine> toolHeaderLines;
+
+    // genotyping engines for the batch inputs, one per worker thread since the engine is not thread-safe
+    private ThreadLocal<HaplotypeCallerGenotypingEngine> batchGenotypingEngines;
+    private ExecutorService batchExecutor;
+    private final List<Future<?>> batchResults = new ArrayList<>();
+
     @Override
     public boolean useVariantAnnotations() { return true;}
 
@@ -157,23 +206,28 @@ public final class ReblockGVCF extends VariantWalker {
 
     @Override
     public void onTraversalStart() {
-        VCFHeader inputHeader = getHeaderForVariants();
-        if (inputHeader.getGenotypeSamples().size() > 1) {
-            throw new UserException.BadInput("ReblockGVCF is a single sample tool, but the input GVCF has more than 1 sample.");
+        if (genotypeArgs.samplePloidy != PLOIDY_TWO) {
+            throw new UserException.BadInput("The -ploidy parameter is ignored in " + getClass().getSimpleName() + " tool as this is tool assumes a diploid sample");
         }
-        final Set<VCFHeaderLine> inputHeaders = inputHeader.getMetaDataInSortedOrder();
-
-        final Set<VCFHeaderLine> headerLines = new HashSet<>(inputHeaders);
-        // Remove GCVFBlocks, legacy headers, and annotations that aren't informative for single samples
-        headerLines.removeIf(vcfHeaderLine -> vcfHeaderLine.getKey().startsWith(GVCFWriter.GVCF_BLOCK) ||
-                (vcfHeaderLine.getKey().equals("INFO")) && ((VCFInfoHeaderLine)vcfHeaderLine).getID().equals(GATKVCFConstants.RAW_RMS_MAPPING_QUALITY_DEPRECATED) ||  //remove old (maybe wrong type) and add new with deprecated note
-                (vcfHeaderLine.getKey().equals("INFO")) && infoFieldAnnotationKeyNamesToRemove.contains(((VCFInfoHeaderLine)vcfHeaderLine).getID()));
-
-        headerLines.addAll(getDefaultToolVCFHeaderLines());
 
+        VCFHeader inputHeader = getHeaderForVariants();
         genotypingEngine = createGenotypingEngine(new IndexedSampleList(inputHeader.getGenotypeSamples()));
         createAnnotationEngine();
+        toolHeaderLines = createToolHeaderLines();
+
+        vcfWriter = createGVCFWriter(outputFile);
+        vcfWriter.writeHeader(createOutputHeader(inputHeader));
+
+        if (batchMap != null) {
+            startBatch(readBatchMap(batchMap));
+        }
+    }
 
+    /**
+     * @return the header lines added to every reblocked output, which don't depend on the input header
+     */
+    private Set<VCFHeaderLine> createToolHeaderLines() {
+        final Set<VCFHeaderLine> headerLines = new LinkedHashSet<>(getDefaultToolVCFHeaderLines());
         headerLines.addAll(annotationEngine.getVCFAnnotationDescriptions(false));
         headerLines.add(VCFStandardHeaderLines.getInfoLine(VCFConstants.DEPTH_KEY));   // needed for gVCFs without DP tags
         headerLines.add(GATKVCFHeaderLines.getInfoLine(GATKVCFConstants.RAW_QUAL_APPROX_KEY));
@@ -183,26 +237,137 @@ public final class ReblockGVCF extends VariantWalker {
         headerLines.add(GATKVCFHeaderLines.getInfoLine(GATKVCFConstants.RAW_GENOTYPE_COUNT_KEY));
         headerLines.add(GATKVCFHeaderLines.getInfoLine(GATKVCFConstants.RAW_MAPPING_QUALITY_WITH_DEPTH_KEY));
         headerLines.add(GATKVCFHeaderLines.getInfoLine(GATKVCFConstants.MAPPING_QUALITY_DEPTH_DEPRECATED));  //NOTE: this is deprecated, but keep until we reprocess all GVCFs
-        if (inputHeader.hasInfoLine(GATKVCFConstants.RAW_RMS_MAPPING_QUALITY_DEPRECATED)) {
-            headerLines.add(GATKVCFHeaderLines.getInfoLine(GATKVCFConstants.RAW_RMS_MAPPING_QUALITY_DEPRECATED));
-        }
 
         if ( dbsnp.dbsnp != null  ) {
             VCFStandardHeaderLines.addStandardInfoLines(headerLines, true, VCFConstants.DBSNP_KEY);
         }
+        return headerLines;
+    }
+
+    private VCFHeader createOutputHeader(final VCFHeader inputHeader) {
+        if (inputHeader.getGenotypeSamples().size() > 1) {
+            throw new UserException.BadInput("ReblockGVCF is a single sample tool, but the input GVCF has more than 1 sample.");
+        }
+        final Set<VCFHeaderLine> inputHeaders = inputHeader.getMetaDataInSortedOrder();
+
+        final Set<VCFHeaderLine> headerLines = new HashSet<>(inputHeaders);
+        // Remove GCVFBlocks, legacy headers, and annotations that aren't informative for single samples
+        headerLines.removeIf(vcfHeaderLine -> vcfHeaderLine.getKey().startsWith(GVCFWriter.GVCF_BLOCK) ||
+                (vcfHeaderLine.getKey().equals("INFO")) && ((VCFInfoHeaderLine)vcfHeaderLine).getID().equals(GATKVCFConstants.RAW_RMS_MAPPING_QUALITY_DEPRECATED) ||  //remove old (maybe wrong type) and add new with deprecated note
+                (vcfHeaderLine.getKey().equals("INFO")) && infoFieldAnnotationKeyNamesToRemove.contains(((VCFInfoHeaderLine)vcfHeaderLine).getID()));
+
+        headerLines.addAll(toolHeaderLines);
+        if (inputHeader.hasInfoLine(GATKVCFConstants.RAW_RMS_MAPPING_QUALITY_DEPRECATED)) {
+            headerLines.add(GATKVCFHeaderLines.getInfoLine(GATKVCFConstants.RAW_RMS_MAPPING_QUALITY_DEPRECATED));
+        }
+        return new VCFHeader(headerLines, inputHeader.getGenotypeSamples());
+    }
 
-        VariantContextWriter writer = createVCFWriter(outputFile);
+    private VariantContextWriter createGVCFWriter(final GATKPath output) {
+        VariantContextWriter writer = createVCFWriter(output);
 
         try {
-            vcfWriter = new GVCFWriter(writer, new ArrayList<Number>(GVCFGQBands), PLOIDY_TWO, floorBlocks);
+            return new GVCFWriter(writer, new ArrayList<Number>(GVCFGQBands), PLOIDY_TWO, floorBlocks);
         } catch ( IllegalArgumentException e ) {
+            writer.close();
             throw new IllegalArgumentException("GQBands are malformed: " + e.getMessage(), e);
         }
-        vcfWriter.writeHeader(new VCFHeader(headerLines, inputHeader.getGenotypeSamples()));
+    }
 
-        if (genotypeArgs.samplePloidy != PLOIDY_TWO) {
-            throw new UserException.BadInput("The -ploidy parameter is ignored in " + getClass().getSimpleName() + " tool as this is tool assumes a diploid sample");
+    /**
+     * Parse the batch map into pairs of (input, output) paths
+     */
+    @VisibleForTesting
+    static List<Map.Entry<GATKPath, GATKPath>> readBatchMap(final GATKPath batchMap) {
+        final List<Map.Entry<GATKPath, GATKPath>> batch = new ArrayList<>();
+        final Set<String> outputs = new HashSet<>();
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(batchMap.getInputStream()))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                final String[] split = line.split("\\t", -1);
+                if (split.length != 2 || split[0].trim().isEmpty() || split[1].trim().isEmpty()) {
+                    throw new UserException.BadInput(String.format("Expected a tab-delimited input and output path on line %d of the batch map %s but found: %s",
+                            lineNumber, batchMap, line));
+                }
+                if (!outputs.add(split[1].trim())) {
+                    throw new UserException.BadInput("The output " + split[1].trim() + " is listed more than once in the batch map " + batchMap);
+                }
+                batch.add(new AbstractMap.SimpleImmutableEntry<>(new GATKPath(split[0].trim()), new GATKPath(split[1].trim())));
+            }
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(batchMap.toString(), "Unable to read the batch map", e);
         }
+        return batch;
+    }
+
+    private void startBatch(final List<Map.Entry<GATKPath, GATKPath>> batch) {
+        final SampleList singleSample = new IndexedSampleList(getHeaderForVariants().getGenotypeSamples());
+        // the genotyping engine only depends on the number of samples, so it can be reused for every single-sample input
+        batchGenotypingEngines = ThreadLocal.withInitial(() -> createGenotypingEngine(singleSample));
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("reblockBatch-thread-%d")
+                .setDaemon(true)
+                .build();
+        batchExecutor = Executors.newFixedThreadPool(batchThreads, threadFactory);
+        for (final Map.Entry<GATKPath, GATKPath> entry : batch) {
+            batchResults.add(batchExecutor.submit(() -> reblockBatchInput(entry.getKey(), entry.getValue())));
+        }
+        batchExecutor.shutdown();
+    }
+
+    /**
+     * Reblock a single GVCF from the batch map, with the same arguments and the same per-variant logic as the -V input
+     */
+    private void reblockBatchInput(final GATKPath input, final GATKPath output) {
+        final HaplotypeCallerGenotypingEngine batchGenotypingEngine = batchGenotypingEngines.get();
+        final CountingVariantFilter variantFilter = makeVariantFilter();
+        try (final FeatureDataSource<VariantContext> source = new FeatureDataSource<>(new FeatureInput<>(input), FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES,
+                     VariantContext.class, cloudPrefetchBuffer, cloudIndexPrefetchBuffer)) {
+            if (!(source.getHeader() instanceof VCFHeader)) {
+                throw new UserException.BadInput("Header for " + input + " is not in VCF header format");
+            }
+            if (hasUserSuppliedIntervals()) {
+                source.setIntervalsForTraversal(getTraversalIntervals());
+            }
+            final VCFHeader outputHeader = createOutputHeader((VCFHeader) source.getHeader());
+            final VariantContextWriter writer = createGVCFWriter(output);
+            try {
+                writer.writeHeader(outputHeader);
+                for (final VariantContext variant : source) {
+                    if (variantFilter.test(variant)) {
+                        final VariantContext newVC = regenotypeVC(variant, batchGenotypingEngine);
+                        if (newVC != null) {
+                            writer.add(newVC);
+                        }
+                    }
+                }
+            } finally {
+                writer.close();
+            }
+        }
+    }
+
+    @Override
+    public Object onTraversalSuccess() {
+        try {
+            for (final Future<?> result : batchResults) {
+                result.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while reblocking the batch inputs", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Exception while reblocking the batch inputs", e.getCause());
+        }
+        return null;
     }
 
     private HaplotypeCallerGenotypingEngine createGenotypingEngine(SampleList samples) {
@@ -224,7 +389,7 @@ public final class ReblockGVCF extends VariantWalker {
     // get VariantContexts from input gVCFs and regenotype
     @Override
     public void apply(VariantContext variant, ReadsContext reads, ReferenceContext ref, FeatureContext features) {
-        final VariantContext newVC = regenotypeVC(variant);
+        final VariantContext newVC = regenotypeVC(variant, genotypingEngine);
         if (newVC != null) {
             vcfWriter.add(newVC);
         }
@@ -235,9 +400,10 @@ public final class ReblockGVCF extends VariantWalker {
      * Note that the GVCF write takes care of the actual homRef block merging based on {@code GVCFGQBands}
      *
      * @param originalVC     the combined genomic VC
+     * @param genotypingEngine the engine used to regenotype variant sites
      * @return a new VariantContext or null if the site turned monomorphic and we don't want such sites
      */
-     private VariantContext regenotypeVC(final VariantContext originalVC) {
+     private VariantContext regenotypeVC(final VariantContext originalVC, final HaplotypeCallerGenotypingEngine genotypingEngine) {
         VariantContext result = originalVC;
 
         //Pass back ref-conf homRef sites/blocks to be combined by the GVCFWriter
@@ -599,5 +765,8 @@ public final class ReblockGVCF extends VariantWalker {
         if ( vcfWriter != null ) {
             vcfWriter.close();
         }
+        if ( batchExecutor != null ) {
+            batchExecutor.shutdownNow();
+        }
     }
 }
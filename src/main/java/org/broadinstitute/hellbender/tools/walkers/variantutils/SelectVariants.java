@@ -12,6 +12,8 @@ import htsjdk.variant.variantcontext.VariantContextUtils;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
@@ -32,12 +34,17 @@ import org.broadinstitute.hellbender.engine.VariantWalker;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.ChromosomeCounts;
 import org.broadinstitute.hellbender.tools.walkers.genotyper.AlleleSubsettingUtils;
+import org.broadinstitute.hellbender.tools.walkers.genotyper.GenotypeCalculationArgumentCollection;
 import org.broadinstitute.hellbender.tools.walkers.genotyper.GenotypeAssignmentMethod;
 import org.broadinstitute.hellbender.utils.samples.MendelianViolation;
 import org.broadinstitute.hellbender.utils.samples.PedigreeValidationType;
 import org.broadinstitute.hellbender.utils.samples.SampleDB;
 import org.broadinstitute.hellbender.utils.samples.SampleDBBuilder;
+import org.broadinstitute.hellbender.utils.CompactIntervalSet;
+import org.broadinstitute.hellbender.utils.IntervalMergingRule;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import org.broadinstitute.hellbender.utils.variant.*;
 
@@ -98,6 +105,17 @@ import java.util.stream.Collectors;
  *     -L 20 \
  *     -O output.chr20.vcf
  * </pre>
+ *
+ * <h4>Select common PASS SNPs using a site table created by CreateVariantSiteTable with --info-key AF</h4>
+ * <pre>
+ *     gatk SelectVariants \
+ *     -V input.vcf.gz \
+ *     --site-table input.vcf.gz.sites \
+ *     --select-type-to-include SNP \
+ *     --exclude-filtered \
+ *     -select "AF > 0.01" \
+ *     -O output.vcf.gz
+ * </pre>
  */
 @CommandLineProgramProperties(
         summary = "This tool makes it possible to select a subset of variants based on various criteria in order to facilitate certain " +
@@ -412,6 +430,17 @@ public final class SelectVariants extends VariantWalker {
     @Argument(fullName = "drop-genotype-annotation", shortName = "DGA", optional = true, doc = "Genotype annotations to drop from output vcf.  Annotations to be dropped are specified by their key.")
     private List<String> genotypeAnnotationsToDrop = new ArrayList<>();
 
+    /**
+     * A site table created by CreateVariantSiteTable from the input VCF. The table is used to find the regions of the
+     * input containing sites which may pass the type, filter and allele count selections, and the select expressions
+     * that compare numeric INFO fields stored in the table with a constant (e.g. "AF > 0.01"), and only those regions
+     * of the input are read. Select expressions are only used to narrow the regions when no samples are subset, since
+     * they are evaluated after the INFO fields have been updated for the selected samples.
+     */
+    @Argument(fullName=SITE_TABLE_LONG_NAME, optional=true,
+            doc="Site table created by CreateVariantSiteTable from the input, used to read only the regions containing sites that may be selected")
+    private GATKPath siteTable = null;
+
     @Hidden
     @Argument(fullName="allow-nonoverlapping-command-line-samples", optional=true,
                     doc="Allow samples other than those in the VCF to be specified on the command line. These samples will be ignored.")
@@ -427,6 +456,11 @@ public final class SelectVariants extends VariantWalker {
 
     private VariantContextWriter vcfWriter = null;
 
+    public static final String SITE_TABLE_LONG_NAME = "site-table";
+
+    // matching sites separated by at most this many other sites are read with a single query
+    private static final int MAX_SKIPPED_SITES_TO_MERGE = 64;
+
     private enum NumberAlleleRestriction {
         ALL,
         BIALLELIC,
@@ -456,14 +490,51 @@ public final class SelectVariants extends VariantWalker {
 
     private final Map<Integer, Integer> ploidyToNumberOfAlleles = new LinkedHashMap<Integer, Integer>();
 
+    // genotype fields that are kept by genotypeAnnotationsToDrop, since they are not extended attributes of the genotypes
+    private static final Set<String> INLINE_GENOTYPE_FIELDS = new HashSet<>(Arrays.asList(VCFConstants.GENOTYPE_KEY,
+            VCFConstants.GENOTYPE_QUALITY_KEY, VCFConstants.DEPTH_KEY, VCFConstants.GENOTYPE_ALLELE_DEPTHS,
+            VCFConstants.GENOTYPE_PL_KEY, VCFConstants.GENOTYPE_FILTER_KEY));
+
+    // true if only the selected samples are read from a GenomicsDB, so the records never contain the other samples
+    private boolean samplesQueriedFromGenomicsDB = false;
+
+    // site-level criteria that every selected record satisfies, if a site table is used
+    private VariantSiteTable.SiteCriteria siteCriteria = null;
+
+    /**
+     * When reading from a GenomicsDB, only query the samples, fields and genotypes that can affect the output,
+     * rather than reading all of them and dropping the unneeded ones here
+     */
     @Override
     protected GenomicsDBOptions getGenomicsDBOptions() {
         if (genomicsDBOptions == null) {
-            genomicsDBOptions = new GenomicsDBOptions(referenceArguments.getReferencePath(), genomicsdbArgs);
+            // samples selected by expressions can only be resolved once the header has been read
+            final boolean querySelectedSamples = !sampleNames.isEmpty() && sampleExpressions.isEmpty() &&
+                    discordanceTrack == null && concordanceTrack == null;
+            final Set<String> fieldsToExclude = new LinkedHashSet<>();
+            // select expressions are evaluated before annotations are dropped, and may use any of them
+            if (selectExpressions.isEmpty()) {
+                if (!keepOriginalChrCounts && !keepOriginalDepth) {
+                    fieldsToExclude.addAll(infoAnnotationsToDrop);
+                }
+                genotypeAnnotationsToDrop.stream().filter(field -> !INLINE_GENOTYPE_FIELDS.contains(field)).forEach(fieldsToExclude::add);
+            }
+            genomicsDBOptions = new GenomicsDBOptions(referenceArguments.getReferencePath(), genomicsdbArgs, new GenotypeCalculationArgumentCollection(),
+                    querySelectedSamples ? sampleNames : null, fieldsToExclude, outputSitesOnlyVCFs && !requiresGenotypes());
         }
         return genomicsDBOptions;
     }
 
+    /**
+     * @return true if the genotypes can affect which variants are selected or how they are written to a sites-only output
+     */
+    private boolean requiresGenotypes() {
+        return !sampleNames.isEmpty() || !sampleExpressions.isEmpty() || !XLsampleNames.isEmpty() || !XLsampleExpressions.isEmpty() ||
+                !selectExpressions.isEmpty() || XLnonVariants || removeUnusedAlternates || discordanceTrack != null ||
+                concordanceTrack != null || mendelianViolations || fractionGenotypes > 0 || considerFilteredGenotypes() ||
+                considerNoCallGenotypes() || setFilteredGenotypesToNocall;
+    }
+
     final private PriorityQueue<VariantContext> pendingVariants = new PriorityQueue<>(Comparator.comparingInt(VariantContext::getStart));
 
     /**
@@ -487,7 +558,11 @@ public final class SelectVariants extends VariantWalker {
 
         // Prepare the sample names and types to be used by the corresponding filters
         samples = createSampleNameInclusionList(vcfHeaders);
+        samplesQueriedFromGenomicsDB = getGenomicsDBOptions().getSamplesToQuery() != null && IOUtils.isGenomicsDBPath(getDrivingVariantsFeatureInput());
         selectedTypes = createSampleTypeInclusionList();
+        if (siteTable != null) {
+            restrictTraversalToSiteTableMatches();
+        }
 
         // Look at the parameters to decide which analysis to perform
         discordanceOnly = discordanceTrack != null;
@@ -556,6 +631,11 @@ public final class SelectVariants extends VariantWalker {
             vcfWriter.add(pendingVariants.poll());
         }
 
+        // the regions read for a site table also contain sites that can't be selected
+        if (siteCriteria != null && !siteCriteria.test(vc)) {
+            return;
+        }
+
         if (fullyDecode) {
             vc = vc.fullyDecode(getHeaderForVariants(), lenientVCFProcessing);
         }
@@ -729,6 +809,56 @@ public final class SelectVariants extends VariantWalker {
         return compositeFilter;
     }
 
+    /**
+     * Use the site table to restrict the traversal to the regions of the input containing sites which may be selected
+     */
+    private void restrictTraversalToSiteTableMatches() {
+        if (IOUtils.isGenomicsDBPath(getDrivingVariantsFeatureInput())) {
+            throw new UserException.BadInput("A site table cannot be used when reading from a GenomicsDB workspace");
+        }
+
+        final VariantSiteTable.SiteCriteria criteria = new VariantSiteTable.SiteCriteria().withTypes(selectedTypes);
+        if (XLfiltered) {
+            criteria.withoutFiltered();
+        }
+        if (alleleRestriction.equals(NumberAlleleRestriction.BIALLELIC)) {
+            criteria.withNumAlleles(2, 2);
+        }
+        // the select expressions are evaluated after subsetting, which may update the INFO fields
+        if (noSamplesSpecified && !removeUnusedAlternates && !setFilteredGenotypesToNocall && !invertSelect) {
+            selectExpressions.forEach(criteria::withSelectExpression);
+        }
+        if (criteria.isUnrestricted()) {
+            logger.warn("None of the selection criteria can be evaluated with the site table, so the whole input will be read");
+            return;
+        }
+
+        final Path vcfPath = drivingVariantFile.toPath();
+        try (final VariantSiteTable table = VariantSiteTable.open(siteTable.toPath())) {
+            if (table.getSourceSize() != Files.size(vcfPath) || table.getSourceLastModified() != Files.getLastModifiedTime(vcfPath).toMillis()) {
+                throw new UserException.BadInput("The site table " + siteTable + " was not created from the current version of " +
+                        drivingVariantFile + ". Recreate it with CreateVariantSiteTable.");
+            }
+            List<SimpleInterval> intervals = table.findSites(criteria, MAX_SKIPPED_SITES_TO_MERGE);
+            if (hasUserSuppliedIntervals()) {
+                final SAMSequenceDictionary dictionary = getBestAvailableSequenceDictionary();
+                intervals = CompactIntervalSet.fromLocatables(dictionary, intervals, IntervalMergingRule.ALL)
+                        .intersect(CompactIntervalSet.fromLocatables(dictionary, getTraversalIntervals(), IntervalMergingRule.ALL), IntervalMergingRule.ALL)
+                        .toList();
+            }
+            if (intervals.isEmpty()) {
+                // the traversal can't be restricted to no intervals, but the site criteria still reject every record
+                logger.info("The site table contains no sites that may be selected");
+            } else {
+                logger.info(String.format("The site table selects %d region(s) of the input to read", intervals.size()));
+                setDrivingVariantsTraversalIntervals(intervals);
+            }
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(vcfPath, "could not get the size and modification time of the input", e);
+        }
+        siteCriteria = criteria;
+    }
+
     /**
      * Prepare the sample names to be included(/excluded) in the output by the names filter.
      */
@@ -1023,8 +1153,9 @@ public final class SelectVariants extends VariantWalker {
         // strip out the alternate alleles that aren't being used
         final VariantContext sub = vc.subContextFromSamples(samples, removeUnusedAlternates);
 
-        // If no subsetting happened, exit now
-        if (sub.getNSamples() == vc.getNSamples() && sub.getNAlleles() == vc.getNAlleles()) {
+        // If no subsetting happened, exit now. If the samples were subset by the GenomicsDB query, the annotations
+        // still have to be updated for the selected samples.
+        if (!samplesQueriedFromGenomicsDB && sub.getNSamples() == vc.getNSamples() && sub.getNAlleles() == vc.getNAlleles()) {
             return vc;
         }
 
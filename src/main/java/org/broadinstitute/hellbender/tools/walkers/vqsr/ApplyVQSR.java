@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.walkers.vqsr;
 
+import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.vcf.*;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -20,6 +21,7 @@ import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.engine.MultiVariantWalker;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.AnnotationUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 
 import java.io.IOException;
@@ -130,6 +132,7 @@ import java.util.regex.Pattern;
 public class ApplyVQSR extends MultiVariantWalker {
 
     protected static final String LOW_VQSLOD_FILTER_NAME = "LOW_VQSLOD";
+    public static final String STREAM_RECAL_FILE_LONG_NAME = "stream-recal-file";
     private final double DEFAULT_VQSLOD_CUTOFF = 0.0;
 
     private boolean foundSNPTranches = false;
@@ -182,6 +185,15 @@ public class ApplyVQSR extends MultiVariantWalker {
     @Argument(fullName="exclude-filtered", doc="Don't output filtered loci after applying the recalibration", optional=true)
     private boolean EXCLUDE_FILTERED = false;
 
+    /**
+     * By default the recal file is queried through its index for every input variant. With this option the recal file
+     * is instead read in a single forward pass, in lock step with the input variants, which avoids the per-variant
+     * index queries. Requires the input variants and the recal file to be sorted in the same coordinate order.
+     */
+    @Advanced
+    @Argument(fullName=STREAM_RECAL_FILE_LONG_NAME, doc="If specified, stream the recal file in lock step with the input variants instead of querying it for each variant", optional=true)
+    private boolean streamRecalFile = false;
+
     @Argument(fullName = "mode", shortName = "mode", doc = "Recalibration mode to employ: 1.) SNP for recalibrating only SNPs (emitting indels untouched in the output VCF); 2.) INDEL for indels; and 3.) BOTH for recalibrating both SNPs and indels simultaneously.", optional=true)
     private VariantRecalibratorArgumentCollection.Mode MODE = VariantRecalibratorArgumentCollection.Mode.SNP;
 
@@ -189,6 +201,7 @@ public class ApplyVQSR extends MultiVariantWalker {
     // Private Member Variables
     /////////////////////////////
     private VariantContextWriter vcfWriter;
+    private RecalFileMergeJoiner recalJoiner;
     final private List<TruthSensitivityTranche> tranches = new ArrayList<>();
     final private Set<String> ignoreInputFilterSet = new TreeSet<>();
     final static private String listPrintSeparator = ",";
@@ -274,6 +287,23 @@ public class ApplyVQSR extends MultiVariantWalker {
         final VCFHeader vcfHeader = new VCFHeader(hInfo, samples);
         vcfWriter = createVCFWriter(output);
         vcfWriter.writeHeader(vcfHeader);
+
+        if (streamRecalFile) {
+            initializeRecalJoiner();
+        }
+    }
+
+    private void initializeRecalJoiner() {
+        // read the recal file through the data source the engine already opened for it, rather than opening it again
+        SAMSequenceDictionary dictionary = getBestAvailableSequenceDictionary();
+        if (dictionary == null) {
+            dictionary = ((VCFHeader) features.getHeader(recal)).getSequenceDictionary();
+        }
+        if (dictionary == null) {
+            throw new UserException("Streaming the recal file requires a sequence dictionary; provide a reference or disable --" + STREAM_RECAL_FILE_LONG_NAME);
+        }
+        final List<SimpleInterval> intervals = hasUserSuppliedIntervals() ? getTraversalIntervals() : null;
+        recalJoiner = new RecalFileMergeJoiner(features.getFeatureIterator(recal, intervals), dictionary);
     }
 
     private boolean trancheIntervalIsValid(final String sensitivityLimits) {
@@ -328,7 +358,7 @@ public class ApplyVQSR extends MultiVariantWalker {
     @Override
     public void apply(final VariantContext vc, final ReadsContext readsContext, final ReferenceContext ref, final FeatureContext featureContext) {
 
-        final List<VariantContext> recals =  featureContext.getValues(recal, vc.getStart());
+        final List<VariantContext> recals = recalJoiner != null ? recalJoiner.getRecalsStartingAt(vc) : featureContext.getValues(recal, vc.getStart());
         final boolean evaluateThisVariant = useASannotations || VariantDataManager.checkVariationClass( vc, MODE );
 
         //vc.isNotFiltered is true for PASS; vc.filtersHaveBeenApplied covers PASS and filters
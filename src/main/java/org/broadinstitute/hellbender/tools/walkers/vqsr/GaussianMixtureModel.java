@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import Jama.Matrix;
 
@@ -120,6 +121,83 @@ class GaussianMixtureModel {
         }
     }
 
+    /**
+     * Multi-threaded equivalent of {@link #initializeRandomModel(List, int)} operating on a column-major annotation matrix.
+     * Random numbers are always drawn on the calling thread, in the same order as the single-threaded version.
+     *
+     * @param threadPool pool on which to process the data, or null to run on the calling thread
+     */
+    public void initializeRandomModel( final VariantDatumAnnotationMatrix data, final int numKMeansIterations, final ForkJoinPool threadPool ) {
+
+        for( final MultivariateGaussian gaussian : gaussians ) {
+            gaussian.initializeRandomMu( Utils.getRandomGenerator() );
+        }
+
+        logger.info( "Initializing model with " + numKMeansIterations + " k-means iterations..." );
+        initializeMeansUsingKMeans( data, numKMeansIterations, threadPool );
+
+        for( final MultivariateGaussian gaussian : gaussians ) {
+            gaussian.pMixtureLog10 = Math.log10( 1.0 / ((double) gaussians.size()) );
+            gaussian.sumProb = 1.0 / ((double) gaussians.size());
+            gaussian.initializeRandomSigma( Utils.getRandomGenerator() );
+            gaussian.hyperParameter_a = priorCounts;
+            gaussian.hyperParameter_b = shrinkage;
+            gaussian.hyperParameter_lambda = dirichletParameter;
+        }
+    }
+
+    private void initializeMeansUsingKMeans( final VariantDatumAnnotationMatrix data, final int numIterations, final ForkJoinPool threadPool ) {
+        final int numGaussians = gaussians.size();
+        final int numAnnotations = data.getNumAnnotations();
+
+        int ttt = 0;
+        while( ttt++ < numIterations ) {
+            // E step: assign each variant to the nearest cluster, and accumulate the per-cluster sums for each block
+            final List<double[][]> partialSums = data.mapBlocks(threadPool, block -> {
+                // the last column holds the number of variants assigned to the cluster
+                final double[][] sums = new double[numGaussians][numAnnotations + 1];
+                final double[] annotations = new double[numAnnotations];
+                for( int datumIndex = data.getBlockStart(block); datumIndex < data.getBlockEnd(block); datumIndex++ ) {
+                    data.copyAnnotations(datumIndex, annotations);
+                    double minDistance = Double.MAX_VALUE;
+                    int minGaussian = -1;
+                    for( int gaussianIndex = 0; gaussianIndex < numGaussians; gaussianIndex++ ) {
+                        final double dist = gaussians.get(gaussianIndex).calculateDistanceFromMeanSquared( annotations );
+                        if( dist < minDistance ) {
+                            minDistance = dist;
+                            minGaussian = gaussianIndex;
+                        }
+                    }
+                    if( minGaussian >= 0 ) {
+                        for( int jjj = 0; jjj < numAnnotations; jjj++ ) {
+                            sums[minGaussian][jjj] += annotations[jjj];
+                        }
+                        sums[minGaussian][numAnnotations]++;
+                    }
+                }
+                return sums;
+            });
+
+            // M step: update gaussian means based on assigned variants
+            for( int gaussianIndex = 0; gaussianIndex < numGaussians; gaussianIndex++ ) {
+                final MultivariateGaussian gaussian = gaussians.get(gaussianIndex);
+                gaussian.zeroOutMu();
+                double numAssigned = 0;
+                for( final double[][] sums : partialSums ) {
+                    for( int jjj = 0; jjj < numAnnotations; jjj++ ) {
+                        gaussian.mu[jjj] += sums[gaussianIndex][jjj];
+                    }
+                    numAssigned += sums[gaussianIndex][numAnnotations];
+                }
+                if( numAssigned != 0 ) {
+                    gaussian.divideEqualsMu( numAssigned );
+                } else {
+                    gaussian.initializeRandomMu( Utils.getRandomGenerator() );
+                }
+            }
+        }
+    }
+
     public void expectationStep( final List<VariantDatum> data ) {
 
         for( final MultivariateGaussian gaussian : gaussians ) {
@@ -140,6 +218,40 @@ class GaussianMixtureModel {
         gaussians.forEach(g -> g.maximizeGaussian( data, empiricalMu, empiricalSigma, shrinkage, dirichletParameter, priorCounts));
     }
 
+    /**
+     * Multi-threaded equivalents of {@link #expectationStep(List)} and {@link #maximizationStep(List)} operating on a
+     * column-major annotation matrix.
+     *
+     * @param threadPool pool on which to process the data, or null to run on the calling thread
+     */
+    public void expectationStep( final VariantDatumAnnotationMatrix data, final ForkJoinPool threadPool ) {
+
+        for( final MultivariateGaussian gaussian : gaussians ) {
+            gaussian.precomputeDenominatorForVariationalBayes( getSumHyperParameterLambda() );
+        }
+
+        final int numGaussians = gaussians.size();
+        data.mapBlocks(threadPool, block -> {
+            final double[] annotations = new double[data.getNumAnnotations()];
+            final double[] pVarInGaussianLog10 = new double[numGaussians];
+            for( int datumIndex = data.getBlockStart(block); datumIndex < data.getBlockEnd(block); datumIndex++ ) {
+                data.copyAnnotations(datumIndex, annotations);
+                for( int gaussianIndex = 0; gaussianIndex < numGaussians; gaussianIndex++ ) {
+                    pVarInGaussianLog10[gaussianIndex] = gaussians.get(gaussianIndex).evaluateDatumLog10( annotations );
+                }
+                final double[] pVarInGaussianNormalized = MathUtils.normalizeLog10DeleteMePlease( pVarInGaussianLog10, false);
+                for( int gaussianIndex = 0; gaussianIndex < numGaussians; gaussianIndex++ ) {
+                    gaussians.get(gaussianIndex).setPVarInGaussian( datumIndex, pVarInGaussianNormalized[gaussianIndex] );
+                }
+            }
+            return null;
+        });
+    }
+
+    public void maximizationStep( final VariantDatumAnnotationMatrix data, final ForkJoinPool threadPool ) {
+        gaussians.forEach(g -> g.maximizeGaussian( data, empiricalMu, empiricalSigma, shrinkage, dirichletParameter, priorCounts, threadPool));
+    }
+
     private double getSumHyperParameterLambda() {
         return gaussians.stream().mapToDouble(g -> g.hyperParameter_lambda).sum();
     }
@@ -149,6 +261,11 @@ class GaussianMixtureModel {
         normalizePMixtureLog10();
     }
 
+    public void evaluateFinalModelParameters( final VariantDatumAnnotationMatrix data, final ForkJoinPool threadPool ) {
+        gaussians.forEach(g -> g.evaluateFinalModelParameters(data, threadPool));
+        normalizePMixtureLog10();
+    }
+
     public double normalizePMixtureLog10() {
         double sumDiff = 0.0;
         final double sumPK = gaussians.stream().mapToDouble(g -> g.sumProb).sum();
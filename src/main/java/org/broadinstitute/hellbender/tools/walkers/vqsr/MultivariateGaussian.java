@@ -9,6 +9,7 @@ import org.broadinstitute.hellbender.utils.MathUtils;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import Jama.Matrix;
 
@@ -69,7 +70,11 @@ class MultivariateGaussian {
     }
 
     public double calculateDistanceFromMeanSquared( final VariantDatum datum ) {
-        return MathUtils.distanceSquared( datum.annotations, mu );
+        return calculateDistanceFromMeanSquared( datum.annotations );
+    }
+
+    public double calculateDistanceFromMeanSquared( final double[] annotations ) {
+        return MathUtils.distanceSquared( annotations, mu );
     }
 
     public void incrementMu( final VariantDatum datum ) {
@@ -132,6 +137,10 @@ class MultivariateGaussian {
     }
 
     public double evaluateDatumLog10( final VariantDatum datum ) {
+        return evaluateDatumLog10( datum.annotations );
+    }
+
+    public double evaluateDatumLog10( final double[] annotations ) {
         if (pMixtureLog10 == Double.NEGATIVE_INFINITY) {
             return Double.NEGATIVE_INFINITY;
         }
@@ -140,11 +149,11 @@ class MultivariateGaussian {
         Arrays.fill(crossProdTmp, 0.0);
         for( int iii = 0; iii < mu.length; iii++ ) {
             for( int jjj = 0; jjj < mu.length; jjj++ ) {
-                crossProdTmp[iii] += (datum.annotations[jjj] - mu[jjj]) * cachedSigmaInverse.get(jjj, iii);
+                crossProdTmp[iii] += (annotations[jjj] - mu[jjj]) * cachedSigmaInverse.get(jjj, iii);
             }
         }
         for( int iii = 0; iii < mu.length; iii++ ) {
-            sumKernel += crossProdTmp[iii] * (datum.annotations[iii] - mu[iii]);
+            sumKernel += crossProdTmp[iii] * (annotations[iii] - mu[iii]);
         }
 
         return (( -0.5 * sumKernel ) / Math.log(10.0)) + cachedDenomLog10; // This is the definition of a Gaussian PDF Log10
@@ -154,6 +163,14 @@ class MultivariateGaussian {
         pVarInGaussian[pVarInGaussianIndex++] = pVar;
     }
 
+    /**
+     * Set the responsibility of this Gaussian for the datum at the given index. Unlike {@link #assignPVarInGaussian},
+     * this may be called concurrently for distinct indices.
+     */
+    public void setPVarInGaussian( final int datumIndex, final double pVar ) {
+        pVarInGaussian[datumIndex] = pVar;
+    }
+
     public void resetPVarInGaussian() {
         Arrays.fill(pVarInGaussian, 0.0);
         pVarInGaussianIndex = 0;
@@ -237,4 +254,124 @@ class MultivariateGaussian {
 
         resetPVarInGaussian(); // clean up some memory
     }
+
+    /**
+     * Multi-threaded equivalent of {@link #maximizeGaussian(List, double[], Matrix, double, double, double)} operating
+     * on a column-major annotation matrix. Sufficient statistics are accumulated per block of data and reduced in
+     * block order, so the result does not depend on the number of threads.
+     *
+     * @param threadPool pool on which to process the data, or null to run on the calling thread
+     */
+    public void maximizeGaussian(final VariantDatumAnnotationMatrix data, final double[] empiricalMu, final Matrix empiricalSigma,
+                                 final double SHRINKAGE, final double DIRICHLET_PARAMETER, final double DEGREES_OF_FREEDOM,
+                                 final ForkJoinPool threadPool ) {
+        sumProb = 1E-10;
+        final Matrix wishart = new Matrix(mu.length, mu.length);
+        zeroOutMu();
+        zeroOutSigma();
+
+        sumProb += accumulateWeightedMean( data, threadPool );
+        divideEqualsMu( sumProb );
+
+        final double shrinkageFactor = (SHRINKAGE * sumProb) / (SHRINKAGE + sumProb);
+        for( int iii = 0; iii < mu.length; iii++ ) {
+            double deltaMu = shrinkageFactor * (mu[iii] - empiricalMu[iii]);
+            for( int jjj = 0; jjj < mu.length; jjj++ ) {
+                wishart.set(iii, jjj, deltaMu * (mu[jjj] - empiricalMu[jjj]));
+            }
+        }
+
+        accumulateWeightedScatter( data, threadPool );
+
+        sigma.plusEquals( empiricalSigma );
+        sigma.plusEquals( wishart );
+
+        for( int iii = 0; iii < mu.length; iii++ ) {
+            mu[iii] = (sumProb * mu[iii] + SHRINKAGE * empiricalMu[iii]) / (sumProb + SHRINKAGE);
+        }
+
+        hyperParameter_a = sumProb + DEGREES_OF_FREEDOM;
+        hyperParameter_b = sumProb + SHRINKAGE;
+        hyperParameter_lambda = sumProb + DIRICHLET_PARAMETER;
+
+        resetPVarInGaussian(); // clean up some memory
+    }
+
+    /**
+     * Multi-threaded equivalent of {@link #evaluateFinalModelParameters(List)} operating on a column-major annotation matrix.
+     *
+     * @param threadPool pool on which to process the data, or null to run on the calling thread
+     */
+    public void evaluateFinalModelParameters( final VariantDatumAnnotationMatrix data, final ForkJoinPool threadPool ) {
+        zeroOutMu();
+        zeroOutSigma();
+
+        sumProb = accumulateWeightedMean( data, threadPool );
+        divideEqualsMu( sumProb );
+
+        accumulateWeightedScatter( data, threadPool );
+        sigma.timesEquals( 1.0 / sumProb );
+
+        resetPVarInGaussian(); // clean up some memory
+    }
+
+    /**
+     * Add the responsibility-weighted sum of the annotations to mu, and return the sum of the responsibilities.
+     */
+    private double accumulateWeightedMean( final VariantDatumAnnotationMatrix data, final ForkJoinPool threadPool ) {
+        final int numAnnotations = mu.length;
+        final List<double[]> partialSums = data.mapBlocks(threadPool, block -> {
+            final int start = data.getBlockStart(block);
+            final int end = data.getBlockEnd(block);
+            // the last element holds the sum of the responsibilities
+            final double[] sums = new double[numAnnotations + 1];
+            for( int datumIndex = start; datumIndex < end; datumIndex++ ) {
+                sums[numAnnotations] += pVarInGaussian[datumIndex];
+            }
+            for( int jjj = 0; jjj < numAnnotations; jjj++ ) {
+                double sum = 0.0;
+                for( int datumIndex = start; datumIndex < end; datumIndex++ ) {
+                    sum += pVarInGaussian[datumIndex] * data.get(datumIndex, jjj);
+                }
+                sums[jjj] = sum;
+            }
+            return sums;
+        });
+
+        double totalProb = 0.0;
+        for( final double[] sums : partialSums ) {
+            for( int jjj = 0; jjj < numAnnotations; jjj++ ) {
+                mu[jjj] += sums[jjj];
+            }
+            totalProb += sums[numAnnotations];
+        }
+        return totalProb;
+    }
+
+    /**
+     * Add the responsibility-weighted scatter matrix of the annotations around the current mu to sigma.
+     */
+    private void accumulateWeightedScatter( final VariantDatumAnnotationMatrix data, final ForkJoinPool threadPool ) {
+        final int numAnnotations = mu.length;
+        final List<double[][]> partialScatters = data.mapBlocks(threadPool, block -> {
+            final int start = data.getBlockStart(block);
+            final int end = data.getBlockEnd(block);
+            final double[][] scatter = new double[numAnnotations][numAnnotations];
+            for( int iii = 0; iii < numAnnotations; iii++ ) {
+                for( int jjj = iii; jjj < numAnnotations; jjj++ ) {
+                    double sum = 0.0;
+                    for( int datumIndex = start; datumIndex < end; datumIndex++ ) {
+                        sum += pVarInGaussian[datumIndex] * (data.get(datumIndex, iii) - mu[iii]) * (data.get(datumIndex, jjj) - mu[jjj]);
+                    }
+                    scatter[iii][jjj] = sum;
+                    scatter[jjj][iii] = sum;
+                }
+            }
+            return scatter;
+        });
+
+        for( final double[][] scatter : partialScatters ) {
+            sigma.plusEquals( new Matrix(scatter) );
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.util.PeekableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Joins the records of a coordinate-sorted recal file to a stream of coordinate-sorted input variants without
+ * querying the recal file for every variant.
+ *
+ * The recal records are read in a single forward pass, in lock step with the input variants. Only the records
+ * starting at the current input locus are buffered, so memory usage is bounded by the number of recal records
+ * sharing a single start position. Records starting before the current input locus (i.e. records without a
+ * corresponding input variant) are skipped.
+ *
+ * Both the input variants and the recal records must be sorted in the order of the provided sequence dictionary.
+ *
+ * Package private because it's not usable outside of VQSR.
+ */
+final class RecalFileMergeJoiner {
+
+    private final PeekableIterator<VariantContext> recalIterator;
+    private final SAMSequenceDictionary dictionary;
+
+    // recal records starting at the current locus
+    private final List<VariantContext> currentRecals = new ArrayList<>();
+    private int currentContigIndex = -1;
+    private int currentStart = -1;
+
+    // locus of the last recal record consumed, used to validate the sort order of the recal file
+    private int lastRecalContigIndex = -1;
+    private int lastRecalStart = -1;
+
+    /**
+     * @param recalIterator iterator over the recal records, in coordinate order; closing it remains the caller's responsibility
+     * @param dictionary sequence dictionary defining the order of the contigs
+     */
+    RecalFileMergeJoiner(final Iterator<VariantContext> recalIterator, final SAMSequenceDictionary dictionary) {
+        Utils.nonNull(recalIterator);
+        this.dictionary = Utils.nonNull(dictionary, "a sequence dictionary is required to stream the recal file");
+        this.recalIterator = new PeekableIterator<>(recalIterator);
+    }
+
+    /**
+     * Get the recal records starting at the same position as the given variant, advancing the recal stream as needed.
+     * Consecutive calls for variants sharing a start position return the same records.
+     *
+     * @param vc the current input variant; successive calls must be in coordinate order
+     * @return an unmodifiable list of the recal records starting at the start of {@code vc}
+     */
+    List<VariantContext> getRecalsStartingAt(final VariantContext vc) {
+        Utils.nonNull(vc);
+        final int contigIndex = getContigIndex(vc.getContig());
+        final int start = vc.getStart();
+
+        if (contigIndex == currentContigIndex && start == currentStart) {
+            return Collections.unmodifiableList(currentRecals);
+        }
+        if (compare(contigIndex, start, currentContigIndex, currentStart) < 0) {
+            throw new UserException.BadInput(String.format("Input variant at %s:%d is out of coordinate order with respect to the previous input variant. " +
+                    "Streaming the recal file requires coordinate-sorted input; disable streaming to use indexed queries instead.",
+                    vc.getContig(), start));
+        }
+
+        currentRecals.clear();
+        currentContigIndex = contigIndex;
+        currentStart = start;
+
+        while (recalIterator.hasNext()) {
+            final VariantContext next = recalIterator.peek();
+            final int nextContigIndex = getContigIndex(next.getContig());
+            final int comparison = compare(nextContigIndex, next.getStart(), contigIndex, start);
+            if (comparison > 0) {
+                break;
+            }
+            recalIterator.next();
+            if (compare(nextContigIndex, next.getStart(), lastRecalContigIndex, lastRecalStart) < 0) {
+                throw new UserException.BadInput(String.format("The recal file is not coordinate sorted: record at %s:%d follows a later record.",
+                        next.getContig(), next.getStart()));
+            }
+            lastRecalContigIndex = nextContigIndex;
+            lastRecalStart = next.getStart();
+            if (comparison == 0) {
+                currentRecals.add(next);
+            }
+        }
+        return Collections.unmodifiableList(currentRecals);
+    }
+
+    private int getContigIndex(final String contig) {
+        final int index = dictionary.getSequenceIndex(contig);
+        if (index == -1) {
+            throw new UserException.MissingContigInSequenceDictionary(contig, dictionary);
+        }
+        return index;
+    }
+
+    private static int compare(final int contigIndex1, final int start1, final int contigIndex2, final int start2) {
+        final int contigComparison = Integer.compare(contigIndex1, contigIndex2);
+        return contigComparison != 0 ? contigComparison : Integer.compare(start1, start2);
+    }
+}
@@ -104,53 +104,11 @@ public class Tranche {
     }
 
     protected static Tranche trancheOfVariants(final List<VariantDatum> data, final int minI, final double ts, final VariantRecalibratorArgumentCollection.Mode model ) {
-        int numKnown = 0, numNovel = 0, knownTi = 0, knownTv = 0, novelTi = 0, novelTv = 0;
-
-        final double minLod = data.get(minI).lod;
-        for (final VariantDatum datum : data) {
-            if (datum.lod >= minLod) {
-                if (datum.isKnown) {
-                    numKnown++;
-                    if (datum.isSNP) {
-                        if (datum.isTransition) {
-                            knownTi++;
-                        } else {
-                            knownTv++;
-                        }
-                    }
-                } else {
-                    numNovel++;
-                    if (datum.isSNP) {
-                        if (datum.isTransition) {
-                            novelTi++;
-                        } else {
-                            novelTv++;
-                        }
-                    }
-                }
-            }
-        }
-
-        final double knownTiTv = knownTi / Math.max(1.0 * knownTv, 1.0);
-        final double novelTiTv = novelTi / Math.max(1.0 * novelTv, 1.0);
-
-        final int accessibleTruthSites = VariantDatum.countCallsAtTruth(data, Double.NEGATIVE_INFINITY);
-        final int nCallsAtTruth = VariantDatum.countCallsAtTruth(data, minLod);
-
-        return new Tranche("unnamed", knownTiTv, numNovel, minLod, model, novelTiTv, accessibleTruthSites, numKnown, nCallsAtTruth);
+        return TrancheData.fromSortedData(data).trancheOfVariants(minI, model);
     }
 
     protected static Tranche emptyTranche(final List<VariantDatum> data, final int minI, final double ts, final VariantRecalibratorArgumentCollection.Mode model ) {
-        final double minLod = data.isEmpty() ? Double.NEGATIVE_INFINITY : data.get(minI).lod;
-        final int accessibleTruthSites = VariantDatum.countCallsAtTruth(data, Double.NEGATIVE_INFINITY);
-        final int nCallsAtTruth = VariantDatum.countCallsAtTruth(data, minLod);
-
-        final double knownTiTv = 0.0;
-        final double novelTiTv = 0.0;
-        final int numKnown = 0;
-        final int numNovel = 0;
-
-        return new Tranche("unnamed", knownTiTv, numNovel, minLod, model, novelTiTv, accessibleTruthSites, numKnown, nCallsAtTruth);
+        return TrancheData.fromSortedData(data).emptyTranche(minI, model);
     }
 
 
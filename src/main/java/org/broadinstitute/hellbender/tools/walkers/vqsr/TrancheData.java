@@ -0,0 +1,135 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The LOD scores and site flags of a set of data, sorted by increasing LOD, which is all that is needed to compute
+ * tranches. All tranche calculations in {@link TrancheManager} and {@link Tranche} are done on this representation;
+ * it is read either from a {@link VariantDatumTable} or from a list of {@link VariantDatum}s that has been sorted with
+ * {@link VariantDatum#VariantDatumLODComparator}.
+ *
+ * Package private because it's not usable outside of VQSR.
+ */
+final class TrancheData {
+
+    private final double[] lod;
+    private final BitSet isKnown;
+    private final BitSet atTruthSite;
+    private final BitSet isSNP;
+    private final BitSet isTransition;
+
+    /**
+     * @param lod the LOD scores, sorted in increasing order
+     * @param isKnown the known sites, indexed as {@code lod}
+     * @param atTruthSite the data at truth sites, indexed as {@code lod}
+     * @param isSNP the SNPs, indexed as {@code lod}
+     * @param isTransition the transitions, indexed as {@code lod}
+     */
+    TrancheData(final double[] lod, final BitSet isKnown, final BitSet atTruthSite, final BitSet isSNP, final BitSet isTransition) {
+        this.lod = lod;
+        this.isKnown = isKnown;
+        this.atTruthSite = atTruthSite;
+        this.isSNP = isSNP;
+        this.isTransition = isTransition;
+    }
+
+    /**
+     * Copy the LOD scores and site flags of a list of VariantDatums, keeping the order of the list.
+     *
+     * @param data the data, sorted by increasing LOD
+     */
+    static TrancheData fromSortedData(final List<VariantDatum> data) {
+        final int size = data.size();
+        final double[] lod = new double[size];
+        final BitSet isKnown = new BitSet(size);
+        final BitSet atTruthSite = new BitSet(size);
+        final BitSet isSNP = new BitSet(size);
+        final BitSet isTransition = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            final VariantDatum datum = data.get(i);
+            lod[i] = datum.lod;
+            isKnown.set(i, datum.isKnown);
+            atTruthSite.set(i, datum.atTruthSite);
+            isSNP.set(i, datum.isSNP);
+            isTransition.set(i, datum.isTransition);
+        }
+        return new TrancheData(lod, isKnown, atTruthSite, isSNP, isTransition);
+    }
+
+    int size() {
+        return lod.length;
+    }
+
+    double getLod(final int i) {
+        return lod[i];
+    }
+
+    boolean isAtTruthSite(final int i) {
+        return atTruthSite.get(i);
+    }
+
+    /**
+     * @return the number of data at truth sites with a LOD of at least {@code minLOD}
+     */
+    int countCallsAtTruth(final double minLOD) {
+        int n = 0;
+        for (int i = atTruthSite.nextSetBit(0); i >= 0; i = atTruthSite.nextSetBit(i + 1)) {
+            if (lod[i] >= minLOD) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @return the tranche of all data with a LOD of at least that of datum {@code minI}
+     */
+    Tranche trancheOfVariants(final int minI, final VariantRecalibratorArgumentCollection.Mode model) {
+        int numKnown = 0, numNovel = 0, knownTi = 0, knownTv = 0, novelTi = 0, novelTv = 0;
+
+        final double minLod = lod[minI];
+        for (int i = 0; i < lod.length; i++) {
+            if (lod[i] >= minLod) {
+                if (isKnown.get(i)) {
+                    numKnown++;
+                    if (isSNP.get(i)) {
+                        if (isTransition.get(i)) {
+                            knownTi++;
+                        } else {
+                            knownTv++;
+                        }
+                    }
+                } else {
+                    numNovel++;
+                    if (isSNP.get(i)) {
+                        if (isTransition.get(i)) {
+                            novelTi++;
+                        } else {
+                            novelTv++;
+                        }
+                    }
+                }
+            }
+        }
+
+        final double knownTiTv = knownTi / Math.max(1.0 * knownTv, 1.0);
+        final double novelTiTv = novelTi / Math.max(1.0 * novelTv, 1.0);
+
+        final int accessibleTruthSites = countCallsAtTruth(Double.NEGATIVE_INFINITY);
+        final int nCallsAtTruth = countCallsAtTruth(minLod);
+
+        return new Tranche("unnamed", knownTiTv, numNovel, minLod, model, novelTiTv, accessibleTruthSites, numKnown, nCallsAtTruth);
+    }
+
+    /**
+     * @return a tranche with no variants and a LOD threshold of that of datum {@code minI}, reporting the truth
+     * sensitivity at that threshold
+     */
+    Tranche emptyTranche(final int minI, final VariantRecalibratorArgumentCollection.Mode model) {
+        final double minLod = lod.length == 0 ? Double.NEGATIVE_INFINITY : lod[minI];
+        final int accessibleTruthSites = countCallsAtTruth(Double.NEGATIVE_INFINITY);
+        final int nCallsAtTruth = countCallsAtTruth(minLod);
+        return new Tranche("unnamed", 0.0, 0, minLod, model, 0.0, accessibleTruthSites, 0, nCallsAtTruth);
+    }
+}
@@ -57,12 +57,15 @@ public class TrancheManager {
 
         @Override
         public void calculateRunningMetric(final List<VariantDatum> data) {
+            calculateRunningMetric(TrancheData.fromSortedData(data));
+        }
+
+        void calculateRunningMetric(final TrancheData data) {
             int nCalledAtTruth = 0;
             runningSensitivity = new double[data.size()];
 
             for ( int i = data.size() - 1; i >= 0; i-- ) {
-                VariantDatum datum = data.get(i);
-                nCalledAtTruth += datum.atTruthSite ? 1 : 0;
+                nCalledAtTruth += data.isAtTruthSite(i) ? 1 : 0;
                 runningSensitivity[i] = 1 - nCalledAtTruth / (1.0 * nTrueSites);
             }
         }
@@ -100,24 +103,23 @@ public class TrancheManager {
             writeTranchesDebuggingInfo(debugFile, data, metric);
         }
 
-        List<TruthSensitivityTranche> tranches = new ArrayList<>();
-        for ( double trancheThreshold : trancheThresholds ) {
-            TruthSensitivityTranche t = findTranche(data, metric, trancheThreshold, model);
+        return findTranchesInSortedData(TrancheData.fromSortedData(data), trancheThresholds, metric, model);
+    }
 
-            if ( t == null ) {
-                if ( tranches.size() == 0 ) {
-                    throw new UserException(String.format(
-                            "Couldn't find any tranche containing variants with a %s > %.2f. Are you sure the truth files contain unfiltered variants which overlap the input data?",
-                            metric.getName(),
-                            metric.getThreshold(trancheThreshold)));
-                }
-                break;
-            }
+    /**
+     * Version of {@link #findTranches(List, List, SelectionMetric, VariantRecalibratorArgumentCollection.Mode)} for
+     * {@link TrancheData}, which is already sorted by LOD.
+     */
+    static List<TruthSensitivityTranche> findTranches(
+            final TrancheData data,
+            final List<Double> trancheThresholds,
+            final TruthSensitivityMetric metric,
+            final VariantRecalibratorArgumentCollection.Mode model) {
+        logger.info(String.format("Finding %d tranches for %d variants", trancheThresholds.size(), data.size()));
 
-            tranches.add(t);
-        }
+        metric.calculateRunningMetric(data);
 
-        return tranches;
+        return findTranchesInSortedData(data, trancheThresholds, metric, model);
     }
 
     public static List<VQSLODTranche> findVQSLODTranches(
@@ -130,9 +132,36 @@ public class TrancheManager {
         Collections.sort( data, VariantDatum.VariantDatumLODComparator );
         metric.calculateRunningMetric(data);
 
-        final List<VQSLODTranche> tranches = new ArrayList<>();
+        return findVQSLODTranchesInSortedData(TrancheData.fromSortedData(data), trancheThresholds, metric, model);
+    }
+
+    /**
+     * Version of {@link #findVQSLODTranches(List, List, SelectionMetric, VariantRecalibratorArgumentCollection.Mode)} for
+     * {@link TrancheData}, which is already sorted by LOD.
+     */
+    static List<VQSLODTranche> findVQSLODTranches(
+            final TrancheData data,
+            final List<Double> trancheThresholds,
+            final TruthSensitivityMetric metric,
+            final VariantRecalibratorArgumentCollection.Mode model) {
+        logger.info(String.format("Finding %d tranches for %d variants", trancheThresholds.size(), data.size()));
+
+        metric.calculateRunningMetric(data);
+
+        return findVQSLODTranchesInSortedData(data, trancheThresholds, metric, model);
+    }
+
+    /**
+     * Find the tranches in data sorted by LOD, for which the running metric has already been calculated.
+     */
+    private static List<TruthSensitivityTranche> findTranchesInSortedData(
+            final TrancheData data,
+            final List<Double> trancheThresholds,
+            final SelectionMetric metric,
+            final VariantRecalibratorArgumentCollection.Mode model) {
+        final List<TruthSensitivityTranche> tranches = new ArrayList<>();
         for ( double trancheThreshold : trancheThresholds ) {
-            VQSLODTranche t = findVQSLODTranche(data, metric, trancheThreshold, model);
+            final TruthSensitivityTranche t = findTranche(data, metric, trancheThreshold, model);
 
             if ( t == null ) {
                 if ( tranches.size() == 0 ) {
@@ -148,7 +177,23 @@ public class TrancheManager {
         }
 
         return tranches;
+    }
+
+    /**
+     * Find the VQSLOD tranches in data sorted by LOD, for which the running metric has already been calculated.
+     * A tranche is reported for every threshold, empty if no data meet it.
+     */
+    private static List<VQSLODTranche> findVQSLODTranchesInSortedData(
+            final TrancheData data,
+            final List<Double> trancheThresholds,
+            final SelectionMetric metric,
+            final VariantRecalibratorArgumentCollection.Mode model) {
+        final List<VQSLODTranche> tranches = new ArrayList<>();
+        for ( double trancheThreshold : trancheThresholds ) {
+            tranches.add(findVQSLODTranche(data, metric, trancheThreshold, model));
+        }
 
+        return tranches;
     }
 
     private static void writeTranchesDebuggingInfo(final File f, final List<VariantDatum> tranchesData, final SelectionMetric metric ) {
@@ -172,6 +217,22 @@ public class TrancheManager {
             final SelectionMetric metric,
             final double trancheThreshold,
             final VariantRecalibratorArgumentCollection.Mode model ) {
+        return findTranche(TrancheData.fromSortedData(data), metric, trancheThreshold, model);
+    }
+
+    public static VQSLODTranche findVQSLODTranche(
+            final List<VariantDatum> data,
+            final SelectionMetric metric,
+            final double trancheThreshold,
+            final VariantRecalibratorArgumentCollection.Mode model ) {
+        return findVQSLODTranche(TrancheData.fromSortedData(data), metric, trancheThreshold, model);
+    }
+
+    private static TruthSensitivityTranche findTranche(
+            final TrancheData data,
+            final SelectionMetric metric,
+            final double trancheThreshold,
+            final VariantRecalibratorArgumentCollection.Mode model ) {
         logger.info(String.format("  TruthSensitivityTranche threshold %.2f => selection metric threshold %.3f", trancheThreshold, metric.getThreshold(trancheThreshold)));
 
         final double metricThreshold = metric.getThreshold(trancheThreshold);
@@ -190,8 +251,8 @@ public class TrancheManager {
         return null;
     }
 
-    public static VQSLODTranche findVQSLODTranche(
-            final List<VariantDatum> data,
+    private static VQSLODTranche findVQSLODTranche(
+            final TrancheData data,
             final SelectionMetric metric,
             final double trancheThreshold,
             final VariantRecalibratorArgumentCollection.Mode model ) {
@@ -200,7 +261,7 @@ public class TrancheManager {
         final double metricThreshold = metric.getThreshold(trancheThreshold);
         final int n = data.size();
         for ( int i = 0; i < n; i++ ) {
-            if ( data.get(i).lod >= trancheThreshold ) {
+            if ( data.getLod(i) >= trancheThreshold ) {
                 // we've found the largest group of variants with LOD >= our target LOD
                 final VQSLODTranche t = VQSLODTranche.trancheOfVariants(data, i, trancheThreshold, model);
                 logger.info(String.format("  Found tranche for %.3f: %.3f threshold starting with variant %d; running score is %.3f ",
@@ -212,8 +273,7 @@ public class TrancheManager {
         //If we don't have enough good data to meet the trancheThreshold, for VQSLODs we still want to return something
         logger.info(String.format("  Could not find tranche for %.3f: %.3f threshold; reporting empty tranche",
                 trancheThreshold, metricThreshold));
-        final VQSLODTranche t = VQSLODTranche.emptyTranche(data, n-1, trancheThreshold, model);
-        return t;
+        return VQSLODTranche.emptyTranche(data, n-1, trancheThreshold, model);
     }
 
     public static double fdrToTiTv(final double desiredFDR, final double targetTiTv) {
@@ -218,7 +218,14 @@ final class TruthSensitivityTranche extends Tranche {
     }
 
     protected static TruthSensitivityTranche trancheOfVariants(final List<VariantDatum> data, final int minI, final double ts, final VariantRecalibratorArgumentCollection.Mode model ) {
-        Tranche basicTranche = Tranche.trancheOfVariants(data, minI, ts, model);
+        return fromBasicTranche(Tranche.trancheOfVariants(data, minI, ts, model), ts, model);
+    }
+
+    static TruthSensitivityTranche trancheOfVariants(final TrancheData data, final int minI, final double ts, final VariantRecalibratorArgumentCollection.Mode model ) {
+        return fromBasicTranche(data.trancheOfVariants(minI, model), ts, model);
+    }
+
+    private static TruthSensitivityTranche fromBasicTranche(final Tranche basicTranche, final double ts, final VariantRecalibratorArgumentCollection.Mode model ) {
         return new TruthSensitivityTranche(ts, basicTranche.minVQSLod, basicTranche.numKnown, basicTranche.knownTiTv, basicTranche.numNovel, basicTranche.novelTiTv, basicTranche.accessibleTruthSites, basicTranche.callsAtTruthSites, model, DEFAULT_TRANCHE_NAME);
     }
 
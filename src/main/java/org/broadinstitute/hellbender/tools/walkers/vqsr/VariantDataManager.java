@@ -6,6 +6,7 @@ import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
 import htsjdk.variant.vcf.VCFConstants;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang3.AnnotationUtils;
 import org.apache.logging.log4j.Logger;
@@ -24,7 +25,7 @@ import java.util.stream.Collectors;
 
 
 public class VariantDataManager {
-    private List<VariantDatum> data = Collections.emptyList();
+    private VariantDatumTable dataTable;
     private double[] meanVector;
     private double[] varianceVector; // this is really the standard deviation
     public List<String> annotationKeys;
@@ -35,7 +36,6 @@ public class VariantDataManager {
     private static final double PRECISION = 0.01;         //To use mainly with MathUtils.compareDoubles(a,b,PRECISION)
 
     public VariantDataManager( final List<String> annotationKeys, final VariantRecalibratorArgumentCollection VRAC ) {
-        this.data = Collections.emptyList();
         final List<String> uniqueAnnotations = annotationKeys.stream().distinct().collect(Collectors.toList());
         if (annotationKeys.size() != uniqueAnnotations.size()) {
             logger.warn("Ignoring duplicate annotations for recalibration %s.", Utils.getDuplicatedItems(annotationKeys));
@@ -45,10 +45,25 @@ public class VariantDataManager {
         meanVector = new double[this.annotationKeys.size()];
         varianceVector = new double[this.annotationKeys.size()];
         trainingSets = new ArrayList<>();
+        dataTable = new VariantDatumTable(this.annotationKeys.size());
     }
 
+    /**
+     * Copy the given data into a compact table (see {@link #setData(VariantDatumTable)}). Later changes to the
+     * VariantDatums are not seen by this manager, nor are changes made by this manager seen in the VariantDatums.
+     */
     public void setData( final List<VariantDatum> data ) {
-        this.data = data;
+        setData(VariantDatumTable.fromData(data, annotationKeys.size()));
+    }
+
+    /**
+     * Use a compact columnar table to hold the data. {@link #normalizeData}, {@link #getTrainingData},
+     * {@link #selectWorstVariants}, {@link #dropAggregateData} and {@link #writeOutRecalibrationTable} operate directly
+     * on the table, and only the training sets are materialized as {@link VariantDatum} objects.
+     */
+    public void setData( final VariantDatumTable dataTable ) {
+        Utils.validateArg(dataTable.getNumAnnotations() == annotationKeys.size(), "data table has the wrong number of annotations");
+        this.dataTable = dataTable;
     }
 
     public void setNormalization(final Map<String, Double> anMeans, final Map<String, Double> anStdDevs) {
@@ -58,10 +73,32 @@ public class VariantDataManager {
         }
     }
 
+    /**
+     * @return detached copies of all the data, in table order
+     */
     public List<VariantDatum> getData() {
+        final List<VariantDatum> data = new ArrayList<>(dataTable.size());
+        for( int i = 0; i < dataTable.size(); i++ ) {
+            data.add( dataTable.get(i) );
+        }
         return data;
     }
 
+    /**
+     * @return the compact table holding the data
+     */
+    public VariantDatumTable getDataTable() {
+        return dataTable;
+    }
+
+    /**
+     * @return the LOD scores and site flags of the data, read straight from the table's primitive arrays, from which
+     * to compute tranches
+     */
+    TrancheData getTrancheData() {
+        return dataTable.getTrancheData();
+    }
+
     /**
      * Normalize annotations to mean 0 and standard deviation 1.
      * Order the variant annotations by the provided list {@code theOrder} or standard deviation.
@@ -90,9 +127,9 @@ public class VariantDataManager {
                 theSTD = varianceVector[iii];
             }
             logger.info(annotationKeys.get(iii) + String.format(": \t mean = %.2f\t standard deviation = %.2f", theMean, theSTD));
-            for( final VariantDatum datum : data ) {
+            for( int i = 0; i < dataTable.size(); i++ ) {
                 // Transform each data point via: (x - mean) / standard deviation
-                datum.annotations[iii] = ( datum.isNull[iii] ? 0.1 * Utils.getRandomGenerator().nextGaussian() : ( datum.annotations[iii] - theMean ) / theSTD );
+                dataTable.setAnnotation(i, iii, ( dataTable.isNull(i, iii) ? 0.1 * Utils.getRandomGenerator().nextGaussian() : ( dataTable.getAnnotation(i, iii) - theMean ) / theSTD ));
             }
         }
         if( foundZeroVarianceAnnotation ) {
@@ -100,12 +137,12 @@ public class VariantDataManager {
         }
 
         // trim data by standard deviation threshold and mark failing data for exclusion later
-        for( final VariantDatum datum : data ) {
+        for( int i = 0; i < dataTable.size(); i++ ) {
             boolean remove = false;
-            for( final double val : datum.annotations ) {
-                remove = remove || (Math.abs(val) > VRAC.STD_THRESHOLD);
+            for( int iii = 0; iii < dataTable.getNumAnnotations(); iii++ ) {
+                remove = remove || (Math.abs(dataTable.getAnnotation(i, iii)) > VRAC.STD_THRESHOLD);
             }
-            datum.failingSTDThreshold = remove;
+            dataTable.setFailingSTDThreshold(i, remove);
         }
 
         // re-order the data by increasing standard deviation so that the results don't depend on the order things were specified on the command line
@@ -117,10 +154,7 @@ public class VariantDataManager {
         annotationKeys = reorderList(annotationKeys, theOrder);
         varianceVector = ArrayUtils.toPrimitive(reorderArray(ArrayUtils.toObject(varianceVector), theOrder));
         meanVector = ArrayUtils.toPrimitive(reorderArray(ArrayUtils.toObject(meanVector), theOrder));
-        for( final VariantDatum datum : data ) {
-            datum.annotations = ArrayUtils.toPrimitive(reorderArray(ArrayUtils.toObject(datum.annotations), theOrder));
-            datum.isNull = ArrayUtils.toPrimitive(reorderArray(ArrayUtils.toObject(datum.isNull), theOrder));
-        }
+        dataTable.reorderAnnotations(theOrder);
         logger.info("Annotation order is: " + annotationKeys.toString());
     }
 
@@ -228,10 +262,11 @@ public class VariantDataManager {
 
     public List<VariantDatum> getTrainingData() {
         final List<VariantDatum> trainingData = new ArrayList<>();
-        for( final VariantDatum datum : data ) {
-            if( datum.atTrainingSite && !datum.failingSTDThreshold ) {
-                trainingData.add( datum );
-            } else if (datum.failingSTDThreshold && VRAC.debugStdevThresholding) {
+        for( int i = 0; i < dataTable.size(); i++ ) {
+            if( dataTable.isAtTrainingSite(i) && !dataTable.isFailingSTDThreshold(i) ) {
+                trainingData.add( dataTable.get(i) );
+            } else if (dataTable.isFailingSTDThreshold(i) && VRAC.debugStdevThresholding) {
+                final VariantDatum datum = dataTable.get(i);
                 logger.warn("Datum at " + datum.loc + " with ref " + datum.referenceAllele + " and alt " + datum.alternateAllele + " failing std thresholding: " + Arrays.toString(datum.annotations));
             }
         }
@@ -249,10 +284,11 @@ public class VariantDataManager {
     public List<VariantDatum> selectWorstVariants() {
         final List<VariantDatum> trainingData = new ArrayList<>();
 
-        for( final VariantDatum datum : data ) {
-            if( datum != null && !datum.failingSTDThreshold && !Double.isInfinite(datum.lod) && datum.lod < VRAC.BAD_LOD_CUTOFF ) {
-                datum.atAntiTrainingSite = true;
-                trainingData.add( datum );
+        for( int i = 0; i < dataTable.size(); i++ ) {
+            final double lod = dataTable.getLod(i);
+            if( !dataTable.isFailingSTDThreshold(i) && !Double.isInfinite(lod) && lod < VRAC.BAD_LOD_CUTOFF ) {
+                dataTable.setAtAntiTrainingSite(i, true);
+                trainingData.add( dataTable.get(i) );
             }
         }
 
@@ -264,9 +300,9 @@ public class VariantDataManager {
     public List<VariantDatum> getEvaluationData() {
         final List<VariantDatum> evaluationData = new ArrayList<>();
 
-        for( final VariantDatum datum : data ) {
-            if( datum != null && !datum.failingSTDThreshold && !datum.atTrainingSite && !datum.atAntiTrainingSite ) {
-                evaluationData.add( datum );
+        for( int i = 0; i < dataTable.size(); i++ ) {
+            if( !dataTable.isFailingSTDThreshold(i) && !dataTable.isAtTrainingSite(i) && !dataTable.isAtAntiTrainingSite(i) ) {
+                evaluationData.add( dataTable.get(i) );
             }
         }
 
@@ -274,16 +310,10 @@ public class VariantDataManager {
     }
 
     /**
-     * Remove all VariantDatum's from the data list which are marked as aggregate data
+     * Remove all data which are marked as aggregate data
      */
     public void dropAggregateData() {
-        final Iterator<VariantDatum> iter = data.iterator();
-        while (iter.hasNext()) {
-            final VariantDatum datum = iter.next();
-            if( datum.isAggregate ) {
-                iter.remove();
-            }
-        }
+        dataTable.removeAggregateData();
     }
 
     public List<VariantDatum> getRandomDataForPlotting( final int numToAdd, final List<VariantDatum> trainingData, final List<VariantDatum> antiTrainingData, final List<VariantDatum> evaluationData ) {
@@ -298,12 +328,60 @@ public class VariantDataManager {
         return returnData;
     }
 
+    /**
+     * Version of {@link #getRandomDataForPlotting(int, List, List, List)} which draws the training, anti-training and evaluation sets from the current state of the table so that the plotted
+     * data reflect the final LOD scores. The row indices of each set are sampled, and VariantDatums are only created
+     * for the sampled rows; the result is the same as sampling VariantDatums for every row in each set.
+     */
+    public List<VariantDatum> getRandomDataForPlotting( final int numToAdd ) {
+        final IntArrayList trainingRows = new IntArrayList();
+        final IntArrayList antiTrainingRows = new IntArrayList();
+        final IntArrayList evaluationRows = new IntArrayList();
+        for( int i = 0; i < dataTable.size(); i++ ) {
+            if( dataTable.isFailingSTDThreshold(i) ) {
+                continue;
+            }
+            if( dataTable.isAtTrainingSite(i) ) {
+                trainingRows.add(i);
+            }
+            if( dataTable.isAtAntiTrainingSite(i) ) {
+                antiTrainingRows.add(i);
+            }
+            if( !dataTable.isAtTrainingSite(i) && !dataTable.isAtAntiTrainingSite(i) ) {
+                evaluationRows.add(i);
+            }
+        }
+
+        final List<VariantDatum> returnData = new ArrayList<>();
+        for( final IntArrayList rows : Arrays.asList(trainingRows, antiTrainingRows, evaluationRows) ) {
+            shuffle(rows, Utils.getRandomGenerator());
+            for( int j = 0; j < Math.min(numToAdd, rows.size()); j++ ) {
+                returnData.add( dataTable.get(rows.getInt(j)) );
+            }
+        }
+        Collections.shuffle(returnData, Utils.getRandomGenerator());
+        return returnData;
+    }
+
+    /**
+     * Shuffle the given rows exactly as {@link Collections#shuffle(List, Random)} would shuffle a list of the same size,
+     * drawing the same random numbers.
+     */
+    private static void shuffle( final IntArrayList rows, final Random rnd ) {
+        for( int i = rows.size(); i > 1; i-- ) {
+            final int j = rnd.nextInt(i);
+            final int tmp = rows.getInt(i - 1);
+            rows.set(i - 1, rows.getInt(j));
+            rows.set(j, tmp);
+        }
+    }
+
     protected double mean( final int index, final boolean trainingData ) {
         double sum = 0.0;
         int numNonNull = 0;
-        for( final VariantDatum datum : data ) {
-            if( (trainingData == datum.atTrainingSite) && !datum.isNull[index] ) {
-                sum += datum.annotations[index];
+        for( int i = 0; i < dataTable.size(); i++ ) {
+            if( (trainingData == dataTable.isAtTrainingSite(i)) && !dataTable.isNull(i, index) ) {
+                sum += dataTable.getAnnotation(i, index);
                 numNonNull++;
             }
         }
@@ -313,8 +391,12 @@ public class VariantDataManager {
     protected double standardDeviation( final double mean, final int index, final boolean trainingData ) {
         double sum = 0.0;
         int numNonNull = 0;
-        for( final VariantDatum datum : data ) {
-            if( (trainingData == datum.atTrainingSite) && !datum.isNull[index] ) { sum += ((datum.annotations[index] - mean)*(datum.annotations[index] - mean)); numNonNull++; }
+        for( int i = 0; i < dataTable.size(); i++ ) {
+            if( (trainingData == dataTable.isAtTrainingSite(i)) && !dataTable.isNull(i, index) ) {
+                final double delta = dataTable.getAnnotation(i, index) - mean;
+                sum += delta * delta;
+                numNonNull++;
+            }
         }
         return Math.sqrt( sum / ((double) numNonNull) );
     }
@@ -470,22 +552,22 @@ public class VariantDataManager {
     }
 
     public void writeOutRecalibrationTable(final VariantContextWriter recalWriter, final SAMSequenceDictionary seqDictionary) {
-        // we need to sort in coordinate order in order to produce a valid VCF
-        Collections.sort( data, VariantDatum.getComparator(seqDictionary) );
+        // we need to write in coordinate order in order to produce a valid VCF
+        final int[] sortOrder = dataTable.getCoordinateSortOrder(seqDictionary);
 
         // create dummy alleles to be used
         List<Allele> alleles = Arrays.asList(Allele.create("N", true), Allele.create("<VQSR>", false));
 
-        for( final VariantDatum datum : data ) {
+        for( final int i : sortOrder ) {
             if (VRAC.useASannotations)
-                alleles = Arrays.asList(datum.referenceAllele, datum.alternateAllele); //use the alleles to distinguish between multiallelics in AS mode
-            VariantContextBuilder builder = new VariantContextBuilder("VQSR", datum.loc.getContig(), datum.loc.getStart(), datum.loc.getEnd(), alleles);
-            builder.attribute(VCFConstants.END_KEY, datum.loc.getEnd());
-            builder.attribute(GATKVCFConstants.VQS_LOD_KEY, String.format("%.4f", datum.lod));
-            builder.attribute(GATKVCFConstants.CULPRIT_KEY, (datum.worstAnnotation != -1 ? annotationKeys.get(datum.worstAnnotation) : "NULL"));
-
-            if ( datum.atTrainingSite ) builder.attribute(GATKVCFConstants.POSITIVE_LABEL_KEY, true);
-            if ( datum.atAntiTrainingSite ) builder.attribute(GATKVCFConstants.NEGATIVE_LABEL_KEY, true);
+                alleles = Arrays.asList(dataTable.getReferenceAllele(i), dataTable.getAlternateAllele(i)); //use the alleles to distinguish between multiallelics in AS mode
+            VariantContextBuilder builder = new VariantContextBuilder("VQSR", dataTable.getContig(i), dataTable.getStart(i), dataTable.getEnd(i), alleles);
+            builder.attribute(VCFConstants.END_KEY, dataTable.getEnd(i));
+            builder.attribute(GATKVCFConstants.VQS_LOD_KEY, String.format("%.4f", dataTable.getLod(i)));
+            builder.attribute(GATKVCFConstants.CULPRIT_KEY, (dataTable.getWorstAnnotation(i) != -1 ? annotationKeys.get(dataTable.getWorstAnnotation(i)) : "NULL"));
+
+            if ( dataTable.isAtTrainingSite(i) ) builder.attribute(GATKVCFConstants.POSITIVE_LABEL_KEY, true);
+            if ( dataTable.isAtAntiTrainingSite(i) ) builder.attribute(GATKVCFConstants.NEGATIVE_LABEL_KEY, true);
 
             recalWriter.add(builder.make());
         }
@@ -0,0 +1,118 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Contiguous, column-major copy of the annotation values of a list of {@link VariantDatum}s, used by the
+ * multi-threaded Gaussian mixture model training code.
+ *
+ * The values for annotation {@code j} of all data are stored contiguously, so that the value for datum {@code i}
+ * is found at {@code values[j * numData + i]}.
+ *
+ * The data are split into fixed-size blocks that are processed independently, and any per-block partial results
+ * are always combined in block order. Since the block boundaries do not depend on the number of threads, results
+ * computed through {@link #mapBlocks(ForkJoinPool, IntFunction)} are reproducible regardless of the number of threads used.
+ *
+ * Package private because it's not usable outside of VQSR.
+ */
+final class VariantDatumAnnotationMatrix {
+
+    static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private final double[] values;
+    private final int numData;
+    private final int numAnnotations;
+    private final int blockSize;
+
+    VariantDatumAnnotationMatrix(final List<VariantDatum> data) {
+        this(data, DEFAULT_BLOCK_SIZE);
+    }
+
+    VariantDatumAnnotationMatrix(final List<VariantDatum> data, final int blockSize) {
+        Utils.nonEmpty(data, "data must not be empty");
+        Utils.validateArg(blockSize > 0, "blockSize must be positive");
+        this.numData = data.size();
+        this.numAnnotations = data.get(0).annotations.length;
+        this.blockSize = blockSize;
+        this.values = new double[numData * numAnnotations];
+        int datumIndex = 0;
+        for (final VariantDatum datum : data) {
+            Utils.validateArg(datum.annotations.length == numAnnotations, "all data must have the same number of annotations");
+            for (int jjj = 0; jjj < numAnnotations; jjj++) {
+                values[jjj * numData + datumIndex] = datum.annotations[jjj];
+            }
+            datumIndex++;
+        }
+    }
+
+    int getNumData() {
+        return numData;
+    }
+
+    int getNumAnnotations() {
+        return numAnnotations;
+    }
+
+    double get(final int datumIndex, final int annotationIndex) {
+        return values[annotationIndex * numData + datumIndex];
+    }
+
+    /**
+     * Copy the annotations of a single datum into the provided buffer (which must have length >= numAnnotations).
+     */
+    void copyAnnotations(final int datumIndex, final double[] buffer) {
+        for (int jjj = 0; jjj < numAnnotations; jjj++) {
+            buffer[jjj] = values[jjj * numData + datumIndex];
+        }
+    }
+
+    int getNumBlocks() {
+        return (numData + blockSize - 1) / blockSize;
+    }
+
+    int getBlockStart(final int blockIndex) {
+        return blockIndex * blockSize;
+    }
+
+    int getBlockEnd(final int blockIndex) {
+        return Math.min(numData, (blockIndex + 1) * blockSize);
+    }
+
+    /**
+     * Apply a function to every block of data, either on the calling thread or on the provided thread pool.
+     *
+     * @param threadPool pool on which to process the blocks, or null to process all blocks on the calling thread
+     * @param blockFunction function from block index to the partial result for that block
+     * @return the per-block results, in block order
+     */
+    <T> List<T> mapBlocks(final ForkJoinPool threadPool, final IntFunction<T> blockFunction) {
+        final int numBlocks = getNumBlocks();
+        if (threadPool == null || numBlocks == 1) {
+            final List<T> results = new ArrayList<>(numBlocks);
+            for (int block = 0; block < numBlocks; block++) {
+                results.add(blockFunction.apply(block));
+            }
+            return results;
+        }
+        try {
+            return threadPool.submit(
+                    () -> IntStream.range(0, numBlocks).parallel().mapToObj(blockFunction).collect(Collectors.toList())).get();
+        } catch (final InterruptedException e) {
+            throw new GATKException("Gaussian mixture model training was interrupted", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Exception during multi-threaded Gaussian mixture model training", e.getCause());
+        }
+    }
+}
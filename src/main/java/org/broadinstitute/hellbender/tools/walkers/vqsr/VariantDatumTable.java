@@ -0,0 +1,462 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.variant.variantcontext.Allele;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar, primitive-backed storage for the sites (or alleles) handled by {@link VariantDataManager}.
+ *
+ * Holding one {@link VariantDatum} object per site, each with its own annotation and missing-value arrays, boxed
+ * location and allele references, costs several hundred bytes per site. This table instead keeps all annotations in
+ * a single row-major {@code double[]} matrix, the missing-value flags and boolean site properties in bitsets, and the
+ * locations as contig ordinals plus {@code int} start and end coordinates. Contig names and alleles are interned.
+ *
+ * {@link VariantDatum} objects are only created on demand, either as detached copies via {@link #get(int)} (for
+ * the comparatively small training sets), or by loading a row into a reusable scratch datum via
+ * {@link #load(int, VariantDatum)}.
+ *
+ * Package private because it's not usable outside of VQSR.
+ */
+final class VariantDatumTable {
+
+    private static final int INITIAL_CAPACITY = 2000;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+    private static final int NO_VALUE = -1;
+
+    private final int numAnnotations;
+    private int size = 0;
+    private int capacity = 0;
+
+    // row-major annotation matrix: the value of annotation j for datum i is at annotations[i * numAnnotations + j]
+    private double[] annotations = new double[0];
+    // same layout as the annotation matrix
+    private final BitSet isNull = new BitSet();
+
+    private final BitSet isKnown = new BitSet();
+    private final BitSet atTruthSite = new BitSet();
+    private final BitSet atTrainingSite = new BitSet();
+    private final BitSet atAntiTrainingSite = new BitSet();
+    private final BitSet isTransition = new BitSet();
+    private final BitSet isSNP = new BitSet();
+    private final BitSet failingSTDThreshold = new BitSet();
+    private final BitSet isAggregate = new BitSet();
+
+    private double[] lod = new double[0];
+    private double[] originalQual = new double[0];
+    private double[] prior = new double[0];
+    private double[] worstValue = new double[0];
+    private int[] worstAnnotation = new int[0];
+
+    private int[] contigIndex = new int[0];
+    private int[] start = new int[0];
+    private int[] end = new int[0];
+    private final List<String> contigs = new ArrayList<>();
+    private final Map<String, Integer> contigIndices = new HashMap<>();
+
+    private int[] referenceAlleleIndex = new int[0];
+    private int[] alternateAlleleIndex = new int[0];
+    private final List<Allele> alleles = new ArrayList<>();
+    private final Map<Allele, Integer> alleleIndices = new HashMap<>();
+
+    VariantDatumTable(final int numAnnotations) {
+        Utils.validateArg(numAnnotations >= 0, "numAnnotations must be non-negative");
+        this.numAnnotations = numAnnotations;
+        ensureCapacity(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Copy all of the data in a list of VariantDatums into a new table.
+     */
+    static VariantDatumTable fromData(final List<VariantDatum> data, final int numAnnotations) {
+        final VariantDatumTable table = new VariantDatumTable(numAnnotations);
+        data.forEach(table::add);
+        return table;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getNumAnnotations() {
+        return numAnnotations;
+    }
+
+    /**
+     * Append a copy of the given datum to the table. The datum itself is not retained.
+     */
+    void add(final VariantDatum datum) {
+        Utils.nonNull(datum);
+        ensureCapacity(size + 1);
+        final int i = size++;
+        if (datum.annotations != null) {
+            Utils.validateArg(datum.annotations.length == numAnnotations, "datum has the wrong number of annotations");
+            System.arraycopy(datum.annotations, 0, annotations, i * numAnnotations, numAnnotations);
+        }
+        if (datum.isNull != null) {
+            for (int j = 0; j < numAnnotations; j++) {
+                isNull.set(i * numAnnotations + j, datum.isNull[j]);
+            }
+        }
+        isKnown.set(i, datum.isKnown);
+        atTruthSite.set(i, datum.atTruthSite);
+        atTrainingSite.set(i, datum.atTrainingSite);
+        atAntiTrainingSite.set(i, datum.atAntiTrainingSite);
+        isTransition.set(i, datum.isTransition);
+        isSNP.set(i, datum.isSNP);
+        failingSTDThreshold.set(i, datum.failingSTDThreshold);
+        isAggregate.set(i, datum.isAggregate);
+        lod[i] = datum.lod;
+        originalQual[i] = datum.originalQual;
+        prior[i] = datum.prior;
+        worstValue[i] = datum.worstValue;
+        worstAnnotation[i] = datum.worstAnnotation;
+        if (datum.loc != null) {
+            contigIndex[i] = contigIndices.computeIfAbsent(datum.loc.getContig(), contig -> {
+                contigs.add(contig);
+                return contigs.size() - 1;
+            });
+            start[i] = datum.loc.getStart();
+            end[i] = datum.loc.getEnd();
+        } else {
+            contigIndex[i] = NO_VALUE;
+        }
+        referenceAlleleIndex[i] = internAllele(datum.referenceAllele);
+        alternateAlleleIndex[i] = internAllele(datum.alternateAllele);
+    }
+
+    /**
+     * @return a new VariantDatum holding a copy of all the values stored for datum i
+     */
+    VariantDatum get(final int i) {
+        final VariantDatum datum = new VariantDatum();
+        load(i, datum);
+        return datum;
+    }
+
+    /**
+     * Load all the values stored for datum i into the provided datum, reusing its annotation and missing-value
+     * arrays when they have the right length.
+     */
+    void load(final int i, final VariantDatum datum) {
+        loadForEvaluation(i, datum);
+        loadSummary(i, datum);
+        datum.originalQual = originalQual[i];
+        datum.worstValue = worstValue[i];
+        datum.worstAnnotation = worstAnnotation[i];
+        datum.loc = getLoc(i);
+        datum.referenceAllele = getReferenceAllele(i);
+        datum.alternateAllele = getAlternateAllele(i);
+        datum.assignment = null;
+    }
+
+    /**
+     * Load only the values needed to evaluate datum i against a Gaussian mixture model (the annotations, missing-value
+     * flags, LOD and prior) into the provided datum, reusing its arrays when they have the right length.
+     */
+    void loadForEvaluation(final int i, final VariantDatum datum) {
+        checkIndex(i);
+        if (datum.annotations == null || datum.annotations.length != numAnnotations) {
+            datum.annotations = new double[numAnnotations];
+        }
+        if (datum.isNull == null || datum.isNull.length != numAnnotations) {
+            datum.isNull = new boolean[numAnnotations];
+        }
+        System.arraycopy(annotations, i * numAnnotations, datum.annotations, 0, numAnnotations);
+        for (int j = 0; j < numAnnotations; j++) {
+            datum.isNull[j] = isNull.get(i * numAnnotations + j);
+        }
+        datum.lod = lod[i];
+        datum.prior = prior[i];
+    }
+
+    /**
+     * @return the LOD scores and site flags of all data, sorted by increasing LOD with ties kept in their current order,
+     * which is all that is needed to compute tranches
+     */
+    TrancheData getTrancheData() {
+        final int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        IntArrays.mergeSort(order, new AbstractIntComparator() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public int compare(final int i1, final int i2) {
+                return Double.compare(lod[i1], lod[i2]);
+            }
+        });
+
+        final double[] sortedLod = new double[size];
+        final BitSet sortedIsKnown = new BitSet(size);
+        final BitSet sortedAtTruthSite = new BitSet(size);
+        final BitSet sortedIsSNP = new BitSet(size);
+        final BitSet sortedIsTransition = new BitSet(size);
+        for (int j = 0; j < size; j++) {
+            final int i = order[j];
+            sortedLod[j] = lod[i];
+            sortedIsKnown.set(j, isKnown.get(i));
+            sortedAtTruthSite.set(j, atTruthSite.get(i));
+            sortedIsSNP.set(j, isSNP.get(i));
+            sortedIsTransition.set(j, isTransition.get(i));
+        }
+        return new TrancheData(sortedLod, sortedIsKnown, sortedAtTruthSite, sortedIsSNP, sortedIsTransition);
+    }
+
+    private void loadSummary(final int i, final VariantDatum datum) {
+        datum.lod = lod[i];
+        datum.isKnown = isKnown.get(i);
+        datum.atTruthSite = atTruthSite.get(i);
+        datum.atTrainingSite = atTrainingSite.get(i);
+        datum.atAntiTrainingSite = atAntiTrainingSite.get(i);
+        datum.isTransition = isTransition.get(i);
+        datum.isSNP = isSNP.get(i);
+        datum.failingSTDThreshold = failingSTDThreshold.get(i);
+        datum.isAggregate = isAggregate.get(i);
+    }
+
+    double getAnnotation(final int i, final int annotationIndex) {
+        return annotations[i * numAnnotations + annotationIndex];
+    }
+
+    void setAnnotation(final int i, final int annotationIndex, final double value) {
+        annotations[i * numAnnotations + annotationIndex] = value;
+    }
+
+    /**
+     * Copy the annotation values of the given datum back into row i (used after evaluation, which may impute
+     * values for missing annotations).
+     */
+    void setAnnotations(final int i, final double[] values) {
+        checkIndex(i);
+        Utils.validateArg(values.length == numAnnotations, "wrong number of annotations");
+        System.arraycopy(values, 0, annotations, i * numAnnotations, numAnnotations);
+    }
+
+    boolean isNull(final int i, final int annotationIndex) {
+        return isNull.get(i * numAnnotations + annotationIndex);
+    }
+
+    boolean isKnown(final int i) { return isKnown.get(i); }
+
+    boolean isAtTruthSite(final int i) { return atTruthSite.get(i); }
+
+    boolean isAtTrainingSite(final int i) { return atTrainingSite.get(i); }
+
+    boolean isAtAntiTrainingSite(final int i) { return atAntiTrainingSite.get(i); }
+
+    void setAtAntiTrainingSite(final int i, final boolean value) { atAntiTrainingSite.set(i, value); }
+
+    boolean isFailingSTDThreshold(final int i) { return failingSTDThreshold.get(i); }
+
+    void setFailingSTDThreshold(final int i, final boolean value) { failingSTDThreshold.set(i, value); }
+
+    boolean isAggregate(final int i) { return isAggregate.get(i); }
+
+    double getLod(final int i) { return lod[i]; }
+
+    void setLod(final int i, final double value) { lod[i] = value; }
+
+    double getPrior(final int i) { return prior[i]; }
+
+    int getWorstAnnotation(final int i) { return worstAnnotation[i]; }
+
+    double getWorstValue(final int i) { return worstValue[i]; }
+
+    void setWorstAnnotation(final int i, final int annotationIndex, final double value) {
+        worstAnnotation[i] = annotationIndex;
+        worstValue[i] = value;
+    }
+
+    /**
+     * @return the location of datum i, or null if none was recorded (as is the case for aggregate data)
+     */
+    SimpleInterval getLoc(final int i) {
+        return contigIndex[i] == NO_VALUE ? null : new SimpleInterval(contigs.get(contigIndex[i]), start[i], end[i]);
+    }
+
+    String getContig(final int i) {
+        return contigIndex[i] == NO_VALUE ? null : contigs.get(contigIndex[i]);
+    }
+
+    int getStart(final int i) { return start[i]; }
+
+    int getEnd(final int i) { return end[i]; }
+
+    Allele getReferenceAllele(final int i) {
+        return referenceAlleleIndex[i] == NO_VALUE ? null : alleles.get(referenceAlleleIndex[i]);
+    }
+
+    Allele getAlternateAllele(final int i) {
+        return alternateAlleleIndex[i] == NO_VALUE ? null : alleles.get(alternateAlleleIndex[i]);
+    }
+
+    /**
+     * Reorder the annotation columns of every datum. Annotation j of the result is annotation order.get(j) of the input.
+     */
+    void reorderAnnotations(final List<Integer> order) {
+        Utils.validateArg(order.size() == numAnnotations, "order must contain one entry per annotation");
+        final double[] rowValues = new double[numAnnotations];
+        final boolean[] rowIsNull = new boolean[numAnnotations];
+        for (int i = 0; i < size; i++) {
+            final int offset = i * numAnnotations;
+            for (int j = 0; j < numAnnotations; j++) {
+                rowValues[j] = annotations[offset + order.get(j)];
+                rowIsNull[j] = isNull.get(offset + order.get(j));
+            }
+            for (int j = 0; j < numAnnotations; j++) {
+                annotations[offset + j] = rowValues[j];
+                isNull.set(offset + j, rowIsNull[j]);
+            }
+        }
+    }
+
+    /**
+     * Remove all data marked as aggregate, preserving the order of the remaining data, and release unused capacity.
+     */
+    void removeAggregateData() {
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (!isAggregate.get(i)) {
+                if (newSize != i) {
+                    moveRow(i, newSize);
+                }
+                newSize++;
+            }
+        }
+        clearRowsFrom(newSize);
+        size = newSize;
+        trimToSize();
+    }
+
+    /**
+     * @return the indices of all data sorted in coordinate order according to the given dictionary (contig, then
+     * start, then end). Data at the same location are ordered by increasing LOD, with remaining ties kept in their
+     * current order; this matches the order produced when a list of VariantDatums that was sorted by LOD for tranche
+     * calculation is subsequently (stably) sorted by coordinate. All data must have a location.
+     */
+    int[] getCoordinateSortOrder(final SAMSequenceDictionary seqDictionary) {
+        Utils.nonNull(seqDictionary);
+        final int[] dictionaryIndex = new int[contigs.size()];
+        for (int c = 0; c < contigs.size(); c++) {
+            dictionaryIndex[c] = seqDictionary.getSequenceIndex(contigs.get(c));
+            if (dictionaryIndex[c] == NO_VALUE) {
+                throw new UserException.MissingContigInSequenceDictionary(contigs.get(c), seqDictionary);
+            }
+        }
+        final int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            Utils.validate(contigIndex[i] != NO_VALUE, "all data must have a location in order to be sorted");
+            order[i] = i;
+        }
+        IntArrays.mergeSort(order, new AbstractIntComparator() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public int compare(final int i1, final int i2) {
+                int result = Integer.compare(dictionaryIndex[contigIndex[i1]], dictionaryIndex[contigIndex[i2]]);
+                if (result == 0) {
+                    result = Integer.compare(start[i1], start[i2]);
+                    if (result == 0) {
+                        result = Integer.compare(end[i1], end[i2]);
+                        if (result == 0) {
+                            result = Double.compare(lod[i1], lod[i2]);
+                        }
+                    }
+                }
+                return result;
+            }
+        });
+        return order;
+    }
+
+    /**
+     * Release any capacity beyond the current size.
+     */
+    void trimToSize() {
+        resize(size);
+    }
+
+    private int internAllele(final Allele allele) {
+        if (allele == null) {
+            return NO_VALUE;
+        }
+        return alleleIndices.computeIfAbsent(allele, a -> {
+            alleles.add(a);
+            return alleles.size() - 1;
+        });
+    }
+
+    private void moveRow(final int from, final int to) {
+        System.arraycopy(annotations, from * numAnnotations, annotations, to * numAnnotations, numAnnotations);
+        for (int j = 0; j < numAnnotations; j++) {
+            isNull.set(to * numAnnotations + j, isNull.get(from * numAnnotations + j));
+        }
+        for (final BitSet flags : Arrays.asList(isKnown, atTruthSite, atTrainingSite, atAntiTrainingSite, isTransition, isSNP, failingSTDThreshold, isAggregate)) {
+            flags.set(to, flags.get(from));
+        }
+        lod[to] = lod[from];
+        originalQual[to] = originalQual[from];
+        prior[to] = prior[from];
+        worstValue[to] = worstValue[from];
+        worstAnnotation[to] = worstAnnotation[from];
+        contigIndex[to] = contigIndex[from];
+        start[to] = start[from];
+        end[to] = end[from];
+        referenceAlleleIndex[to] = referenceAlleleIndex[from];
+        alternateAlleleIndex[to] = alternateAlleleIndex[from];
+    }
+
+    private void clearRowsFrom(final int newSize) {
+        isNull.clear(newSize * numAnnotations, size * numAnnotations);
+        for (final BitSet flags : Arrays.asList(isKnown, atTruthSite, atTrainingSite, atAntiTrainingSite, isTransition, isSNP, failingSTDThreshold, isAggregate)) {
+            flags.clear(newSize, size);
+        }
+    }
+
+    private void ensureCapacity(final int minCapacity) {
+        if (minCapacity <= capacity) {
+            return;
+        }
+        final long newCapacity = Math.max((long) minCapacity, capacity + (capacity >> 1));
+        final long maxRows = numAnnotations == 0 ? MAX_ARRAY_LENGTH : MAX_ARRAY_LENGTH / numAnnotations;
+        if (minCapacity > maxRows) {
+            throw new GATKException("Too many variants to store in the VQSR data table: " + minCapacity);
+        }
+        resize((int) Math.min(newCapacity, maxRows));
+    }
+
+    private void resize(final int newCapacity) {
+        annotations = Arrays.copyOf(annotations, newCapacity * numAnnotations);
+        lod = Arrays.copyOf(lod, newCapacity);
+        originalQual = Arrays.copyOf(originalQual, newCapacity);
+        prior = Arrays.copyOf(prior, newCapacity);
+        worstValue = Arrays.copyOf(worstValue, newCapacity);
+        worstAnnotation = Arrays.copyOf(worstAnnotation, newCapacity);
+        contigIndex = Arrays.copyOf(contigIndex, newCapacity);
+        start = Arrays.copyOf(start, newCapacity);
+        end = Arrays.copyOf(end, newCapacity);
+        referenceAlleleIndex = Arrays.copyOf(referenceAlleleIndex, newCapacity);
+        alternateAlleleIndex = Arrays.copyOf(alternateAlleleIndex, newCapacity);
+        capacity = newCapacity;
+    }
+
+    private void checkIndex(final int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for table of size " + size);
+        }
+    }
+}
@@ -377,7 +377,7 @@ public class VariantRecalibrator extends MultiVariantWalker {
     final private ArrayList<Double> replicate = new ArrayList<>(REPLICATE * 2);
     private final Set<String> ignoreInputFilterSet = new TreeSet<>();
     private final VariantRecalibratorEngine engine = new VariantRecalibratorEngine( VRAC );
-    final private ArrayList<VariantDatum> reduceSum = new ArrayList<>(2000);
+    private VariantDatumTable reduceSum;
     final private List<ImmutablePair<VariantContext, FeatureContext>> variantsAtLocus = new ArrayList<>();
     private long counter = 0;
     private GATKReportTable nmcTable;
@@ -399,6 +399,7 @@ public class VariantRecalibrator extends MultiVariantWalker {
     public void onTraversalStart() {
 
         dataManager = new VariantDataManager( new ArrayList<>(USE_ANNOTATIONS), VRAC );
+        reduceSum = new VariantDatumTable( dataManager.getAnnotationKeys().size() );
 
         if (RSCRIPT_FILE != null) {
             rScriptExecutor = new RScriptExecutor();
@@ -587,7 +588,7 @@ public class VariantRecalibrator extends MultiVariantWalker {
      * @param variants is modified by having a new VariantDatum added to it
      */
     private void addDatum(
-            final ArrayList<VariantDatum> variants,
+            final VariantDatumTable variants,
             final boolean isInput,
             final FeatureContext featureContext,
             final VariantContext vc,
@@ -632,6 +633,7 @@ public class VariantRecalibrator extends MultiVariantWalker {
 
         for (int i = 1; i <= max_attempts; i++) {
             try {
+                reduceSum.trimToSize();
                 dataManager.setData(reduceSum);
                 dataManager.normalizeData(inputModel == null, annotationOrder); // Each data point is now (x - mean) / standard deviation
 
@@ -644,13 +646,13 @@ public class VariantRecalibrator extends MultiVariantWalker {
                 if (inputModel != null) {  // GMMs were loaded from a file
                     logger.info("Using serialized GMMs from file...");
                     goodModel = GMMFromTables(pmmTable, pmcTable, pPMixTable, numAnnotations, positiveTrainingData.size());
-                    engine.evaluateData(dataManager.getData(), goodModel, false);
+                    engine.evaluateData(dataManager.getDataTable(), goodModel, false);
                     negativeTrainingData = dataManager.selectWorstVariants();
                     badModel = GMMFromTables(nmmTable, nmcTable, nPMixTable, numAnnotations, negativeTrainingData.size());
                 } else { // Generate the GMMs from scratch
                     // Generate the positive model using the training data and evaluate each variant
                     goodModel = engine.generateModel(positiveTrainingData, VRAC.MAX_GAUSSIANS);
-                    engine.evaluateData(dataManager.getData(), goodModel, false);
+                    engine.evaluateData(dataManager.getDataTable(), goodModel, false);
                     if (goodModel.failedToConverge) {
                         if (outputModel != null) {
                             final GATKReport report = writeModelReport(goodModel, null, USE_ANNOTATIONS);
@@ -673,26 +675,27 @@ public class VariantRecalibrator extends MultiVariantWalker {
                 }
 
                 dataManager.dropAggregateData(); // Don't need the aggregate data anymore so let's free up the memory
-                engine.evaluateData(dataManager.getData(), badModel, true);
+                engine.evaluateData(dataManager.getDataTable(), badModel, true);
 
                 if (outputModel != null) {
                     final GATKReport report = writeModelReport(goodModel, badModel, USE_ANNOTATIONS);
                     saveModelReport(report, outputModel);
                 }
 
-                engine.calculateWorstPerformingAnnotation(dataManager.getData(), goodModel, badModel);
+                engine.calculateWorstPerformingAnnotation(dataManager.getDataTable(), goodModel, badModel);
 
 
                 // Find the VQSLOD cutoff values which correspond to the various tranches of calls requested by the user
-                final int nCallsAtTruth = TrancheManager.countCallsAtTruth(dataManager.getData(), Double.NEGATIVE_INFINITY);
-                final TrancheManager.SelectionMetric metric = new TrancheManager.TruthSensitivityMetric(nCallsAtTruth);
+                final TrancheData trancheData = dataManager.getTrancheData();
+                final int nCallsAtTruth = trancheData.countCallsAtTruth(Double.NEGATIVE_INFINITY);
+                final TrancheManager.TruthSensitivityMetric metric = new TrancheManager.TruthSensitivityMetric(nCallsAtTruth);
                 if ( !scatterTranches ) {
-                    final List<? extends Tranche> tranches = TrancheManager.findTranches(dataManager.getData(), TS_TRANCHES, metric, VRAC.MODE);
+                    final List<? extends Tranche> tranches = TrancheManager.findTranches(trancheData, TS_TRANCHES, metric, VRAC.MODE);
                     tranchesStream.print(TruthSensitivityTranche.printHeader());
                     tranchesStream.print(Tranche.tranchesString(tranches));
                 }
                 else {
-                    final List<? extends Tranche> tranches = TrancheManager.findVQSLODTranches(dataManager.getData(), VQSLOD_TRANCHES, metric, VRAC.MODE);
+                    final List<? extends Tranche> tranches = TrancheManager.findVQSLODTranches(trancheData, VQSLOD_TRANCHES, metric, VRAC.MODE);
                     tranchesStream.print(VQSLODTranche.printHeader());
                     tranchesStream.print(Tranche.tranchesString(tranches));
                 }
@@ -701,11 +704,7 @@ public class VariantRecalibrator extends MultiVariantWalker {
                 dataManager.writeOutRecalibrationTable(recalWriter, getBestAvailableSequenceDictionary());
                 if (RSCRIPT_FILE != null) {
                     logger.info("Writing out visualization Rscript file...");
-                    createVisualizationScript(dataManager.getRandomDataForPlotting(
-                            1000,
-                            positiveTrainingData,
-                            negativeTrainingData,
-                            dataManager.getEvaluationData()),
+                    createVisualizationScript(dataManager.getRandomDataForPlotting(1000),
                             goodModel,
                             badModel,
                             0.0,
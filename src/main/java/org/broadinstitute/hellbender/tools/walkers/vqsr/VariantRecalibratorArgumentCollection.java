@@ -65,6 +65,18 @@ final class VariantRecalibratorArgumentCollection {
     @Argument(fullName = "k-means-iterations", doc = "Number of k-means iterations", optional = true)
     public int NUM_KMEANS_ITERATIONS = 100;
 
+    /**
+     * The number of threads to use for the k-means initialization and the VBEM iterations of the Gaussian mixture
+     * model training. With more than one thread, the annotations are copied into a contiguous matrix and the data are
+     * processed in fixed-size blocks whose partial results are combined in a fixed order, so the resulting model is
+     * reproducible for a given random seed regardless of the number of threads. Note that the multi-threaded
+     * implementation accumulates sums in a different order than the single-threaded one, so the models produced with
+     * one thread and with several threads may differ very slightly.
+     */
+    @Advanced
+    @Argument(fullName = "gmm-threads", doc = "Number of threads to use for Gaussian mixture model training", optional = true, minValue = 1)
+    public int GMM_THREADS = 1;
+
     /**
      * If a variant has annotations more than -std standard deviations away from mean, it won't be used for building
      * the Gaussian mixture model.
@@ -8,6 +8,7 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class VariantRecalibratorEngine {
 
@@ -77,22 +78,70 @@ public class VariantRecalibratorEngine {
         }
     }
 
+    /**
+     * Equivalent of {@link #evaluateData(List, GaussianMixtureModel, boolean)} for data held in a compact
+     * {@link VariantDatumTable}. Each row is loaded into a single reusable datum, and the resulting LOD (along with
+     * any values imputed for missing annotations during evaluation) is written back to the table.
+     */
+    public void evaluateData( final VariantDatumTable data, final GaussianMixtureModel model, final boolean evaluateContrastively ) {
+        if( !model.isModelReadyForEvaluation ) {
+            try {
+                model.precomputeDenominatorForEvaluation();
+            } catch( Exception e ) {
+                logger.warn("Model could not pre-compute denominators. " + e.getMessage());  //this happened when we were reading in VQSR models that didn't have enough precision
+                model.failedToConverge = true;
+                return;
+            }
+        }
+
+        logger.info("Evaluating full set of " + data.size() + " variants...");
+        final VariantDatum datum = new VariantDatum();
+        for( int i = 0; i < data.size(); i++ ) {
+            data.loadForEvaluation(i, datum);
+            final double thisLod = evaluateDatum( datum, model );
+            if( Double.isNaN(thisLod) ) {
+                model.failedToConverge = true;
+                return;
+            }
+
+            data.setLod(i, ( evaluateContrastively ?
+                            ( Double.isInfinite(datum.lod) ? // positive model said negative infinity
+                                    ( MIN_ACCEPTABLE_LOD_SCORE + Utils.getRandomGenerator().nextDouble() * MIN_ACCEPTABLE_LOD_SCORE ) // Negative infinity lod values are possible when covariates are extremely far away from their tight Gaussians
+                                    : datum.prior + datum.lod - thisLod) // contrastive evaluation: (prior + positive model - negative model)
+                            : thisLod )); // positive model only so set the lod and return
+            data.setAnnotations(i, datum.annotations);
+        }
+    }
+
+    public void calculateWorstPerformingAnnotation( final VariantDatumTable data, final GaussianMixtureModel goodModel, final GaussianMixtureModel badModel ) {
+        final VariantDatum datum = new VariantDatum();
+        for( int i = 0; i < data.size(); i++ ) {
+            data.loadForEvaluation(i, datum);
+            calculateWorstPerformingAnnotation( datum, goodModel, badModel );
+            data.setWorstAnnotation(i, datum.worstAnnotation, datum.worstValue);
+        }
+    }
+
     public void calculateWorstPerformingAnnotation( final List<VariantDatum> data, final GaussianMixtureModel goodModel, final GaussianMixtureModel badModel ) {
         for( final VariantDatum datum : data ) {
-            int worstAnnotation = -1;
-            double minProb = Double.MAX_VALUE;
-            double worstValue = -1;
-            for( int iii = 0; iii < datum.annotations.length; iii++ ) {
-                final Double goodProbLog10 = goodModel.evaluateDatumInOneDimension(datum, iii);
-                final Double badProbLog10 = badModel.evaluateDatumInOneDimension(datum, iii);
-                if( goodProbLog10 != null && badProbLog10 != null ) {
-                    final double prob = goodProbLog10 - badProbLog10;
-                    if(prob < minProb) { minProb = prob; worstAnnotation = iii; worstValue = datum.annotations[iii];}
-                }
+            calculateWorstPerformingAnnotation( datum, goodModel, badModel );
+        }
+    }
+
+    private void calculateWorstPerformingAnnotation( final VariantDatum datum, final GaussianMixtureModel goodModel, final GaussianMixtureModel badModel ) {
+        int worstAnnotation = -1;
+        double minProb = Double.MAX_VALUE;
+        double worstValue = -1;
+        for( int iii = 0; iii < datum.annotations.length; iii++ ) {
+            final Double goodProbLog10 = goodModel.evaluateDatumInOneDimension(datum, iii);
+            final Double badProbLog10 = badModel.evaluateDatumInOneDimension(datum, iii);
+            if( goodProbLog10 != null && badProbLog10 != null ) {
+                final double prob = goodProbLog10 - badProbLog10;
+                if(prob < minProb) { minProb = prob; worstAnnotation = iii; worstValue = datum.annotations[iii];}
             }
-            datum.worstAnnotation = worstAnnotation;
-            datum.worstValue = worstValue;
         }
+        datum.worstAnnotation = worstAnnotation;
+        datum.worstValue = worstValue;
     }
 
 
@@ -101,6 +150,15 @@ public class VariantRecalibratorEngine {
     /////////////////////////////
 
     private void variationalBayesExpectationMaximization( final GaussianMixtureModel model, final List<VariantDatum> data ) {
+        if( VRAC.GMM_THREADS > 1 ) {
+            final ForkJoinPool threadPool = new ForkJoinPool(VRAC.GMM_THREADS);
+            try {
+                variationalBayesExpectationMaximization( model, new VariantDatumAnnotationMatrix(data), threadPool );
+            } finally {
+                threadPool.shutdownNow();
+            }
+            return;
+        }
 
         model.initializeRandomModel( data, VRAC.NUM_KMEANS_ITERATIONS );
 
@@ -127,6 +185,35 @@ public class VariantRecalibratorEngine {
         model.evaluateFinalModelParameters( data );
     }
 
+    private void variationalBayesExpectationMaximization( final GaussianMixtureModel model, final VariantDatumAnnotationMatrix data,
+                                                          final ForkJoinPool threadPool ) {
+
+        logger.info("Training model on " + data.getNumData() + " variants using " + threadPool.getParallelism() + " threads.");
+        model.initializeRandomModel( data, VRAC.NUM_KMEANS_ITERATIONS, threadPool );
+
+        // The VBEM loop
+        model.normalizePMixtureLog10();
+        model.expectationStep( data, threadPool );
+        double currentChangeInMixtureCoefficients;
+        int iteration = 0;
+        logger.info("Finished iteration " + iteration + ".");
+        while( iteration < VRAC.MAX_ITERATIONS ) {
+            iteration++;
+            model.maximizationStep( data, threadPool );
+            currentChangeInMixtureCoefficients = model.normalizePMixtureLog10();
+            model.expectationStep( data, threadPool );
+            if( iteration % 5 == 0 ) { // cut down on the number of output lines so that users can read the warning messages
+                logger.info("Finished iteration " + iteration + ". \tCurrent change in mixture coefficients = " + String.format("%.5f", currentChangeInMixtureCoefficients));
+            }
+            if( iteration > 2 && currentChangeInMixtureCoefficients < MIN_PROB_CONVERGENCE ) {
+                logger.info("Convergence after " + iteration + " iterations!");
+                break;
+            }
+        }
+
+        model.evaluateFinalModelParameters( data, threadPool );
+    }
+
     /////////////////////////////
     // Private Methods used for evaluating data given a GaussianMixtureModel
     /////////////////////////////
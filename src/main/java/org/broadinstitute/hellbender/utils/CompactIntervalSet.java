@@ -0,0 +1,416 @@
+package org.broadinstitute.hellbender.utils;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.util.Locatable;
+import org.broadinstitute.hellbender.exceptions.UserException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable, sorted set of intervals over the contigs of a sequence dictionary, stored as per-contig arrays of
+ * primitive ints rather than as {@link GenomeLoc} objects.
+ *
+ * This is intended for preparing very large interval sets (millions of bins in CNV and exome workflows), where the
+ * object-based {@link GenomeLocSortedSet} and the list operations in {@link IntervalUtils} dominate startup time.
+ * Building a set sorts and merges its intervals once; union, intersection, padding and subtraction are then single
+ * linear passes over the sorted arrays.
+ *
+ * Like {@link GenomeLocSortedSet}, the set may also include the unmapped territory ({@link GenomeLoc#UNMAPPED}).
+ */
+public final class CompactIntervalSet {
+    private static final int[] NO_INTERVALS = new int[0];
+
+    private final SAMSequenceDictionary dictionary;
+
+    // for each contig index, the start and end of each interval on the contig, interleaved (start0, end0, start1, end1...),
+    // sorted by start and non-overlapping
+    private final int[][] bounds;
+
+    private final boolean includesUnmapped;
+
+    private CompactIntervalSet(final SAMSequenceDictionary dictionary, final int[][] bounds, final boolean includesUnmapped) {
+        this.dictionary = dictionary;
+        this.bounds = bounds;
+        this.includesUnmapped = includesUnmapped;
+    }
+
+    /**
+     * Create a set from a collection of GenomeLocs, in any order, merging them according to the given rule.
+     * {@link GenomeLoc#UNMAPPED} is recorded as the unmapped territory.
+     */
+    public static CompactIntervalSet fromGenomeLocs(final SAMSequenceDictionary dictionary, final Collection<GenomeLoc> locs, final IntervalMergingRule mergingRule) {
+        Utils.nonNull(locs);
+        final Builder builder = new Builder(dictionary);
+        for ( final GenomeLoc loc : locs ) {
+            if ( GenomeLoc.isUnmapped(loc) ) {
+                builder.addUnmapped();
+            } else {
+                builder.add(loc.getContigIndex(), loc.getStart(), loc.getStop());
+            }
+        }
+        return builder.build(mergingRule);
+    }
+
+    /**
+     * Create a set from a collection of intervals, in any order, merging them according to the given rule.
+     */
+    public static CompactIntervalSet fromLocatables(final SAMSequenceDictionary dictionary, final Collection<? extends Locatable> intervals, final IntervalMergingRule mergingRule) {
+        Utils.nonNull(intervals);
+        final Builder builder = new Builder(dictionary);
+        for ( final Locatable interval : intervals ) {
+            builder.add(interval);
+        }
+        return builder.build(mergingRule);
+    }
+
+    /**
+     * @return a set covering every contig of the dictionary in full
+     */
+    public static CompactIntervalSet fromSequenceDictionary(final SAMSequenceDictionary dictionary) {
+        Utils.nonNull(dictionary);
+        final int[][] bounds = new int[dictionary.size()][];
+        for ( final SAMSequenceRecord sequence : dictionary.getSequences() ) {
+            bounds[sequence.getSequenceIndex()] = new int[] {1, sequence.getSequenceLength()};
+        }
+        return new CompactIntervalSet(dictionary, bounds, false);
+    }
+
+    public SAMSequenceDictionary getSequenceDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return whether this set includes the unmapped territory
+     */
+    public boolean includesUnmapped() {
+        return includesUnmapped;
+    }
+
+    /**
+     * @return a copy of this set without the unmapped territory
+     */
+    public CompactIntervalSet withoutUnmapped() {
+        return includesUnmapped ? new CompactIntervalSet(dictionary, bounds, false) : this;
+    }
+
+    /**
+     * @return the number of intervals in this set, not counting the unmapped territory
+     */
+    public int size() {
+        int size = 0;
+        for ( final int[] contigBounds : bounds ) {
+            size += contigBounds.length / 2;
+        }
+        return size;
+    }
+
+    /**
+     * @return true if this set contains neither intervals nor the unmapped territory
+     */
+    public boolean isEmpty() {
+        return ! includesUnmapped && size() == 0;
+    }
+
+    /**
+     * @return the number of bases covered by the intervals of this set
+     */
+    public long coveredSize() {
+        long coveredSize = 0;
+        for ( final int[] contigBounds : bounds ) {
+            for ( int i = 0; i < contigBounds.length; i += 2 ) {
+                coveredSize += contigBounds[i + 1] - contigBounds[i] + 1;
+            }
+        }
+        return coveredSize;
+    }
+
+    /**
+     * @return the intervals of this set in dictionary order, not including the unmapped territory
+     */
+    public List<SimpleInterval> toList() {
+        final List<SimpleInterval> intervals = new ArrayList<>(size());
+        for ( int contigIndex = 0; contigIndex < bounds.length; contigIndex++ ) {
+            final int[] contigBounds = bounds[contigIndex];
+            if ( contigBounds.length > 0 ) {
+                final String contig = dictionary.getSequence(contigIndex).getSequenceName();
+                for ( int i = 0; i < contigBounds.length; i += 2 ) {
+                    intervals.add(new SimpleInterval(contig, contigBounds[i], contigBounds[i + 1]));
+                }
+            }
+        }
+        return intervals;
+    }
+
+    /**
+     * Pad every interval by the given number of bases on each side, bounded by the ends of its contig, and merge
+     * the padded intervals that overlap or abut, as {@link IntervalUtils#getIntervalsWithFlanks} does.
+     *
+     * @param padding number of bases to add to each side of each interval. Must be >= 0
+     */
+    public CompactIntervalSet pad(final int padding) {
+        Utils.validateArg(padding >= 0, "padding must be >= 0");
+        if ( padding == 0 ) {
+            return this;
+        }
+        final int[][] padded = new int[bounds.length][];
+        for ( int contigIndex = 0; contigIndex < bounds.length; contigIndex++ ) {
+            final int[] contigBounds = bounds[contigIndex];
+            final int contigLength = dictionary.getSequence(contigIndex).getSequenceLength();
+            // padding every interval by the same amount keeps them sorted by start, so they can be merged as we go
+            final IntervalAccumulator accumulator = new IntervalAccumulator(contigBounds.length, IntervalMergingRule.ALL);
+            for ( int i = 0; i < contigBounds.length; i += 2 ) {
+                final int start = Math.max(1, contigBounds[i] - padding);
+                final long end = (long) contigBounds[i + 1] + padding;
+                accumulator.add(start, (int) (contigLength > 0 ? Math.min(contigLength, end) : Math.min(Integer.MAX_VALUE, end)));
+            }
+            padded[contigIndex] = accumulator.toArray();
+        }
+        return new CompactIntervalSet(dictionary, padded, includesUnmapped);
+    }
+
+    /**
+     * @return the union of this set and other, merged according to the given rule
+     */
+    public CompactIntervalSet union(final CompactIntervalSet other, final IntervalMergingRule mergingRule) {
+        checkCompatible(other);
+        final int[][] union = new int[bounds.length][];
+        for ( int contigIndex = 0; contigIndex < bounds.length; contigIndex++ ) {
+            final int[] a = bounds[contigIndex];
+            final int[] b = other.bounds[contigIndex];
+            final IntervalAccumulator accumulator = new IntervalAccumulator(a.length + b.length, mergingRule);
+            int i = 0;
+            int j = 0;
+            while ( i < a.length || j < b.length ) {
+                if ( j >= b.length || (i < a.length && a[i] <= b[j]) ) {
+                    accumulator.add(a[i], a[i + 1]);
+                    i += 2;
+                } else {
+                    accumulator.add(b[j], b[j + 1]);
+                    j += 2;
+                }
+            }
+            union[contigIndex] = accumulator.toArray();
+        }
+        return new CompactIntervalSet(dictionary, union, includesUnmapped || other.includesUnmapped);
+    }
+
+    /**
+     * @return the intersection of this set and other, merged according to the given rule
+     */
+    public CompactIntervalSet intersect(final CompactIntervalSet other, final IntervalMergingRule mergingRule) {
+        checkCompatible(other);
+        final int[][] intersection = new int[bounds.length][];
+        for ( int contigIndex = 0; contigIndex < bounds.length; contigIndex++ ) {
+            final int[] a = bounds[contigIndex];
+            final int[] b = other.bounds[contigIndex];
+            final IntervalAccumulator accumulator = new IntervalAccumulator(Math.min(a.length, b.length), mergingRule);
+            int i = 0;
+            int j = 0;
+            while ( i < a.length && j < b.length ) {
+                if ( b[j + 1] < a[i] ) {
+                    j += 2;
+                } else if ( a[i + 1] < b[j] ) {
+                    i += 2;
+                } else {
+                    accumulator.add(Math.max(a[i], b[j]), Math.min(a[i + 1], b[j + 1]));
+                    // drop the interval that ends first
+                    if ( a[i + 1] < b[j + 1] ) {
+                        i += 2;
+                    } else {
+                        j += 2;
+                    }
+                }
+            }
+            intersection[contigIndex] = accumulator.toArray();
+        }
+        return new CompactIntervalSet(dictionary, intersection, includesUnmapped && other.includesUnmapped);
+    }
+
+    /**
+     * @return the territory of this set not covered by other. As in {@link GenomeLocSortedSet#subtractRegions}, the
+     *         remaining pieces are not merged.
+     */
+    public CompactIntervalSet subtract(final CompactIntervalSet other) {
+        checkCompatible(other);
+        final int[][] difference = new int[bounds.length][];
+        for ( int contigIndex = 0; contigIndex < bounds.length; contigIndex++ ) {
+            final int[] a = bounds[contigIndex];
+            final int[] b = other.bounds[contigIndex];
+            final IntervalAccumulator accumulator = new IntervalAccumulator(a.length, null);
+            int j = 0;
+            for ( int i = 0; i < a.length; i += 2 ) {
+                int start = a[i];
+                final int end = a[i + 1];
+                // skip the excluded intervals that end before this one starts; they can't affect later intervals either
+                while ( j < b.length && b[j + 1] < start ) {
+                    j += 2;
+                }
+                for ( int k = j; k < b.length && b[k] <= end && start <= end; k += 2 ) {
+                    if ( b[k] > start ) {
+                        accumulator.append(start, b[k] - 1);
+                    }
+                    start = Math.max(start, b[k + 1] + 1);
+                }
+                if ( start <= end ) {
+                    accumulator.append(start, end);
+                }
+            }
+            difference[contigIndex] = accumulator.toArray();
+        }
+        return new CompactIntervalSet(dictionary, difference, includesUnmapped && ! other.includesUnmapped);
+    }
+
+    private void checkCompatible(final CompactIntervalSet other) {
+        Utils.nonNull(other);
+        Utils.validateArg(other.bounds.length == bounds.length, "Interval sets are over different sequence dictionaries");
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if ( this == o ) {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() ) {
+            return false;
+        }
+        final CompactIntervalSet that = (CompactIntervalSet) o;
+        return includesUnmapped == that.includesUnmapped && Arrays.deepEquals(bounds, that.bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.deepHashCode(bounds) + Boolean.hashCode(includesUnmapped);
+    }
+
+    @Override
+    public String toString() {
+        final List<SimpleInterval> intervals = toList();
+        final String shown = intervals.size() <= 10 ? intervals.toString() : intervals.subList(0, 10) + "... (" + intervals.size() + " intervals)";
+        return includesUnmapped ? shown + " + unmapped" : shown;
+    }
+
+    /**
+     * Accumulates intervals for a {@link CompactIntervalSet} in any order, then sorts and merges them all at once.
+     */
+    public static final class Builder {
+        private final SAMSequenceDictionary dictionary;
+
+        // for each contig index, the intervals added so far as (start << 32 | end), so that sorting orders by start then end
+        private final long[][] packed;
+        private final int[] counts;
+        private boolean includesUnmapped = false;
+
+        public Builder(final SAMSequenceDictionary dictionary) {
+            this.dictionary = Utils.nonNull(dictionary);
+            this.packed = new long[dictionary.size()][];
+            this.counts = new int[dictionary.size()];
+        }
+
+        /**
+         * Add an interval on a contig of the dictionary
+         */
+        public Builder add(final Locatable interval) {
+            Utils.nonNull(interval);
+            final int contigIndex = dictionary.getSequenceIndex(interval.getContig());
+            if ( contigIndex == -1 ) {
+                throw new UserException.MalformedGenomeLoc(String.format("Contig %s given as location, but this contig isn't present in the sequence dictionary", interval.getContig()));
+            }
+            return add(contigIndex, interval.getStart(), interval.getEnd());
+        }
+
+        /**
+         * Add the interval [start, end] (1-based, inclusive) on the contig with the given dictionary index
+         */
+        public Builder add(final int contigIndex, final int start, final int end) {
+            Utils.validIndex(contigIndex, packed.length);
+            Utils.validateArg(start >= 1 && start <= end, () -> String.format("Invalid interval %d-%d", start, end));
+            long[] contigIntervals = packed[contigIndex];
+            if ( contigIntervals == null ) {
+                contigIntervals = packed[contigIndex] = new long[16];
+            } else if ( counts[contigIndex] == contigIntervals.length ) {
+                contigIntervals = packed[contigIndex] = Arrays.copyOf(contigIntervals, contigIntervals.length * 2);
+            }
+            contigIntervals[counts[contigIndex]++] = ((long) start << 32) | end;
+            return this;
+        }
+
+        /**
+         * Include the unmapped territory
+         */
+        public Builder addUnmapped() {
+            includesUnmapped = true;
+            return this;
+        }
+
+        /**
+         * @param mergingRule how to merge overlapping and abutting intervals; null is treated as {@link IntervalMergingRule#ALL}
+         */
+        public CompactIntervalSet build(final IntervalMergingRule mergingRule) {
+            final int[][] bounds = new int[packed.length][];
+            for ( int contigIndex = 0; contigIndex < packed.length; contigIndex++ ) {
+                final int count = counts[contigIndex];
+                if ( count == 0 ) {
+                    bounds[contigIndex] = NO_INTERVALS;
+                    continue;
+                }
+                final long[] contigIntervals = packed[contigIndex];
+                Arrays.sort(contigIntervals, 0, count);
+                final IntervalAccumulator accumulator = new IntervalAccumulator(2 * count, mergingRule);
+                for ( int i = 0; i < count; i++ ) {
+                    accumulator.add((int) (contigIntervals[i] >>> 32), (int) contigIntervals[i]);
+                }
+                bounds[contigIndex] = accumulator.toArray();
+            }
+            return new CompactIntervalSet(dictionary, bounds, includesUnmapped);
+        }
+    }
+
+    /**
+     * Growable array of interleaved interval bounds, which merges each interval added, in order of start, with the
+     * previous one according to a merging rule.
+     */
+    private static final class IntervalAccumulator {
+        private final IntervalMergingRule mergingRule;
+        private int[] bounds;
+        private int size = 0;
+
+        private IntervalAccumulator(final int expectedSize, final IntervalMergingRule mergingRule) {
+            this.bounds = expectedSize == 0 ? NO_INTERVALS : new int[expectedSize + (expectedSize & 1)];
+            this.mergingRule = mergingRule;
+        }
+
+        /**
+         * Add an interval starting at or after the start of the previous one, merging it with the previous one if they
+         * overlap, or if they abut and the merging rule is ALL (or null)
+         */
+        private void add(final int start, final int end) {
+            if ( size > 0 ) {
+                final int previousEnd = bounds[size - 1];
+                if ( start <= previousEnd || (start == previousEnd + 1 && mergingRule != IntervalMergingRule.OVERLAPPING_ONLY) ) {
+                    bounds[size - 1] = Math.max(previousEnd, end);
+                    return;
+                }
+            }
+            append(start, end);
+        }
+
+        /**
+         * Add an interval after the previous one, without merging
+         */
+        private void append(final int start, final int end) {
+            if ( size + 2 > bounds.length ) {
+                bounds = Arrays.copyOf(bounds, Math.max(16, bounds.length * 2));
+            }
+            bounds[size++] = start;
+            bounds[size++] = end;
+        }
+
+        private int[] toArray() {
+            return size == 0 ? NO_INTERVALS : (size == bounds.length ? bounds : Arrays.copyOf(bounds, size));
+        }
+    }
+}
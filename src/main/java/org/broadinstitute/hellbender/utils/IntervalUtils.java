@@ -248,6 +248,47 @@ public final class IntervalUtils {
         return sortAndMergeIntervals(genomeLocParser, allIntervals, intervalMergingRule);
     }
 
+    /**
+     * Equivalent to {@link #loadIntervals}, but padding, merging and combining the intervals as a {@link CompactIntervalSet},
+     * which is much faster than going through GenomeLocs for very large interval lists.
+     *
+     * @param intervalStrings interval strings from the command line
+     * @param intervalSetRule how to combine the intervals given by each interval string
+     * @param intervalMergingRule how to merge overlapping and abutting intervals
+     * @param padding padding to be added to the intervals
+     * @param genomeLocParser parser to be applied to the provided intervals
+     * @return the sorted, merged set of intervals, which includes the unmapped territory if requested
+     */
+    public static CompactIntervalSet loadIntervalSet(
+            final List<String> intervalStrings,
+            final IntervalSetRule intervalSetRule,
+            final IntervalMergingRule intervalMergingRule,
+            final int padding,
+            final GenomeLocParser genomeLocParser) {
+        Utils.nonNull(intervalStrings);
+        final SAMSequenceDictionary dictionary = genomeLocParser.getSequenceDictionary();
+        CompactIntervalSet allIntervals = new CompactIntervalSet.Builder(dictionary).build(intervalMergingRule);
+        for ( final String intervalString : intervalStrings) {
+            Utils.nonNull(intervalString);
+            final CompactIntervalSet intervals = CompactIntervalSet.fromGenomeLocs(dictionary, parseIntervalArguments(genomeLocParser, intervalString), intervalMergingRule)
+                    .pad(Math.max(padding, 0));
+
+            // as in mergeListsBySetOperator, an empty set is never intersected
+            if ( allIntervals.isEmpty() || intervals.isEmpty() ) {
+                allIntervals = allIntervals.isEmpty() ? intervals : allIntervals;
+            } else if ( intervalSetRule == null || intervalSetRule == IntervalSetRule.UNION ) {
+                allIntervals = allIntervals.union(intervals, intervalMergingRule);
+            } else {
+                allIntervals = allIntervals.intersect(intervals, intervalMergingRule);
+                if ( allIntervals.isEmpty() ) {
+                    throw new UserException.EmptyIntersection("There was an empty intersection");
+                }
+            }
+        }
+
+        return allIntervals;
+    }
+
     /**
      * Method that takes a list of interval strings in the command line format and parses them into GenomicLoc objects
      * without attempting to perform any sort of interval merging whatsover regardless of overlap between the intervals.
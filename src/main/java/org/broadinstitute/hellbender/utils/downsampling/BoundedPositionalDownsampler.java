@@ -0,0 +1,363 @@
+package org.broadinstitute.hellbender.utils.downsampling;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadCoordinateComparator;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * BoundedPositionalDownsampler: a streaming positional downsampler with a hard bound on the number of reads held in
+ * memory, intended for extreme-depth regions (amplicons, mitochondria, satellites) where buffering every read at a
+ * site is not an option.
+ *
+ * Reads are downsampled in two strata:
+ *
+ * 1) each stack of reads sharing an alignment start is reduced to at most maxReadsPerAlignmentStart reads, as in
+ *    {@link PositionalDownsampler}, and
+ * 2) the reads surviving step 1 whose alignment starts fall in the same fixed window of windowSize bases of a contig
+ *    are further reduced to at most maxReadsPerWindow reads.
+ *
+ * Within each stratum the reads kept are those with the smallest hashes of their read names (bottom-k sampling), which
+ * is equivalent to reservoir sampling with a random priority per read, except that the priorities are a deterministic
+ * function of the read name and the seed. Results are therefore reproducible independently of the random number
+ * generator and of any other downsampling done in the same run. Reads with equal hashes are kept or discarded as a
+ * group: when a group does not fit in the remaining slots, the whole group is discarded, so both reads of a pair that
+ * start at the same position are kept or discarded together, at the cost of sometimes keeping fewer reads than the
+ * limit. The downsampler never holds more than
+ * maxReadsPerAlignmentStart + maxReadsPerWindow reads, provided the client regularly calls {@link #consumeFinalizedItems}.
+ *
+ * Reads are finalized in coordinate order when the window containing them is complete. As in {@link PositionalDownsampler},
+ * unmapped reads with assigned positions are subject to downsampling, but unmapped reads without assigned positions are not.
+ */
+public final class BoundedPositionalDownsampler extends ReadsDownsampler {
+
+    public static final int DEFAULT_WINDOW_SIZE = 1000;
+    public static final long DEFAULT_SEED = 47382911L;
+
+    private final SAMFileHeader header;
+    private final int windowSize;
+    private final long seed;
+
+    // null if the corresponding stratum is not downsampled
+    private final BottomKSample positionSample;
+    private final BottomKSample windowSample;
+
+    private GATKRead previousRead;
+    private int windowReferenceIndex = -1;
+    private int windowIndex = -1;
+
+    // order in which reads were submitted, used to restore coordinate order among the reads kept
+    private long submissionCount = 0;
+
+    private List<GATKRead> finalizedReads;
+
+    /**
+     * Construct a BoundedPositionalDownsampler with the default window size and seed
+     *
+     * @param maxReadsPerAlignmentStart Maximum number of reads that may share any given alignment start position,
+     *                                  or 0 to not limit reads per alignment start
+     * @param maxReadsPerWindow Maximum number of reads that may start in any given window of {@link #DEFAULT_WINDOW_SIZE} bases,
+     *                          or 0 to not limit reads per window
+     * @param header SAMFileHeader to use to determine contig ordering. Non-null.
+     */
+    public BoundedPositionalDownsampler( final int maxReadsPerAlignmentStart, final int maxReadsPerWindow, final SAMFileHeader header ) {
+        this(maxReadsPerAlignmentStart, maxReadsPerWindow, DEFAULT_WINDOW_SIZE, DEFAULT_SEED, header);
+    }
+
+    /**
+     * Construct a BoundedPositionalDownsampler
+     *
+     * @param maxReadsPerAlignmentStart Maximum number of reads that may share any given alignment start position,
+     *                                  or 0 to not limit reads per alignment start
+     * @param maxReadsPerWindow Maximum number of reads that may start in any given window, or 0 to not limit reads per window.
+     *                          At least one of maxReadsPerAlignmentStart and maxReadsPerWindow must be > 0
+     * @param windowSize Size in bases of the windows over which maxReadsPerWindow applies. Must be > 0
+     * @param seed Seed of the read name hash; different seeds select different reads
+     * @param header SAMFileHeader to use to determine contig ordering. Non-null.
+     */
+    public BoundedPositionalDownsampler( final int maxReadsPerAlignmentStart, final int maxReadsPerWindow, final int windowSize,
+                                         final long seed, final SAMFileHeader header ) {
+        Utils.validateArg(maxReadsPerAlignmentStart >= 0, "maxReadsPerAlignmentStart must be >= 0");
+        Utils.validateArg(maxReadsPerWindow >= 0, "maxReadsPerWindow must be >= 0");
+        Utils.validateArg(maxReadsPerAlignmentStart > 0 || maxReadsPerWindow > 0, "at least one of maxReadsPerAlignmentStart and maxReadsPerWindow must be > 0");
+        Utils.validateArg(windowSize > 0, "windowSize must be > 0");
+        Utils.nonNull(header);
+
+        this.positionSample = maxReadsPerAlignmentStart > 0 ? new BottomKSample(maxReadsPerAlignmentStart) : null;
+        this.windowSample = maxReadsPerWindow > 0 ? new BottomKSample(maxReadsPerWindow) : null;
+        this.windowSize = windowSize;
+        this.seed = seed;
+        this.header = header;
+        this.finalizedReads = new ArrayList<>();
+        clearItems();
+        resetStats();
+    }
+
+    @Override
+    public void submit( final GATKRead newRead ) {
+        Utils.nonNull(newRead, "newRead");
+
+        handlePositionalChange(newRead);
+
+        // Pass-through reads that have no assigned position, to avoid downsampling all unmapped reads.
+        if ( ReadUtils.readHasNoAssignedPosition(newRead) ) {
+            finalizedReads.add(newRead);
+        }
+        else {
+            windowReferenceIndex = ReadUtils.getAssignedReferenceIndex(newRead, header);
+            windowIndex = getWindowIndex(newRead);
+            final SampledRead sampledRead = new SampledRead(newRead, hashReadName(newRead.getName(), seed), submissionCount++);
+            if ( positionSample != null ) {
+                offer(positionSample, sampledRead);
+            }
+            else {
+                offer(windowSample, sampledRead);
+            }
+        }
+
+        previousRead = newRead;
+    }
+
+    private void handlePositionalChange( final GATKRead newRead ) {
+        if ( previousRead == null ) {
+            return;
+        }
+        final int cmpDiff = ReadCoordinateComparator.compareCoordinates(previousRead, newRead, header);
+        if ( cmpDiff > 0 ) {
+            throw new IllegalStateException(
+                    String.format("Reads must be coordinate sorted (earlier %s later %s)", previousRead, newRead));
+        }
+        else if ( cmpDiff != 0 ) {
+            // we've moved to a new alignment start, and possibly to a new window
+            finalizePosition();
+            if ( ReadUtils.readHasNoAssignedPosition(newRead) ||
+                    ReadUtils.getAssignedReferenceIndex(newRead, header) != windowReferenceIndex ||
+                    getWindowIndex(newRead) != windowIndex ) {
+                finalizeWindow();
+            }
+        }
+    }
+
+    private int getWindowIndex( final GATKRead read ) {
+        return (read.getAssignedStart() - 1) / windowSize;
+    }
+
+    /**
+     * Move the reads kept at the current alignment start into the window stratum, or finalize them if reads
+     * are not limited per window.
+     */
+    private void finalizePosition() {
+        if ( positionSample == null || positionSample.isEmpty() ) {
+            return;
+        }
+        if ( windowSample == null ) {
+            positionSample.drainInSubmissionOrder(finalizedReads);
+            return;
+        }
+        for ( final SampledRead sampledRead : positionSample.drain() ) {
+            offer(windowSample, sampledRead);
+        }
+    }
+
+    private void finalizeWindow() {
+        if ( windowSample != null ) {
+            windowSample.drainInSubmissionOrder(finalizedReads);
+        }
+    }
+
+    private void offer( final BottomKSample sample, final SampledRead sampledRead ) {
+        incrementNumberOfDiscardedItems(sample.offer(sampledRead));
+    }
+
+    /**
+     * @return a deterministic 64-bit hash of a read name, with good mixing of the low bits
+     */
+    static long hashReadName( final String readName, final long seed ) {
+        // FNV-1a over the characters of the name, followed by the MurmurHash3 64-bit finalizer
+        long hash = seed ^ 0xcbf29ce484222325L;
+        if ( readName != null ) {
+            for ( int i = 0; i < readName.length(); i++ ) {
+                hash = (hash ^ readName.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public boolean hasFinalizedItems() {
+        return ! finalizedReads.isEmpty();
+    }
+
+    @Override
+    public List<GATKRead> consumeFinalizedItems() {
+        final List<GATKRead> toReturn = finalizedReads;
+        finalizedReads = new ArrayList<>();
+        return toReturn;
+    }
+
+    @Override
+    public boolean hasPendingItems() {
+        return (positionSample != null && ! positionSample.isEmpty()) || (windowSample != null && ! windowSample.isEmpty());
+    }
+
+    @Override
+    public GATKRead peekFinalized() {
+        return finalizedReads.isEmpty() ? null : finalizedReads.get(0);
+    }
+
+    @Override
+    public GATKRead peekPending() {
+        if ( windowSample != null && ! windowSample.isEmpty() ) {
+            return windowSample.peekFirstSubmitted();
+        }
+        return positionSample != null && ! positionSample.isEmpty() ? positionSample.peekFirstSubmitted() : null;
+    }
+
+    @Override
+    public int size() {
+        return finalizedReads.size() + (positionSample == null ? 0 : positionSample.size()) + (windowSample == null ? 0 : windowSample.size());
+    }
+
+    @Override
+    public void signalEndOfInput() {
+        finalizePosition();
+        finalizeWindow();
+        previousRead = null;
+    }
+
+    @Override
+    public void clearItems() {
+        if ( positionSample != null ) {
+            positionSample.drain();
+        }
+        if ( windowSample != null ) {
+            windowSample.drain();
+        }
+        finalizedReads.clear();
+        previousRead = null;
+        windowReferenceIndex = -1;
+        windowIndex = -1;
+    }
+
+    @Override
+    public boolean requiresCoordinateSortOrder() {
+        return true;
+    }
+
+    @Override
+    public void signalNoMoreReadsBefore( final GATKRead read ) {
+        Utils.nonNull(read, "Positional downsampler requires non-null reads");
+        handlePositionalChange(read);
+    }
+
+    private static final class SampledRead {
+        private final GATKRead read;
+        private final long hash;
+        private final long submissionIndex;
+
+        private SampledRead( final GATKRead read, final long hash, final long submissionIndex ) {
+            this.read = read;
+            this.hash = hash;
+            this.submissionIndex = submissionIndex;
+        }
+    }
+
+    /**
+     * Keeps at most k reads with the smallest hashes among those offered to it, never splitting a group of reads with
+     * equal hashes, in a max-heap so that each offer costs O(log k) and memory is bounded by k.
+     */
+    private static final class BottomKSample {
+        private static final Comparator<SampledRead> PRIORITY_ORDER =
+                Comparator.<SampledRead>comparingLong(r -> r.hash).thenComparingLong(r -> r.submissionIndex);
+        private static final Comparator<SampledRead> SUBMISSION_ORDER = Comparator.comparingLong(r -> r.submissionIndex);
+
+        private final int k;
+        private final PriorityQueue<SampledRead> heap;
+
+        // reads with hashes at or above this value have been discarded, so later reads with such hashes are discarded too
+        private long discardedHash = Long.MAX_VALUE;
+        private boolean hasDiscarded = false;
+
+        private BottomKSample( final int k ) {
+            this.k = k;
+            this.heap = new PriorityQueue<>(Math.min(k, 1024), PRIORITY_ORDER.reversed());
+        }
+
+        /**
+         * @return the number of reads (the one offered and/or ones previously kept) that were discarded
+         */
+        private int offer( final SampledRead sampledRead ) {
+            if ( hasDiscarded && sampledRead.hash >= discardedHash ) {
+                return 1;
+            }
+            if ( heap.size() < k ) {
+                heap.add(sampledRead);
+                return 0;
+            }
+            final long largestHash = heap.peek().hash;
+            if ( sampledRead.hash > largestHash ) {
+                discard(sampledRead.hash);
+                return 1;
+            }
+            // the reads with the largest hash no longer all fit, so discard that whole group, along with the read
+            // offered if it belongs to it
+            int discarded = 0;
+            while ( ! heap.isEmpty() && heap.peek().hash == largestHash ) {
+                heap.poll();
+                discarded++;
+            }
+            discard(largestHash);
+            if ( sampledRead.hash < largestHash ) {
+                heap.add(sampledRead);
+            } else {
+                discarded++;
+            }
+            return discarded;
+        }
+
+        private void discard( final long hash ) {
+            // only reads with hashes below discardedHash are ever kept, so this lowers it
+            discardedHash = hash;
+            hasDiscarded = true;
+        }
+
+        private boolean isEmpty() {
+            return heap.isEmpty();
+        }
+
+        private int size() {
+            return heap.size();
+        }
+
+        private GATKRead peekFirstSubmitted() {
+            return heap.stream().min(SUBMISSION_ORDER).map(r -> r.read).orElse(null);
+        }
+
+        private List<SampledRead> drain() {
+            final List<SampledRead> drained = new ArrayList<>(heap);
+            heap.clear();
+            hasDiscarded = false;
+            discardedHash = Long.MAX_VALUE;
+            return drained;
+        }
+
+        private void drainInSubmissionOrder( final List<GATKRead> destination ) {
+            final List<SampledRead> drained = drain();
+            drained.sort(SUBMISSION_ORDER);
+            for ( final SampledRead sampledRead : drained ) {
+                destination.add(sampledRead.read);
+            }
+        }
+    }
+}
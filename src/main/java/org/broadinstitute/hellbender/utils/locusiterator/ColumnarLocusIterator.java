@@ -0,0 +1,254 @@
+package org.broadinstitute.hellbender.utils.locusiterator;
+
+import htsjdk.samtools.Cigar;
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.util.PeekableIterator;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.*;
+
+/**
+ * Column-oriented alternative to {@link LocusIteratorByState} for counting-style tools.
+ *
+ * Rather than keeping an {@link AlignmentStateMachine} per active read and building a fresh
+ * {@link org.broadinstitute.hellbender.utils.pileup.ReadPileup} of {@link org.broadinstitute.hellbender.utils.pileup.PileupElement}s
+ * at every locus, each read is walked along its cigar exactly once, when it comes off the underlying iterator, and its
+ * bases are appended to the per-position primitive arrays of a window of {@link ColumnarPileup}s. Once no further read
+ * can overlap the first position of the window, that column is complete and is handed out. Columns are reused as the
+ * window slides forward, so steady-state traversal does not allocate per locus or per read.
+ *
+ * The set of bases reported at each locus matches {@link LocusIteratorByState} without downsampling: unmapped reads,
+ * skipped regions (N) and bases inside adaptors are excluded, and deletions are optionally included. The differences are:
+ *
+ * -- no downsampling is performed
+ * -- elements are ordered by the order in which their reads came off the iterator, not grouped by sample
+ * -- elements only expose the base, base quality, mapping quality, strand and sample of the read, not the read itself
+ * -- each returned {@link ColumnarPileup} is only valid until the next call to {@link #next()}
+ *
+ * Requires the reads to be coordinate sorted. Memory usage is proportional to the depth times the span of the longest
+ * read (including deletions and skipped regions) currently overlapping the window.
+ */
+public final class ColumnarLocusIterator implements Iterator<ColumnarPileup> {
+    private static final int INITIAL_WINDOW_SIZE = 256;
+
+    private final PeekableIterator<GATKRead> reads;
+    private final SAMFileHeader header;
+    private final boolean includeDeletions;
+
+    // sample name (possibly null) -> sample index, and a cache of read group -> sample index to avoid per-read header lookups
+    private final Map<String, Integer> sampleIndices = new HashMap<>();
+    private final Map<String, Integer> readGroupSampleIndices = new HashMap<>();
+
+    // circular buffer of columns: window[(head + k) % window.length] is the column at position windowStart + k
+    private ColumnarPileup[] window = new ColumnarPileup[INITIAL_WINDOW_SIZE];
+    private int head = 0;
+    private String contig = null;
+    private int windowStart = 0;
+    // one past the last position with data in the window
+    private int windowEnd = 0;
+
+    // the column handed out by the last call to next(), to be recycled on the following call
+    private ColumnarPileup lastReturned = null;
+    private ColumnarPileup nextPileup = null;
+
+    /**
+     * @param reads coordinate-sorted reads to pile up
+     * @param samples a complete list of the samples of the reads; may contain a null element, to which reads
+     *                without a read group sample are assigned. The index of a sample in this list is its sample index
+     *                in the resulting pileups.
+     * @param header header from the reads
+     * @param includeDeletions whether to include deletion elements in the pileups
+     */
+    public ColumnarLocusIterator(final Iterator<GATKRead> reads, final List<String> samples, final SAMFileHeader header,
+                                 final boolean includeDeletions) {
+        Utils.nonNull(reads, "reads cannot be null");
+        Utils.nonNull(samples, "samples cannot be null");
+        this.header = Utils.nonNull(header, "header cannot be null");
+        this.reads = new PeekableIterator<>(reads);
+        this.includeDeletions = includeDeletions;
+        for (int i = 0; i < samples.size(); i++) {
+            sampleIndices.putIfAbsent(samples.get(i), i);
+        }
+        for (int i = 0; i < window.length; i++) {
+            window[i] = new ColumnarPileup();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        loadNextPileup();
+        return nextPileup != null;
+    }
+
+    @Override
+    public ColumnarPileup next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("ColumnarLocusIterator: out of elements.");
+        }
+        lastReturned = nextPileup;
+        nextPileup = null;
+        return lastReturned;
+    }
+
+    private void loadNextPileup() {
+        if (nextPileup != null) {
+            return;
+        }
+        if (lastReturned != null) {
+            lastReturned.clear();
+            lastReturned = null;
+        }
+        while (nextPileup == null) {
+            if (windowStart >= windowEnd) {
+                // nothing pending in the window: jump directly to the start of the next read
+                final GATKRead read = nextMappedRead();
+                if (read == null) {
+                    return;
+                }
+                // every column in the window is empty at this point, so it can simply be moved
+                contig = read.getContig();
+                windowStart = windowEnd = read.getStart();
+            }
+
+            // add every read that can overlap the first position of the window
+            GATKRead read;
+            while ((read = nextMappedRead()) != null && read.getContig().equals(contig) && read.getStart() <= windowStart) {
+                if (read.getStart() < windowStart) {
+                    throw new IllegalStateException("Reads are not coordinate sorted: " + read.getName() + " starts before " + contig + ":" + windowStart);
+                }
+                addRead(reads.next());
+            }
+
+            // the first column is now complete
+            final ColumnarPileup column = window[head];
+            column.setLocation(contig, windowStart);
+            head = (head + 1) % window.length;
+            windowStart++;
+            if (!column.isEmpty()) {
+                nextPileup = column;
+            }
+        }
+    }
+
+    /**
+     * Skip unmapped reads and return, without consuming it, the next mapped read (or null if there are none)
+     */
+    private GATKRead nextMappedRead() {
+        while (reads.hasNext() && reads.peek().isUnmapped()) {
+            reads.next();
+        }
+        return reads.hasNext() ? reads.peek() : null;
+    }
+
+    private void addRead(final GATKRead read) {
+        final int sampleIndex = getSampleIndex(read);
+        final boolean isReverseStrand = read.isReverseStrand();
+        final int mappingQual = read.getMappingQuality();
+
+        // every position on one side of the adaptor boundary is inside the adaptor, if the boundary applies at all
+        final int adaptorBoundary = read.getAdaptorBoundary();
+        final boolean hasAdaptor = ReadUtils.isBaseInsideAdaptor(read, adaptorBoundary);
+
+        ensureWindowCovers(read.getEnd());
+
+        final Cigar cigar = read.getCigar();
+        final int numElements = cigar.numCigarElements();
+        int refPos = read.getStart();
+        int readOffset = 0;
+        for (int e = 0; e < numElements; e++) {
+            final CigarElement element = cigar.getCigarElement(e);
+            final int length = element.getLength();
+            switch (element.getOperator()) {
+                case H:
+                case P:
+                    break;
+                case I:
+                case S:
+                    readOffset += length;
+                    break;
+                case N:
+                    refPos += length;
+                    break;
+                case D:
+                    if (length > 0 && readOffset == 0) {
+                        throw new UserException.MalformedRead(read, "read starts with deletion. Cigar: " + cigar.toString() + ". Although the SAM spec technically permits such reads, this is often indicative of malformed files.");
+                    }
+                    if (length > 0 && e == numElements - 1) {
+                        throw new UserException.MalformedRead(read, "read ends with deletion. Cigar: " + cigar.toString() + ". Although the SAM spec technically permits such reads, this is often indicative of malformed files.");
+                    }
+                    if (includeDeletions) {
+                        for (int i = 0; i < length; i++, refPos++) {
+                            if (!(hasAdaptor && isInsideAdaptor(refPos, adaptorBoundary, isReverseStrand))) {
+                                getColumn(refPos).addDeletion(mappingQual, sampleIndex, isReverseStrand);
+                            }
+                        }
+                    } else {
+                        refPos += length;
+                    }
+                    break;
+                case M:
+                case EQ:
+                case X:
+                    for (int i = 0; i < length; i++, refPos++, readOffset++) {
+                        if (!(hasAdaptor && isInsideAdaptor(refPos, adaptorBoundary, isReverseStrand))) {
+                            getColumn(refPos).addBase(read.getBase(readOffset), read.getBaseQuality(readOffset), mappingQual, sampleIndex, isReverseStrand);
+                        }
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Case statement didn't deal with cigar op: " + element.getOperator());
+            }
+        }
+        windowEnd = Math.max(windowEnd, refPos);
+    }
+
+    private static boolean isInsideAdaptor(final int position, final int adaptorBoundary, final boolean isReverseStrand) {
+        return isReverseStrand ? position <= adaptorBoundary : position >= adaptorBoundary;
+    }
+
+    private ColumnarPileup getColumn(final int position) {
+        return window[(head + position - windowStart) % window.length];
+    }
+
+    /**
+     * Grow the circular buffer, if necessary, so that it holds every position from the window start through {@code end}
+     */
+    private void ensureWindowCovers(final int end) {
+        final int required = end - windowStart + 1;
+        if (required <= window.length) {
+            return;
+        }
+        int newLength = window.length;
+        while (newLength < required) {
+            newLength *= 2;
+        }
+        final ColumnarPileup[] newWindow = new ColumnarPileup[newLength];
+        for (int k = 0; k < window.length; k++) {
+            newWindow[k] = window[(head + k) % window.length];
+        }
+        for (int k = window.length; k < newLength; k++) {
+            newWindow[k] = new ColumnarPileup();
+        }
+        window = newWindow;
+        head = 0;
+    }
+
+    private int getSampleIndex(final GATKRead read) {
+        final String readGroup = read.getReadGroup();
+        final Integer cached = readGroupSampleIndices.get(readGroup);
+        if (cached != null) {
+            return cached;
+        }
+        final String sample = ReadUtils.getSampleName(read, header);
+        final Integer sampleIndex = sampleIndices.get(sample);
+        if (sampleIndex == null) {
+            throw new IllegalArgumentException("Read " + read.getName() + " has sample " + sample + " which is not in the sample list");
+        }
+        readGroupSampleIndices.put(readGroup, sampleIndex);
+        return sampleIndex;
+    }
+}
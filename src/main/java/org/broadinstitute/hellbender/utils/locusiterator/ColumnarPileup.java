@@ -0,0 +1,239 @@
+package org.broadinstitute.hellbender.utils.locusiterator;
+
+import htsjdk.samtools.util.Locatable;
+import org.broadinstitute.hellbender.utils.BaseUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.pileup.PileupElement;
+
+import java.util.Arrays;
+
+/**
+ * A lightweight, column-oriented view of the pileup at a single locus, produced by {@link ColumnarLocusIterator}.
+ *
+ * Instead of one {@link PileupElement} object per read, the pileup is stored as parallel primitive arrays
+ * (base, base quality, mapping quality, sample index and strand/deletion flags), indexed by element.
+ * Elements appear in the order in which their reads came off the underlying read iterator.
+ *
+ * Instances are recycled by the iterator that produced them: a pileup is only valid until the next call to
+ * {@link ColumnarLocusIterator#next()}. Callers that need to keep data around must copy it out.
+ */
+public final class ColumnarPileup implements Locatable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final byte REVERSE_STRAND_FLAG = 1;
+    private static final byte DELETION_FLAG = 1 << 1;
+
+    private String contig;
+    private int position;
+    private int size;
+
+    private byte[] bases = new byte[INITIAL_CAPACITY];
+    private byte[] quals = new byte[INITIAL_CAPACITY];
+    private int[] mappingQuals = new int[INITIAL_CAPACITY];
+    private int[] sampleIndices = new int[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+
+    ColumnarPileup() {
+    }
+
+    /**
+     * Create an empty pileup at the given locus, for loci not covered by any read.
+     *
+     * @param contig the contig of the locus
+     * @param position the 1-based position of the locus on its contig
+     */
+    public ColumnarPileup(final String contig, final int position) {
+        setLocation(Utils.nonNull(contig, "contig cannot be null"), position);
+    }
+
+    /**
+     * Remove all elements, keeping the allocated arrays.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    void setLocation(final String contig, final int position) {
+        this.contig = contig;
+        this.position = position;
+    }
+
+    void addBase(final byte base, final byte qual, final int mappingQual, final int sampleIndex, final boolean isReverseStrand) {
+        add(base, qual, mappingQual, sampleIndex, isReverseStrand ? REVERSE_STRAND_FLAG : 0);
+    }
+
+    void addDeletion(final int mappingQual, final int sampleIndex, final boolean isReverseStrand) {
+        add(PileupElement.DELETION_BASE, PileupElement.DELETION_QUAL, mappingQual, sampleIndex,
+                (byte) (DELETION_FLAG | (isReverseStrand ? REVERSE_STRAND_FLAG : 0)));
+    }
+
+    private void add(final byte base, final byte qual, final int mappingQual, final int sampleIndex, final byte flag) {
+        if (size == bases.length) {
+            final int newCapacity = 2 * size;
+            bases = Arrays.copyOf(bases, newCapacity);
+            quals = Arrays.copyOf(quals, newCapacity);
+            mappingQuals = Arrays.copyOf(mappingQuals, newCapacity);
+            sampleIndices = Arrays.copyOf(sampleIndices, newCapacity);
+            flags = Arrays.copyOf(flags, newCapacity);
+        }
+        bases[size] = base;
+        quals[size] = qual;
+        mappingQuals[size] = mappingQual;
+        sampleIndices[size] = sampleIndex;
+        flags[size] = flag;
+        size++;
+    }
+
+    @Override
+    public String getContig() {
+        return contig;
+    }
+
+    /**
+     * @return the 1-based position of this pileup on its contig
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public int getStart() {
+        return position;
+    }
+
+    @Override
+    public int getEnd() {
+        return position;
+    }
+
+    /**
+     * @return a new 1 bp interval for the locus of this pileup
+     */
+    public SimpleInterval getLocation() {
+        return new SimpleInterval(contig, position, position);
+    }
+
+    /**
+     * @return the number of elements in this pileup, including deletions
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the base of element {@code i}, or {@link PileupElement#DELETION_BASE} for deletions
+     */
+    public byte getBase(final int i) {
+        checkIndex(i);
+        return bases[i];
+    }
+
+    /**
+     * @return the base quality of element {@code i}, or {@link PileupElement#DELETION_QUAL} for deletions
+     */
+    public byte getQual(final int i) {
+        checkIndex(i);
+        return quals[i];
+    }
+
+    public int getMappingQual(final int i) {
+        checkIndex(i);
+        return mappingQuals[i];
+    }
+
+    /**
+     * @return the index, in the sample list given to the iterator, of the sample of the read of element {@code i}
+     */
+    public int getSampleIndex(final int i) {
+        checkIndex(i);
+        return sampleIndices[i];
+    }
+
+    public boolean isReverseStrand(final int i) {
+        checkIndex(i);
+        return (flags[i] & REVERSE_STRAND_FLAG) != 0;
+    }
+
+    public boolean isDeletion(final int i) {
+        checkIndex(i);
+        return (flags[i] & DELETION_FLAG) != 0;
+    }
+
+    /**
+     * @return the number of deletions in this pileup
+     */
+    public int getNumberOfDeletions() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if ((flags[i] & DELETION_FLAG) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the counts of A, C, G and T bases in this pileup, in that order, skipping deletions and non-ACGT bases.
+     * Equivalent to {@link org.broadinstitute.hellbender.utils.pileup.ReadPileup#getBaseCounts()}.
+     *
+     * @return a new array of 4 counts
+     */
+    public int[] getBaseCounts() {
+        final int[] counts = new int[4];
+        addBaseCounts(-1, 0, 0, counts);
+        return counts;
+    }
+
+    /**
+     * Add the counts of A, C, G and T bases passing the given thresholds to {@code counts}, skipping deletions and
+     * non-ACGT bases. Does not allocate.
+     *
+     * @param sampleIndex only count elements from this sample, or -1 to count all samples
+     * @param minBaseQual only count bases with base quality >= this value
+     * @param minMappingQual only count bases from reads with mapping quality >= this value
+     * @param counts array of length 4 to which the counts for A, C, G and T are added
+     */
+    public void addBaseCounts(final int sampleIndex, final int minBaseQual, final int minMappingQual, final int[] counts) {
+        Utils.validateArg(counts.length == 4, "counts must have length 4");
+        for (int i = 0; i < size; i++) {
+            if ((flags[i] & DELETION_FLAG) != 0 || quals[i] < minBaseQual || mappingQuals[i] < minMappingQual
+                    || (sampleIndex != -1 && sampleIndices[i] != sampleIndex)) {
+                continue;
+            }
+            final int baseIndex = BaseUtils.simpleBaseToBaseIndex(bases[i]);
+            if (baseIndex != -1) {
+                counts[baseIndex]++;
+            }
+        }
+    }
+
+    /**
+     * Count the elements (including deletions) of a single sample. Does not allocate.
+     *
+     * @param sampleIndex the sample to count
+     * @return the number of elements in this pileup from reads of that sample
+     */
+    public int getSampleDepth(final int sampleIndex) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (sampleIndices[i] == sampleIndex) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void checkIndex(final int i) {
+        Utils.validIndex(i, size);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s:%d size=%d", contig, position, size);
+    }
+}
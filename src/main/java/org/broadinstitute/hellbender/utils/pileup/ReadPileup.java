@@ -10,6 +10,7 @@ import org.broadinstitute.hellbender.utils.BaseUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.fragments.FragmentCollection;
+import org.broadinstitute.hellbender.utils.genotyper.SampleList;
 import org.broadinstitute.hellbender.utils.locusiterator.AlignmentStateMachine;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
@@ -196,21 +197,71 @@ public class ReadPileup implements Iterable<PileupElement> {
      * @throws org.broadinstitute.hellbender.exceptions.UserException.ReadMissingReadGroup if unknownSampleName is {@code null} and there are reads without RG/sample name
      */
     public Map<String, ReadPileup> splitBySample(final SAMFileHeader header, final String unknownSampleName) {
-        final Map<String, ReadPileup> toReturn = new HashMap<>();
-        for (final String sample : getSamples(header)) {
-            final ReadPileup pileupBySample = getPileupForSample(sample, header);
-            if (sample != null) {
-                toReturn.put(sample, pileupBySample);
-            } else {
-                if (unknownSampleName == null) {
-                    throw new UserException.ReadMissingReadGroup(pileupBySample.iterator().next().getRead());
+        // group the elements in a single pass, instead of filtering the whole pileup once per sample
+        final Map<String, List<PileupElement>> elementsBySample = new HashMap<>();
+        String lastReadGroup = null;
+        List<PileupElement> lastSampleElements = null;
+        for (final PileupElement pe : pileupElements) {
+            final GATKRead read = pe.getRead();
+            final String readGroup = read.getReadGroup();
+            if (lastSampleElements == null || !Objects.equals(readGroup, lastReadGroup)) {
+                final String sample = ReadUtils.getSampleName(read, header);
+                if (sample == null && unknownSampleName == null) {
+                    throw new UserException.ReadMissingReadGroup(read);
                 }
-                toReturn.put(unknownSampleName, pileupBySample);
+                lastReadGroup = readGroup;
+                lastSampleElements = elementsBySample.computeIfAbsent(sample != null ? sample : unknownSampleName, s -> new ArrayList<>());
             }
+            lastSampleElements.add(pe);
+        }
+
+        final Map<String, ReadPileup> toReturn = new HashMap<>(elementsBySample.size());
+        for (final Map.Entry<String, List<PileupElement>> entry : elementsBySample.entrySet()) {
+            toReturn.put(entry.getKey(), new ReadPileup(loc, entry.getValue()));
         }
         return toReturn;
     }
 
+    /**
+     * Group the elements of this pileup by sample, without creating a new pileup per sample.
+     *
+     * @param header  the header to retrieve the samples from
+     * @param samples the samples to stratify by; elements from other samples are left out of the result
+     * @return an index-based view of the elements of each sample, backed by this pileup
+     */
+    public SampleStratifiedPileup stratifyBySample(final SAMFileHeader header, final SampleList samples) {
+        return new SampleStratifiedPileup(this, header, samples);
+    }
+
+    /**
+     * Get the element at the given index, in iteration order.
+     */
+    public PileupElement get(final int i) {
+        return pileupElements.get(i);
+    }
+
+    /**
+     * Set the bits of a mask for the elements of this pileup that satisfy the predicate. Bit {@code i} of the mask
+     * corresponds to element {@link #get(int) get(i)}. The mask can be reused across pileups to filter and stratify
+     * without allocating new pileups.
+     *
+     * @param filter the predicate to test
+     * @param mask the mask to fill; it is cleared first
+     * @return {@code mask}
+     */
+    public BitSet fillFilterMask(final Predicate<PileupElement> filter, final BitSet mask) {
+        Utils.nonNull(filter);
+        Utils.nonNull(mask);
+        mask.clear();
+        final int size = pileupElements.size();
+        for (int i = 0; i < size; i++) {
+            if (filter.test(pileupElements.get(i))) {
+                mask.set(i);
+            }
+        }
+        return mask;
+    }
+
     /**
      * The best way to access PileupElements where you only care about the bases and quals in the pileup.
      * <p>
@@ -279,9 +330,27 @@ public class ReadPileup implements Iterable<PileupElement> {
      * Deletions are not counted.
      */
     public int[] getBaseCounts() {
-        final int[] counts = new int[4];
+        return getBaseCounts((BitSet) null, new int[4]);
+    }
 
-        for (final PileupElement pile : this) {
+    /**
+     * Get counts of A, C, G, T in order for the elements set in {@code mask} (see {@link #fillFilterMask}),
+     * filling the provided array instead of allocating a new one.
+     * Deletions are not counted.
+     *
+     * @param mask the elements to count, or null to count all elements
+     * @param counts array of length 4 which is filled with the counts
+     * @return {@code counts}
+     */
+    public int[] getBaseCounts(final BitSet mask, final int[] counts) {
+        Utils.validateArg(counts.length == 4, "counts must have length 4");
+        Arrays.fill(counts, 0);
+        final int size = pileupElements.size();
+        for (int i = 0; i < size; i++) {
+            if (mask != null && !mask.get(i)) {
+                continue;
+            }
+            final PileupElement pile = pileupElements.get(i);
             // skip deletion sites
             if (!pile.isDeletion()) {
                 final int index = BaseUtils.simpleBaseToBaseIndex(pile.getBase());
@@ -294,6 +363,29 @@ public class ReadPileup implements Iterable<PileupElement> {
         return counts;
     }
 
+    /**
+     * Get counts of A, C, G, T in order for the elements satisfying the predicate, without creating a filtered pileup.
+     * Deletions are not counted.
+     *
+     * @param filter the elements to count
+     * @param counts array of length 4 which is filled with the counts
+     * @return {@code counts}
+     */
+    public int[] getBaseCounts(final Predicate<PileupElement> filter, final int[] counts) {
+        Utils.nonNull(filter);
+        Utils.validateArg(counts.length == 4, "counts must have length 4");
+        Arrays.fill(counts, 0);
+        for (final PileupElement pile : pileupElements) {
+            if (!pile.isDeletion() && filter.test(pile)) {
+                final int index = BaseUtils.simpleBaseToBaseIndex(pile.getBase());
+                if (index != -1) {
+                    counts[index]++;
+                }
+            }
+        }
+        return counts;
+    }
+
     /**
      * Fixes the quality of all the elements that come from an overlapping pair in the same way as
      * samtools does {@see tweak_overlap_quality function in
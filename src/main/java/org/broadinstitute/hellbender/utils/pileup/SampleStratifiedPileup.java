@@ -0,0 +1,169 @@
+package org.broadinstitute.hellbender.utils.pileup;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.utils.BaseUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.SampleList;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Index-based, per-sample view of a {@link ReadPileup}.
+ *
+ * The elements of the pileup are grouped by sample in a single pass, into one array of element indices in which the
+ * elements of each sample occupy a contiguous range. Per-sample queries then iterate over that range of the backing
+ * pileup, without creating a new {@link ReadPileup} or list of {@link PileupElement}s per sample.
+ *
+ * Within each sample, elements keep their order in the backing pileup. Elements whose sample is not in the
+ * {@link SampleList} used to build the view are not part of any sample.
+ */
+public final class SampleStratifiedPileup {
+    private final ReadPileup pileup;
+    private final SampleList samples;
+
+    // elementIndices[sampleStarts[s]] .. elementIndices[sampleStarts[s + 1] - 1] are the indices of the elements of sample s
+    private final int[] elementIndices;
+    private final int[] sampleStarts;
+
+    SampleStratifiedPileup(final ReadPileup pileup, final SAMFileHeader header, final SampleList samples) {
+        this.pileup = Utils.nonNull(pileup);
+        this.samples = Utils.nonNull(samples);
+        Utils.nonNull(header);
+
+        final int size = pileup.size();
+        final int numSamples = samples.numberOfSamples();
+        final int[] elementSamples = new int[size];
+        sampleStarts = new int[numSamples + 1];
+
+        // counting sort of the element indices by sample index
+        String lastReadGroup = null;
+        int lastSampleIndex = -1;
+        for (int i = 0; i < size; i++) {
+            final String readGroup = pileup.get(i).getRead().getReadGroup();
+            if (i == 0 || !Objects.equals(readGroup, lastReadGroup)) {
+                lastReadGroup = readGroup;
+                lastSampleIndex = samples.indexOfSample(ReadUtils.getSampleName(pileup.get(i).getRead(), header));
+            }
+            elementSamples[i] = lastSampleIndex;
+            if (lastSampleIndex >= 0) {
+                sampleStarts[lastSampleIndex + 1]++;
+            }
+        }
+        for (int s = 0; s < numSamples; s++) {
+            sampleStarts[s + 1] += sampleStarts[s];
+        }
+        elementIndices = new int[sampleStarts[numSamples]];
+        final int[] nextSlot = Arrays.copyOf(sampleStarts, numSamples);
+        for (int i = 0; i < size; i++) {
+            if (elementSamples[i] >= 0) {
+                elementIndices[nextSlot[elementSamples[i]]++] = i;
+            }
+        }
+    }
+
+    public SampleList getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return the number of elements of the given sample
+     */
+    public int size(final int sampleIndex) {
+        Utils.validIndex(sampleIndex, samples.numberOfSamples());
+        return sampleStarts[sampleIndex + 1] - sampleStarts[sampleIndex];
+    }
+
+    /**
+     * @return the index, in the backing pileup, of the {@code k}th element of the given sample
+     */
+    public int getElementIndex(final int sampleIndex, final int k) {
+        Utils.validIndex(k, size(sampleIndex));
+        return elementIndices[sampleStarts[sampleIndex] + k];
+    }
+
+    /**
+     * @return the {@code k}th element of the given sample
+     */
+    public PileupElement get(final int sampleIndex, final int k) {
+        return pileup.get(getElementIndex(sampleIndex, k));
+    }
+
+    /**
+     * Count the elements of a sample that satisfy a predicate. Does not allocate.
+     */
+    public int getNumberOfElements(final int sampleIndex, final Predicate<PileupElement> filter) {
+        return getNumberOfElements(sampleIndex, null, filter);
+    }
+
+    /**
+     * Count the elements of a sample that satisfy a predicate. Does not allocate.
+     *
+     * @param sampleIndex the sample
+     * @param mask if not null, only count elements whose index in the backing pileup is set in this mask
+     *             (see {@link ReadPileup#fillFilterMask})
+     * @param filter the predicate to test
+     */
+    public int getNumberOfElements(final int sampleIndex, final BitSet mask, final Predicate<PileupElement> filter) {
+        Utils.validIndex(sampleIndex, samples.numberOfSamples());
+        Utils.nonNull(filter);
+        final int end = sampleStarts[sampleIndex + 1];
+        int count = 0;
+        for (int k = sampleStarts[sampleIndex]; k < end; k++) {
+            final int elementIndex = elementIndices[k];
+            if ((mask == null || mask.get(elementIndex)) && filter.test(pileup.get(elementIndex))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the counts of A, C, G and T bases of a sample, in that order, skipping deletions and non-ACGT bases.
+     * Does not allocate.
+     *
+     * @param sampleIndex the sample
+     * @param mask if not null, only count elements whose index in the backing pileup is set in this mask
+     *             (see {@link ReadPileup#fillFilterMask})
+     * @param counts array of length 4 which is filled with the counts
+     * @return {@code counts}
+     */
+    public int[] getBaseCounts(final int sampleIndex, final BitSet mask, final int[] counts) {
+        Utils.validIndex(sampleIndex, samples.numberOfSamples());
+        Utils.validateArg(counts.length == 4, "counts must have length 4");
+        Arrays.fill(counts, 0);
+        final int end = sampleStarts[sampleIndex + 1];
+        for (int k = sampleStarts[sampleIndex]; k < end; k++) {
+            final int elementIndex = elementIndices[k];
+            if (mask != null && !mask.get(elementIndex)) {
+                continue;
+            }
+            final PileupElement pe = pileup.get(elementIndex);
+            if (!pe.isDeletion()) {
+                final int baseIndex = BaseUtils.simpleBaseToBaseIndex(pe.getBase());
+                if (baseIndex != -1) {
+                    counts[baseIndex]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Materialize the elements of a sample as a new pileup, for callers that need a {@link ReadPileup}.
+     * Note that this allocates.
+     */
+    public ReadPileup getPileupForSample(final int sampleIndex) {
+        final int size = size(sampleIndex);
+        final List<PileupElement> elements = new ArrayList<>(size);
+        for (int k = 0; k < size; k++) {
+            elements.add(get(sampleIndex, k));
+        }
+        return new ReadPileup(pileup.getLocation(), elements);
+    }
+}
@@ -0,0 +1,767 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import com.google.common.annotations.VisibleForTesting;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A compact columnar summary of the sites of a VCF, stored in a binary sidecar file next to it, which lets tools find
+ * the sites that match simple site-level criteria without decoding the VCF records.
+ *
+ * For each record the table stores its start and end, its variant type, its number of alleles, whether it is filtered,
+ * and the values of a chosen set of numeric INFO fields. Records are stored in blocks of consecutive records from a
+ * single contig, with each column of a block compressed separately so that a query only decompresses the columns it
+ * uses. The index at the end of the file holds the range and the minimum and maximum values of each block, so that
+ * blocks which cannot contain a matching site are skipped without being read.
+ *
+ * The table only summarizes the VCF: tools use it to decide which regions of the VCF to read, and must still apply their
+ * full selection to the records they read.
+ */
+public final class VariantSiteTable implements AutoCloseable {
+    public static final String FILE_EXTENSION = ".sites";
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private static final byte[] MAGIC = "GATKSITES".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 2;
+
+    // fixed columns, followed by one column for each INFO field
+    private static final int START_COLUMN = 0;
+    private static final int LENGTH_COLUMN = 1;
+    private static final int TYPE_COLUMN = 2;
+    private static final int NUM_ALLELES_COLUMN = 3;
+    private static final int FILTERED_COLUMN = 4;
+    private static final int NUM_FIXED_COLUMNS = 5;
+
+    private final Path path;
+    private final SeekableByteChannel channel;
+    private final long sourceSize;
+    private final long sourceLastModified;
+    private final List<String> infoKeys;
+    private final List<String> contigs;
+    private final List<Block> blocks;
+
+    private VariantSiteTable(final Path path, final SeekableByteChannel channel, final long sourceSize, final long sourceLastModified,
+                             final List<String> infoKeys, final List<String> contigs, final List<Block> blocks) {
+        this.path = path;
+        this.channel = channel;
+        this.sourceSize = sourceSize;
+        this.sourceLastModified = sourceLastModified;
+        this.infoKeys = infoKeys;
+        this.contigs = contigs;
+        this.blocks = blocks;
+    }
+
+    /**
+     * @return the default location of the site table for the given VCF
+     */
+    public static Path getDefaultPath(final Path vcf) {
+        return vcf.resolveSibling(vcf.getFileName() + FILE_EXTENSION);
+    }
+
+    /**
+     * Open a site table and read its index
+     */
+    public static VariantSiteTable open(final Path path) {
+        Utils.nonNull(path);
+        SeekableByteChannel channel = null;
+        try {
+            channel = Files.newByteChannel(path);
+            final DataInputStream header = new DataInputStream(new ByteArrayInputStream(read(channel, 0, MAGIC.length + Integer.BYTES + 2 * Long.BYTES)));
+            final byte[] magic = new byte[MAGIC.length];
+            header.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new UserException.MalformedFile(path, "This is not a variant site table");
+            }
+            final int version = header.readInt();
+            if (version != VERSION) {
+                throw new UserException.MalformedFile(path, "Unsupported variant site table version " + version);
+            }
+            final long sourceSize = header.readLong();
+            final long sourceLastModified = header.readLong();
+
+            final long indexOffset = new DataInputStream(new ByteArrayInputStream(read(channel, channel.size() - Long.BYTES, Long.BYTES))).readLong();
+            final DataInputStream index = new DataInputStream(new ByteArrayInputStream(
+                    read(channel, indexOffset, Math.toIntExact(channel.size() - Long.BYTES - indexOffset))));
+            final List<String> infoKeys = readStrings(index);
+            final List<String> contigs = readStrings(index);
+            final int numBlocks = index.readInt();
+            final List<Block> blocks = new ArrayList<>(numBlocks);
+            for (int i = 0; i < numBlocks; i++) {
+                blocks.add(Block.read(index, infoKeys.size()));
+            }
+            return new VariantSiteTable(path, channel, sourceSize, sourceLastModified, Collections.unmodifiableList(infoKeys), contigs, blocks);
+        } catch (final IOException | ArithmeticException e) {
+            closeQuietly(channel);
+            throw new UserException.CouldNotReadInputFile(path, "exception while reading the variant site table", e);
+        } catch (final RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the size in bytes of the VCF this table was created from, which is used to detect out of date tables
+     */
+    public long getSourceSize() {
+        return sourceSize;
+    }
+
+    /**
+     * @return the last modification time, in milliseconds since the epoch, of the VCF this table was created from, which
+     *         is used together with its size to detect out of date tables
+     */
+    public long getSourceLastModified() {
+        return sourceLastModified;
+    }
+
+    /**
+     * @return the INFO fields whose values are stored in the table
+     */
+    public List<String> getInfoKeys() {
+        return infoKeys;
+    }
+
+    /**
+     * @return the number of sites in the table
+     */
+    public long getNumSites() {
+        return blocks.stream().mapToLong(block -> block.numSites).sum();
+    }
+
+    /**
+     * Find the regions of the VCF containing sites which may match the criteria. Matching sites that are separated by at
+     * most {@code maxSkippedSitesToMerge} non-matching sites are returned in a single interval, since reading a few
+     * unneeded records is cheaper than starting a new query.
+     *
+     * @return sorted, non-overlapping intervals spanning every site which may match the criteria
+     */
+    public List<SimpleInterval> findSites(final SiteCriteria criteria, final int maxSkippedSitesToMerge) {
+        Utils.nonNull(criteria);
+        Utils.validateArg(maxSkippedSitesToMerge >= 0, "maxSkippedSitesToMerge must be >= 0");
+
+        final List<SimpleInterval> intervals = new ArrayList<>();
+        final int[] infoColumns = criteria.getInfoColumns(infoKeys);
+        int currentContig = -1;
+        int intervalStart = -1;
+        int intervalEnd = -1;
+        long skippedSites = 0;
+        for (final Block block : blocks) {
+            if (block.contigIndex != currentContig) {
+                addInterval(intervals, currentContig, intervalStart, intervalEnd);
+                currentContig = block.contigIndex;
+                intervalStart = -1;
+            }
+            if (!criteria.mayMatch(block, infoColumns)) {
+                skippedSites += block.numSites;
+                continue;
+            }
+
+            final BlockColumns columns = new BlockColumns(block, criteria, infoColumns);
+            for (int i = 0; i < block.numSites; i++) {
+                if (!criteria.matches(columns, i, infoColumns)) {
+                    skippedSites++;
+                    continue;
+                }
+                final int start = columns.getStart(i);
+                final int end = columns.getEnd(i);
+                if (intervalStart != -1 && (skippedSites <= maxSkippedSitesToMerge || start <= intervalEnd)) {
+                    intervalEnd = Math.max(intervalEnd, end);
+                } else {
+                    addInterval(intervals, currentContig, intervalStart, intervalEnd);
+                    intervalStart = start;
+                    intervalEnd = end;
+                }
+                skippedSites = 0;
+            }
+        }
+        addInterval(intervals, currentContig, intervalStart, intervalEnd);
+        return intervals;
+    }
+
+    private void addInterval(final List<SimpleInterval> intervals, final int contig, final int start, final int end) {
+        if (start != -1) {
+            intervals.add(new SimpleInterval(contigs.get(contig), start, end));
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            throw new GATKException("Error closing variant site table " + path.toUri(), e);
+        }
+    }
+
+    /**
+     * @return the value of a numeric INFO field with a single value, or NaN if it is missing, has several values or
+     * is not a number
+     */
+    public static double getInfoValue(final VariantContext vc, final String key) {
+        final Object value = vc.getAttribute(key);
+        if (value instanceof List) {
+            return ((List<?>) value).size() == 1 ? getValue(((List<?>) value).get(0)) : Double.NaN;
+        }
+        return getValue(value);
+    }
+
+    private static double getValue(final Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String && !((String) value).contains(",")) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (final NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private byte[] readColumn(final Block block, final int column, final int width) {
+        long offset = block.offset;
+        for (int i = 0; i < column; i++) {
+            offset += block.columnLengths[i];
+        }
+        try {
+            final Inflater inflater = new Inflater();
+            inflater.setInput(read(channel, offset, block.columnLengths[column]));
+            final byte[] bytes = new byte[block.numSites * width];
+            final int length = inflater.inflate(bytes);
+            inflater.end();
+            if (length != bytes.length) {
+                throw new UserException.MalformedFile(path, "Truncated column in variant site table");
+            }
+            return bytes;
+        } catch (final IOException | DataFormatException e) {
+            throw new UserException.CouldNotReadInputFile(path, "exception while reading the variant site table", e);
+        }
+    }
+
+    private static byte[] read(final SeekableByteChannel channel, final long offset, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        channel.position(offset);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of file at offset " + channel.position());
+            }
+        }
+        return buffer.array();
+    }
+
+    private static List<String> readStrings(final DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        final List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+    private static void closeQuietly(final SeekableByteChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (final IOException e) {
+                // the error being reported is more useful
+            }
+        }
+    }
+
+    /**
+     * Index entry for a block of consecutive sites from a single contig
+     */
+    private static final class Block {
+        private int contigIndex;
+        private int numSites;
+        private long offset;
+        private int[] columnLengths;
+        private int typeMask;
+        private int minAlleles = Integer.MAX_VALUE;
+        private int maxAlleles = 0;
+        private boolean anyFiltered;
+        private boolean anyUnfiltered;
+        private double[] infoMin;
+        private double[] infoMax;
+        // true if any site has no usable value for the field
+        private boolean[] infoMissing;
+
+        private Block(final int numInfoKeys) {
+            infoMin = new double[numInfoKeys];
+            infoMax = new double[numInfoKeys];
+            infoMissing = new boolean[numInfoKeys];
+            Arrays.fill(infoMin, Double.POSITIVE_INFINITY);
+            Arrays.fill(infoMax, Double.NEGATIVE_INFINITY);
+        }
+
+        private void write(final DataOutputStream out) throws IOException {
+            out.writeInt(contigIndex);
+            out.writeInt(numSites);
+            out.writeLong(offset);
+            for (final int length : columnLengths) {
+                out.writeInt(length);
+            }
+            out.writeInt(typeMask);
+            out.writeInt(minAlleles);
+            out.writeInt(maxAlleles);
+            out.writeBoolean(anyFiltered);
+            out.writeBoolean(anyUnfiltered);
+            for (int i = 0; i < infoMin.length; i++) {
+                out.writeDouble(infoMin[i]);
+                out.writeDouble(infoMax[i]);
+                out.writeBoolean(infoMissing[i]);
+            }
+        }
+
+        private static Block read(final DataInputStream in, final int numInfoKeys) throws IOException {
+            final Block block = new Block(numInfoKeys);
+            block.contigIndex = in.readInt();
+            block.numSites = in.readInt();
+            block.offset = in.readLong();
+            block.columnLengths = new int[NUM_FIXED_COLUMNS + numInfoKeys];
+            for (int i = 0; i < block.columnLengths.length; i++) {
+                block.columnLengths[i] = in.readInt();
+            }
+            block.typeMask = in.readInt();
+            block.minAlleles = in.readInt();
+            block.maxAlleles = in.readInt();
+            block.anyFiltered = in.readBoolean();
+            block.anyUnfiltered = in.readBoolean();
+            for (int i = 0; i < numInfoKeys; i++) {
+                block.infoMin[i] = in.readDouble();
+                block.infoMax[i] = in.readDouble();
+                block.infoMissing[i] = in.readBoolean();
+            }
+            return block;
+        }
+    }
+
+    /**
+     * The decompressed columns of a block needed to evaluate some criteria
+     */
+    private final class BlockColumns {
+        private final ByteBuffer starts;
+        private final ByteBuffer lengths;
+        private final byte[] types;
+        private final byte[] numAlleles;
+        private final byte[] filtered;
+        private final ByteBuffer[] infoValues;
+
+        private BlockColumns(final Block block, final SiteCriteria criteria, final int[] infoColumns) {
+            starts = ByteBuffer.wrap(readColumn(block, START_COLUMN, Integer.BYTES));
+            lengths = ByteBuffer.wrap(readColumn(block, LENGTH_COLUMN, Integer.BYTES));
+            types = criteria.types == null ? null : readColumn(block, TYPE_COLUMN, Byte.BYTES);
+            numAlleles = criteria.usesAlleleCount() ? readColumn(block, NUM_ALLELES_COLUMN, Byte.BYTES) : null;
+            filtered = criteria.excludeFiltered ? readColumn(block, FILTERED_COLUMN, Byte.BYTES) : null;
+            infoValues = new ByteBuffer[infoKeys.size()];
+            for (final int column : infoColumns) {
+                if (column >= 0 && infoValues[column] == null) {
+                    infoValues[column] = ByteBuffer.wrap(readColumn(block, NUM_FIXED_COLUMNS + column, Double.BYTES));
+                }
+            }
+        }
+
+        private int getStart(final int site) {
+            return starts.getInt(site * Integer.BYTES);
+        }
+
+        private int getEnd(final int site) {
+            return getStart(site) + lengths.getInt(site * Integer.BYTES);
+        }
+
+        private double getInfoValue(final int column, final int site) {
+            return infoValues[column].getDouble(site * Double.BYTES);
+        }
+    }
+
+    /**
+     * Writes a site table from the records of a coordinate sorted VCF
+     */
+    public static final class Writer implements AutoCloseable {
+        private final Path path;
+        private final OutputStream out;
+        private final List<String> infoKeys;
+        private final int blockSize;
+        private final List<String> contigs = new ArrayList<>();
+        private final Map<String, Integer> contigIndices = new HashMap<>();
+        private final List<Block> blocks = new ArrayList<>();
+        private long position = 0;
+
+        // columns of the block being accumulated
+        private int currentContig = -1;
+        private int lastStart = 0;
+        private int numSites = 0;
+        private final int[] starts;
+        private final int[] lengths;
+        private final byte[] types;
+        private final byte[] numAlleles;
+        private final byte[] filtered;
+        private final double[][] infoValues;
+
+        /**
+         * @param path where to write the table
+         * @param sourceSize size in bytes of the VCF being summarized
+         * @param sourceLastModified last modification time of the VCF being summarized, in milliseconds since the epoch
+         * @param infoKeys numeric INFO fields whose values should be stored
+         */
+        public Writer(final Path path, final long sourceSize, final long sourceLastModified, final List<String> infoKeys) {
+            this(path, sourceSize, sourceLastModified, infoKeys, DEFAULT_BLOCK_SIZE);
+        }
+
+        @VisibleForTesting
+        public Writer(final Path path, final long sourceSize, final long sourceLastModified, final List<String> infoKeys, final int blockSize) {
+            this.path = Utils.nonNull(path);
+            this.infoKeys = new ArrayList<>(Utils.nonNull(infoKeys));
+            Utils.validateArg(blockSize > 0, "blockSize must be > 0");
+            this.blockSize = blockSize;
+            starts = new int[blockSize];
+            lengths = new int[blockSize];
+            types = new byte[blockSize];
+            numAlleles = new byte[blockSize];
+            filtered = new byte[blockSize];
+            infoValues = new double[infoKeys.size()][blockSize];
+
+            try {
+                out = Files.newOutputStream(path);
+                final ByteArrayOutputStream header = new ByteArrayOutputStream();
+                final DataOutputStream headerOut = new DataOutputStream(header);
+                headerOut.write(MAGIC);
+                headerOut.writeInt(VERSION);
+                headerOut.writeLong(sourceSize);
+                headerOut.writeLong(sourceLastModified);
+                write(header.toByteArray());
+            } catch (final IOException e) {
+                throw new UserException.CouldNotCreateOutputFile(path.toUri().toString(), "exception while creating the variant site table", e);
+            }
+        }
+
+        /**
+         * Add the next record of the VCF
+         */
+        public void add(final VariantContext vc) {
+            final Integer contig = contigIndices.get(vc.getContig());
+            if (contig == null) {
+                flushBlock();
+                currentContig = contigs.size();
+                contigs.add(vc.getContig());
+                contigIndices.put(vc.getContig(), currentContig);
+                lastStart = 0;
+            } else if (contig != currentContig || vc.getStart() < lastStart) {
+                throw new UserException.BadInput("The variants must be sorted by coordinate to create a site table, but " +
+                        vc.getContig() + ":" + vc.getStart() + " is out of order");
+            }
+            lastStart = vc.getStart();
+
+            starts[numSites] = vc.getStart();
+            lengths[numSites] = vc.getEnd() - vc.getStart();
+            types[numSites] = (byte) vc.getType().ordinal();
+            numAlleles[numSites] = (byte) Math.min(vc.getNAlleles(), Byte.MAX_VALUE);
+            filtered[numSites] = (byte) (vc.isFiltered() ? 1 : 0);
+            for (int i = 0; i < infoKeys.size(); i++) {
+                infoValues[i][numSites] = getInfoValue(vc, infoKeys.get(i));
+            }
+            if (++numSites == blockSize) {
+                flushBlock();
+            }
+        }
+
+        private void flushBlock() {
+            if (numSites == 0) {
+                return;
+            }
+            final Block block = new Block(infoKeys.size());
+            block.contigIndex = currentContig;
+            block.numSites = numSites;
+            block.offset = position;
+            block.columnLengths = new int[NUM_FIXED_COLUMNS + infoKeys.size()];
+            for (int i = 0; i < numSites; i++) {
+                block.typeMask |= 1 << types[i];
+                block.minAlleles = Math.min(block.minAlleles, numAlleles[i]);
+                block.maxAlleles = Math.max(block.maxAlleles, numAlleles[i]);
+                block.anyFiltered |= filtered[i] == 1;
+                block.anyUnfiltered |= filtered[i] == 0;
+                for (int key = 0; key < infoKeys.size(); key++) {
+                    final double value = infoValues[key][i];
+                    if (Double.isNaN(value)) {
+                        block.infoMissing[key] = true;
+                    } else {
+                        block.infoMin[key] = Math.min(block.infoMin[key], value);
+                        block.infoMax[key] = Math.max(block.infoMax[key], value);
+                    }
+                }
+            }
+
+            final ByteBuffer startColumn = ByteBuffer.allocate(numSites * Integer.BYTES);
+            final ByteBuffer lengthColumn = ByteBuffer.allocate(numSites * Integer.BYTES);
+            for (int i = 0; i < numSites; i++) {
+                startColumn.putInt(starts[i]);
+                lengthColumn.putInt(lengths[i]);
+            }
+            writeColumn(block, START_COLUMN, startColumn.array());
+            writeColumn(block, LENGTH_COLUMN, lengthColumn.array());
+            writeColumn(block, TYPE_COLUMN, Arrays.copyOf(types, numSites));
+            writeColumn(block, NUM_ALLELES_COLUMN, Arrays.copyOf(numAlleles, numSites));
+            writeColumn(block, FILTERED_COLUMN, Arrays.copyOf(filtered, numSites));
+            for (int key = 0; key < infoKeys.size(); key++) {
+                final ByteBuffer infoColumn = ByteBuffer.allocate(numSites * Double.BYTES);
+                for (int i = 0; i < numSites; i++) {
+                    infoColumn.putDouble(infoValues[key][i]);
+                }
+                writeColumn(block, NUM_FIXED_COLUMNS + key, infoColumn.array());
+            }
+            blocks.add(block);
+            numSites = 0;
+        }
+
+        private void writeColumn(final Block block, final int column, final byte[] bytes) {
+            final Deflater deflater = new Deflater();
+            deflater.setInput(bytes);
+            deflater.finish();
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2 + 64);
+            final byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            deflater.end();
+            block.columnLengths[column] = compressed.size();
+            write(compressed.toByteArray());
+        }
+
+        private void write(final byte[] bytes) {
+            try {
+                out.write(bytes);
+                position += bytes.length;
+            } catch (final IOException e) {
+                throw new UserException.CouldNotCreateOutputFile(path.toUri().toString(), "exception while writing the variant site table", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            flushBlock();
+            try {
+                final ByteArrayOutputStream index = new ByteArrayOutputStream();
+                final DataOutputStream indexOut = new DataOutputStream(index);
+                for (final List<String> strings : Arrays.asList(infoKeys, contigs)) {
+                    indexOut.writeInt(strings.size());
+                    for (final String string : strings) {
+                        indexOut.writeUTF(string);
+                    }
+                }
+                indexOut.writeInt(blocks.size());
+                for (final Block block : blocks) {
+                    block.write(indexOut);
+                }
+                indexOut.writeLong(position);
+                write(index.toByteArray());
+                out.close();
+            } catch (final IOException e) {
+                throw new UserException.CouldNotCreateOutputFile(path.toUri().toString(), "exception while writing the variant site table", e);
+            }
+        }
+    }
+
+    /**
+     * Site-level conditions that every selected record must satisfy. A site whose value for an INFO field is missing
+     * or not a single number satisfies every condition on that field, so that the criteria never exclude a site which
+     * the full selection might keep.
+     */
+    public static final class SiteCriteria {
+        // a simple comparison of a variable with a number, e.g. "AF > 0.01"
+        private static final Pattern SIMPLE_COMPARISON = Pattern.compile(
+                "\\s*([A-Za-z_][A-Za-z0-9_.]*)\\s*(<=|>=|<|>)\\s*([-+]?(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][-+]?\\d+)?)\\s*");
+        private static final Pattern CONJUNCTION = Pattern.compile("&&|\\band\\b");
+        private static final Pattern UNSUPPORTED_OPERATORS = Pattern.compile("\\|\\||!|\\(|\\?|\\bor\\b|\\bnot\\b");
+
+        private Set<VariantContext.Type> types = null;
+        private boolean excludeFiltered = false;
+        private int minAlleles = 0;
+        private int maxAlleles = Integer.MAX_VALUE;
+        private final List<InfoComparison> infoComparisons = new ArrayList<>();
+
+        /**
+         * Only select sites of the given types
+         */
+        public SiteCriteria withTypes(final Collection<VariantContext.Type> types) {
+            this.types = types.isEmpty() ? EnumSet.noneOf(VariantContext.Type.class) : EnumSet.copyOf(types);
+            return this;
+        }
+
+        /**
+         * Only select sites that are not filtered
+         */
+        public SiteCriteria withoutFiltered() {
+            excludeFiltered = true;
+            return this;
+        }
+
+        /**
+         * Only select sites with between {@code minAlleles} and {@code maxAlleles} alleles, inclusive
+         */
+        public SiteCriteria withNumAlleles(final int minAlleles, final int maxAlleles) {
+            this.minAlleles = minAlleles;
+            this.maxAlleles = maxAlleles;
+            return this;
+        }
+
+        /**
+         * Only select sites whose value for an INFO field satisfies a comparison with a number
+         *
+         * @param operator one of {@code <}, {@code <=}, {@code >} or {@code >=}
+         */
+        public SiteCriteria withInfoComparison(final String key, final String operator, final double value) {
+            infoComparisons.add(new InfoComparison(key, operator, value));
+            return this;
+        }
+
+        /**
+         * Add the conditions implied by a JEXL select expression. Only expressions that are a conjunction of simple
+         * numeric comparisons, such as {@code "AF > 0.01 && DP >= 10"}, are understood; any other expression adds no
+         * conditions.
+         *
+         * @return true if the expression was understood
+         */
+        public boolean withSelectExpression(final String expression) {
+            if (UNSUPPORTED_OPERATORS.matcher(expression).find()) {
+                return false;
+            }
+            final List<InfoComparison> comparisons = new ArrayList<>();
+            for (final String term : CONJUNCTION.split(expression, -1)) {
+                final Matcher matcher = SIMPLE_COMPARISON.matcher(term);
+                if (!matcher.matches()) {
+                    return false;
+                }
+                comparisons.add(new InfoComparison(matcher.group(1), matcher.group(2), Double.parseDouble(matcher.group(3))));
+            }
+            infoComparisons.addAll(comparisons);
+            return true;
+        }
+
+        /**
+         * @return true if these criteria select every site
+         */
+        public boolean isUnrestricted() {
+            return (types == null || types.containsAll(EnumSet.allOf(VariantContext.Type.class))) && !excludeFiltered &&
+                    !usesAlleleCount() && infoComparisons.isEmpty();
+        }
+
+        /**
+         * @return true if the record satisfies these criteria
+         */
+        public boolean test(final VariantContext vc) {
+            if ((types != null && !types.contains(vc.getType())) || (excludeFiltered && vc.isFiltered()) ||
+                    vc.getNAlleles() < minAlleles || vc.getNAlleles() > maxAlleles) {
+                return false;
+            }
+            for (final InfoComparison comparison : infoComparisons) {
+                if (!comparison.test(getInfoValue(vc, comparison.key))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean usesAlleleCount() {
+            return minAlleles > 0 || maxAlleles < Integer.MAX_VALUE;
+        }
+
+        // index of the table column of each comparison, or -1 if the table doesn't store its field
+        private int[] getInfoColumns(final List<String> infoKeys) {
+            return infoComparisons.stream().mapToInt(comparison -> infoKeys.indexOf(comparison.key)).toArray();
+        }
+
+        private boolean mayMatch(final Block block, final int[] infoColumns) {
+            if (types != null && types.stream().noneMatch(type -> (block.typeMask & (1 << type.ordinal())) != 0)) {
+                return false;
+            }
+            if ((excludeFiltered && !block.anyUnfiltered) || block.maxAlleles < minAlleles || block.minAlleles > maxAlleles) {
+                return false;
+            }
+            for (int i = 0; i < infoComparisons.size(); i++) {
+                final int column = infoColumns[i];
+                if (column >= 0 && !block.infoMissing[column] && !infoComparisons.get(i).mayMatch(block.infoMin[column], block.infoMax[column])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean matches(final BlockColumns columns, final int site, final int[] infoColumns) {
+            if ((columns.types != null && !types.contains(VariantContext.Type.values()[columns.types[site]])) ||
+                    (columns.filtered != null && columns.filtered[site] == 1)) {
+                return false;
+            }
+            // allele counts are capped at Byte.MAX_VALUE in the table
+            if (columns.numAlleles != null && (columns.numAlleles[site] < minAlleles ||
+                    (columns.numAlleles[site] > maxAlleles && columns.numAlleles[site] < Byte.MAX_VALUE))) {
+                return false;
+            }
+            for (int i = 0; i < infoComparisons.size(); i++) {
+                if (infoColumns[i] >= 0 && !infoComparisons.get(i).test(columns.getInfoValue(infoColumns[i], site))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class InfoComparison {
+        private final String key;
+        private final String operator;
+        private final double value;
+
+        private InfoComparison(final String key, final String operator, final double value) {
+            Utils.validateArg(Arrays.asList("<", "<=", ">", ">=").contains(operator), () -> "unsupported comparison operator " + operator);
+            this.key = Utils.nonNull(key);
+            this.operator = operator;
+            this.value = value;
+        }
+
+        private boolean test(final double siteValue) {
+            if (Double.isNaN(siteValue)) {
+                return true;
+            }
+            switch (operator) {
+                case "<": return siteValue < value;
+                case "<=": return siteValue <= value;
+                case ">": return siteValue > value;
+                default: return siteValue >= value;
+            }
+        }
+
+        // true if some value between min and max may satisfy the comparison
+        private boolean mayMatch(final double min, final double max) {
+            return test(operator.startsWith("<") ? min : max);
+        }
+    }
+}
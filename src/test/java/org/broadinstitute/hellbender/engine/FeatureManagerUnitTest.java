@@ -276,6 +276,22 @@ public final class FeatureManagerUnitTest extends GATKBaseTest {
         Assert.assertEquals(beds.size(), 1);
     }
 
+    @Test
+    public void testHandleRequestForValidFeatureInputIteratorOverIntervals() {
+        final ValidFeatureArgumentSource toolInstance = new ValidFeatureArgumentSource();
+        toolInstance.variantContextFeatureInput = new FeatureInput<>(FEATURE_MANAGER_TEST_DIRECTORY + "feature_data_source_test.vcf");
+
+        final FeatureManager manager = new FeatureManager(toolInstance);
+        final List<SimpleInterval> intervals = Arrays.asList(new SimpleInterval("1", 200, 280), new SimpleInterval("3", 300, 300));
+        final Iterator<VariantContext> vcIterator = manager.getFeatureIterator(toolInstance.variantContextFeatureInput, intervals);
+
+        final List<Integer> starts = Utils.stream(vcIterator).map(VariantContext::getStart).collect(Collectors.toList());
+        Assert.assertEquals(starts, Arrays.asList(199, 200, 203, 280, 300, 300));
+
+        // the intervals do not restrict queries
+        Assert.assertEquals(manager.getFeatures(toolInstance.variantContextFeatureInput, new SimpleInterval("2", 1, 1000)).size(), 5);
+    }
+
     @Test
     public void testHandleRequestForValidFeatureInputIteratorWithoutIndex() {
         final ValidFeatureArgumentSource toolInstance = new ValidFeatureArgumentSource();
@@ -131,6 +131,49 @@ public final class MultiVariantDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test
+    public void testParallelInitializationMatchesSerial() {
+        final List<FeatureInput<VariantContext>> featureInputs = new ArrayList<>();
+        featureInputs.add(new FeatureInput<>(baseVariants.getAbsolutePath(), "baseVariants"));
+        featureInputs.add(new FeatureInput<>(baseVariantsAlternateDictionary.getAbsolutePath(), "baseVariantsAlternateDictionary"));
+        featureInputs.add(new FeatureInput<>(
+                new File(MULTI_VARIANT_TEST_DIRECTORY, "interleavedVariants_1.vcf").getAbsolutePath(), "interleavedVariants_1"));
+        featureInputs.add(new FeatureInput<>(
+                new File(MULTI_VARIANT_TEST_DIRECTORY, "interleavedVariants_2.vcf").getAbsolutePath(), "interleavedVariants_2"));
+
+        try (final MultiVariantDataSource serialSource =
+                     new MultiVariantDataSource(featureInputs, FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES, 0, 0, null, false, 1);
+             final MultiVariantDataSource parallelSource =
+                     new MultiVariantDataSource(featureInputs, FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES, 0, 0, null, false, 3)) {
+            Assert.assertEquals(parallelSource.getName(), serialSource.getName());
+            Assert.assertEquals(parallelSource.getSamples(), serialSource.getSamples());
+            Assert.assertEquals(parallelSource.getSequenceDictionary(), serialSource.getSequenceDictionary());
+            Assert.assertEquals(parallelSource.getHeader().getMetaDataInInputOrder(), serialSource.getHeader().getMetaDataInInputOrder());
+
+            final List<String> serialVariants = new ArrayList<>();
+            serialSource.forEach(vc -> serialVariants.add(vc.toStringDecodeGenotypes()));
+            final List<String> parallelVariants = new ArrayList<>();
+            parallelSource.forEach(vc -> parallelVariants.add(vc.toStringDecodeGenotypes()));
+            Assert.assertEquals(parallelVariants, serialVariants);
+        }
+    }
+
+    @Test(expectedExceptions = UserException.CouldNotReadInputFile.class)
+    public void testParallelInitializationRejectsNonExistentFile() {
+        new MultiVariantDataSource(
+                Arrays.asList(
+                        new FeatureInput<>(baseVariants.getAbsolutePath(), "baseVariants"),
+                        new FeatureInput<>(GATKBaseTest.getSafeNonExistentFile("nonexistent.vcf").getAbsolutePath(), "nonexistent")),
+                FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES, 0, 0, null, false, 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectZeroInitializationThreads() {
+        new MultiVariantDataSource(
+                Collections.singletonList(new FeatureInput<>(baseVariants.getAbsolutePath(), "baseVariants")),
+                FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES, 0, 0, null, false, 0);
+    }
+
     @Test
     public void testIteratorOverlapping() {
         //Test interleaved files that include some variants that start at the same position in both files
@@ -1,8 +1,10 @@
 package org.broadinstitute.hellbender.tools.copynumber;
 
 import htsjdk.samtools.SAMSequenceDictionary;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.LocusWalker;
 import org.broadinstitute.hellbender.engine.ReferenceDataSource;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.AllelicCountCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SampleLocatableMetadata;
@@ -15,7 +17,9 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Integration test for {@link CollectAllelicCounts}.  Uses a BAM with sites generated from hg19mini using wgsim.
@@ -124,4 +128,54 @@ public final class CollectAllelicCountsIntegrationTest extends CommandLineProgra
         final AllelicCountCollection countsResult = new AllelicCountCollection(outputFile);
         Assert.assertEquals(countsExpected, countsResult);
     }
+
+    @DataProvider(name = "testMatchesLocusIteratorByStateData")
+    public Object[][] testMatchesLocusIteratorByStateData() {
+        return new Object[][]{
+                {NORMAL_BAM_FILE, 0},
+                {NORMAL_BAM_FILE, 20},
+                {TUMOR_BAM_FILE, 0},
+                {TUMOR_BAM_FILE, 30}
+        };
+    }
+
+    /**
+     * CollectAllelicCounts piles up reads with a {@link org.broadinstitute.hellbender.utils.locusiterator.ColumnarLocusIterator};
+     * check that its output is the same as that of {@link CollectAllelicCountsSpark}, which uses
+     * {@link org.broadinstitute.hellbender.utils.locusiterator.LocusIteratorByState}.
+     */
+    @Test(dataProvider = "testMatchesLocusIteratorByStateData")
+    public void testMatchesLocusIteratorByState(final File inputBAMFile,
+                                                final int minimumBaseQuality) {
+        final File outputFile = createTempFile("collect-allelic-counts-test-output", ".tsv");
+        final File sparkOutputFile = createTempFile("collect-allelic-counts-spark-test-output", ".tsv");
+        final List<String> arguments = Arrays.asList(
+                "-" + StandardArgumentDefinitions.INPUT_SHORT_NAME, inputBAMFile.getAbsolutePath(),
+                "-L", SITES_FILE.getAbsolutePath(),
+                "-" + StandardArgumentDefinitions.REFERENCE_SHORT_NAME, REFERENCE_FILE.getAbsolutePath(),
+                "--" + CollectAllelicCounts.MINIMUM_BASE_QUALITY_LONG_NAME, Integer.toString(minimumBaseQuality));
+        runCommandLine(concat(arguments, "-" + StandardArgumentDefinitions.OUTPUT_SHORT_NAME, outputFile.getAbsolutePath()));
+        runCommandLine(concat(arguments, "-" + StandardArgumentDefinitions.OUTPUT_SHORT_NAME, sparkOutputFile.getAbsolutePath()),
+                CollectAllelicCountsSpark.class.getSimpleName());
+        Assert.assertEquals(new AllelicCountCollection(outputFile), new AllelicCountCollection(sparkOutputFile));
+    }
+
+    @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
+    public void testDownsamplingIsRejected() {
+        final File outputFile = createTempFile("collect-allelic-counts-test-output", ".tsv");
+        final String[] arguments = {
+                "-" + StandardArgumentDefinitions.INPUT_SHORT_NAME, NORMAL_BAM_FILE.getAbsolutePath(),
+                "-L", SITES_FILE.getAbsolutePath(),
+                "-" + StandardArgumentDefinitions.REFERENCE_SHORT_NAME, REFERENCE_FILE.getAbsolutePath(),
+                "-" + StandardArgumentDefinitions.OUTPUT_SHORT_NAME, outputFile.getAbsolutePath(),
+                "--" + LocusWalker.MAX_DEPTH_PER_SAMPLE_NAME, "10"
+        };
+        runCommandLine(arguments);
+    }
+
+    private static List<String> concat(final List<String> arguments, final String... moreArguments) {
+        final List<String> result = new ArrayList<>(arguments);
+        result.addAll(Arrays.asList(moreArguments));
+        return result;
+    }
 }
@@ -0,0 +1,91 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.tools.funcotator.filtrationRules.TranscriptFuncotations;
+import org.broadinstitute.hellbender.tools.funcotator.vcfOutput.VcfOutputRenderer;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class FuncotationFieldExtractorUnitTest extends GATKBaseTest {
+
+    private static final String TRANSCRIPT_FIELD = "Gencode_27_annotationTranscript";
+    private static final String[] KEYS = {"Gencode_27_hugoSymbol", TRANSCRIPT_FIELD, "ExAC_AC_AFR", "ExAC_AN_AFR", "Other"};
+    private static final List<String> FIELDS = Arrays.asList("Gencode_27_hugoSymbol", "ExAC_AC_AFR", "ExAC_AN_AFR", "NOT_IN_HEADER");
+
+    private static VariantContext createVariant(final String... funcotationPerAllele) {
+        final List<Allele> alleles = new ArrayList<>();
+        alleles.add(Allele.create("A", true));
+        final List<String> altBases = Arrays.asList("C", "G", "T");
+        for ( int i = 0; i < funcotationPerAllele.length; ++i ) {
+            alleles.add(Allele.create(altBases.get(i)));
+        }
+        return new VariantContextBuilder("test", "chr1", 100, 100, alleles)
+                .attribute(VcfOutputRenderer.FUNCOTATOR_VCF_FIELD_NAME, Arrays.asList(funcotationPerAllele))
+                .make();
+    }
+
+    @DataProvider
+    public Object[][] provideVariants() {
+        return new Object[][] {
+                { createVariant("[MUTYH|txID1|3|10|foo]") },
+                { createVariant("[MUTYH|txID1|3|10|foo]#[ATP7B|txID2|||bar]#[|txID3|1|0|]") },
+                // Several funcotations for the same transcript are merged:
+                { createVariant("[MUTYH|txID1|3|10|foo]#[ATP7B|txID1|4||bar]") },
+                { createVariant("[MUTYH|txID1|3|10|foo]#[ATP7B|txID2|||bar]", "[|txID1|||]") },
+        };
+    }
+
+    @Test(dataProvider = "provideVariants")
+    public void testExtractMatchesFuncotationMap(final VariantContext variant) {
+        final FuncotationFieldExtractor extractor = new FuncotationFieldExtractor(KEYS, FIELDS, TRANSCRIPT_FIELD);
+        final List<TranscriptFuncotations> transcriptFuncotations = extractor.extract(variant);
+
+        final List<FuncotationMap> funcotationMaps = new ArrayList<>();
+        final Map<Allele, FuncotationMap> funcotationMapByAllele = FuncotatorUtils.createAlleleToFuncotationMapFromFuncotationVcfAttribute(KEYS, variant, TRANSCRIPT_FIELD, "TEST");
+        variant.getAlternateAlleles().forEach(allele -> funcotationMaps.add(funcotationMapByAllele.get(allele)));
+
+        int i = 0;
+        for ( final FuncotationMap funcotationMap : funcotationMaps ) {
+            for ( final String transcriptId : funcotationMap.getTranscriptList() ) {
+                final TranscriptFuncotations funcotations = transcriptFuncotations.get(i++);
+                for ( final String field : FIELDS ) {
+                    final List<String> expectedValues = new ArrayList<>();
+                    if ( Arrays.asList(KEYS).contains(field) ) {
+                        funcotationMap.get(transcriptId).stream()
+                                .map(f -> f.getField(field))
+                                .filter(value -> !value.isEmpty())
+                                .forEach(expectedValues::add);
+                    }
+                    Assert.assertEquals(funcotations.containsField(field), !expectedValues.isEmpty());
+                    Assert.assertEquals(funcotations.getValue(field), expectedValues.isEmpty() ? null : expectedValues.get(0));
+                    for ( final String value : expectedValues ) {
+                        Assert.assertTrue(funcotations.anyValueMatches(field, value::equals));
+                    }
+                }
+            }
+        }
+        Assert.assertEquals(transcriptFuncotations.size(), i);
+    }
+
+    @Test(expectedExceptions = GATKException.class)
+    public void testFieldNotExtracted() {
+        final FuncotationFieldExtractor extractor = new FuncotationFieldExtractor(KEYS, FIELDS, TRANSCRIPT_FIELD);
+        extractor.extract(createVariant("[MUTYH|txID1|3|10|foo]")).get(0).getValue("Other");
+    }
+
+    @Test(expectedExceptions = GATKException.ShouldNeverReachHereException.class)
+    public void testWrongNumberOfValues() {
+        new FuncotationFieldExtractor(KEYS, Collections.singletonList("Other"), TRANSCRIPT_FIELD).extract(createVariant("[MUTYH|txID1|3|10]"));
+    }
+}
@@ -1432,6 +1432,14 @@ public class FuncotatorIntegrationTest extends CommandLineProgramTest {
     }
 
     private AnnotatedIntervalCollection runPik3caHg19VcfToMaf(final Set<String> excludedFields) {
+        return runPik3caHg19VcfToMaf(excludedFields, FuncotatorArgumentDefinitions.FUNCOTATOR_THREADS_DEFAULT_VALUE);
+    }
+
+    private AnnotatedIntervalCollection runPik3caHg19VcfToMaf(final Set<String> excludedFields, final int funcotatorThreads) {
+        return runPik3caHg19VcfToMaf(excludedFields, funcotatorThreads, false);
+    }
+
+    private AnnotatedIntervalCollection runPik3caHg19VcfToMaf(final Set<String> excludedFields, final int funcotatorThreads, final boolean streamVcfDataSources) {
         final File outputFile = getOutputFile(FuncotatorArgumentDefinitions.OutputFormatType.MAF);
 
         final ArgumentsBuilder arguments = createBaselineArgumentsForFuncotator(
@@ -1450,11 +1458,49 @@ public class FuncotatorIntegrationTest extends CommandLineProgramTest {
         // Disable the sequence dictionary check for the tests:
         arguments.add(FuncotatorArgumentDefinitions.FORCE_B37_TO_HG19_REFERENCE_CONTIG_CONVERSION, true);
 
+        if ( funcotatorThreads > 1 ) {
+            arguments.add(FuncotatorArgumentDefinitions.FUNCOTATOR_THREADS_NAME, funcotatorThreads);
+            // Use small batches so that the variants span several of them:
+            arguments.add(FuncotatorArgumentDefinitions.FUNCOTATOR_BATCH_SIZE_NAME, 5);
+        }
+
+        if ( streamVcfDataSources ) {
+            arguments.add(FuncotatorArgumentDefinitions.STREAM_VCF_DATA_SOURCES_NAME, true);
+        }
+
         runCommandLine(arguments);
 
         return AnnotatedIntervalCollection.create(outputFile.toPath(), null);
     }
 
+    @Test
+    public void testMultiThreadedVcfToMafMatchesSingleThreaded() {
+        final AnnotatedIntervalCollection expectedMaf = runPik3caHg19VcfToMaf(new HashSet<>());
+        final AnnotatedIntervalCollection actualMaf = runPik3caHg19VcfToMaf(new HashSet<>(), 3);
+        Assert.assertTrue(expectedMaf.getRecords().size() > 5);
+        Assert.assertEquals(actualMaf.getAnnotations(), expectedMaf.getAnnotations());
+        Assert.assertEquals(actualMaf.getRecords(), expectedMaf.getRecords());
+    }
+
+    @DataProvider
+    public Object[][] provideExcludedFieldsForStreamingVcfDataSources() {
+        return new Object[][] {
+                { Collections.emptySet() },
+                // Excluded fields are stripped from the data source records before they are decoded when streaming:
+                { com.google.common.collect.Sets.newHashSet("dummy_ClinVar_VCF_AF_EXAC", "dummy_ClinVar_VCF_CLNSIGCONF") },
+        };
+    }
+
+    @Test(dataProvider = "provideExcludedFieldsForStreamingVcfDataSources")
+    public void testStreamingVcfDataSourcesMatchesFeatureContext(final Set<String> excludedFields) {
+        final AnnotatedIntervalCollection expectedMaf = runPik3caHg19VcfToMaf(excludedFields, FuncotatorArgumentDefinitions.FUNCOTATOR_THREADS_DEFAULT_VALUE, false);
+        final AnnotatedIntervalCollection actualMaf = runPik3caHg19VcfToMaf(excludedFields, FuncotatorArgumentDefinitions.FUNCOTATOR_THREADS_DEFAULT_VALUE, true);
+        Assert.assertTrue(expectedMaf.getRecords().size() > 0);
+        Assert.assertTrue(expectedMaf.getAnnotations().contains("dummy_ClinVar_VCF_CLNVC"));
+        Assert.assertEquals(actualMaf.getAnnotations(), expectedMaf.getAnnotations());
+        Assert.assertEquals(actualMaf.getRecords(), expectedMaf.getRecords());
+    }
+
     @Test
     public void testVcfToMafHonorsExcludedFields() {
         final String fieldToEnsureIsIncluded = "dummy_ClinVar_VCF_CLNVC";
@@ -1693,6 +1739,106 @@ public class FuncotatorIntegrationTest extends CommandLineProgramTest {
         assertEqualVariantFiles(outputFile, E_COLI_EXPECTED_OUT);
     }
 
+    @Test
+    public void testMultiThreadedEColiFuncotations() {
+        final FuncotatorArgumentDefinitions.OutputFormatType outputFormatType = FuncotatorArgumentDefinitions.OutputFormatType.VCF;
+        final File outputFile = getOutputFile(outputFormatType);
+
+        final ArgumentsBuilder arguments = new ArgumentsBuilder();
+
+        arguments.addVCF(new File(FuncotatorTestConstants.ECOLI_VCF_FILE_NAME));
+        arguments.addOutput(outputFile);
+        arguments.addReference(new File(eColiRef));
+        arguments.add(FuncotatorArgumentDefinitions.DATA_SOURCES_PATH_LONG_NAME, DS_ECOLI_DIR);
+        arguments.add(FuncotatorArgumentDefinitions.REFERENCE_VERSION_LONG_NAME, FuncotatorTestConstants.REFERENCE_VERSION_ECOLI);
+        arguments.add(FuncotatorArgumentDefinitions.OUTPUT_FORMAT_LONG_NAME, outputFormatType.toString());
+        arguments.add(FuncotatorArgumentDefinitions.TRANSCRIPT_SELECTION_MODE_LONG_NAME, TranscriptSelectionMode.CANONICAL.toString());
+        arguments.add(FuncotatorArgumentDefinitions.FUNCOTATOR_THREADS_NAME, 4);
+        arguments.add(FuncotatorArgumentDefinitions.FUNCOTATOR_BATCH_SIZE_NAME, 3);
+        runCommandLine(arguments);
+
+        // The output must be identical to the single threaded output, including the order of the variants:
+        assertEqualVariantFiles(outputFile, E_COLI_EXPECTED_OUT);
+    }
+
+    @Test
+    public void testManifestEColiFuncotations() throws IOException {
+        final FuncotatorArgumentDefinitions.OutputFormatType outputFormatType = FuncotatorArgumentDefinitions.OutputFormatType.VCF;
+        final File outputFile = getOutputFile(outputFormatType);
+        final List<File> manifestOutputFiles = Arrays.asList(getOutputFile(outputFormatType), getOutputFile(outputFormatType));
+
+        final File manifestFile = createTempFile("funcotator_manifest", ".tsv");
+        final List<String> manifestLines = new ArrayList<>();
+        manifestLines.add("# Input VCF\tOutput file");
+        manifestOutputFiles.forEach(f -> manifestLines.add(new File(FuncotatorTestConstants.ECOLI_VCF_FILE_NAME).getAbsolutePath() + "\t" + f.getAbsolutePath()));
+        Files.write(manifestFile.toPath(), manifestLines);
+
+        final ArgumentsBuilder arguments = new ArgumentsBuilder();
+
+        arguments.addVCF(new File(FuncotatorTestConstants.ECOLI_VCF_FILE_NAME));
+        arguments.addOutput(outputFile);
+        arguments.addReference(new File(eColiRef));
+        arguments.add(FuncotatorArgumentDefinitions.DATA_SOURCES_PATH_LONG_NAME, DS_ECOLI_DIR);
+        arguments.add(FuncotatorArgumentDefinitions.REFERENCE_VERSION_LONG_NAME, FuncotatorTestConstants.REFERENCE_VERSION_ECOLI);
+        arguments.add(FuncotatorArgumentDefinitions.OUTPUT_FORMAT_LONG_NAME, outputFormatType.toString());
+        arguments.add(FuncotatorArgumentDefinitions.TRANSCRIPT_SELECTION_MODE_LONG_NAME, TranscriptSelectionMode.CANONICAL.toString());
+        arguments.add(FuncotatorArgumentDefinitions.MANIFEST_NAME, manifestFile);
+        runCommandLine(arguments);
+
+        // Every input is annotated exactly as it would be on its own:
+        assertEqualVariantFiles(outputFile, E_COLI_EXPECTED_OUT);
+        manifestOutputFiles.forEach(f -> assertEqualVariantFiles(f, E_COLI_EXPECTED_OUT));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testManifestWithRepeatedOutput() throws IOException {
+        final FuncotatorArgumentDefinitions.OutputFormatType outputFormatType = FuncotatorArgumentDefinitions.OutputFormatType.VCF;
+        final File outputFile = getOutputFile(outputFormatType);
+
+        final File manifestFile = createTempFile("funcotator_manifest", ".tsv");
+        Files.write(manifestFile.toPath(), Collections.singletonList(new File(FuncotatorTestConstants.ECOLI_VCF_FILE_NAME).getAbsolutePath() + "\t" + outputFile.getAbsolutePath()));
+
+        final ArgumentsBuilder arguments = new ArgumentsBuilder();
+
+        arguments.addVCF(new File(FuncotatorTestConstants.ECOLI_VCF_FILE_NAME));
+        arguments.addOutput(outputFile);
+        arguments.addReference(new File(eColiRef));
+        arguments.add(FuncotatorArgumentDefinitions.DATA_SOURCES_PATH_LONG_NAME, DS_ECOLI_DIR);
+        arguments.add(FuncotatorArgumentDefinitions.REFERENCE_VERSION_LONG_NAME, FuncotatorTestConstants.REFERENCE_VERSION_ECOLI);
+        arguments.add(FuncotatorArgumentDefinitions.OUTPUT_FORMAT_LONG_NAME, outputFormatType.toString());
+        arguments.add(FuncotatorArgumentDefinitions.MANIFEST_NAME, manifestFile);
+        runCommandLine(arguments);
+    }
+
+    @DataProvider
+    public Object[][] provideForTestManifestOutputOverwritesInput() {
+        return new Object[][] {{true}, {false}};
+    }
+
+    @Test(dataProvider = "provideForTestManifestOutputOverwritesInput", expectedExceptions = UserException.BadInput.class)
+    public void testManifestOutputOverwritesInput(final boolean overwriteDrivingVariants) throws IOException {
+        final FuncotatorArgumentDefinitions.OutputFormatType outputFormatType = FuncotatorArgumentDefinitions.OutputFormatType.VCF;
+        final File drivingVariants = createTempFile("funcotator_input", ".vcf");
+        final File manifestInput = createTempFile("funcotator_manifest_input", ".vcf");
+        Files.copy(new File(FuncotatorTestConstants.ECOLI_VCF_FILE_NAME).toPath(), drivingVariants.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(new File(FuncotatorTestConstants.ECOLI_VCF_FILE_NAME).toPath(), manifestInput.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        final File manifestFile = createTempFile("funcotator_manifest", ".tsv");
+        final File manifestOutput = overwriteDrivingVariants ? drivingVariants : manifestInput;
+        Files.write(manifestFile.toPath(), Collections.singletonList(manifestInput.getAbsolutePath() + "\t" + manifestOutput.getAbsolutePath()));
+
+        final ArgumentsBuilder arguments = new ArgumentsBuilder();
+
+        arguments.addVCF(drivingVariants);
+        arguments.addOutput(getOutputFile(outputFormatType));
+        arguments.addReference(new File(eColiRef));
+        arguments.add(FuncotatorArgumentDefinitions.DATA_SOURCES_PATH_LONG_NAME, DS_ECOLI_DIR);
+        arguments.add(FuncotatorArgumentDefinitions.REFERENCE_VERSION_LONG_NAME, FuncotatorTestConstants.REFERENCE_VERSION_ECOLI);
+        arguments.add(FuncotatorArgumentDefinitions.OUTPUT_FORMAT_LONG_NAME, outputFormatType.toString());
+        arguments.add(FuncotatorArgumentDefinitions.MANIFEST_NAME, manifestFile);
+        runCommandLine(arguments);
+    }
+
     private void assertEqualVariantFiles(final File outputFile, final String eColiExpectedOut) {
         // Get the actual data:
         final Pair<VCFHeader, List<VariantContext>> actualVcfInfo               = VariantContextTestUtils.readEntireVCFIntoMemory(outputFile.getAbsolutePath());
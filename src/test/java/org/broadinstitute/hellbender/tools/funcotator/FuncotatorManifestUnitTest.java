@@ -0,0 +1,64 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public class FuncotatorManifestUnitTest extends GATKBaseTest {
+
+    private Path writeManifest(final List<String> lines) throws IOException {
+        final Path manifestPath = createTempFile("funcotator_manifest", ".tsv").toPath();
+        Files.write(manifestPath, lines);
+        return manifestPath;
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        final List<FuncotatorManifest.Entry> entries = FuncotatorManifest.read(writeManifest(Arrays.asList(
+                "# Input\tOutput",
+                "sample1.vcf\tsample1.maf",
+                "",
+                "  gs://bucket/sample2.vcf.gz\tout/sample2.maf  "
+        )));
+
+        Assert.assertEquals(entries.size(), 2);
+        Assert.assertEquals(entries.get(0).getInput().getRawInputString(), "sample1.vcf");
+        Assert.assertEquals(entries.get(0).getOutputFile(), new File("sample1.maf"));
+        Assert.assertEquals(entries.get(1).getInput().getRawInputString(), "gs://bucket/sample2.vcf.gz");
+        Assert.assertEquals(entries.get(1).getOutputFile(), new File("out/sample2.maf"));
+    }
+
+    @Test
+    public void testReadEmpty() throws IOException {
+        Assert.assertTrue(FuncotatorManifest.read(writeManifest(Arrays.asList("# Nothing to do", ""))).isEmpty());
+    }
+
+    @DataProvider
+    public Object[][] provideMalformedLines() {
+        return new Object[][] {
+                { "sample1.vcf" },
+                { "sample1.vcf\t" },
+                { "sample1.vcf\tsample1.maf\textra" },
+                { "sample1.vcf sample1.maf" },
+        };
+    }
+
+    @Test(dataProvider = "provideMalformedLines", expectedExceptions = UserException.MalformedFile.class)
+    public void testReadMalformed(final String line) throws IOException {
+        FuncotatorManifest.read(writeManifest(Arrays.asList("sample0.vcf\tsample0.maf", line)));
+    }
+
+    @Test(expectedExceptions = UserException.CouldNotReadInputFile.class)
+    public void testReadMissing() {
+        FuncotatorManifest.read(new File(createTempDir("funcotator_manifest"), "missing.tsv").toPath());
+    }
+}
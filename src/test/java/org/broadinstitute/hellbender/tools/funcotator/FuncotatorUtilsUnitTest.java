@@ -2354,6 +2354,13 @@ public class FuncotatorUtilsUnitTest extends GATKBaseTest {
 
     }
 
+    @Test(dataProvider = "provideMafSanitizing")
+    public void testAppendSanitizedFuncotationFieldForMaf(final String individualFuncotationField, final String gt) {
+        final StringBuilder stringBuilder = new StringBuilder("PREFIX");
+        FuncotatorUtils.appendSanitizedFuncotationFieldForMaf(stringBuilder, individualFuncotationField);
+        Assert.assertEquals(stringBuilder.toString(), "PREFIX" + gt);
+    }
+
     @SuppressWarnings("unchecked")
     @DataProvider
     public Object[][] provideForRenderSanitizedFuncotationForVcf() {
@@ -2424,6 +2431,13 @@ public class FuncotatorUtilsUnitTest extends GATKBaseTest {
         Assert.assertEquals( FuncotatorUtils.sanitizeFuncotationFieldForVcf(input), expected );
     }
 
+    @Test(dataProvider = "provideForTestSanitizeFuncotationFieldForVcf" )
+    public void testAppendSanitizedFuncotationFieldForVcf(final String input, final String expected) {
+        final StringBuilder stringBuilder = new StringBuilder("PREFIX");
+        FuncotatorUtils.appendSanitizedFuncotationFieldForVcf(stringBuilder, input);
+        Assert.assertEquals( stringBuilder.toString(), "PREFIX" + expected );
+    }
+
     @DataProvider
     public Object[][] provideCreateLinkedHashMapFromLists() {
         final LinkedHashMap<String,String> gtMap1 = new LinkedHashMap<>();
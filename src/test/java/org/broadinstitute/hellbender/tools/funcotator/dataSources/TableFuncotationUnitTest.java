@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.funcotator.dataSources;
 import htsjdk.variant.variantcontext.Allele;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.funcotator.FuncotatorUtils;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -291,4 +292,63 @@ public class TableFuncotationUnitTest extends GATKBaseTest {
         tableFuncotation.getField(fieldName);
     }
 
+    @Test
+    public void testFuncotationsWithSameFieldsShareSchema() {
+        final TableFuncotation funcotation1 = TableFuncotation.create(Arrays.asList("A", "B", "C"), Arrays.asList("1", "2", "3"), Allele.create("A", false), "TEST", null);
+        final TableFuncotation funcotation2 = TableFuncotation.create(new ArrayList<>(Arrays.asList("A", "B", "C")), Arrays.asList("4", "5", "6"), Allele.create("C", false), "TEST", null);
+        Assert.assertSame(funcotation1.getSchema(), funcotation2.getSchema());
+        Assert.assertSame(funcotation1.getMetadata(), funcotation2.getMetadata());
+
+        final TableFuncotation funcotation3 = TableFuncotation.create(funcotation1.getSchema(), Arrays.asList("7", "8", "9"), Allele.create("G", false), "TEST", funcotation1.getMetadata());
+        Assert.assertEquals(funcotation3.getFieldNames(), new LinkedHashSet<>(Arrays.asList("A", "B", "C")));
+        Assert.assertEquals(funcotation3.getField("B"), "8");
+        Assert.assertEquals(funcotation3.getFieldValue(2), "9");
+
+        // Overriding a field of one funcotation must not affect the others:
+        funcotation3.setFieldSerializationOverrideValue("B", "OVERRIDE");
+        Assert.assertEquals(funcotation3.getField("B"), "OVERRIDE");
+        Assert.assertEquals(funcotation1.getField("B"), "2");
+    }
+
+    @Test
+    public void testFieldNamesAreSharedUnmodifiableView() {
+        final TableFuncotation funcotation1 = TableFuncotation.create(Arrays.asList("A", "B", "C"), Arrays.asList("1", "2", "3"), Allele.create("A", false), "TEST", null);
+        final TableFuncotation funcotation2 = TableFuncotation.create(Arrays.asList("A", "B", "C"), Arrays.asList("4", "5", "6"), Allele.create("C", false), "TEST", null);
+        Assert.assertSame(funcotation1.getFieldNames(), funcotation2.getFieldNames());
+        Assert.assertSame(funcotation1.keySet(), funcotation1.getFieldNames());
+        Assert.assertEquals(new ArrayList<>(funcotation1.getFieldNames()), Arrays.asList("A", "B", "C"));
+        Assert.assertTrue(funcotation1.getFieldNames().contains("B"));
+        Assert.assertFalse(funcotation1.getFieldNames().contains("D"));
+
+        Assert.assertThrows(UnsupportedOperationException.class, () -> funcotation1.getFieldNames().add("D"));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> funcotation1.getFieldNames().remove("A"));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> funcotation1.keySet().clear());
+        Assert.assertEquals(funcotation2.getFieldNames(), new LinkedHashSet<>(Arrays.asList("A", "B", "C")));
+    }
+
+    @Test
+    public void testEqualityIgnoresFieldOrder() {
+        final TableFuncotation funcotation1 = TableFuncotation.create(Arrays.asList("A", "B"), Arrays.asList("1", "2"), Allele.create("A", false), "TEST", null);
+        final TableFuncotation funcotation2 = TableFuncotation.create(Arrays.asList("B", "A"), Arrays.asList("2", "1"), Allele.create("A", false), "TEST", null);
+        final TableFuncotation funcotation3 = TableFuncotation.create(Arrays.asList("B", "A"), Arrays.asList("1", "2"), Allele.create("A", false), "TEST", null);
+        Assert.assertNotSame(funcotation1.getSchema(), funcotation2.getSchema());
+        Assert.assertEquals(funcotation1, funcotation2);
+        Assert.assertEquals(funcotation1.hashCode(), funcotation2.hashCode());
+        Assert.assertNotEquals(funcotation1, funcotation3);
+    }
+
+    @Test
+    public void testRepeatedFieldNames() {
+        final TableFuncotation funcotation = TableFuncotation.create(Arrays.asList("A", "B", "A"), Arrays.asList("1", "2", "3"), Allele.create("A", false), "TEST", null);
+        Assert.assertEquals(funcotation.getFieldNames(), new LinkedHashSet<>(Arrays.asList("A", "B")));
+        Assert.assertEquals(funcotation.getField("A"), "3");
+        Assert.assertEquals(funcotation.size(), 2);
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testMetadataMustMatchFields() {
+        final TableFuncotation funcotation = TableFuncotation.create(Arrays.asList("A", "B"), Arrays.asList("1", "2"), Allele.create("A", false), "TEST", null);
+        TableFuncotation.create(Arrays.asList("A", "C"), Arrays.asList("1", "2"), Allele.create("A", false), "TEST", funcotation.getMetadata());
+    }
+
 }
@@ -35,6 +35,9 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -1968,6 +1971,106 @@ public class GencodeFuncotationFactoryUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test(dataProvider = "provideSimpleGenesField")
+    public void testSimpleGenesFieldInParallel(final VariantContext vc, final String genesTruth) throws IOException {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (final GencodeFuncotationFactory funcotationFactory = new GencodeFuncotationFactory(
+                IOUtils.getPath(CNTN4_GENCODE_TRANSCRIPT_FASTA_FILE),
+                "VERSION",
+                GencodeFuncotationFactory.DEFAULT_NAME,
+                TranscriptSelectionMode.CANONICAL,
+                Collections.emptySet(),
+                new LinkedHashMap<>(), createFeatureInputForCntn4Ds(GencodeFuncotationFactory.DEFAULT_NAME), "TEST")) {
+            final ReferenceContext referenceContext = new ReferenceContext(refDataSourceHg19Ch3, new SimpleInterval(vc) );
+
+            final FeatureContext featureContext = FuncotatorTestUtils.createFeatureContext(
+                    Collections.singletonList(funcotationFactory), "TEST", new SimpleInterval(vc),
+                    0,0,0,null);
+
+            final List<Funcotation> serialFuncotations = funcotationFactory.createFuncotations(
+                    vc, referenceContext, featureContext);
+
+            // Process each gene in its own task, so that the results for the genes have to be combined:
+            funcotationFactory.setSegmentAnnotationExecutor(executor, 1);
+            final List<Funcotation> parallelFuncotations = funcotationFactory.createFuncotations(
+                    vc, referenceContext, featureContext);
+
+            Assert.assertEquals(parallelFuncotations, serialFuncotations);
+            Assert.assertEquals(parallelFuncotations.get(0).getField(funcotationFactory.getName() + "_" + funcotationFactory.getVersion() + "_" + "genes"), genesTruth);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Annotates variants in the same MUC16 transcripts from several threads at once, as Funcotator does with more than
+     * one annotation thread, and makes sure that every thread gets the funcotations of a serial run and that the shared
+     * gene feature is not modified.
+     */
+    @Test
+    public void testMuc16CreateFuncotationsInParallel() throws Exception {
+        final List<VariantContext> variants = DataProviderForSnpsOnMuc16.provideSnpDataForGetVariantClassification_0().stream()
+                .map(snp -> new VariantContextBuilder(FuncotatorReferenceTestUtils.retrieveHg19Chr19Ref(), "chr" + snp[0], (Integer) snp[1], (Integer) snp[2],
+                        Arrays.asList(Allele.create((String) snp[4], true), Allele.create((String) snp[5]))).make())
+                .collect(Collectors.toList());
+
+        // Every thread annotates with this same gene feature, as they would with features from the feature cache:
+        final GencodeGtfGeneFeature gene;
+        try ( final CloseableTribbleIterator<GencodeGtfFeature> gtfFeatureIterator = gencodeHg19FeatureReader.query("chr19", variants.get(0).getStart(), variants.get(0).getEnd()) ) {
+            gene = (GencodeGtfGeneFeature) gtfFeatureIterator.next();
+        }
+        final List<Feature> featureList = Collections.singletonList(gene);
+        final Map<String, List<GencodeGtfExonFeature>> exonsByTranscript = gene.getTranscripts().stream()
+                .collect(Collectors.toMap(GencodeGtfTranscriptFeature::getTranscriptId, t -> new ArrayList<>(t.getExons()), (a, b) -> a));
+
+        final List<List<Funcotation>> serialFuncotations = new ArrayList<>();
+        try (final GencodeFuncotationFactory funcotationFactory = createMuc16FuncotationFactoryForAllTranscripts()) {
+            for ( final VariantContext variant : variants ) {
+                serialFuncotations.add(funcotationFactory.createFuncotationsOnVariant(variant, new ReferenceContext(refDataSourceHg19Ch19, new SimpleInterval(variant)), featureList));
+            }
+        }
+
+        final int numThreads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try (final GencodeFuncotationFactory funcotationFactory = createMuc16FuncotationFactoryForAllTranscripts()) {
+            final List<Future<List<List<Funcotation>>>> futures = new ArrayList<>();
+            for ( int i = 0; i < numThreads; ++i ) {
+                futures.add(executor.submit(() -> {
+                    // Reference data sources are not thread-safe, so each thread needs its own:
+                    try ( final ReferenceDataSource threadReferenceDataSource = ReferenceDataSource.of(IOUtils.getPath(FuncotatorReferenceTestUtils.retrieveHg19Chr19Ref())) ) {
+                        final List<List<Funcotation>> threadFuncotations = new ArrayList<>();
+                        for ( final VariantContext variant : variants ) {
+                            threadFuncotations.add(funcotationFactory.createFuncotationsOnVariant(variant, new ReferenceContext(threadReferenceDataSource, new SimpleInterval(variant)), featureList));
+                        }
+                        return threadFuncotations;
+                    }
+                }));
+            }
+            for ( final Future<List<List<Funcotation>>> future : futures ) {
+                Assert.assertEquals(future.get(), serialFuncotations);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        for ( final GencodeGtfTranscriptFeature transcript : gene.getTranscripts() ) {
+            Assert.assertEquals(transcript.getExons(), exonsByTranscript.get(transcript.getTranscriptId()));
+        }
+    }
+
+    private static GencodeFuncotationFactory createMuc16FuncotationFactoryForAllTranscripts() {
+        return new GencodeFuncotationFactory(
+                IOUtils.getPath(FuncotatorTestConstants.GENCODE_DATA_SOURCE_FASTA_PATH_HG19),
+                "VERSION",
+                GencodeFuncotationFactory.DEFAULT_NAME,
+                TranscriptSelectionMode.ALL,
+                Collections.emptySet(),
+                new LinkedHashMap<>(), createFeatureInputForMuc16Ds(GencodeFuncotationFactory.DEFAULT_NAME), "HG19");
+    }
+
     @DataProvider
     public Object[][] provideForTestIsFivePrimeFlankAndIsThreePrimeFlank() {
         final GencodeGtfTranscriptFeature positiveStrandTranscript =
@@ -0,0 +1,83 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+import htsjdk.samtools.SAMSequenceRecord;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.funcotator.FuncotatorTestConstants;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+
+public class GencodeTranscriptFastaCacheUnitTest extends GATKBaseTest {
+
+    private static final Path TRANSCRIPT_FASTA = Paths.get(FuncotatorTestConstants.GENCODE_DATA_SOURCE_FASTA_PATH_HG19);
+
+    private GencodeTranscriptFastaCache createCache(final ReferenceDataSource transcriptFasta) {
+        final File cacheFile = createTempFile("transcripts", GencodeTranscriptFastaCache.FILE_EXTENSION);
+        GencodeTranscriptFastaCache.create(transcriptFasta, 12345L, 67890L, cacheFile.toPath());
+        return GencodeTranscriptFastaCache.open(cacheFile.toPath());
+    }
+
+    @Test
+    public void testCacheMatchesTranscriptFasta() {
+        try ( final ReferenceDataSource transcriptFasta = ReferenceDataSource.of(TRANSCRIPT_FASTA);
+              final GencodeTranscriptFastaCache cache = createCache(transcriptFasta) ) {
+
+            Assert.assertEquals(cache.getSourceSize(), 12345L);
+            Assert.assertEquals(cache.getSourceLastModified(), 67890L);
+            Assert.assertEquals(cache.getSequenceDictionary().size(), transcriptFasta.getSequenceDictionary().size());
+            Assert.assertTrue(cache.getSequenceDictionary().size() > 0);
+
+            for ( final SAMSequenceRecord sequence : transcriptFasta.getSequenceDictionary().getSequences() ) {
+                final String name = sequence.getSequenceName();
+                final int length = sequence.getSequenceLength();
+                Assert.assertEquals(cache.getSequenceDictionary().getSequence(name).getSequenceLength(), length);
+                Assert.assertEquals(cache.queryAndPrefetch(name, 1, length).getBaseString(),
+                        transcriptFasta.queryAndPrefetch(name, 1, length).getBaseString());
+                Assert.assertEquals(cache.queryAndPrefetch(name, 2, Math.min(length, 10)).getBaseString(),
+                        transcriptFasta.queryAndPrefetch(name, 2, Math.min(length, 10)).getBaseString());
+                Assert.assertEquals(cache.queryAndPrefetch(name, length, length).getBaseString(),
+                        transcriptFasta.queryAndPrefetch(name, length, length).getBaseString());
+            }
+
+            final Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> expectedIdMap = GencodeFuncotationFactory.createTranscriptIdMap(transcriptFasta);
+            final Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> actualIdMap = GencodeFuncotationFactory.createTranscriptIdMap(cache);
+            Assert.assertEquals(actualIdMap.keySet(), expectedIdMap.keySet());
+            for ( final String transcriptId : expectedIdMap.keySet() ) {
+                Assert.assertEquals(actualIdMap.get(transcriptId).mapKey, expectedIdMap.get(transcriptId).mapKey);
+                Assert.assertEquals(actualIdMap.get(transcriptId).codingSequenceStart, expectedIdMap.get(transcriptId).codingSequenceStart);
+                Assert.assertEquals(actualIdMap.get(transcriptId).codingSequenceEnd, expectedIdMap.get(transcriptId).codingSequenceEnd);
+            }
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testQueryPastEndOfTranscript() {
+        try ( final ReferenceDataSource transcriptFasta = ReferenceDataSource.of(TRANSCRIPT_FASTA);
+              final GencodeTranscriptFastaCache cache = createCache(transcriptFasta) ) {
+            final SAMSequenceRecord sequence = cache.getSequenceDictionary().getSequence(0);
+            cache.queryAndPrefetch(sequence.getSequenceName(), 1, sequence.getSequenceLength() + 1);
+        }
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testNotACache() throws IOException {
+        final File file = createTempFile("notACache", GencodeTranscriptFastaCache.FILE_EXTENSION);
+        Files.write(file.toPath(), Collections.singletonList(">ENST00000000001|not a transcript FASTA cache\nACGTACGTACGT"));
+        GencodeTranscriptFastaCache.open(file.toPath());
+    }
+
+    @Test
+    public void testGetDefaultPath() {
+        Assert.assertEquals(GencodeTranscriptFastaCache.getDefaultPath(Paths.get("/data/gencode/hg19/transcripts.fa")),
+                Paths.get("/data/gencode/hg19/transcripts.fa" + GencodeTranscriptFastaCache.FILE_EXTENSION));
+    }
+}
@@ -0,0 +1,86 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+import htsjdk.tribble.AbstractFeatureReader;
+import htsjdk.tribble.CloseableTribbleIterator;
+import htsjdk.tribble.FeatureReader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.tools.funcotator.FuncotatorTestConstants;
+import org.broadinstitute.hellbender.tools.funcotator.ProteinChangeInfo;
+import org.broadinstitute.hellbender.utils.codecs.gtf.GencodeGtfCodec;
+import org.broadinstitute.hellbender.utils.codecs.gtf.GencodeGtfFeature;
+import org.broadinstitute.hellbender.utils.codecs.gtf.GencodeGtfGeneFeature;
+import org.broadinstitute.hellbender.utils.codecs.gtf.GencodeGtfTranscriptFeature;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+public class TranscriptCodingInfoCacheUnitTest extends GATKBaseTest {
+
+    private static GencodeGtfTranscriptFeature readMuc16Transcript(final FeatureReader<GencodeGtfFeature> reader) throws IOException {
+        // The first gene at this position is MUC16:
+        try ( final CloseableTribbleIterator<GencodeGtfFeature> features = reader.query("chr19", 9000000, 9000000) ) {
+            final GencodeGtfGeneFeature gene = (GencodeGtfGeneFeature) features.next();
+            return gene.getTranscripts().stream()
+                    .filter(t -> t.getTranscriptId().equals(FuncotatorTestConstants.MUC16_TRANSCRIPT))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("MUC16 transcript not found"));
+        }
+    }
+
+    @Test
+    public void testTranscriptCodingInfo() throws IOException {
+        try ( final ReferenceDataSource transcriptFasta = ReferenceDataSource.of(Paths.get(FuncotatorTestConstants.GENCODE_DATA_SOURCE_FASTA_PATH_HG19));
+              final FeatureReader<GencodeGtfFeature> reader = AbstractFeatureReader.getFeatureReader(FuncotatorTestConstants.GENCODE_DATA_SOURCE_GTF_PATH_HG19, new GencodeGtfCodec()) ) {
+
+            final Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> transcriptIdMap = GencodeFuncotationFactory.createTranscriptIdMap(transcriptFasta);
+            final TranscriptCodingInfoCache cache = new TranscriptCodingInfoCache(TranscriptCodingInfoCache.DEFAULT_MAX_ENTRIES, transcriptIdMap, transcriptFasta);
+
+            final GencodeGtfTranscriptFeature transcript = readMuc16Transcript(reader);
+            final TranscriptCodingInfoCache.TranscriptCodingInfo info = cache.get(transcript);
+
+            Assert.assertEquals(info.getSortedCdsAndStartStopPositions(), GencodeFuncotationFactory.getSortedCdsAndStartStopPositions(transcript));
+
+            final String codingSequence = GencodeFuncotationFactory.getCodingSequenceFromTranscriptFasta(transcript.getTranscriptId(), transcriptIdMap, transcriptFasta, "");
+            Assert.assertEquals(info.getCodingSequence(), codingSequence);
+            Assert.assertEquals(info.getReferenceProteinSequence(false), ProteinChangeInfo.createReferenceProteinSequence(codingSequence, false));
+            Assert.assertTrue(info.getReferenceProteinSequence(false).startsWith("M"));
+
+            // Reading the same transcript again gives a new feature, which must still be found in the cache:
+            Assert.assertSame(cache.get(readMuc16Transcript(reader)), info);
+            Assert.assertEquals(cache.getHits(), 1);
+            Assert.assertEquals(cache.getMisses(), 1);
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedTranscriptsAreEvicted() {
+        final List<GencodeGtfTranscriptFeature> transcripts = DataProviderForExampleGencodeGtfGene.createGencodeGtfGeneFeature().getTranscripts();
+        try ( final ReferenceDataSource transcriptFasta = ReferenceDataSource.of(Paths.get(FuncotatorTestConstants.GENCODE_DATA_SOURCE_FASTA_PATH_HG19)) ) {
+            final TranscriptCodingInfoCache cache = new TranscriptCodingInfoCache(2, GencodeFuncotationFactory.createTranscriptIdMap(transcriptFasta), transcriptFasta);
+
+            final TranscriptCodingInfoCache.TranscriptCodingInfo first = cache.get(transcripts.get(0));
+            cache.get(transcripts.get(1));
+            Assert.assertSame(cache.get(transcripts.get(0)), first);
+
+            // The second transcript is now the least recently used one, so it is evicted:
+            cache.get(transcripts.get(2));
+            Assert.assertSame(cache.get(transcripts.get(0)), first);
+            cache.get(transcripts.get(1));
+
+            Assert.assertEquals(cache.getHits(), 2);
+            Assert.assertEquals(cache.getMisses(), 4);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMaxEntriesMustBePositive() {
+        try ( final ReferenceDataSource transcriptFasta = ReferenceDataSource.of(Paths.get(FuncotatorTestConstants.GENCODE_DATA_SOURCE_FASTA_PATH_HG19)) ) {
+            new TranscriptCodingInfoCache(0, GencodeFuncotationFactory.createTranscriptIdMap(transcriptFasta), transcriptFasta);
+        }
+    }
+}
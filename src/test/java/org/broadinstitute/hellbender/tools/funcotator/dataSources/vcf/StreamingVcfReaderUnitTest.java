@@ -0,0 +1,111 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.vcf;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFFileReader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class StreamingVcfReaderUnitTest extends GATKBaseTest {
+
+    private static final Path EXAC_SNIPPET = IOUtils.getPath(toolsTestDir + "funcotator/test_exac.vcf");
+
+    // Mostly sorted queries, with jumps forward that are short enough to read through, a jump backwards, and a change of contig:
+    private static final List<SimpleInterval> QUERIES = Arrays.asList(
+            new SimpleInterval("3", 13372, 13372),
+            new SimpleInterval("3", 13373, 13403),
+            new SimpleInterval("3", 13400, 13530),
+            new SimpleInterval("3", 69521, 69521),
+            new SimpleInterval("3", 138000, 140000),
+            new SimpleInterval("3", 139346, 139346),
+            new SimpleInterval("3", 324690, 324690),
+            // Still overlaps the deletion at 324682:
+            new SimpleInterval("3", 324700, 324720),
+            new SimpleInterval("3", 69552, 69552),
+            new SimpleInterval("4", 13372, 13372)
+    );
+
+    private static Map<String, Object> removeKeys(final Map<String, Object> attributes, final Set<String> keys) {
+        final Map<String, Object> result = new HashMap<>(attributes);
+        result.keySet().removeAll(keys);
+        return result;
+    }
+
+    private static void assertSameRecords(final List<VariantContext> actual, final List<VariantContext> expected, final Set<String> excludedInfoFields) {
+        Assert.assertEquals(actual.size(), expected.size());
+        for ( int i = 0; i < actual.size(); ++i ) {
+            Assert.assertEquals(actual.get(i).getStart(), expected.get(i).getStart());
+            Assert.assertEquals(actual.get(i).getEnd(), expected.get(i).getEnd());
+            Assert.assertEquals(actual.get(i).getAlleles(), expected.get(i).getAlleles());
+            Assert.assertEquals(actual.get(i).getID(), expected.get(i).getID());
+            Assert.assertEquals(actual.get(i).getFilters(), expected.get(i).getFilters());
+            Assert.assertEquals(actual.get(i).getAttributes(), removeKeys(expected.get(i).getAttributes(), excludedInfoFields));
+        }
+    }
+
+    @DataProvider
+    public Object[][] provideExcludedInfoFields() {
+        return new Object[][] {
+                { Collections.emptySet() },
+                { new HashSet<>(Arrays.asList("AC", "DP_HIST", "KG_AC", "NOT_A_FIELD")) },
+        };
+    }
+
+    @Test(dataProvider = "provideExcludedInfoFields")
+    public void testQueriesMatchIndexedQueries(final Set<String> excludedInfoFields) {
+        try ( final VCFFileReader indexedReader = new VCFFileReader(EXAC_SNIPPET);
+              final StreamingVcfReader streamingReader = new StreamingVcfReader(EXAC_SNIPPET, excludedInfoFields) ) {
+            for ( final SimpleInterval query : QUERIES ) {
+                final List<VariantContext> expected = indexedReader.query(query.getContig(), query.getStart(), query.getEnd()).stream().collect(Collectors.toList());
+                assertSameRecords(streamingReader.query(query), expected, excludedInfoFields);
+            }
+
+            // Only the first query, the jump backwards and the change of contig need the index:
+            Assert.assertEquals(streamingReader.getNumSeeks(), 3);
+        }
+    }
+
+    @Test
+    public void testLongForwardJumpSeeks() {
+        try ( final StreamingVcfReader streamingReader = new StreamingVcfReader(EXAC_SNIPPET, Collections.emptySet()) ) {
+            Assert.assertEquals(streamingReader.query(new SimpleInterval("3", 13372, 13372)).size(), 1);
+            // The next record is at 13404:
+            final int start = 13404 + StreamingVcfReader.MAX_FORWARD_SCAN_BP + 1;
+            Assert.assertEquals(streamingReader.query(new SimpleInterval("3", start, start + 30000)).size(), 4);
+            Assert.assertEquals(streamingReader.getNumSeeks(), 2);
+        }
+    }
+
+    @DataProvider
+    public Object[][] provideForTestRemoveInfoFields() {
+        final Set<String> excluded = new HashSet<>(Arrays.asList("AC", "DB"));
+        return new Object[][] {
+                { "3\t13372\t.\tG\tC\t608.91\tPASS\tAC=3;AF=0.1;DB\tGT\t0/1", excluded, "3\t13372\t.\tG\tC\t608.91\tPASS\tAF=0.1\tGT\t0/1" },
+                { "3\t13372\t.\tG\tC\t608.91\tPASS\tAF=0.1;ACX=2;DB;AN=5", excluded, "3\t13372\t.\tG\tC\t608.91\tPASS\tAF=0.1;ACX=2;AN=5" },
+                { "3\t13372\t.\tG\tC\t608.91\tPASS\tAC=3;DB", excluded, "3\t13372\t.\tG\tC\t608.91\tPASS\t." },
+                { "3\t13372\t.\tG\tC\t608.91\tPASS\tAF=0.1", excluded, "3\t13372\t.\tG\tC\t608.91\tPASS\tAF=0.1" },
+                { "3\t13372\t.\tG\tC\t608.91\tPASS\t.", excluded, "3\t13372\t.\tG\tC\t608.91\tPASS\t." },
+                { "3\t13372\t.\tG\tC\t608.91\tPASS\tAC=3", Collections.emptySet(), "3\t13372\t.\tG\tC\t608.91\tPASS\tAC=3" },
+                { "##INFO=<ID=AC,Number=A,Type=Integer,Description=\"AC\">", excluded, "##INFO=<ID=AC,Number=A,Type=Integer,Description=\"AC\">" },
+                { "3\t13372\t.\tG", excluded, "3\t13372\t.\tG" },
+        };
+    }
+
+    @Test(dataProvider = "provideForTestRemoveInfoFields")
+    public void testRemoveInfoFields(final String line, final Set<String> excludedInfoFields, final String expected) {
+        Assert.assertEquals(StreamingVcfReader.InfoFieldFilteringVcfCodec.removeInfoFields(line, excludedInfoFields), expected);
+    }
+}
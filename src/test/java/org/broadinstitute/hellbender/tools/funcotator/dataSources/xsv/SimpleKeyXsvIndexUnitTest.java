@@ -0,0 +1,140 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.funcotator.Funcotation;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotation;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotationBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+public class SimpleKeyXsvIndexUnitTest extends GATKBaseTest {
+
+    private static final String NAME = "TESTXSV";
+    private static final int NUM_GENES = 500;
+
+    private static final VariantContext VARIANT = new VariantContextBuilder("test", "chr3", 178921337, 178921337,
+            Arrays.asList(Allele.create("A", true), Allele.create("T"))).make();
+
+    // One row per gene, then a second row for GENE7 / ENST7 which replaces the first:
+    private static List<String> createXsvLines(final String beatle) {
+        final List<String> lines = new ArrayList<>();
+        lines.add("Gene,Transcript,Beatle,Count");
+        for ( int i = 0; i < NUM_GENES; ++i ) {
+            lines.add("GENE" + i + ",ENST" + i + ".1," + beatle + "," + i);
+        }
+        lines.add("GENE7,ENST7.2,Starr,7");
+        return lines;
+    }
+
+    private Path writeXsv(final List<String> lines) {
+        final Path xsvPath = new File(createTempDir("simpleKeyXsvIndex"), "genes.csv").toPath();
+        try {
+            Files.write(xsvPath, lines);
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotCreateOutputFile(xsvPath.toString(), "could not write test data source", e);
+        }
+        return xsvPath;
+    }
+
+    private static String getBeatle(final SimpleKeyXsvFuncotationFactory factory, final String hugoSymbol) {
+        final GencodeFuncotation gencodeFuncotation = new GencodeFuncotationBuilder().setHugoSymbol(hugoSymbol).build();
+        final List<Funcotation> funcotations = factory.createFuncotationsOnVariant(VARIANT, null, Collections.emptyList(), Collections.singletonList(gencodeFuncotation));
+        Assert.assertEquals(funcotations.size(), 1);
+        return ((TableFuncotation) funcotations.get(0)).get(NAME + "_Beatle");
+    }
+
+    @Test
+    public void testIndexMatchesXsv() throws IOException {
+        final Path xsvPath = writeXsv(createXsvLines("Lennon"));
+        final Path indexPath = SimpleKeyXsvIndex.getDefaultPath(xsvPath);
+        SimpleKeyXsvFuncotationFactory.createIndex(xsvPath, ",", 1, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.TRANSCRIPT_ID, 0, false, indexPath);
+
+        try ( final SimpleKeyXsvIndex index = SimpleKeyXsvIndex.open(indexPath) ) {
+            Assert.assertEquals(index.getNumKeys(), NUM_GENES);
+            final long lastModified = Files.getLastModifiedTime(xsvPath).toMillis();
+            Assert.assertTrue(index.isCompatible(xsvPath.toFile().length(), lastModified, ",", 1, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.TRANSCRIPT_ID, 0, false, 3));
+            Assert.assertFalse(index.isCompatible(xsvPath.toFile().length(), lastModified + 1, ",", 1, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.TRANSCRIPT_ID, 0, false, 3));
+            Assert.assertFalse(index.isCompatible(xsvPath.toFile().length(), lastModified, ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME, 0, false, 3));
+
+            for ( int i = 0; i < NUM_GENES; ++i ) {
+                // Transcript versions are removed from the keys:
+                Assert.assertEquals(index.get("ENST" + i), i == 7 ?
+                        Arrays.asList("GENE7", "Starr", "7") :
+                        Arrays.asList("GENE" + i, "Lennon", String.valueOf(i)));
+            }
+            Assert.assertNull(index.get("ENST" + NUM_GENES));
+            Assert.assertNull(index.get("ENST1.1"));
+            Assert.assertNull(index.get(""));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testClosedIndex() {
+        final Path xsvPath = writeXsv(createXsvLines("Lennon"));
+        final Path indexPath = SimpleKeyXsvIndex.getDefaultPath(xsvPath);
+        SimpleKeyXsvFuncotationFactory.createIndex(xsvPath, ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME, 0, false, indexPath);
+
+        final SimpleKeyXsvIndex index = SimpleKeyXsvIndex.open(indexPath);
+        index.close();
+        index.get("GENE0");
+    }
+
+    @Test
+    public void testFactoryUsesIndex() throws IOException {
+        final Path xsvPath = writeXsv(createXsvLines("Lennon"));
+        SimpleKeyXsvFuncotationFactory.createIndex(xsvPath, ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME, 0, false, SimpleKeyXsvIndex.getDefaultPath(xsvPath));
+
+        final SimpleKeyXsvFuncotationFactory withoutIndex = new SimpleKeyXsvFuncotationFactory(NAME, writeXsv(createXsvLines("Lennon")), "VERSION", ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME);
+        final SimpleKeyXsvFuncotationFactory withIndex = new SimpleKeyXsvFuncotationFactory(NAME, xsvPath, "VERSION", ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME);
+        Assert.assertEquals(withIndex.getSupportedFuncotationFields(), withoutIndex.getSupportedFuncotationFields());
+        for ( final String gene : Arrays.asList("GENE0", "GENE7", "GENE499", "NOT_A_GENE") ) {
+            Assert.assertEquals(getBeatle(withIndex, gene), getBeatle(withoutIndex, gene));
+        }
+        Assert.assertEquals(getBeatle(withIndex, "GENE7"), "Starr");
+        Assert.assertEquals(getBeatle(withIndex, "NOT_A_GENE"), "");
+
+        // Replacing the data source with one of the same size and modification time shows that the annotations come from the index:
+        final FileTime lastModified = Files.getLastModifiedTime(xsvPath);
+        Files.write(xsvPath, createXsvLines("Lennox"));
+        Files.setLastModifiedTime(xsvPath, lastModified);
+        Assert.assertEquals(getBeatle(new SimpleKeyXsvFuncotationFactory(NAME, xsvPath, "VERSION", ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME), "GENE0"), "Lennon");
+
+        // ...whereas an index with different settings, or for a data source with a different modification time or size, is ignored:
+        Assert.assertEquals(getBeatle(new SimpleKeyXsvFuncotationFactory(NAME, xsvPath, "VERSION", ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME, new LinkedHashMap<>(), 0, true), "GENE0"), "Lennox");
+        Files.setLastModifiedTime(xsvPath, FileTime.fromMillis(lastModified.toMillis() + 10000));
+        Assert.assertEquals(getBeatle(new SimpleKeyXsvFuncotationFactory(NAME, xsvPath, "VERSION", ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME), "GENE0"), "Lennox");
+        Files.write(xsvPath, createXsvLines("McCartney"));
+        Assert.assertEquals(getBeatle(new SimpleKeyXsvFuncotationFactory(NAME, xsvPath, "VERSION", ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME), "GENE0"), "McCartney");
+    }
+
+    @Test
+    public void testUnfinishedIndexIsDeleted() {
+        final Path indexPath = new File(createTempDir("simpleKeyXsvIndex"), "genes.csv" + SimpleKeyXsvIndex.FILE_EXTENSION).toPath();
+        try ( final SimpleKeyXsvIndex.Writer writer = new SimpleKeyXsvIndex.Writer(indexPath, 100L, 0L, ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME, 0, false, 1) ) {
+            writer.add("GENE0", Collections.singletonList("Lennon"));
+        }
+        Assert.assertFalse(Files.exists(indexPath));
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testNotAnIndex() {
+        final Path xsvPath = writeXsv(createXsvLines("Lennon"));
+        SimpleKeyXsvIndex.open(xsvPath);
+    }
+}
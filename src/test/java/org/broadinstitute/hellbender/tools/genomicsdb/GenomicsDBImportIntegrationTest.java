@@ -23,7 +23,10 @@ import htsjdk.variant.vcf.VCFHeaderLineType;
 import htsjdk.variant.vcf.VCFStandardHeaderLines;
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
@@ -38,7 +41,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.Main;
@@ -731,6 +737,12 @@ public final class GenomicsDBImportIntegrationTest extends CommandLineProgramTes
                     .add(GenomicsDBImport.SAMPLE_NAME_MAP_LONG_NAME, outOfOrderSampleMap)
                     .add(GenomicsDBImport.VCF_INITIALIZER_THREADS_LONG_NAME, "2")});
         }
+
+        //out of order sample map, decoded ahead, with a memory budget that only allows batches of one sample
+        results.add(new Object[] {new ArgumentsBuilder()
+                .add(GenomicsDBImport.SAMPLE_NAME_MAP_LONG_NAME, outOfOrderSampleMap)
+                .add(GenomicsDBImport.DECODE_THREADS_LONG_NAME, "2")
+                .add(GenomicsDBImport.IMPORT_MEMORY_BUDGET_LONG_NAME, "3000000")});
         return results.iterator();
     }
 
@@ -1044,6 +1056,99 @@ public final class GenomicsDBImportIntegrationTest extends CommandLineProgramTes
         writeToGenomicsDB(LOCAL_GVCFS, INTERVAL, workspace, 0, false, 0, 1);
     }
 
+    private static ArgumentsBuilder getResumeImportArgs(final String workspace, final int batchSize) {
+        return getResumeImportArgs(workspace, INTERVAL, batchSize);
+    }
+
+    private static ArgumentsBuilder getResumeImportArgs(final String workspace, final List<SimpleInterval> intervals, final int batchSize) {
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.add(GenomicsDBImport.WORKSPACE_ARG_LONG_NAME, workspace);
+        intervals.forEach(args::addInterval);
+        LOCAL_GVCFS.forEach(vcf -> args.add("V", vcf));
+        args.add(GenomicsDBImport.BATCHSIZE_ARG_LONG_NAME, String.valueOf(batchSize));
+        args.add(GenomicsDBImport.RESUME_IMPORT_LONG_NAME, true);
+        return args;
+    }
+
+    private static Path getCheckpointPath(final String workspace) {
+        return IOUtils.getPath(IOUtils.appendPathToDir(workspace, GenomicsDBImportCheckpoint.CHECKPOINT_FILE_NAME));
+    }
+
+    /**
+     * Write the checkpoint of an import of {@link #LOCAL_GVCFS} into {@link #INTERVAL} in 2 batches, as it would be if
+     * the import stopped after the first batch was recorded as complete
+     */
+    private static GenomicsDBImportCheckpoint writeFirstBatchCheckpoint(final String workspace) throws URISyntaxException {
+        final SortedMap<String, URI> sampleNameToVcfPath = new TreeMap<>();
+        sampleNameToVcfPath.put("HG00096", new URI(HG_00096));
+        sampleNameToVcfPath.put("HG00268", new URI(HG_00268));
+        sampleNameToVcfPath.put("NA19625", new URI(NA_19625));
+        final String fingerprint = GenomicsDBImportCheckpoint.computeFingerprint(sampleNameToVcfPath, INTERVAL, 0);
+        final GenomicsDBImportCheckpoint checkpoint = GenomicsDBImportCheckpoint.create(getCheckpointPath(workspace), fingerprint, 2, 2);
+        checkpoint.recordCompletedBatch(1, 2, 1000L);
+        return checkpoint;
+    }
+
+    @Test
+    public void testResumeImport() throws IOException, URISyntaxException {
+        final String workspace = createTempDir("genomicsdb-resume-tests").getAbsolutePath() + "/workspace";
+
+        // the workspace doesn't exist yet, so this is a new import which checkpoints each of its 2 batches, and deletes
+        // the checkpoint once it completes
+        runCommandLine(getResumeImportArgs(workspace, 2));
+        Assert.assertFalse(Files.exists(getCheckpointPath(workspace)));
+
+        // simulate an import that stopped while importing the second batch, after GenomicsDB wrote part of it
+        final Path workspacePath = IOUtils.getPath(workspace);
+        final String array = GenomicsDBUtils.listGenomicsDBArrays(workspace)[0];
+        final List<String> contentsBeforeSecondBatch = new ArrayList<>();
+        contentsBeforeSecondBatch.add(array);
+        try (final Stream<Path> arrayContents = Files.list(workspacePath.resolve(array))) {
+            arrayContents.forEach(entry -> contentsBeforeSecondBatch.add(array + "/" + entry.getFileName()));
+        }
+        writeFirstBatchCheckpoint(workspace).recordStartedBatch(2, contentsBeforeSecondBatch);
+        final Path partialFragment = Files.createDirectory(workspacePath.resolve(array).resolve("__partial_fragment"));
+
+        // resuming deletes what the second batch wrote, and imports it again
+        runCommandLine(getResumeImportArgs(workspace, 2));
+        Assert.assertFalse(Files.exists(partialFragment));
+        Assert.assertFalse(Files.exists(getCheckpointPath(workspace)));
+
+        checkJSONFilesAreWritten(workspace);
+        checkGenomicsDBAgainstExpected(workspace, INTERVAL, COMBINED, b38_reference_20_21, true, ATTRIBUTES_TO_IGNORE);
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testResumeImportWithDifferentBatchSize() throws IOException, URISyntaxException {
+        final String workspace = createTempDir("genomicsdb-resume-tests").getAbsolutePath() + "/workspace";
+        runCommandLine(getResumeImportArgs(workspace, 2));
+        writeFirstBatchCheckpoint(workspace);
+        runCommandLine(getResumeImportArgs(workspace, 1));
+    }
+
+    @Test(expectedExceptions = CommandLineException.class)
+    public void testResumeImportOfPartlyCommittedBatch() throws IOException {
+        final String workspace = createTempDir("genomicsdb-resume-tests").getAbsolutePath() + "/workspace";
+        writeToGenomicsDB(LOCAL_GVCFS, MULTIPLE_INTERVALS, workspace, 2, false, 0, 1);
+
+        // simulate an import of the intervals in parallel that failed after committing the second batch to some of the
+        // intervals, but before the batch was recorded as complete
+        final Path checkpointPath = getCheckpointPath(workspace);
+        GenomicsDBImportCheckpoint.create(checkpointPath, "fingerprint", 2, 2).recordCompletedBatch(1, 2, 1000L);
+
+        // resuming would import the second batch into those intervals again
+        final ArgumentsBuilder args = getResumeImportArgs(workspace, MULTIPLE_INTERVALS, 2);
+        args.add(GenomicsDBImport.MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL, String.valueOf(MULTIPLE_INTERVALS.size()));
+        runCommandLine(args);
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testResumeImportWithoutCheckpoint() {
+        final String workspace = createTempDir("genomicsdb-resume-tests").getAbsolutePath() + "/workspace";
+        writeToGenomicsDB(LOCAL_GVCFS, INTERVAL, workspace, 0, false, 0, 1);
+        runCommandLine(getResumeImportArgs(workspace, 0));
+    }
+
     @Test(expectedExceptions = CommandLineException.class)
     public void testOverwriteWorkspaceAndIncrementalImportCannotBothBeTrue() {
         final String workspace = createTempDir("genomicsdb-incremental-tests").getAbsolutePath() + "/workspace";
@@ -1,8 +1,12 @@
 package org.broadinstitute.hellbender.tools.genomicsdb;
 
+import htsjdk.tribble.CloseableTribbleIterator;
 import htsjdk.tribble.FeatureReader;
+import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.genomicsdb.importer.GenomicsDBImporter;
@@ -11,6 +15,7 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
@@ -18,6 +23,8 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class GenomicsDBImportUnitTest extends GATKBaseTest {
 
@@ -108,4 +115,164 @@ public class GenomicsDBImportUnitTest extends GATKBaseTest {
         Assert.assertEquals(actual, expected);
         Assert.assertEquals(actual.keySet().iterator().next(), "Sample1");
     }
+
+    @DataProvider
+    public Object[][] getMemoryBudgets() {
+        final long perSample = GenomicsDBImportMemoryPlan.getBytesPerSample(16 * 1024L, 256);
+        final long segment = 1024 * 1024L;
+        return new Object[][]{
+                // budget, samples, intervals, max parallelism, expected batch size, expected intervals in parallel
+                {segment + perSample, 100, 1, 4, 1, 1},
+                {segment + 10 * perSample, 100, 1, 4, 10, 1},
+                {segment + 1000 * perSample, 100, 1, 4, 100, 1},
+                {4 * (segment + 100 * perSample), 100, 10, 4, 100, 4},
+                {4 * (segment + 30 * perSample), 100, 10, 4, 60, 2},
+                {4 * (segment + 30 * perSample), 20, 10, 4, 20, 4},
+                {4 * (segment + 30 * perSample), 100, 2, 8, 60, 2},
+        };
+    }
+
+    @Test(dataProvider = "getMemoryBudgets")
+    public void testMemoryPlan(final long budget, final int numSamples, final int numIntervals, final int maxParallelism,
+                               final int expectedBatchSize, final int expectedIntervalsInParallel) {
+        final GenomicsDBImportMemoryPlan plan = GenomicsDBImportMemoryPlan.fromBudget(budget, numSamples, numIntervals,
+                maxParallelism, 16 * 1024L, 1024 * 1024L, 256);
+        Assert.assertEquals(plan.getBatchSize(), expectedBatchSize);
+        Assert.assertEquals(plan.getNumIntervalsInParallel(), expectedIntervalsInParallel);
+        final long estimatedMemory = plan.getNumIntervalsInParallel() *
+                (1024 * 1024L + plan.getBatchSize() * GenomicsDBImportMemoryPlan.getBytesPerSample(16 * 1024L, 256));
+        Assert.assertTrue(estimatedMemory <= budget);
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testMemoryPlanBudgetTooSmall() {
+        GenomicsDBImportMemoryPlan.fromBudget(1024 * 1024L, 10, 1, 1, 16 * 1024L, 1024 * 1024L, 256);
+    }
+
+    @DataProvider
+    public Object[][] getReadAheadSizes() {
+        return new Object[][]{
+                // number of variants, chunk size
+                {0, 3}, {1, 3}, {3, 3}, {7, 3}, {100, 1}, {100, 1000}
+        };
+    }
+
+    @Test(dataProvider = "getReadAheadSizes")
+    public void testReadAheadVariantIterator(final int numVariants, final int chunkSize) {
+        final List<VariantContext> variants = new ArrayList<>();
+        for (int i = 0; i < numVariants; i++) {
+            variants.add(new VariantContextBuilder("test", "1", i + 1, i + 1, Collections.singletonList(Allele.REF_A)).make());
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final ClosingIterator source = new ClosingIterator(variants.iterator());
+            final List<VariantContext> actual = new ArrayList<>();
+            try (final ReadAheadVariantIterator iterator = new ReadAheadVariantIterator(source, executor, chunkSize)) {
+                iterator.forEachRemaining(actual::add);
+                Assert.assertFalse(iterator.hasNext());
+            }
+            Assert.assertEquals(actual, variants);
+            Assert.assertTrue(source.closed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testReadAheadVariantIteratorPropagatesErrors() {
+        final Iterator<VariantContext> failing = new Iterator<VariantContext>() {
+            @Override public boolean hasNext() { return true; }
+            @Override public VariantContext next() { throw new UserException.BadInput("bad variant"); }
+        };
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (final ReadAheadVariantIterator iterator = new ReadAheadVariantIterator(new ClosingIterator(failing), executor, 10)) {
+            iterator.hasNext();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class ClosingIterator implements CloseableTribbleIterator<VariantContext> {
+        private final Iterator<VariantContext> inner;
+        private boolean closed = false;
+
+        private ClosingIterator(final Iterator<VariantContext> inner) {
+            this.inner = inner;
+        }
+
+        @Override public boolean hasNext() { return inner.hasNext(); }
+        @Override public VariantContext next() { return inner.next(); }
+        @Override public Iterator<VariantContext> iterator() { return this; }
+        @Override public void close() { closed = true; }
+    }
+
+    @Test
+    public void testCheckpointRoundTrip() throws URISyntaxException {
+        final SortedMap<String, URI> samples = new TreeMap<>();
+        samples.put("Sample1", new URI("file1"));
+        samples.put("Sample2", new URI("file2"));
+        final List<SimpleInterval> intervals = Collections.singletonList(new SimpleInterval("1", 1, 100));
+        final String fingerprint = GenomicsDBImportCheckpoint.computeFingerprint(samples, intervals, 0);
+        Assert.assertEquals(GenomicsDBImportCheckpoint.computeFingerprint(new TreeMap<>(samples), intervals, 0), fingerprint);
+        Assert.assertNotEquals(GenomicsDBImportCheckpoint.computeFingerprint(samples, intervals, 1), fingerprint);
+
+        final Path path = createTempPath("checkpoint", ".tsv");
+        final GenomicsDBImportCheckpoint checkpoint = GenomicsDBImportCheckpoint.create(path, fingerprint, 1, 2);
+        Assert.assertFalse(checkpoint.isBatchComplete(1));
+        checkpoint.recordCompletedBatch(1, 1, 2500);
+
+        final GenomicsDBImportCheckpoint loaded = GenomicsDBImportCheckpoint.load(path, fingerprint, 1);
+        Assert.assertTrue(loaded.isBatchComplete(1));
+        Assert.assertFalse(loaded.isBatchComplete(2));
+        Assert.assertEquals(loaded.getTotalBatchCount(), 2);
+        Assert.assertEquals(loaded.getNumCompletedBatches(), 1);
+        final GenomicsDBImportCheckpoint.CompletedBatch batch = loaded.getCompletedBatches().get(0);
+        Assert.assertEquals(batch.getNumSamples(), 1);
+        Assert.assertEquals(batch.getSeconds(), 2.5);
+        Assert.assertEquals(batch.getSamplesPerSecond(), 0.4);
+    }
+
+    @Test
+    public void testCheckpointStartedBatchRoundTrip() {
+        final Path path = createTempPath("checkpoint", ".tsv");
+        final GenomicsDBImportCheckpoint checkpoint = GenomicsDBImportCheckpoint.create(path, "fingerprint", 1, 2);
+        checkpoint.recordCompletedBatch(1, 1, 1000L);
+        checkpoint.recordStartedBatch(2, Arrays.asList("chr20$1$100", "chr20$1$100/__fragment1", "chr20$1$100/__array_schema.tdb"));
+
+        final GenomicsDBImportCheckpoint loaded = GenomicsDBImportCheckpoint.load(path, "fingerprint", 1);
+        Assert.assertEquals(loaded.getStartedBatch(), 2);
+        Assert.assertEquals(new ArrayList<>(loaded.getContentsBeforeStartedBatch()),
+                Arrays.asList("chr20$1$100", "chr20$1$100/__array_schema.tdb", "chr20$1$100/__fragment1"));
+        Assert.assertEquals(loaded.getNumCompletedBatches(), 1);
+
+        // completing the started batch clears it
+        loaded.recordCompletedBatch(2, 1, 1000L);
+        final GenomicsDBImportCheckpoint completed = GenomicsDBImportCheckpoint.load(path, "fingerprint", 1);
+        Assert.assertEquals(completed.getStartedBatch(), 0);
+        Assert.assertTrue(completed.getContentsBeforeStartedBatch().isEmpty());
+        Assert.assertEquals(completed.getNumCompletedBatches(), 2);
+
+        completed.delete();
+        Assert.assertFalse(Files.exists(path));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testCheckpointWithDifferentFingerprint() {
+        final Path path = createTempPath("checkpoint", ".tsv");
+        GenomicsDBImportCheckpoint.create(path, "fingerprint", 10, 3);
+        GenomicsDBImportCheckpoint.load(path, "otherFingerprint", 10);
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testMalformedCheckpoint() {
+        final Path path = IOUtils.writeTempFile("not a checkpoint", "checkpoint", ".tsv").toPath();
+        GenomicsDBImportCheckpoint.load(path, "fingerprint", 10);
+    }
+
+    @Test
+    public void testBatchNumber() {
+        Assert.assertEquals(GenomicsDBImportCheckpoint.getBatchNumber(0, 10), 1);
+        Assert.assertEquals(GenomicsDBImportCheckpoint.getBatchNumber(9, 10), 1);
+        Assert.assertEquals(GenomicsDBImportCheckpoint.getBatchNumber(10, 10), 2);
+    }
 }
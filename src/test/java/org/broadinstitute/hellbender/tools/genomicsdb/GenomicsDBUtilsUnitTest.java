@@ -0,0 +1,73 @@
+package org.broadinstitute.hellbender.tools.genomicsdb;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.genomicsdb.model.GenomicsDBCallsetsMapProto;
+import org.genomicsdb.model.GenomicsDBExportConfiguration;
+import org.genomicsdb.model.GenomicsDBVidMapProto;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class GenomicsDBUtilsUnitTest extends GATKBaseTest {
+
+    private static GenomicsDBCallsetsMapProto.CallsetMappingPB callsetMapping(final String... samples) {
+        final GenomicsDBCallsetsMapProto.CallsetMappingPB.Builder builder = GenomicsDBCallsetsMapProto.CallsetMappingPB.newBuilder();
+        for (int i = 0; i < samples.length; i++) {
+            builder.addCallsets(GenomicsDBCallsetsMapProto.SampleIDToTileDBIDMap.newBuilder()
+                    .setSampleName(samples[i])
+                    .setRowIdx(i)
+                    .setIdxInFile(0)
+                    .buildPartial());
+        }
+        return builder.buildPartial();
+    }
+
+    private static GenomicsDBVidMapProto.GenomicsDBFieldInfo field(final String name, final String... vcfFieldClasses) {
+        return GenomicsDBVidMapProto.GenomicsDBFieldInfo.newBuilder()
+                .setName(name)
+                .addAllVcfFieldClass(Arrays.asList(vcfFieldClasses))
+                .buildPartial();
+    }
+
+    @Test
+    public void testGetRowRangesForSamples() {
+        final GenomicsDBCallsetsMapProto.CallsetMappingPB mapping = callsetMapping("s0", "s1", "s2", "s3", "s4", "s5");
+        final GenomicsDBExportConfiguration.RowRangeList ranges = GenomicsDBUtils.getRowRangesForSamples(mapping,
+                new HashSet<>(Arrays.asList("s5", "s0", "s1", "s3", "missing")));
+        final List<String> actual = ranges.getRangeListList().stream()
+                .map(range -> range.getLow() + "-" + range.getHigh())
+                .collect(Collectors.toList());
+        Assert.assertEquals(actual, Arrays.asList("0-1", "3-3", "5-5"));
+
+        Assert.assertEquals(GenomicsDBUtils.getRowRangesForSamples(mapping, Collections.singleton("missing")).getRangeListCount(), 0);
+    }
+
+    @Test
+    public void testGetFieldsToQuery() {
+        final GenomicsDBVidMapProto.VidMappingPB vidMapping = GenomicsDBVidMapProto.VidMappingPB.newBuilder()
+                .addFields(field("PASS", "FILTER"))
+                .addFields(field("LowQual", "FILTER"))
+                .addFields(field("END", "INFO"))
+                .addFields(field("MQ", "INFO"))
+                .addFields(field("DP", "INFO", "FORMAT"))
+                .addFields(field("GT", "FORMAT"))
+                .addFields(field("SB", "FORMAT"))
+                .addFields(field("PL", "FORMAT"))
+                .buildPartial();
+
+        Assert.assertEquals(GenomicsDBUtils.getFieldsToQuery(vidMapping, Collections.emptySet()),
+                Arrays.asList("REF", "ALT", "QUAL", "FILTER", "END", "MQ", "DP", "GT", "SB", "PL"));
+        // required fields and fields that are both INFO and FORMAT fields are never excluded
+        Assert.assertEquals(GenomicsDBUtils.getFieldsToQuery(vidMapping, new HashSet<>(Arrays.asList("MQ", "SB", "DP", "GT", "END", "LowQual"))),
+                Arrays.asList("REF", "ALT", "QUAL", "FILTER", "END", "DP", "GT", "PL"));
+
+        final GenomicsDBVidMapProto.VidMappingPB withId = vidMapping.toBuilder().addFields(field("ID", "INFO")).buildPartial();
+        Assert.assertEquals(GenomicsDBUtils.getFieldsToQuery(withId, Collections.singleton("PL")),
+                Arrays.asList("ID", "REF", "ALT", "QUAL", "FILTER", "END", "MQ", "DP", "GT", "SB"));
+    }
+}
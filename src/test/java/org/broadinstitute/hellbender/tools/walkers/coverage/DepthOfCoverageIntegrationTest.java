@@ -186,6 +186,88 @@ public class DepthOfCoverageIntegrationTest extends CommandLineProgramTest {
         }
     }
 
+    @Test
+    // Asserting that the binary per-locus output holds the same depths as the text output, and can be queried by interval.
+    // The region spans more than one index bin, so that queries have to seek to a later bin and decode from a reset.
+    public void testBinaryDepthOutputMatchesTable() throws IOException {
+        final File baseOutputFile = createTempDir("testBinaryDepthOutputMatchesTable");
+        final File textOutput = IOUtils.createTempFileInDirectory( "testBinaryDepthOutputText", ".csv", baseOutputFile);
+        final File binaryOutput = IOUtils.createTempFileInDirectory( "testBinaryDepthOutputBinary", ".csv", baseOutputFile);
+        final SimpleInterval region = new SimpleInterval("chr1", 1656275, 1677440);
+        Assert.assertTrue(region.size() > BinaryCoverageWriter.INDEX_BIN_SIZE);
+
+        for (final File output : Arrays.asList(textOutput, binaryOutput)) {
+            final ArgumentsBuilder args = new ArgumentsBuilder()
+                    .addReference(new File(hg38Reference))
+                    .addInput(new File(largeFileTestDir + "multiSampleSubsetted.bam"))
+                    .addInterval(region.toString())
+                    .add("partition-type", "sample")
+                    .add("partition-type", "readgroup")
+                    .add("omit-interval-statistics", true)
+                    .add("omit-locus-table", true)
+                    .add("omit-per-sample-statistics", true)
+                    .addOutput(output);
+            if (output == binaryOutput) {
+                args.add(DepthOfCoverage.BINARY_DEPTH_OUTPUT_LONG_NAME, true);
+            }
+            runCommandLine(args);
+        }
+
+        final List<String[]> textLines;
+        final List<String> textHeader;
+        try (final CSVReader textParser = new CSVReader(new FileReader(textOutput))) {
+            textHeader = Arrays.asList(textParser.readNext());
+            textLines = textParser.readAll();
+        }
+
+        try (final BinaryCoverageReader reader = new BinaryCoverageReader(IOUtils.getPath(binaryOutput.getAbsolutePath() + BinaryCoverageWriter.EXTENSION))) {
+            final List<String> columns = reader.getColumnNames();
+            final int firstDepthColumn = textHeader.indexOf("Depth_for_" + columns.get(0));
+            Assert.assertEquals(textHeader.subList(firstDepthColumn, textHeader.size()),
+                    columns.stream().map(c -> "Depth_for_" + c).collect(Collectors.toList()));
+
+            // expand the runs of the whole file back into loci
+            final List<String> binaryLines = new ArrayList<>();
+            reader.forEach(run -> {
+                for (int position = run.getStart(); position <= run.getEnd(); position++) {
+                    binaryLines.add(run.getContig() + ":" + position + "," + Arrays.stream(run.getDepths()).mapToObj(Integer::toString).collect(Collectors.joining(",")));
+                }
+            });
+            final List<String> expectedLines = textLines.stream()
+                    .map(line -> line[0] + "," + String.join(",", Arrays.asList(line).subList(firstDepthColumn, line.length)))
+                    .collect(Collectors.toList());
+            Assert.assertEquals(binaryLines, expectedLines);
+
+            // query sub-intervals in the first bin, starting mid-bin and crossing into the second bin, and in the last bin
+            final Map<String, String[]> textLinesByLocus = textLines.stream().collect(Collectors.toMap(line -> line[0], line -> line));
+            final int secondBinStart = region.getStart() + BinaryCoverageWriter.INDEX_BIN_SIZE;
+            assertQueryMatchesTable(reader, new SimpleInterval("chr1", region.getStart() + 500, region.getStart() + 510), textLinesByLocus, firstDepthColumn);
+            assertQueryMatchesTable(reader, new SimpleInterval("chr1", secondBinStart - 1000, secondBinStart + 1000), textLinesByLocus, firstDepthColumn);
+            assertQueryMatchesTable(reader, new SimpleInterval("chr1", region.getEnd() - 100, region.getEnd()), textLinesByLocus, firstDepthColumn);
+            Assert.assertFalse(reader.query(new SimpleInterval("chr2", 1, 100)).hasNext());
+        }
+    }
+
+    // Asserting that the runs returned by a query cover every locus of the query, with the depths of the text output
+    private static void assertQueryMatchesTable(final BinaryCoverageReader reader, final SimpleInterval query,
+                                                final Map<String, String[]> textLinesByLocus, final int firstDepthColumn) {
+        final Iterator<BinaryCoverageReader.CoverageRun> runs = reader.query(query);
+        Assert.assertTrue(runs.hasNext(), "No runs for " + query);
+        int position = query.getStart();
+        while (runs.hasNext()) {
+            final BinaryCoverageReader.CoverageRun run = runs.next();
+            Assert.assertTrue(run.overlaps(query));
+            for (; position <= Math.min(run.getEnd(), query.getEnd()); position++) {
+                Assert.assertTrue(position >= run.getStart());
+                final String[] line = textLinesByLocus.get("chr1:" + position);
+                for (int column = 0; column < run.getDepths().length; column++) {
+                    Assert.assertEquals(run.getDepth(column), Integer.parseInt(line[firstDepthColumn + column]), "Depths differ at chr1:" + position);
+                }
+            }
+        }
+        Assert.assertEquals(position, query.getEnd() + 1);
+    }
+
     private void compareOutputDirectories(final String expectedBaseName, final String actualFileBaseName, final File[] actual) throws IOException {
         List<File> expectedFiles = Arrays.stream(Objects.requireNonNull(getExpectedDataDir().listFiles())).filter(f -> f.getName().contains(expectedBaseName)).sorted().collect(Collectors.toList());
         List<File> actualFiles = Arrays.stream(actual).sorted().collect(Collectors.toList());
@@ -0,0 +1,238 @@
+package org.broadinstitute.hellbender.tools.walkers.coverage;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMReadGroupRecord;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.AlignmentContext;
+import org.broadinstitute.hellbender.utils.BaseUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.pileup.PileupElement;
+import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Tests that {@link PartitionedLocusCounts} and {@link DepthOfCoverageStats} accumulate the same counts and statistics
+ * as the map-based code they replaced.
+ */
+public class DepthOfCoverageStatsUnitTest extends GATKBaseTest {
+
+    // base quality range used by the tests comparing the counting code with the map-based code it replaced
+    private static final byte MIN_BASE_QUALITY = 10;
+    private static final byte MAX_BASE_QUALITY = 35;
+
+    @DataProvider
+    public Object[][] provideIncludeDeletions() {
+        return new Object[][] {{true}, {false}};
+    }
+
+    @Test
+    // Asserting that the per-locus base counts buffer holds the same counts as the map of partition -> identifier -> counts it replaced
+    public void testLocusCountsMatchMapBasedCounts() {
+        final SAMFileHeader header = createHeaderWithReadGroups();
+        final Map<DoCOutputType.Partition, List<String>> identifiersByPartition = makeIdentifiersByPartition(header);
+        final PartitionedLocusCounts counts = new PartitionedLocusCounts(identifiersByPartition.keySet(), identifiersByPartition);
+
+        final Random random = new Random(42);
+        for (int locus = 1; locus <= 200; locus++) {
+            final AlignmentContext context = createRandomAlignmentContext(header, locus, random);
+            CoverageUtils.fillBaseCountsByPartition(context, MIN_BASE_QUALITY, MAX_BASE_QUALITY, CoverageUtils.CountPileupType.COUNT_READS, header, counts);
+            final Map<DoCOutputType.Partition, Map<String, int[]>> expectedCounts = getMapBasedBaseCountsByPartition(context, identifiersByPartition.keySet(), header);
+
+            for (final DoCOutputType.Partition partition : identifiersByPartition.keySet()) {
+                final List<String> identifiers = identifiersByPartition.get(partition);
+                final Map<String, int[]> expectedCountsByIdentifier = expectedCounts.getOrDefault(partition, Collections.emptyMap());
+                for (int i = 0; i < identifiers.size(); i++) {
+                    Assert.assertEquals(counts.getCounts(partition)[i], expectedCountsByIdentifier.getOrDefault(identifiers.get(i), new int[PartitionedLocusCounts.NUMBER_OF_BASES]),
+                            "Counts differ for " + partition + " " + identifiers.get(i) + " at locus " + locus);
+                }
+            }
+        }
+    }
+
+    @Test(dataProvider = "provideIncludeDeletions")
+    // Asserting that the index-keyed coverage statistics match the map-based statistics they replaced
+    public void testCoverageStatsMatchMapBasedStats(final boolean includeDeletions) {
+        final SAMFileHeader header = createHeaderWithReadGroups();
+        final Map<DoCOutputType.Partition, List<String>> identifiersByPartition = makeIdentifiersByPartition(header);
+        final PartitionedLocusCounts counts = new PartitionedLocusCounts(identifiersByPartition.keySet(), identifiersByPartition);
+        final DepthOfCoveragePartitionedDataStore dataStore = new DepthOfCoveragePartitionedDataStore(identifiersByPartition.keySet(), 1, 20, 10,
+                includeDeletions, false, identifiersByPartition);
+        final int[] endpoints = CoverageUtils.calculateCoverageHistogramBinEndpoints(1, 20, 10);
+        final Map<DoCOutputType.Partition, MapBasedCoverageStats> expectedStatsByPartition = new EnumMap<>(DoCOutputType.Partition.class);
+        for (final DoCOutputType.Partition partition : identifiersByPartition.keySet()) {
+            expectedStatsByPartition.put(partition, new MapBasedCoverageStats(endpoints, includeDeletions, identifiersByPartition.get(partition)));
+        }
+
+        final Random random = new Random(42);
+        for (int locus = 1; locus <= 200; locus++) {
+            final AlignmentContext context = createRandomAlignmentContext(header, locus, random);
+            CoverageUtils.fillBaseCountsByPartition(context, MIN_BASE_QUALITY, MAX_BASE_QUALITY, CoverageUtils.CountPileupType.COUNT_READS, header, counts);
+            dataStore.addLocusData(counts);
+
+            final Map<DoCOutputType.Partition, Map<String, int[]>> mapBasedCounts = getMapBasedBaseCountsByPartition(context, identifiersByPartition.keySet(), header);
+            for (final DoCOutputType.Partition partition : identifiersByPartition.keySet()) {
+                expectedStatsByPartition.get(partition).update(mapBasedCounts.get(partition));
+            }
+        }
+
+        for (final DoCOutputType.Partition partition : identifiersByPartition.keySet()) {
+            final DepthOfCoverageStats stats = dataStore.getCoverageByAggregationType(partition);
+            final MapBasedCoverageStats expectedStats = expectedStatsByPartition.get(partition);
+            Assert.assertEquals(stats.getTotalLoci(), expectedStats.nLoci);
+            Assert.assertEquals(stats.getTotalCoverage(), expectedStats.totalDepthOfCoverage);
+            Assert.assertEquals(stats.getAllSamples(), expectedStats.histogramsBySample.keySet());
+            for (final String sample : identifiersByPartition.get(partition)) {
+                final int sampleIndex = stats.getSampleIndex(sample);
+                Assert.assertEquals(stats.getHistogram(sampleIndex), expectedStats.histogramsBySample.get(sample), "Histograms differ for " + partition + " " + sample);
+                Assert.assertEquals(stats.getTotal(sampleIndex), (long) expectedStats.totalsBySample.get(sample), "Totals differ for " + partition + " " + sample);
+                Assert.assertEquals(stats.getHistograms().get(sample), expectedStats.histogramsBySample.get(sample));
+            }
+            Assert.assertEquals(stats.getTotals(), expectedStats.totalsBySample);
+            Assert.assertTrue(Arrays.deepEquals(stats.getLocusCounts(), expectedStats.locusCoverageCounts), "Locus counts differ for " + partition);
+        }
+    }
+
+    // Read groups spread over samples, libraries, platforms and centers, so that every partition has several identifiers
+    private static SAMFileHeader createHeaderWithReadGroups() {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1000);
+        final List<SAMReadGroupRecord> readGroups = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            final SAMReadGroupRecord readGroup = new SAMReadGroupRecord("rg" + i);
+            readGroup.setSample("sample" + (i % 3));
+            readGroup.setLibrary("library" + (i % 2));
+            readGroup.setPlatform(i < 4 ? "ILLUMINA" : "PACBIO");
+            readGroup.setSequencingCenter("center" + (i / 3));
+            readGroup.setPlatformUnit("unit" + i);
+            readGroups.add(readGroup);
+        }
+        header.setReadGroups(readGroups);
+        return header;
+    }
+
+    // Sorted identifiers of every partition, as DepthOfCoverage makes them from the read header
+    private static Map<DoCOutputType.Partition, List<String>> makeIdentifiersByPartition(final SAMFileHeader header) {
+        final Map<DoCOutputType.Partition, List<String>> identifiersByPartition = new EnumMap<>(DoCOutputType.Partition.class);
+        for (final DoCOutputType.Partition partition : DoCOutputType.Partition.values()) {
+            identifiersByPartition.put(partition, header.getReadGroups().stream()
+                    .map(readGroup -> CoverageUtils.getTypeID(readGroup, partition))
+                    .distinct().sorted().collect(Collectors.toList()));
+        }
+        return identifiersByPartition;
+    }
+
+    // A pileup at the given locus of reads from random read groups, with random bases and qualities and some deletions
+    private static AlignmentContext createRandomAlignmentContext(final SAMFileHeader header, final int locus, final Random random) {
+        final SimpleInterval loc = new SimpleInterval(header.getSequence(0).getSequenceName(), locus + 1, locus + 1);
+        final List<GATKRead> reads = new ArrayList<>();
+        final int numReads = random.nextInt(30);
+        for (int i = 0; i < numReads; i++) {
+            final boolean deletion = random.nextInt(10) == 0;
+            final byte[] bases = new byte[deletion ? 2 : 3];
+            final byte[] quals = new byte[bases.length];
+            for (int b = 0; b < bases.length; b++) {
+                bases[b] = "ACGTN".getBytes()[random.nextInt(5)];
+                quals[b] = (byte) random.nextInt(41);
+            }
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read" + locus + "_" + i, 0, locus, bases, quals, deletion ? "1M1D1M" : "3M");
+            read.setReadGroup(header.getReadGroups().get(random.nextInt(header.getReadGroups().size())).getReadGroupId());
+            reads.add(read);
+        }
+        return new AlignmentContext(loc, new ReadPileup(loc, reads));
+    }
+
+    // The map-based per-locus counting that PartitionedLocusCounts replaced
+    private static Map<DoCOutputType.Partition, Map<String, int[]>> getMapBasedBaseCountsByPartition(final AlignmentContext context,
+                                                                                                     final Collection<DoCOutputType.Partition> types,
+                                                                                                     final SAMFileHeader header) {
+        final Map<String, int[]> countsByRGName = new HashMap<>();
+        final Map<String, SAMReadGroupRecord> RGByName = new HashMap<>();
+        for (final PileupElement e : context.getBasePileup()) {
+            if (!(e.getQual() >= MIN_BASE_QUALITY && e.getQual() <= MAX_BASE_QUALITY || e.isDeletion())) {
+                continue;
+            }
+            final SAMReadGroupRecord readGroup = ReadUtils.getSAMReadGroupRecord(e.getRead(), header);
+            final String uniqueReadGroupId = readGroup.getSample() + "_" + readGroup.getReadGroupId() + "_" + readGroup.getLibrary() + "_" + readGroup.getPlatformUnit();
+            final int[] counts = countsByRGName.computeIfAbsent(uniqueReadGroupId, id -> new int[6]);
+            RGByName.put(uniqueReadGroupId, readGroup);
+            if (e.isDeletion()) {
+                counts[BaseUtils.Base.D.ordinal()]++;
+            } else if (BaseUtils.basesAreEqual(BaseUtils.Base.N.base, e.getBase())) {
+                counts[BaseUtils.Base.N.ordinal()]++;
+            } else {
+                counts[BaseUtils.simpleBaseToBaseIndex(e.getBase())]++;
+            }
+        }
+
+        final Map<DoCOutputType.Partition, Map<String, int[]>> countsByIDByType = new HashMap<>();
+        for (final DoCOutputType.Partition t : types) {
+            for (final Map.Entry<String, int[]> readGroupCountEntry : countsByRGName.entrySet()) {
+                final String typeID = CoverageUtils.getTypeID(RGByName.get(readGroupCountEntry.getKey()), t);
+                final int[] typeCounts = countsByIDByType.computeIfAbsent(t, k -> new HashMap<>()).computeIfAbsent(typeID, k -> new int[6]);
+                for (int index = 0; index < typeCounts.length; index++) {
+                    typeCounts[index] += readGroupCountEntry.getValue()[index];
+                }
+            }
+        }
+        return countsByIDByType;
+    }
+
+    // The map-based per-sample statistics that the index-keyed DepthOfCoverageStats replaced
+    private static final class MapBasedCoverageStats {
+        private final int[] binLeftEndpoints;
+        private final boolean includeDeletions;
+        private final Map<String, long[]> histogramsBySample = new HashMap<>();
+        private final Map<String, Long> totalsBySample = new HashMap<>();
+        private final long[][] locusCoverageCounts;
+        private long nLoci = 0;
+        private long totalDepthOfCoverage = 0;
+
+        private MapBasedCoverageStats(final int[] binLeftEndpoints, final boolean includeDeletions, final List<String> samples) {
+            this.binLeftEndpoints = binLeftEndpoints;
+            this.includeDeletions = includeDeletions;
+            for (final String sample : samples) {
+                histogramsBySample.put(sample, new long[binLeftEndpoints.length + 1]);
+                totalsBySample.put(sample, 0L);
+            }
+            locusCoverageCounts = new long[samples.size()][binLeftEndpoints.length + 1];
+        }
+
+        private void update(final Map<String, int[]> countsBySample) {
+            final int[] locusHistogram = new int[binLeftEndpoints.length + 1];
+            for (final String sample : histogramsBySample.keySet()) {
+                int depth = 0;
+                if (countsBySample != null && countsBySample.containsKey(sample)) {
+                    for (final byte base : BaseUtils.BASES_EXTENDED) {
+                        if (includeDeletions || base != BaseUtils.Base.D.base) {
+                            depth += countsBySample.get(sample)[BaseUtils.extendedBaseToBaseIndex(base)];
+                        }
+                    }
+                }
+                totalsBySample.put(sample, totalsBySample.get(sample) + depth);
+                totalDepthOfCoverage += depth;
+
+                int bin = 0;
+                while (bin < binLeftEndpoints.length && depth >= binLeftEndpoints[bin]) {
+                    bin++;
+                }
+                histogramsBySample.get(sample)[bin]++;
+                for (int i = 0; i <= bin; i++) {
+                    locusHistogram[i]++;
+                }
+            }
+            for (int bin = 0; bin < locusHistogram.length; bin++) {
+                for (int i = 0; i < locusHistogram[bin]; i++) {
+                    locusCoverageCounts[i][bin]++;
+                }
+            }
+            nLoci++;
+        }
+    }
+}
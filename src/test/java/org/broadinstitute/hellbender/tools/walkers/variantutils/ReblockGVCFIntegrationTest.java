@@ -8,6 +8,8 @@ import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.broadinstitute.hellbender.testutils.CommandLineProgramTester;
 import org.broadinstitute.hellbender.testutils.IntegrationTestSpec;
@@ -17,6 +19,7 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -213,4 +216,35 @@ public class ReblockGVCFIntegrationTest extends CommandLineProgramTest {
         //we didn't ask to drop GQ0s, but they might get merged together
         Assert.assertEquals(inputVCs.stream().anyMatch(vc -> vc.getGenotype(0).getGQ() == 0), outputVCs.stream().anyMatch(vc -> vc.getGenotype(0).getGQ() == 0));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBatchMode() throws Exception {
+        final File output = createTempFile("reblockedgvcf", ".vcf");
+        final File batchOutput1 = createTempFile("reblockedgvcf.batch1", ".vcf");
+        final File batchOutput2 = createTempFile("reblockedgvcf.batch2", ".vcf");
+        final File batchMap = createTempFile("reblock.batch", ".txt");
+        Files.write(batchMap.toPath(), Arrays.asList(
+                getToolTestDataDir() + "prod.chr20snippet.withRawMQ.g.vcf\t" + batchOutput1.getAbsolutePath(),
+                getToolTestDataDir() + "nonRefAD.g.vcf\t" + batchOutput2.getAbsolutePath()));
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addReference(new File(hg38_reference_20_21))
+                .add("V", getToolTestDataDir() + "nonRefAD.g.vcf")
+                .add(ReblockGVCF.BATCH_MAP_LONG_NAME, batchMap)
+                .add(ReblockGVCF.BATCH_THREADS_LONG_NAME, 2)
+                .add(StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, false)
+                .addOutput(output);
+        runCommandLine(args);
+
+        IntegrationTestSpec.assertEqualTextFiles(output, new File(getToolTestDataDir() + "testNonRefADCorrection.expected.g.vcf"));
+        IntegrationTestSpec.assertEqualTextFiles(batchOutput1, new File(getToolTestDataDir() + "prod.chr20snippet.withRawMQ.expected.g.vcf"));
+        IntegrationTestSpec.assertEqualTextFiles(batchOutput2, new File(getToolTestDataDir() + "testNonRefADCorrection.expected.g.vcf"));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testMalformedBatchMap() throws Exception {
+        final File batchMap = createTempFile("reblock.batch", ".txt");
+        Files.write(batchMap.toPath(), Collections.singletonList(getToolTestDataDir() + "nonRefAD.g.vcf"));
+        ReblockGVCF.readBatchMap(new GATKPath(batchMap.getAbsolutePath()));
+    }
+}
@@ -1,15 +1,20 @@
 package org.broadinstitute.hellbender.tools.walkers.variantutils;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
 import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFHeader;
+import org.apache.commons.lang3.tuple.Pair;
 import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.Main;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
+import org.broadinstitute.hellbender.testutils.GenomicsDBTestUtils;
 import org.broadinstitute.hellbender.testutils.VariantContextTestUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.testng.Assert;
@@ -23,6 +28,10 @@ import shaded.cloud_nio.com.google.common.collect.Comparators;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.util.Collections;
 
 public class SelectVariantsIntegrationTest extends CommandLineProgramTest {
@@ -984,4 +993,129 @@ public class SelectVariantsIntegrationTest extends CommandLineProgramTest {
                 .addOutput(output);
         runCommandLine(args);
     }
+
+    private File selectFromGenomicsDB(final String genomicsDBUri, final SimpleInterval interval, final String... extraArgs) {
+        final File output = createTempFile("selectFromGenomicsDB", ".vcf");
+        final ArgumentsBuilder args = new ArgumentsBuilder()
+                .addVCF(genomicsDBUri)
+                .addReference(b38_reference_20_21)
+                .addInterval(interval)
+                .addOutput(output)
+                .add(StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, false);
+        for (int i = 0; i < extraArgs.length; i += 2) {
+            args.add(extraArgs[i], extraArgs[i + 1]);
+        }
+        runCommandLine(args);
+        return output;
+    }
+
+    // selecting samples by name queries only those samples from the GenomicsDB, while selecting them by expression
+    // reads every sample, so both must produce the same output
+    @Test
+    public void testSampleSelectionFromGenomicsDB() {
+        final SimpleInterval interval = new SimpleInterval("chr20", 17960187, 17981445);
+        final List<File> gvcfs = Arrays.asList(new File(largeFileTestDir + "gvcfs/HG00096.g.vcf.gz"),
+                new File(largeFileTestDir + "gvcfs/HG00268.g.vcf.gz"), new File(largeFileTestDir + "gvcfs/NA19625.g.vcf.gz"));
+        final String genomicsDBUri = GenomicsDBTestUtils.makeGenomicsDBUri(GenomicsDBTestUtils.createTempGenomicsDB(gvcfs, interval));
+
+        final File byName = selectFromGenomicsDB(genomicsDBUri, interval, "sample-name", "HG00268", "drop-genotype-annotation", "SB");
+        final File byExpression = selectFromGenomicsDB(genomicsDBUri, interval, "sample-expressions", "^HG00268$", "drop-genotype-annotation", "SB");
+
+        final Pair<VCFHeader, List<VariantContext>> actual = VariantContextTestUtils.readEntireVCFIntoMemory(byName.getAbsolutePath());
+        final Pair<VCFHeader, List<VariantContext>> expected = VariantContextTestUtils.readEntireVCFIntoMemory(byExpression.getAbsolutePath());
+        Assert.assertEquals(actual.getLeft().getGenotypeSamples(), Collections.singletonList("HG00268"));
+        Assert.assertFalse(expected.getRight().isEmpty());
+        VariantContextTestUtils.assertEqualVariants(actual.getRight(), expected.getRight());
+    }
+
+    @Test
+    public void testSitesOnlyFromGenomicsDB() {
+        final SimpleInterval interval = new SimpleInterval("chr20", 17960187, 17981445);
+        final List<File> gvcfs = Arrays.asList(new File(largeFileTestDir + "gvcfs/HG00096.g.vcf.gz"), new File(largeFileTestDir + "gvcfs/HG00268.g.vcf.gz"));
+        final String genomicsDBUri = GenomicsDBTestUtils.makeGenomicsDBUri(GenomicsDBTestUtils.createTempGenomicsDB(gvcfs, interval));
+
+        final File sitesOnly = selectFromGenomicsDB(genomicsDBUri, interval, StandardArgumentDefinitions.SITES_ONLY_LONG_NAME, "true");
+        final List<VariantContext> variants = VariantContextTestUtils.readEntireVCFIntoMemory(sitesOnly.getAbsolutePath()).getRight();
+        Assert.assertFalse(variants.isEmpty());
+        variants.forEach(vc -> Assert.assertEquals(vc.getNSamples(), 0));
+    }
+
+    @DataProvider(name = "siteTableSelections")
+    public Object[][] siteTableSelections() {
+        return new Object[][] {
+                {Arrays.asList("--select-type-to-include", "SNP")},
+                {Arrays.asList("--select-type-to-include", "INDEL", "--select-type-to-include", "MIXED")},
+                {Arrays.asList("--exclude-filtered", "-select", "AF > 0.45")},
+                {Arrays.asList("-select", "AF >= 0.5 && DoC > 25")},
+                {Arrays.asList("--restrict-alleles-to", "BIALLELIC", "-select", "DoC < 30 and SB < -1")},
+                {Arrays.asList("-select", "DoC > 25 || SB > -1")},
+                {Arrays.asList("-select", "DoC > 1000")},
+                {Arrays.asList("-sn", "NA00001", "-select", "AF > 0.45")},
+        };
+    }
+
+    // selecting with a site table must produce exactly the same output as selecting without one
+    @Test(dataProvider = "siteTableSelections")
+    public void testSelectWithSiteTable(final List<String> selection) {
+        final File input = new File(getToolTestDataDir() + "complexExample1.vcf");
+        final File siteTable = createTempFile("complexExample1", ".sites");
+        runCommandLine(new ArgumentsBuilder()
+                .addVCF(input)
+                .addOutput(siteTable)
+                .add(CreateVariantSiteTable.INFO_KEY_LONG_NAME, "AF")
+                .add(CreateVariantSiteTable.INFO_KEY_LONG_NAME, "DoC"), CreateVariantSiteTable.class.getSimpleName());
+
+        final File expected = createTempFile("withoutSiteTable", ".vcf");
+        final File actual = createTempFile("withSiteTable", ".vcf");
+        for (final File output : Arrays.asList(expected, actual)) {
+            final ArgumentsBuilder args = new ArgumentsBuilder()
+                    .addVCF(input)
+                    .addOutput(output)
+                    .add(StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, false);
+            selection.forEach(args::addRaw);
+            if (output == actual) {
+                args.add(SelectVariants.SITE_TABLE_LONG_NAME, siteTable);
+            }
+            runCommandLine(args);
+        }
+
+        VariantContextTestUtils.assertEqualVariants(
+                VariantContextTestUtils.readEntireVCFIntoMemory(actual.getAbsolutePath()).getRight(),
+                VariantContextTestUtils.readEntireVCFIntoMemory(expected.getAbsolutePath()).getRight());
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testSelectWithOutOfDateSiteTable() throws IOException {
+        final File input = createTempFile("input", ".vcf");
+        Files.copy(new File(getToolTestDataDir() + "complexExample1.vcf").toPath(), input.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        final File siteTable = createTempFile("input", ".sites");
+        runCommandLine(new ArgumentsBuilder().addVCF(input).addOutput(siteTable), CreateVariantSiteTable.class.getSimpleName());
+
+        Files.write(input.toPath(), Arrays.asList("1\t10048581\t.\tT\tA\t72.22\tPASS\tAF=0.50"), StandardOpenOption.APPEND);
+        runCommandLine(new ArgumentsBuilder()
+                .addVCF(input)
+                .addOutput(createTempFile("output", ".vcf"))
+                .add("select-type-to-include", "SNP")
+                .add(SelectVariants.SITE_TABLE_LONG_NAME, siteTable));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testSelectWithSiteTableOfModifiedInputOfSameSize() throws IOException {
+        final File input = createTempFile("input", ".vcf");
+        Files.copy(new File(getToolTestDataDir() + "complexExample1.vcf").toPath(), input.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        final File siteTable = createTempFile("input", ".sites");
+        runCommandLine(new ArgumentsBuilder().addVCF(input).addOutput(siteTable), CreateVariantSiteTable.class.getSimpleName());
+
+        // an edit that doesn't change the size of the input is detected by its modification time
+        final byte[] contents = Files.readAllBytes(input.toPath());
+        contents[contents.length - 2] = contents[contents.length - 2] == '0' ? (byte) '1' : (byte) '0';
+        final FileTime lastModified = Files.getLastModifiedTime(input.toPath());
+        Files.write(input.toPath(), contents);
+        Files.setLastModifiedTime(input.toPath(), FileTime.fromMillis(lastModified.toMillis() + 10000));
+        runCommandLine(new ArgumentsBuilder()
+                .addVCF(input)
+                .addOutput(createTempFile("output", ".vcf"))
+                .add("select-type-to-include", "SNP")
+                .add(SelectVariants.SITE_TABLE_LONG_NAME, siteTable));
+    }
 }
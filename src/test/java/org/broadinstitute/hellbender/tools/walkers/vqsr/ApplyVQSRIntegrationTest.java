@@ -90,6 +90,21 @@ public class ApplyVQSRIntegrationTest extends CommandLineProgramTest {
         spec.executeTest("testApplyVQSRSnpAndIndelTogether", this);
     }
 
+    @Test
+    public void testApplyVQSRSnpAndIndelTogetherStreamingRecalFile() throws IOException {
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                    " -L 20:1000100-1000500" +
+                    " -mode BOTH" +
+                    " --variant " + getToolTestDataDir() + "VQSR.mixedTest.input.vcf" +
+                    " --output %s" +
+                    " --tranches-file " + getToolTestDataDir() + "VQSR.mixedTest.tranches" +
+                    " --recal-file " + getToolTestDataDir() + "VQSR.mixedTest.recal.vcf" +
+                    " --" + ApplyVQSR.STREAM_RECAL_FILE_LONG_NAME +
+                    " --" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE +" false",
+                Arrays.asList(getToolTestDataDir() + "expected/applySNPAndIndelResult.vcf"));
+        spec.executeTest("testApplyVQSRSnpAndIndelTogetherStreamingRecalFile", this);
+    }
+
     @Test
     public void testApplyVQSRSnpAndIndelTogetherExcludeFiltered() throws Exception {
         ArgumentsBuilder args = new ArgumentsBuilder();
@@ -156,6 +171,25 @@ public class ApplyVQSRIntegrationTest extends CommandLineProgramTest {
         spec.executeTest("testApplyVQSRAlleleSpecificINDELmode", this);
     }
 
+    @Test
+    public void testApplyVQSRAlleleSpecificINDELmodeStreamingRecalFile() throws IOException {
+        final String base =
+                " -L 3:113005755-195507036" +
+                " -mode INDEL -AS" +
+                " -ts-filter-level 99.3" +
+                " --variant " + getToolTestDataDir() + "VQSR.AStest.postSNPinput.vcf" +
+                " --output %s" +
+                " --tranches-file " + getToolTestDataDir() + "VQSR.AStest.indels.tranches" +
+                " --recal-file " + getToolTestDataDir() + "VQSR.AStest.indels.recal.vcf" +
+                " --" + ApplyVQSR.STREAM_RECAL_FILE_LONG_NAME +
+                " --" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE +" false";
+
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                base,
+                Arrays.asList(getToolTestDataDir() + "expected/applyIndelAlleleSpecificResult.vcf"));
+        spec.executeTest("testApplyVQSRAlleleSpecificINDELmodeStreamingRecalFile", this);
+    }
+
     // This test verifies that we can write valid .gz/.tbi pair using a .gz input file with a large header.
     // Specifically, we want to make sure that index queries on the result return the first variants emitted into
     // the file, and that we don't encounter https://github.com/broadinstitute/gatk/issues/2821 and/or
@@ -17,7 +17,7 @@ public class VariantDataManagerUnitTest extends GATKBaseTest {
         final double passingQual = 400.0;
         final VariantRecalibratorArgumentCollection VRAC = new VariantRecalibratorArgumentCollection();
 
-        VariantDataManager vdm = new VariantDataManager(new ArrayList<String>(), VRAC);
+        VariantDataManager vdm = new VariantDataManager(Arrays.asList("A", "B", "C"), VRAC);
 
         final List<VariantDatum> theData = new ArrayList<>();
         final VariantDatum datum1 = new VariantDatum();
@@ -0,0 +1,153 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public final class VariantDatumAnnotationMatrixUnitTest extends GATKBaseTest {
+    private static final int NUM_ANNOTATIONS = 3;
+    private static final int NUM_GAUSSIANS = 4;
+
+    private static List<VariantDatum> makeData(final int numData) {
+        final Random random = new Random(42);
+        final List<VariantDatum> data = new ArrayList<>(numData);
+        for (int i = 0; i < numData; i++) {
+            final VariantDatum datum = new VariantDatum();
+            datum.annotations = new double[NUM_ANNOTATIONS];
+            datum.isNull = new boolean[NUM_ANNOTATIONS];
+            // two well separated clusters
+            final double offset = i % 2 == 0 ? -2.0 : 2.0;
+            for (int j = 0; j < NUM_ANNOTATIONS; j++) {
+                datum.annotations[j] = offset + random.nextGaussian();
+            }
+            data.add(datum);
+        }
+        return data;
+    }
+
+    @Test
+    public void testColumnMajorLayout() {
+        final List<VariantDatum> data = makeData(10);
+        final VariantDatumAnnotationMatrix matrix = new VariantDatumAnnotationMatrix(data, 3);
+        Assert.assertEquals(matrix.getNumData(), 10);
+        Assert.assertEquals(matrix.getNumAnnotations(), NUM_ANNOTATIONS);
+        Assert.assertEquals(matrix.getNumBlocks(), 4);
+        Assert.assertEquals(matrix.getBlockStart(3), 9);
+        Assert.assertEquals(matrix.getBlockEnd(3), 10);
+
+        final double[] buffer = new double[NUM_ANNOTATIONS];
+        for (int i = 0; i < data.size(); i++) {
+            matrix.copyAnnotations(i, buffer);
+            Assert.assertEquals(buffer, data.get(i).annotations);
+            for (int j = 0; j < NUM_ANNOTATIONS; j++) {
+                Assert.assertEquals(matrix.get(i, j), data.get(i).annotations[j]);
+            }
+        }
+    }
+
+    @Test
+    public void testMapBlocksPreservesBlockOrder() {
+        final VariantDatumAnnotationMatrix matrix = new VariantDatumAnnotationMatrix(makeData(1000), 7);
+        final ForkJoinPool threadPool = new ForkJoinPool(4);
+        try {
+            final List<Integer> starts = matrix.mapBlocks(threadPool, matrix::getBlockStart);
+            Assert.assertEquals(starts.size(), matrix.getNumBlocks());
+            for (int block = 0; block < starts.size(); block++) {
+                Assert.assertEquals(starts.get(block).intValue(), block * 7);
+            }
+        } finally {
+            threadPool.shutdownNow();
+        }
+    }
+
+    private static GaussianMixtureModel trainModel(final List<VariantDatum> data, final int numThreads) {
+        Utils.resetRandomGenerator();
+        final GaussianMixtureModel model = new GaussianMixtureModel(NUM_GAUSSIANS, data.size(), NUM_ANNOTATIONS, 1.0, 0.001, 20.0);
+        final VariantDatumAnnotationMatrix matrix = new VariantDatumAnnotationMatrix(data, 64);
+        final ForkJoinPool threadPool = numThreads > 1 ? new ForkJoinPool(numThreads) : null;
+        try {
+            model.initializeRandomModel(matrix, 10, threadPool);
+            model.normalizePMixtureLog10();
+            model.expectationStep(matrix, threadPool);
+            for (int iteration = 0; iteration < 10; iteration++) {
+                model.maximizationStep(matrix, threadPool);
+                model.normalizePMixtureLog10();
+                model.expectationStep(matrix, threadPool);
+            }
+            model.evaluateFinalModelParameters(matrix, threadPool);
+        } finally {
+            if (threadPool != null) {
+                threadPool.shutdownNow();
+            }
+        }
+        return model;
+    }
+
+    @Test
+    public void testTrainingIsReproducibleAcrossThreadCounts() {
+        final List<VariantDatum> data = makeData(2000);
+        final GaussianMixtureModel singleThreaded = trainModel(data, 1);
+        for (final int numThreads : new int[]{2, 4}) {
+            final GaussianMixtureModel multiThreaded = trainModel(data, numThreads);
+            for (int k = 0; k < NUM_GAUSSIANS; k++) {
+                final MultivariateGaussian expected = singleThreaded.getModelGaussians().get(k);
+                final MultivariateGaussian actual = multiThreaded.getModelGaussians().get(k);
+                Assert.assertEquals(actual.pMixtureLog10, expected.pMixtureLog10);
+                Assert.assertEquals(actual.mu, expected.mu);
+                for (int i = 0; i < NUM_ANNOTATIONS; i++) {
+                    Assert.assertEquals(actual.sigma.getArray()[i], expected.sigma.getArray()[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMatrixTrainingMatchesListTraining() {
+        final List<VariantDatum> data = makeData(500);
+
+        Utils.resetRandomGenerator();
+        final GaussianMixtureModel listModel = new GaussianMixtureModel(NUM_GAUSSIANS, data.size(), NUM_ANNOTATIONS, 1.0, 0.001, 20.0);
+        listModel.initializeRandomModel(data, 10);
+        listModel.normalizePMixtureLog10();
+        listModel.expectationStep(data);
+        listModel.maximizationStep(data);
+        listModel.normalizePMixtureLog10();
+        listModel.expectationStep(data);
+        listModel.evaluateFinalModelParameters(data);
+
+        Utils.resetRandomGenerator();
+        final GaussianMixtureModel matrixModel = new GaussianMixtureModel(NUM_GAUSSIANS, data.size(), NUM_ANNOTATIONS, 1.0, 0.001, 20.0);
+        final VariantDatumAnnotationMatrix matrix = new VariantDatumAnnotationMatrix(data, 64);
+        final ForkJoinPool threadPool = new ForkJoinPool(2);
+        try {
+            matrixModel.initializeRandomModel(matrix, 10, threadPool);
+            matrixModel.normalizePMixtureLog10();
+            matrixModel.expectationStep(matrix, threadPool);
+            matrixModel.maximizationStep(matrix, threadPool);
+            matrixModel.normalizePMixtureLog10();
+            matrixModel.expectationStep(matrix, threadPool);
+            matrixModel.evaluateFinalModelParameters(matrix, threadPool);
+        } finally {
+            threadPool.shutdownNow();
+        }
+
+        // the summation order differs between the two implementations, so only require approximate agreement
+        for (int k = 0; k < NUM_GAUSSIANS; k++) {
+            final MultivariateGaussian expected = listModel.getModelGaussians().get(k);
+            final MultivariateGaussian actual = matrixModel.getModelGaussians().get(k);
+            Assert.assertEquals(actual.pMixtureLog10, expected.pMixtureLog10, 1e-8);
+            for (int j = 0; j < NUM_ANNOTATIONS; j++) {
+                Assert.assertEquals(actual.mu[j], expected.mu[j], 1e-8);
+                for (int i = 0; i < NUM_ANNOTATIONS; i++) {
+                    Assert.assertEquals(actual.sigma.get(i, j), expected.sigma.get(i, j), 1e-8);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.variant.variantcontext.Allele;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public final class VariantDatumTableUnitTest extends GATKBaseTest {
+
+    private static VariantDatum makeDatum(final String contig, final int start, final double[] annotations, final boolean[] isNull,
+                                          final boolean atTrainingSite, final boolean isAggregate) {
+        final VariantDatum datum = new VariantDatum();
+        datum.annotations = annotations;
+        datum.isNull = isNull;
+        datum.atTrainingSite = atTrainingSite;
+        datum.isAggregate = isAggregate;
+        datum.loc = contig == null ? null : new SimpleInterval(contig, start, start);
+        datum.lod = start / 10.0;
+        datum.prior = 3.0;
+        datum.worstAnnotation = -1;
+        return datum;
+    }
+
+    private static List<VariantDatum> makeData() {
+        final List<VariantDatum> data = new ArrayList<>();
+        data.add(makeDatum("2", 10, new double[]{1.0, 2.0, 3.0}, new boolean[]{false, false, false}, true, false));
+        data.add(makeDatum("1", 30, new double[]{4.0, 5.0, 6.0}, new boolean[]{false, true, false}, false, false));
+        data.add(makeDatum(null, 0, new double[]{7.0, 8.0, 9.0}, new boolean[]{true, false, false}, true, true));
+        data.add(makeDatum("1", 20, new double[]{10.0, 11.0, 12.0}, new boolean[]{false, false, true}, true, false));
+        return data;
+    }
+
+    private static void assertDatumEquals(final VariantDatum actual, final VariantDatum expected) {
+        Assert.assertEquals(actual.annotations, expected.annotations);
+        Assert.assertEquals(actual.isNull, expected.isNull);
+        Assert.assertEquals(actual.atTrainingSite, expected.atTrainingSite);
+        Assert.assertEquals(actual.isAggregate, expected.isAggregate);
+        Assert.assertEquals(actual.loc, expected.loc);
+        Assert.assertEquals(actual.lod, expected.lod);
+        Assert.assertEquals(actual.prior, expected.prior);
+        Assert.assertEquals(actual.worstAnnotation, expected.worstAnnotation);
+        Assert.assertEquals(actual.referenceAllele, expected.referenceAllele);
+        Assert.assertEquals(actual.alternateAllele, expected.alternateAllele);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        final List<VariantDatum> data = makeData();
+        data.get(0).referenceAllele = Allele.create("A", true);
+        data.get(0).alternateAllele = Allele.create("C", false);
+        // grow past the initial capacity
+        for (int i = 0; i < 5000; i++) {
+            data.add(makeDatum("3", i + 1, new double[]{i, -i, 0.5 * i}, new boolean[]{false, false, false}, i % 2 == 0, false));
+        }
+        final VariantDatumTable table = VariantDatumTable.fromData(data, 3);
+        Assert.assertEquals(table.size(), data.size());
+        for (int i = 0; i < data.size(); i++) {
+            assertDatumEquals(table.get(i), data.get(i));
+            Assert.assertEquals(table.isAtTrainingSite(i), data.get(i).atTrainingSite);
+            Assert.assertEquals(table.getLod(i), data.get(i).lod);
+        }
+    }
+
+    @Test
+    public void testReorderAnnotations() {
+        final List<VariantDatum> data = makeData();
+        final VariantDatumTable table = VariantDatumTable.fromData(data, 3);
+        table.reorderAnnotations(Arrays.asList(2, 0, 1));
+        for (int i = 0; i < data.size(); i++) {
+            for (int j = 0; j < 3; j++) {
+                final int original = Arrays.asList(2, 0, 1).get(j);
+                Assert.assertEquals(table.getAnnotation(i, j), data.get(i).annotations[original]);
+                Assert.assertEquals(table.isNull(i, j), data.get(i).isNull[original]);
+            }
+        }
+    }
+
+    @Test
+    public void testRemoveAggregateData() {
+        final List<VariantDatum> data = makeData();
+        final VariantDatumTable table = VariantDatumTable.fromData(data, 3);
+        table.removeAggregateData();
+        Assert.assertEquals(table.size(), 3);
+        assertDatumEquals(table.get(0), data.get(0));
+        assertDatumEquals(table.get(1), data.get(1));
+        assertDatumEquals(table.get(2), data.get(3));
+    }
+
+    @Test
+    public void testCoordinateSortOrder() {
+        final VariantDatumTable table = VariantDatumTable.fromData(makeData(), 3);
+        table.removeAggregateData();
+        final SAMSequenceDictionary dictionary = new SAMSequenceDictionary(Arrays.asList(
+                new SAMSequenceRecord("1", 1000), new SAMSequenceRecord("2", 1000)));
+        final int[] order = table.getCoordinateSortOrder(dictionary);
+        Assert.assertEquals(order, new int[]{2, 1, 0});
+    }
+
+    @Test
+    public void testDataManagerTableMatchesList() {
+        final VariantRecalibratorArgumentCollection VRAC = new VariantRecalibratorArgumentCollection();
+        final List<String> annotationKeys = Arrays.asList("A", "B", "C");
+
+        final VariantDataManager listManager = new VariantDataManager(annotationKeys, VRAC);
+        listManager.setData(makeData());
+        Utils.resetRandomGenerator();
+        listManager.normalizeData(true, null);
+
+        final VariantDataManager tableManager = new VariantDataManager(annotationKeys, VRAC);
+        tableManager.setData(VariantDatumTable.fromData(makeData(), 3));
+        Utils.resetRandomGenerator();
+        tableManager.normalizeData(true, null);
+
+        Assert.assertEquals(tableManager.getAnnotationKeys(), listManager.getAnnotationKeys());
+        Assert.assertEquals(tableManager.getMeanVector(), listManager.getMeanVector());
+        Assert.assertEquals(tableManager.getVarianceVector(), listManager.getVarianceVector());
+        final List<VariantDatum> listData = listManager.getData();
+        final List<VariantDatum> tableData = tableManager.getData();
+        Assert.assertEquals(tableData.size(), listData.size());
+        for (int i = 0; i < listData.size(); i++) {
+            assertDatumEquals(tableData.get(i), listData.get(i));
+            Assert.assertEquals(tableData.get(i).failingSTDThreshold, listData.get(i).failingSTDThreshold);
+        }
+
+        final List<VariantDatum> listTraining = listManager.getTrainingData();
+        final List<VariantDatum> tableTraining = tableManager.getTrainingData();
+        Assert.assertEquals(tableTraining.size(), listTraining.size());
+        for (int i = 0; i < listTraining.size(); i++) {
+            assertDatumEquals(tableTraining.get(i), listTraining.get(i));
+        }
+    }
+
+    private static List<VariantDatum> makeTrancheData() {
+        final Random random = new Random(13);
+        final List<VariantDatum> data = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            final VariantDatum datum = makeDatum("1", i + 1, new double[]{random.nextDouble(), random.nextDouble(), random.nextDouble()},
+                    new boolean[]{false, false, false}, random.nextInt(4) == 0, false);
+            // round the LODs so that there are many ties
+            datum.lod = Math.round(random.nextGaussian() * 20.0) / 4.0;
+            datum.isKnown = random.nextBoolean();
+            datum.atTruthSite = random.nextInt(3) == 0;
+            datum.atAntiTrainingSite = random.nextInt(5) == 0;
+            datum.isSNP = random.nextInt(4) != 0;
+            datum.isTransition = random.nextInt(3) != 0;
+            datum.failingSTDThreshold = random.nextInt(10) == 0;
+            data.add(datum);
+        }
+        return data;
+    }
+
+    @Test
+    public void testTranchesMatchVariantDatums() {
+        final List<VariantDatum> data = makeTrancheData();
+        final TrancheData trancheData = VariantDatumTable.fromData(data, 3).getTrancheData();
+        final int nCallsAtTruth = TrancheManager.countCallsAtTruth(data, Double.NEGATIVE_INFINITY);
+        Assert.assertEquals(trancheData.countCallsAtTruth(Double.NEGATIVE_INFINITY), nCallsAtTruth);
+
+        final List<Double> truthSensitivities = Arrays.asList(100.0, 99.9, 99.0, 90.0, 50.0);
+        Assert.assertEquals(
+                Tranche.tranchesString(TrancheManager.findTranches(trancheData, truthSensitivities, new TrancheManager.TruthSensitivityMetric(nCallsAtTruth), VariantRecalibratorArgumentCollection.Mode.SNP)),
+                Tranche.tranchesString(TrancheManager.findTranches(new ArrayList<>(data), truthSensitivities, new TrancheManager.TruthSensitivityMetric(nCallsAtTruth), VariantRecalibratorArgumentCollection.Mode.SNP)));
+
+        final List<Double> lods = Arrays.asList(-10.0, -2.5, 0.0, 3.75, 100.0);
+        Assert.assertEquals(
+                Tranche.tranchesString(TrancheManager.findVQSLODTranches(trancheData, lods, new TrancheManager.TruthSensitivityMetric(nCallsAtTruth), VariantRecalibratorArgumentCollection.Mode.SNP)),
+                Tranche.tranchesString(TrancheManager.findVQSLODTranches(new ArrayList<>(data), lods, new TrancheManager.TruthSensitivityMetric(nCallsAtTruth), VariantRecalibratorArgumentCollection.Mode.SNP)));
+    }
+
+    @Test
+    public void testRandomDataForPlottingMatchesVariantDatums() {
+        final VariantDataManager dataManager = new VariantDataManager(Arrays.asList("A", "B", "C"), new VariantRecalibratorArgumentCollection());
+        dataManager.setData(VariantDatumTable.fromData(makeTrancheData(), 3));
+        final VariantDatumTable table = dataManager.getDataTable();
+
+        final List<VariantDatum> trainingData = new ArrayList<>();
+        final List<VariantDatum> antiTrainingData = new ArrayList<>();
+        for (int i = 0; i < table.size(); i++) {
+            if (!table.isFailingSTDThreshold(i) && table.isAtTrainingSite(i)) {
+                trainingData.add(table.get(i));
+            }
+            if (!table.isFailingSTDThreshold(i) && table.isAtAntiTrainingSite(i)) {
+                antiTrainingData.add(table.get(i));
+            }
+        }
+        Utils.resetRandomGenerator();
+        final List<VariantDatum> expected = dataManager.getRandomDataForPlotting(100, trainingData, antiTrainingData, dataManager.getEvaluationData());
+
+        Utils.resetRandomGenerator();
+        final List<VariantDatum> actual = dataManager.getRandomDataForPlotting(100);
+        Assert.assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertDatumEquals(actual.get(i), expected.get(i));
+        }
+    }
+}
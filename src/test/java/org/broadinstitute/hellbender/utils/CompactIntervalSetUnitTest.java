@@ -0,0 +1,142 @@
+package org.broadinstitute.hellbender.utils;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.util.Interval;
+import htsjdk.samtools.util.IntervalList;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.*;
+
+public class CompactIntervalSetUnitTest extends GATKBaseTest {
+
+    private final SAMSequenceDictionary dictionary = ArtificialReadUtils.createArtificialSamHeader(3, 1, 1000).getSequenceDictionary();
+    private final GenomeLocParser parser = new GenomeLocParser(dictionary);
+
+    private CompactIntervalSet set(final IntervalMergingRule rule, final String... intervals) {
+        final CompactIntervalSet.Builder builder = new CompactIntervalSet.Builder(dictionary);
+        Arrays.stream(intervals).forEach(interval -> builder.add(new SimpleInterval(interval)));
+        return builder.build(rule);
+    }
+
+    private static List<SimpleInterval> intervals(final String... intervals) {
+        final List<SimpleInterval> result = new ArrayList<>();
+        Arrays.stream(intervals).forEach(interval -> result.add(new SimpleInterval(interval)));
+        return result;
+    }
+
+    @Test
+    public void testBuildSortsAndMerges() {
+        final CompactIntervalSet all = set(IntervalMergingRule.ALL, "2:5-10", "1:20-30", "1:1-10", "1:11-15", "1:25-40", "1:100-100");
+        Assert.assertEquals(all.toList(), intervals("1:1-15", "1:20-40", "1:100-100", "2:5-10"));
+        Assert.assertEquals(all.size(), 4);
+        Assert.assertEquals(all.coveredSize(), 15 + 21 + 1 + 6);
+
+        final CompactIntervalSet overlappingOnly = set(IntervalMergingRule.OVERLAPPING_ONLY, "1:11-15", "1:1-10", "1:12-20");
+        Assert.assertEquals(overlappingOnly.toList(), intervals("1:1-10", "1:11-20"));
+    }
+
+    @Test
+    public void testEmptyAndUnmapped() {
+        final CompactIntervalSet empty = new CompactIntervalSet.Builder(dictionary).build(IntervalMergingRule.ALL);
+        Assert.assertTrue(empty.isEmpty());
+        Assert.assertEquals(empty.coveredSize(), 0);
+
+        final CompactIntervalSet unmapped = CompactIntervalSet.fromGenomeLocs(dictionary, Collections.singletonList(GenomeLoc.UNMAPPED), IntervalMergingRule.ALL);
+        Assert.assertFalse(unmapped.isEmpty());
+        Assert.assertTrue(unmapped.includesUnmapped());
+        Assert.assertTrue(unmapped.toList().isEmpty());
+        Assert.assertTrue(unmapped.union(empty, IntervalMergingRule.ALL).includesUnmapped());
+        Assert.assertFalse(unmapped.intersect(empty, IntervalMergingRule.ALL).includesUnmapped());
+        Assert.assertFalse(unmapped.withoutUnmapped().includesUnmapped());
+    }
+
+    @Test
+    public void testPad() {
+        final CompactIntervalSet padded = set(IntervalMergingRule.ALL, "1:3-10", "1:20-30", "1:995-998", "2:100-200").pad(5);
+        Assert.assertEquals(padded.toList(), intervals("1:1-35", "1:990-1000", "2:95-205"));
+        Assert.assertSame(padded.pad(0), padded);
+    }
+
+    @Test
+    public void testUnion() {
+        final CompactIntervalSet a = set(IntervalMergingRule.ALL, "1:1-10", "1:50-60", "3:1-5");
+        final CompactIntervalSet b = set(IntervalMergingRule.ALL, "1:11-20", "1:55-70", "2:1-1");
+        Assert.assertEquals(a.union(b, IntervalMergingRule.ALL).toList(), intervals("1:1-20", "1:50-70", "2:1-1", "3:1-5"));
+        Assert.assertEquals(a.union(b, IntervalMergingRule.OVERLAPPING_ONLY).toList(), intervals("1:1-10", "1:11-20", "1:50-70", "2:1-1", "3:1-5"));
+    }
+
+    @Test
+    public void testIntersect() {
+        final CompactIntervalSet a = set(IntervalMergingRule.ALL, "1:1-10", "1:50-60", "3:1-5");
+        final CompactIntervalSet b = set(IntervalMergingRule.ALL, "1:5-55", "1:58-100", "2:1-1");
+        Assert.assertEquals(a.intersect(b, IntervalMergingRule.ALL).toList(), intervals("1:5-10", "1:50-55", "1:58-60"));
+        Assert.assertTrue(a.intersect(set(IntervalMergingRule.ALL, "2:1-100"), IntervalMergingRule.ALL).isEmpty());
+    }
+
+    @Test
+    public void testSubtract() {
+        final CompactIntervalSet a = set(IntervalMergingRule.ALL, "1:1-100", "1:200-300", "2:1-10");
+        final CompactIntervalSet b = set(IntervalMergingRule.ALL, "1:10-20", "1:30-40", "1:90-210", "1:250-250", "2:1-10");
+        Assert.assertEquals(a.subtract(b).toList(), intervals("1:1-9", "1:21-29", "1:41-89", "1:211-249", "1:251-300"));
+        Assert.assertEquals(a.subtract(set(IntervalMergingRule.ALL)), a);
+        Assert.assertTrue(a.subtract(CompactIntervalSet.fromSequenceDictionary(dictionary)).isEmpty());
+    }
+
+    @Test(expectedExceptions = UserException.MalformedGenomeLoc.class)
+    public void testUnknownContig() {
+        set(IntervalMergingRule.ALL, "nonexistent:1-10");
+    }
+
+    @DataProvider(name = "randomIntervals")
+    public Object[][] randomIntervals() {
+        final List<Object[]> tests = new ArrayList<>();
+        for ( final IntervalSetRule setRule : IntervalSetRule.values() ) {
+            for ( final IntervalMergingRule mergingRule : IntervalMergingRule.values() ) {
+                for ( final int padding : new int[] {0, 3} ) {
+                    tests.add(new Object[] {setRule, mergingRule, padding});
+                }
+            }
+        }
+        return tests.toArray(new Object[][]{});
+    }
+
+    /**
+     * loadIntervalSet and subtract must produce exactly the intervals produced by the GenomeLoc-based code they replace
+     */
+    @Test(dataProvider = "randomIntervals")
+    public void testMatchesGenomeLocSortedSet(final IntervalSetRule setRule, final IntervalMergingRule mergingRule, final int padding) {
+        final Random random = new Random(17);
+        final List<String> intervalStrings = Arrays.asList(
+                writeRandomIntervalList(random, 300).getAbsolutePath(),
+                writeRandomIntervalList(random, 300).getAbsolutePath());
+        final List<String> excludeStrings = Collections.singletonList(writeRandomIntervalList(random, 50).getAbsolutePath());
+
+        final GenomeLocSortedSet expected = IntervalUtils.loadIntervals(intervalStrings, setRule, mergingRule, padding, parser);
+        final CompactIntervalSet actual = IntervalUtils.loadIntervalSet(intervalStrings, setRule, mergingRule, padding, parser);
+        Assert.assertEquals(actual.toList(), IntervalUtils.convertGenomeLocsToSimpleIntervals(expected.toList()));
+
+        final GenomeLocSortedSet expectedExclude = IntervalUtils.loadIntervals(excludeStrings, IntervalSetRule.UNION, mergingRule, 0, parser);
+        final CompactIntervalSet actualExclude = IntervalUtils.loadIntervalSet(excludeStrings, IntervalSetRule.UNION, mergingRule, 0, parser);
+        Assert.assertEquals(actual.subtract(actualExclude).toList(), IntervalUtils.convertGenomeLocsToSimpleIntervals(expected.subtractRegions(expectedExclude).toList()));
+        Assert.assertEquals(actual.subtract(actualExclude).coveredSize(), expected.subtractRegions(expectedExclude).coveredSize());
+    }
+
+    private File writeRandomIntervalList(final Random random, final int numIntervals) {
+        final IntervalList intervalList = new IntervalList(dictionary);
+        for ( int i = 0; i < numIntervals; i++ ) {
+            final String contig = dictionary.getSequence(random.nextInt(dictionary.size())).getSequenceName();
+            final int start = 1 + random.nextInt(990);
+            intervalList.add(new Interval(contig, start, start + random.nextInt(10)));
+        }
+        // the GenomeLoc-based intersection is only correct for sorted, non-overlapping inputs
+        final File file = createTempFile("compactIntervalSet", ".interval_list");
+        intervalList.uniqued().write(file);
+        return file;
+    }
+}
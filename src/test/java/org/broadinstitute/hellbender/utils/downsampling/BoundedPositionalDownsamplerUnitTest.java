@@ -0,0 +1,160 @@
+package org.broadinstitute.hellbender.utils.downsampling;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadCoordinateComparator;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public class BoundedPositionalDownsamplerUnitTest extends GATKBaseTest {
+
+    private final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+
+    @DataProvider(name = "BoundedPositionalDownsamplerTestData")
+    public Object[][] boundedPositionalDownsamplerTestData() {
+        return new Object[][] {
+                // reads, max reads per alignment start, max reads per window, window size, expected number of reads kept per window
+                { createStackOfMappedReads(10, "1", 1), 5, 0, 100, Arrays.asList(5) },
+                { createStackOfMappedReads(10, "1", 1), 0, 5, 100, Arrays.asList(5) },
+                { createStackOfMappedReads(10, "1", 1), 20, 20, 100, Arrays.asList(10) },
+                { concat(createStackOfMappedReads(10, "1", 1), createStackOfMappedReads(10, "1", 2)), 5, 8, 100, Arrays.asList(8) },
+                { concat(createStackOfMappedReads(10, "1", 1), createStackOfMappedReads(10, "1", 2)), 5, 8, 1, Arrays.asList(5, 5) },
+                { concat(createStackOfMappedReads(10, "1", 1), createStackOfMappedReads(10, "1", 101)), 0, 4, 100, Arrays.asList(4, 4) },
+                { concat(createStackOfMappedReads(10, "1", 1), createStackOfMappedReads(10, "2", 1)), 3, 4, 100, Arrays.asList(3, 3) },
+                { concat(createStackOfMappedReads(3, "1", 1), createStackOfUnmappedReads(20)), 1, 2, 100, Arrays.asList(1, 20) },
+                { Collections.emptyList(), 1, 1, 100, Collections.emptyList() }
+        };
+    }
+
+    @Test(dataProvider = "BoundedPositionalDownsamplerTestData")
+    public void testBoundedPositionalDownsampler( final List<GATKRead> reads, final int maxReadsPerAlignmentStart, final int maxReadsPerWindow,
+                                                  final int windowSize, final List<Integer> expectedReadsPerWindow ) {
+        final ReadsDownsampler downsampler = new BoundedPositionalDownsampler(maxReadsPerAlignmentStart, maxReadsPerWindow, windowSize, BoundedPositionalDownsampler.DEFAULT_SEED, header);
+        Assert.assertTrue(downsampler.requiresCoordinateSortOrder());
+
+        final int bound = maxReadsPerAlignmentStart + maxReadsPerWindow;
+        final List<GATKRead> downsampledReads = new ArrayList<>();
+        for ( final GATKRead read : reads ) {
+            downsampler.submit(read);
+            downsampledReads.addAll(downsampler.consumeFinalizedItems());
+            Assert.assertTrue(downsampler.size() <= bound, "Downsampler holds more reads than its bound");
+        }
+        downsampler.signalEndOfInput();
+        Assert.assertFalse(downsampler.hasPendingItems());
+        Assert.assertNull(downsampler.peekPending());
+        downsampledReads.addAll(downsampler.consumeFinalizedItems());
+
+        Assert.assertEquals(downsampledReads.size(), expectedReadsPerWindow.stream().mapToInt(i -> i).sum());
+        Assert.assertEquals(reads.size() - downsampledReads.size(), downsampler.getNumberOfDiscardedItems());
+        for ( int i = 1; i < downsampledReads.size(); i++ ) {
+            Assert.assertTrue(ReadCoordinateComparator.compareCoordinates(downsampledReads.get(i - 1), downsampledReads.get(i), header) <= 0, "Downsampled reads are not sorted");
+        }
+
+        // the same reads should be kept when run through a downsampling iterator
+        final List<GATKRead> downsampledReadsFromIter = new ArrayList<>();
+        new ReadsDownsamplingIterator(reads.iterator(), new BoundedPositionalDownsampler(maxReadsPerAlignmentStart, maxReadsPerWindow, windowSize, BoundedPositionalDownsampler.DEFAULT_SEED, header))
+                .forEach(downsampledReadsFromIter::add);
+        Assert.assertEquals(downsampledReadsFromIter, downsampledReads);
+    }
+
+    @Test
+    public void testSelectionIsDeterministicAndKeepsMates() {
+        final List<GATKRead> reads = new ArrayList<>();
+        for ( int i = 0; i < 50; i++ ) {
+            // both reads of each pair start at the same position
+            reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + i, "1", 1, new byte[]{'A'}, new byte[]{30}));
+            reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + i, "1", 1, new byte[]{'A'}, new byte[]{30}));
+        }
+
+        final List<String> firstNames = downsampleNames(reads, 20, BoundedPositionalDownsampler.DEFAULT_SEED);
+        // submitting the stack in a different order must not change which reads are kept
+        final List<GATKRead> shuffled = new ArrayList<>(reads);
+        Collections.shuffle(shuffled, new Random(1));
+        Assert.assertEquals(new HashSet<>(downsampleNames(shuffled, 20, BoundedPositionalDownsampler.DEFAULT_SEED)), new HashSet<>(firstNames));
+
+        // mates are kept or discarded together
+        assertPairsKept(firstNames, 10);
+
+        // including when the limit would split a pair, in which case the pair is discarded
+        final List<String> oddLimitNames = downsampleNames(shuffled, 21, BoundedPositionalDownsampler.DEFAULT_SEED);
+        assertPairsKept(oddLimitNames, 10);
+        Assert.assertEquals(new HashSet<>(oddLimitNames), new HashSet<>(firstNames));
+
+        // a different seed selects different reads
+        Assert.assertNotEquals(new HashSet<>(downsampleNames(reads, 20, BoundedPositionalDownsampler.DEFAULT_SEED + 1)), new HashSet<>(firstNames));
+    }
+
+    private static void assertPairsKept( final List<String> names, final int expectedPairs ) {
+        final Map<String, Long> counts = new HashMap<>();
+        names.forEach(name -> counts.merge(name, 1L, Long::sum));
+        Assert.assertEquals(counts.size(), expectedPairs);
+        counts.values().forEach(count -> Assert.assertEquals(count.longValue(), 2L));
+    }
+
+    private List<String> downsampleNames( final List<GATKRead> reads, final int maxReadsPerAlignmentStart, final long seed ) {
+        final ReadsDownsampler downsampler = new BoundedPositionalDownsampler(maxReadsPerAlignmentStart, 0, 1, seed, header);
+        downsampler.submit(reads);
+        downsampler.signalEndOfInput();
+        final List<String> names = new ArrayList<>();
+        downsampler.consumeFinalizedItems().forEach(read -> names.add(read.getName()));
+        return names;
+    }
+
+    @Test
+    public void testSignalNoMoreReadsBefore() {
+        final ReadsDownsampler downsampler = new BoundedPositionalDownsampler(5, 0, 100, BoundedPositionalDownsampler.DEFAULT_SEED, header);
+        downsampler.submit(createStackOfMappedReads(10, "1", 1));
+        Assert.assertTrue(downsampler.hasPendingItems());
+        Assert.assertFalse(downsampler.hasFinalizedItems());
+
+        downsampler.signalNoMoreReadsBefore(ArtificialReadUtils.createArtificialRead(header, "foo", "1", 2, new byte[]{'A'}, new byte[]{30}));
+        Assert.assertFalse(downsampler.hasPendingItems());
+        Assert.assertTrue(downsampler.hasFinalizedItems());
+        Assert.assertEquals(downsampler.consumeFinalizedItems().size(), 5);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testUnsortedInput() {
+        final ReadsDownsampler downsampler = new BoundedPositionalDownsampler(5, 5, header);
+        downsampler.submit(createStackOfMappedReads(1, "1", 10));
+        downsampler.submit(createStackOfMappedReads(1, "1", 1));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNoLimits() {
+        new BoundedPositionalDownsampler(0, 0, header);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidWindowSize() {
+        new BoundedPositionalDownsampler(1, 1, 0, BoundedPositionalDownsampler.DEFAULT_SEED, header);
+    }
+
+    private List<GATKRead> createStackOfMappedReads( final int numReads, final String contig, final int startPosition ) {
+        final List<GATKRead> reads = new ArrayList<>();
+        for ( int i = 1; i <= numReads; ++i ) {
+            reads.add(ArtificialReadUtils.createArtificialRead(header, contig + ":" + startPosition + "_" + i, contig, startPosition, new byte[]{'A'}, new byte[]{30}));
+        }
+        return reads;
+    }
+
+    private List<GATKRead> createStackOfUnmappedReads( final int numReads ) {
+        final List<GATKRead> reads = new ArrayList<>();
+        for ( int i = 1; i <= numReads; ++i ) {
+            reads.add(ArtificialReadUtils.createArtificialUnmappedRead(header, new byte[]{'A'}, new byte[]{30}));
+        }
+        return reads;
+    }
+
+    @SafeVarargs
+    private static List<GATKRead> concat( final List<GATKRead>... stacks ) {
+        final List<GATKRead> reads = new ArrayList<>();
+        Arrays.stream(stacks).forEach(reads::addAll);
+        return reads;
+    }
+}
@@ -0,0 +1,159 @@
+package org.broadinstitute.hellbender.utils.locusiterator;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMReadGroupRecord;
+import htsjdk.samtools.TextCigarCodec;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.AlignmentContext;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.downsampling.DownsamplingMethod;
+import org.broadinstitute.hellbender.utils.pileup.PileupElement;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadCoordinateComparator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public final class ColumnarLocusIteratorUnitTest extends GATKBaseTest {
+
+    private static final String[] CIGARS = {"20M", "5S15M", "10M2I8M", "8M3D12M", "6M50N14M", "3H17M", "10M2D5M1I4M", "18M2S", "300M"};
+    private static final byte[] BASES = {'A', 'C', 'G', 'T', 'N'};
+
+    private static List<GATKRead> makeRandomReads(final SAMFileHeader header, final int numReads, final Random random) {
+        final List<GATKRead> reads = new ArrayList<>();
+        for (int i = 0; i < numReads; i++) {
+            final String cigar = CIGARS[random.nextInt(CIGARS.length)];
+            final int readLength = TextCigarCodec.decode(cigar).getReadLength();
+            final byte[] bases = new byte[readLength];
+            final byte[] quals = new byte[readLength];
+            for (int j = 0; j < readLength; j++) {
+                bases[j] = BASES[random.nextInt(BASES.length)];
+                quals[j] = (byte) random.nextInt(41);
+            }
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read" + i, random.nextInt(2), 1 + random.nextInt(400), bases, quals, cigar);
+            read.setIsReverseStrand(random.nextBoolean());
+            read.setMappingQuality(random.nextInt(61));
+            reads.add(read);
+        }
+        reads.sort(new ReadCoordinateComparator(header));
+        return reads;
+    }
+
+    private static List<String> describe(final ReadPileupView pileup) {
+        final List<String> elements = new ArrayList<>();
+        for (int i = 0; i < pileup.size(); i++) {
+            elements.add(pileup.describe(i));
+        }
+        Collections.sort(elements);
+        return elements;
+    }
+
+    // minimal common view over the two kinds of pileup so they can be compared element by element
+    private interface ReadPileupView {
+        int size();
+        String describe(int i);
+    }
+
+    private static ReadPileupView view(final AlignmentContext context) {
+        final List<PileupElement> elements = new ArrayList<>();
+        context.getBasePileup().forEach(elements::add);
+        return new ReadPileupView() {
+            @Override
+            public int size() { return elements.size(); }
+
+            @Override
+            public String describe(final int i) {
+                final PileupElement pe = elements.get(i);
+                return String.format("%c/%d/%d/%b/%b", (char) pe.getBase(), pe.getQual(), pe.getMappingQual(), pe.getRead().isReverseStrand(), pe.isDeletion());
+            }
+        };
+    }
+
+    private static ReadPileupView view(final ColumnarPileup pileup) {
+        return new ReadPileupView() {
+            @Override
+            public int size() { return pileup.size(); }
+
+            @Override
+            public String describe(final int i) {
+                return String.format("%c/%d/%d/%b/%b", (char) pileup.getBase(i), pileup.getQual(i), pileup.getMappingQual(i), pileup.isReverseStrand(i), pileup.isDeletion(i));
+            }
+        };
+    }
+
+    @Test
+    public void testMatchesLocusIteratorByState() {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader(2, 1, 1000);
+        final List<String> samples = Collections.singletonList(null);
+        final Random random = new Random(13);
+        for (final boolean includeDeletions : new boolean[]{true, false}) {
+            final List<GATKRead> reads = makeRandomReads(header, 500, random);
+            final LocusIteratorByState libs = new LocusIteratorByState(reads.iterator(), DownsamplingMethod.NONE, false, samples, header, includeDeletions);
+            final ColumnarLocusIterator columnar = new ColumnarLocusIterator(reads.iterator(), samples, header, includeDeletions);
+
+            int numLoci = 0;
+            while (libs.hasNext()) {
+                final AlignmentContext expected = libs.next();
+                Assert.assertTrue(columnar.hasNext(), "missing pileup at " + expected.getLocation());
+                final ColumnarPileup actual = columnar.next();
+                Assert.assertEquals(actual.getLocation(), new SimpleInterval(expected.getLocation()));
+                Assert.assertEquals(describe(view(actual)), describe(view(expected)), "at " + expected.getLocation());
+                Assert.assertEquals(actual.getBaseCounts(), expected.getBasePileup().getBaseCounts());
+                Assert.assertEquals(actual.getNumberOfDeletions(), expected.getBasePileup().getNumberOfElements(PileupElement::isDeletion));
+                numLoci++;
+            }
+            Assert.assertFalse(columnar.hasNext());
+            Assert.assertTrue(numLoci > 0);
+        }
+    }
+
+    @Test
+    public void testSampleIndices() {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1000);
+        final List<String> samples = Arrays.asList("sample1", "sample2");
+        for (int i = 0; i < samples.size(); i++) {
+            final SAMReadGroupRecord readGroup = new SAMReadGroupRecord("rg" + i);
+            readGroup.setSample(samples.get(i));
+            header.addReadGroup(readGroup);
+        }
+
+        final List<GATKRead> reads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read" + i, 0, 10, 5);
+            read.setReadGroup(i == 1 ? "rg1" : "rg0");
+            reads.add(read);
+        }
+
+        final ColumnarLocusIterator columnar = new ColumnarLocusIterator(reads.iterator(), samples, header, true);
+        final int[] counts = new int[4];
+        for (int position = 10; position < 15; position++) {
+            Assert.assertTrue(columnar.hasNext());
+            final ColumnarPileup pileup = columnar.next();
+            Assert.assertEquals(pileup.getPosition(), position);
+            Assert.assertEquals(pileup.size(), 3);
+            Assert.assertEquals(pileup.getSampleDepth(0), 2);
+            Assert.assertEquals(pileup.getSampleDepth(1), 1);
+            Assert.assertEquals(pileup.getSampleIndex(1), 1);
+            Arrays.fill(counts, 0);
+            pileup.addBaseCounts(1, 0, 0, counts);
+            Assert.assertEquals(Arrays.stream(counts).sum(), 1);
+        }
+        Assert.assertFalse(columnar.hasNext());
+    }
+
+    @Test(expectedExceptions = NoSuchElementException.class)
+    public void testIteratingBeyondElements() {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1000);
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read", 0, 1, 3);
+        final ColumnarLocusIterator columnar = new ColumnarLocusIterator(Collections.singletonList(read).iterator(),
+                Collections.singletonList(null), header, true);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(columnar.hasNext());
+            columnar.next();
+        }
+        Assert.assertFalse(columnar.hasNext());
+        columnar.next();
+    }
+}
@@ -10,6 +10,8 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
+import org.broadinstitute.hellbender.utils.genotyper.SampleList;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.GATKBaseTest;
@@ -137,6 +139,83 @@ public final class ReadPileupUnitTest extends GATKBaseTest {
 
     }
 
+    private static ReadPileup makeMultiSamplePileup(final SAMFileHeader header, final Locatable loc) {
+        final List<String> samples = Arrays.asList("sample1", "sample1", "sample2", null);
+        for (int s = 0; s < samples.size(); s++) {
+            final SAMReadGroupRecord readGroup = new SAMReadGroupRecord("rg" + s);
+            readGroup.setSample(samples.get(s));
+            header.addReadGroup(readGroup);
+        }
+        final byte[] bases = {'A', 'C', 'G', 'T', 'N'};
+        final List<GATKRead> reads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read" + i, 0, 1, 10);
+            read.setReadGroup("rg" + (i % 3 == 0 ? 3 : i % 4));
+            read.setBases(Utils.dupBytes(bases[i % bases.length], 10));
+            read.setMappingQuality(i * 3);
+            reads.add(read);
+        }
+        return new ReadPileup(loc, reads, 1);
+    }
+
+    @Test
+    public void testSplitBySampleMatchesGetPileupForSample() {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1000);
+        final ReadPileup pileup = makeMultiSamplePileup(header, loc);
+
+        final Map<String, ReadPileup> bySample = pileup.splitBySample(header, "unknown");
+        Assert.assertEquals(bySample.keySet(), new HashSet<>(Arrays.asList("sample1", "sample2", "unknown")));
+        Assert.assertEquals(bySample.get("sample1").getReads(), pileup.getPileupForSample("sample1", header).getReads());
+        Assert.assertEquals(bySample.get("sample2").getReads(), pileup.getPileupForSample("sample2", header).getReads());
+        Assert.assertEquals(bySample.get("unknown").getReads(), pileup.getPileupForSample(null, header).getReads());
+    }
+
+    @Test
+    public void testStratifyBySample() {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1000);
+        final ReadPileup pileup = makeMultiSamplePileup(header, loc);
+        final SampleList samples = new IndexedSampleList("sample2", "sample1", "absent");
+
+        final SampleStratifiedPileup stratified = pileup.stratifyBySample(header, samples);
+        final BitSet mask = pileup.fillFilterMask(pe -> pe.getMappingQual() >= 20, new BitSet());
+        final int[] counts = new int[4];
+        for (int s = 0; s < samples.numberOfSamples(); s++) {
+            final ReadPileup expected = pileup.getPileupForSample(samples.getSample(s), header);
+            Assert.assertEquals(stratified.size(s), expected.size());
+            Assert.assertEquals(stratified.getPileupForSample(s).getReads(), expected.getReads());
+            Assert.assertEquals(stratified.getNumberOfElements(s, pe -> pe.getMappingQual() >= 20),
+                    expected.getNumberOfElements(pe -> pe.getMappingQual() >= 20));
+            Assert.assertEquals(stratified.getNumberOfElements(s, mask, pe -> !pe.isDeletion()),
+                    expected.getNumberOfElements(pe -> pe.getMappingQual() >= 20 && !pe.isDeletion()));
+            Assert.assertEquals(stratified.getBaseCounts(s, null, counts), expected.getBaseCounts());
+            Assert.assertEquals(stratified.getBaseCounts(s, mask, counts),
+                    expected.makeFilteredPileup(pe -> pe.getMappingQual() >= 20).getBaseCounts());
+            for (int k = 0; k < stratified.size(s); k++) {
+                Assert.assertSame(stratified.get(s, k), pileup.get(stratified.getElementIndex(s, k)));
+            }
+        }
+        Assert.assertEquals(stratified.size(2), 0);
+    }
+
+    @Test
+    public void testFilterMaskBaseCounts() {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1000);
+        final ReadPileup pileup = makeMultiSamplePileup(header, loc);
+
+        final BitSet mask = pileup.fillFilterMask(pe -> pe.getMappingQual() >= 30, new BitSet());
+        for (int i = 0; i < pileup.size(); i++) {
+            Assert.assertEquals(mask.get(i), pileup.get(i).getMappingQual() >= 30);
+        }
+        final int[] expected = pileup.makeFilteredPileup(pe -> pe.getMappingQual() >= 30).getBaseCounts();
+        Assert.assertEquals(pileup.getBaseCounts(mask, new int[]{7, 7, 7, 7}), expected);
+        Assert.assertEquals(pileup.getBaseCounts(pe -> pe.getMappingQual() >= 30, new int[4]), expected);
+        Assert.assertEquals(pileup.getBaseCounts((BitSet) null, new int[4]), pileup.getBaseCounts());
+
+        // the mask is cleared before it is refilled
+        pileup.fillFilterMask(pe -> false, mask);
+        Assert.assertTrue(mask.isEmpty());
+    }
+
     @Test(expectedExceptions = UserException.ReadMissingReadGroup.class)
     public void testSplitBySampleMissingReadGroupException() throws Exception {
         final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1000);
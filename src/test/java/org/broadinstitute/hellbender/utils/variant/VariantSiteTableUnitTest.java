@@ -0,0 +1,160 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFConstants;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class VariantSiteTableUnitTest extends GATKBaseTest {
+    private static final Allele REF_A = Allele.create("A", true);
+    private static final Allele REF_AAAA = Allele.create("AAAA", true);
+
+    private static VariantContext site(final String contig, final int start, final Allele ref, final Allele alt, final Object af, final boolean filtered) {
+        final VariantContextBuilder builder = new VariantContextBuilder("test", contig, start, start + ref.length() - 1, Arrays.asList(ref, alt));
+        if (af != null) {
+            builder.attribute(VCFConstants.ALLELE_FREQUENCY_KEY, af);
+        }
+        return filtered ? builder.filter("LowQual").make() : builder.passFilters().make();
+    }
+
+    // blocks of 4 sites: [1:100-400], [1:500-800], [2:100-400], [2:500-1000]
+    private static List<VariantContext> sites() {
+        return Arrays.asList(
+                site("1", 100, REF_A, Allele.create("C"), "0.5", false),
+                site("1", 200, REF_A, Allele.create("C"), 0.001, false),
+                site("1", 300, REF_A, Allele.create("AT"), "0.2", false),
+                site("1", 400, REF_A, Allele.create("C"), 0.3, true),
+                site("1", 500, REF_A, Allele.create("C"), null, false),
+                site("1", 600, REF_A, Allele.create("C"), "0.002", false),
+                site("1", 700, REF_A, Allele.create("C"), "0.002", false),
+                site("1", 800, REF_A, Allele.create("C"), Arrays.asList("0.5", "0.1"), false),
+                site("2", 100, REF_A, Allele.create("C"), "0.003", false),
+                site("2", 200, REF_A, Allele.create("C"), "0.003", false),
+                site("2", 300, REF_A, Allele.create("C"), "0.003", false),
+                site("2", 400, REF_A, Allele.create("C"), "0.003", false),
+                site("2", 500, REF_A, Allele.create("C"), "0.003", true),
+                site("2", 1000, REF_AAAA, Allele.create("A"), "0.5", false));
+    }
+
+    private VariantSiteTable writeTable(final List<VariantContext> sites) {
+        final File file = createTempFile("variantSiteTable", VariantSiteTable.FILE_EXTENSION);
+        try (final VariantSiteTable.Writer writer = new VariantSiteTable.Writer(file.toPath(), 12345L, 67890L, Arrays.asList("AF", "DP"), 4)) {
+            sites.forEach(writer::add);
+        }
+        return VariantSiteTable.open(file.toPath());
+    }
+
+    private static List<SimpleInterval> intervals(final String... intervals) {
+        return Arrays.stream(intervals).map(SimpleInterval::new).collect(Collectors.toList());
+    }
+
+    @DataProvider(name = "criteria")
+    public Object[][] criteria() {
+        return new Object[][] {
+                {new VariantSiteTable.SiteCriteria().withTypes(EnumSet.of(VariantContext.Type.SNP)).withInfoComparison("AF", ">", 0.01), 0,
+                        intervals("1:100-100", "1:400-500", "1:800-800")},
+                {new VariantSiteTable.SiteCriteria().withTypes(EnumSet.of(VariantContext.Type.SNP)).withInfoComparison("AF", ">", 0.01), 2,
+                        intervals("1:100-800")},
+                {new VariantSiteTable.SiteCriteria().withoutFiltered().withInfoComparison("AF", ">", 0.01), 0,
+                        intervals("1:100-100", "1:300-300", "1:500-500", "1:800-800", "2:1000-1003")},
+                {new VariantSiteTable.SiteCriteria().withTypes(EnumSet.of(VariantContext.Type.INDEL)), 0,
+                        intervals("1:300-300", "2:1000-1003")},
+                {new VariantSiteTable.SiteCriteria().withInfoComparison("AF", "<=", 0.003).withInfoComparison("AF", ">=", 0.003), 0,
+                        intervals("1:500-500", "1:800-800", "2:100-500")},
+                // DP isn't set at any site, so it can't exclude any
+                {new VariantSiteTable.SiteCriteria().withInfoComparison("DP", ">", 10), 0,
+                        intervals("1:100-800", "2:100-1003")},
+                // QD isn't stored in the table
+                {new VariantSiteTable.SiteCriteria().withTypes(EnumSet.of(VariantContext.Type.INDEL)).withInfoComparison("QD", ">", 2), 0,
+                        intervals("1:300-300", "2:1000-1003")},
+                {new VariantSiteTable.SiteCriteria().withInfoComparison("AF", ">", 0.9), 0,
+                        intervals("1:500-500", "1:800-800")},
+        };
+    }
+
+    @Test(dataProvider = "criteria")
+    public void testFindSites(final VariantSiteTable.SiteCriteria criteria, final int maxSkippedSitesToMerge, final List<SimpleInterval> expected) {
+        try (final VariantSiteTable table = writeTable(sites())) {
+            Assert.assertEquals(table.findSites(criteria, maxSkippedSitesToMerge), expected);
+        }
+
+        // every site that passes the criteria must be in the intervals
+        final List<VariantContext> passing = sites().stream().filter(criteria::test).collect(Collectors.toList());
+        for (final VariantContext site : passing) {
+            Assert.assertTrue(expected.stream().anyMatch(interval -> interval.contains(site)), site.toString());
+        }
+    }
+
+    @Test
+    public void testTableContents() {
+        try (final VariantSiteTable table = writeTable(sites())) {
+            Assert.assertEquals(table.getSourceSize(), 12345L);
+            Assert.assertEquals(table.getSourceLastModified(), 67890L);
+            Assert.assertEquals(table.getInfoKeys(), Arrays.asList("AF", "DP"));
+            Assert.assertEquals(table.getNumSites(), sites().size());
+            Assert.assertTrue(new VariantSiteTable.SiteCriteria().isUnrestricted());
+            Assert.assertEquals(table.findSites(new VariantSiteTable.SiteCriteria(), 0), intervals("1:100-800", "2:100-1003"));
+        }
+        try (final VariantSiteTable table = writeTable(Collections.emptyList())) {
+            Assert.assertEquals(table.getNumSites(), 0);
+            Assert.assertTrue(table.findSites(new VariantSiteTable.SiteCriteria(), 0).isEmpty());
+        }
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testUnsortedSites() {
+        writeTable(Arrays.asList(site("1", 200, REF_A, Allele.create("C"), null, false), site("1", 100, REF_A, Allele.create("C"), null, false)));
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testNotASiteTable() throws IOException {
+        final File file = createTempFile("notASiteTable", VariantSiteTable.FILE_EXTENSION);
+        Files.write(file.toPath(), Collections.singletonList("this is not a site table, but it is long enough to have a header"));
+        VariantSiteTable.open(file.toPath());
+    }
+
+    @DataProvider(name = "selectExpressions")
+    public Object[][] selectExpressions() {
+        return new Object[][] {
+                {"AF > 0.01", true},
+                {"AF > 0.01 && DP >= 10", true},
+                {"AF>1e-3 and QD<2.5", true},
+                {"AF > 0.01 || DP > 10", false},
+                {"!(AF > 0.01)", false},
+                {"AF == 0.5", false},
+                {"AF != 0.5", false},
+                {"vc.isSNP()", false},
+                {"FOO > 'x'", false},
+                {"AF > 0.01 && vc.isSNP()", false},
+        };
+    }
+
+    @Test(dataProvider = "selectExpressions")
+    public void testWithSelectExpression(final String expression, final boolean understood) {
+        final VariantSiteTable.SiteCriteria criteria = new VariantSiteTable.SiteCriteria();
+        Assert.assertEquals(criteria.withSelectExpression(expression), understood);
+        Assert.assertEquals(criteria.isUnrestricted(), !understood);
+    }
+
+    @Test
+    public void testGetInfoValue() {
+        Assert.assertEquals(VariantSiteTable.getInfoValue(site("1", 1, REF_A, Allele.create("C"), "0.25", false), "AF"), 0.25);
+        Assert.assertEquals(VariantSiteTable.getInfoValue(site("1", 1, REF_A, Allele.create("C"), 3, false), "AF"), 3.0);
+        Assert.assertEquals(VariantSiteTable.getInfoValue(site("1", 1, REF_A, Allele.create("C"), Collections.singletonList("0.5"), false), "AF"), 0.5);
+        Assert.assertTrue(Double.isNaN(VariantSiteTable.getInfoValue(site("1", 1, REF_A, Allele.create("C"), "0.5,0.1", false), "AF")));
+        Assert.assertTrue(Double.isNaN(VariantSiteTable.getInfoValue(site("1", 1, REF_A, Allele.create("C"), ".", false), "AF")));
+        Assert.assertTrue(Double.isNaN(VariantSiteTable.getInfoValue(site("1", 1, REF_A, Allele.create("C"), null, false), "AF")));
+    }
+}